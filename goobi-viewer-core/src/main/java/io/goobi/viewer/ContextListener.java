@@ -39,6 +39,7 @@ import javax.servlet.annotation.WebListener;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import io.goobi.viewer.controller.AbstractConfiguration;
 import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.messages.ViewerResourceBundle;
@@ -142,11 +143,15 @@ public class ContextListener implements ServletContextListener {
     @Override
     public void contextDestroyed(ServletContextEvent sce) {
         try {
+            DataManager.getInstance().getUsageStatisticsRecorder().shutdown();
             DataManager.getInstance().getDao().shutdown();
             DataManager.getInstance().getThreadPoolManager().shutdown();
+            DataManager.getInstance().getIIIFSearchThreadPoolManager().shutdown();
+            DataManager.getInstance().getFulltextThreadPoolManager().shutdown();
             logger.info("Successfully stopped DAO");
         } catch (DAOException e) {
             logger.error("Error stopping DAO", e);
         }
+        AbstractConfiguration.shutdown();
     }
 }
@@ -0,0 +1,39 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.api.rest.bindings;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import javax.ws.rs.NameBinding;
+
+/**
+ * Binding for GET resources whose response depends only on the record's index data, the viewer configuration, the record's comments, crowdsourcing
+ * annotations and related CMS pages and the access rights of the client. Such responses get ETag and Last-Modified validators and conditional
+ * requests are answered with 304 (Not Modified) before the response is built. The resource must set the request attribute
+ * {@link io.goobi.viewer.api.rest.filters.FilterTools#ATTRIBUTE_PI} or have a "pi" path parameter. Resources that embed other database content must
+ * not use this binding, since changes to that content do not affect the validators.
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalGetBinding {
+}
@@ -0,0 +1,36 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.api.rest.bindings;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import javax.ws.rs.NameBinding;
+
+/**
+ * Binding for IIIF manifest resources whose serialized responses are kept in the {@link io.goobi.viewer.model.iiif.presentation.IIIFManifestCache}.
+ * The resource must set the request attribute {@link io.goobi.viewer.api.rest.filters.FilterTools#ATTRIBUTE_PI}.
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+public @interface IIIFManifestCacheBinding {
+}
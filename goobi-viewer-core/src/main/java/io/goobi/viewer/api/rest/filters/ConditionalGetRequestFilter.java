@@ -0,0 +1,163 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.api.rest.filters;
+
+import java.io.IOException;
+import java.util.Date;
+
+import javax.annotation.Priority;
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.ext.Provider;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.goobi.viewer.api.rest.bindings.ConditionalGetBinding;
+import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.controller.StringTools;
+import io.goobi.viewer.exceptions.DAOException;
+import io.goobi.viewer.exceptions.IndexUnreachableException;
+import io.goobi.viewer.exceptions.PresentationException;
+
+/**
+ * Derives ETag and Last-Modified validators for record based resources from the record's DATEUPDATED value, the configuration state, the version of
+ * the record's database content (see {@link io.goobi.viewer.controller.RecordContentVersions}) and the access context of the client. Conditional GET
+ * requests with an If-None-Match header matching the ETag are answered with 304 (Not Modified) before the resource method is called.
+ * If-Modified-Since alone is not evaluated, since Last-Modified does not reflect the access context. The validators are added to the response by
+ * {@link ConditionalGetResponseFilter}.
+ */
+@Provider
+@ConditionalGetBinding
+@Priority(FilterTools.PRIORITY_CONDITIONAL_GET)
+public class ConditionalGetRequestFilter implements ContainerRequestFilter {
+
+    private static final Logger logger = LogManager.getLogger(ConditionalGetRequestFilter.class);
+
+    /** Request context property holding the {@link EntityTag} of the current response. */
+    static final String PROPERTY_ENTITY_TAG = ConditionalGetRequestFilter.class.getName() + ".entityTag";
+    /** Request context property holding the last modification {@link Date} of the current response. */
+    static final String PROPERTY_LAST_MODIFIED = ConditionalGetRequestFilter.class.getName() + ".lastModified";
+
+    @Context
+    private HttpServletRequest servletRequest;
+    @Context
+    private Request request;
+
+    /** {@inheritDoc} */
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        if (!HttpMethod.GET.equals(requestContext.getMethod())) {
+            return;
+        }
+        String pi = (String) servletRequest.getAttribute(FilterTools.ATTRIBUTE_PI);
+        if (StringUtils.isBlank(pi)) {
+            pi = requestContext.getUriInfo().getPathParameters().getFirst("pi");
+        }
+        if (StringUtils.isBlank(pi)) {
+            return;
+        }
+
+        try {
+            long dateUpdated = FilterTools.getRecordDateUpdated(pi, servletRequest);
+            if (dateUpdated == 0) {
+                // Record not found or not yet indexed; let the resource handle it
+                return;
+            }
+            String accessContextKey = FilterTools.getAccessContextKey(servletRequest);
+            if (accessContextKey == null) {
+                return;
+            }
+            long configTimestamp = DataManager.getInstance().getConfiguration().getSnapshotTimestamp();
+            long contentVersion = DataManager.getInstance().getRecordContentVersions().getVersion(pi);
+            // Some resources are localized according to the request locale
+            String representation = requestContext.getUriInfo().getRequestUri() + "|" + requestContext.getHeaderString(HttpHeaders.ACCEPT_LANGUAGE);
+            EntityTag entityTag = buildEntityTag(pi, dateUpdated, configTimestamp, contentVersion, accessContextKey, representation);
+            // HTTP dates have a resolution of one second
+            Date lastModified = new Date(Math.max(Math.max(dateUpdated, configTimestamp), contentVersion) / 1000 * 1000);
+
+            Response notModified = evaluatePreconditions(request, entityTag, lastModified);
+            if (notModified != null) {
+                logger.trace("Not modified: {}", requestContext.getUriInfo().getRequestUri());
+                requestContext.abortWith(notModified);
+                return;
+            }
+            requestContext.setProperty(PROPERTY_ENTITY_TAG, entityTag);
+            requestContext.setProperty(PROPERTY_LAST_MODIFIED, lastModified);
+        } catch (PresentationException | IndexUnreachableException | DAOException e) {
+            logger.warn("Unable to determine validators for record {}: {}", pi, e.getMessage());
+        }
+    }
+
+    /**
+     * Evaluates the If-None-Match header of the given request against the given entity tag. The If-Modified-Since header is ignored, since the
+     * last modification date is the same for all access contexts.
+     *
+     * @param request Current request
+     * @param entityTag Entity tag of the current resource state
+     * @param lastModified Last modification date of the current resource state
+     * @return 304 response including the validators if the client's representation is current; null otherwise
+     * @should return not modified if entity tag matches
+     * @should return null if entity tag does not match
+     * @should return null if only modification date matches
+     * @should return null if modification date matches but entity tag does not
+     */
+    static Response evaluatePreconditions(Request request, EntityTag entityTag, Date lastModified) {
+        ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+        if (notModified == null) {
+            return null;
+        }
+        return notModified.tag(entityTag).lastModified(lastModified).build();
+    }
+
+    /**
+     * Builds a strong entity tag for the given resource state.
+     *
+     * @param pi Record identifier
+     * @param dateUpdated Latest DATEUPDATED value of the record
+     * @param configTimestamp Configuration state (see {@link io.goobi.viewer.controller.AbstractConfiguration#getSnapshotTimestamp()})
+     * @param contentVersion Version of the record's database content (see
+     *            {@link io.goobi.viewer.controller.RecordContentVersions#getVersion(String)})
+     * @param accessContextKey Access context of the client
+     * @param representation Request properties that select the representation (URI including query parameters, language)
+     * @return {@link EntityTag}
+     * @should return same tag for same state
+     * @should return different tag if record updated
+     * @should return different tag if configuration changed
+     * @should return different tag if database content changed
+     * @should return different tag for different access context
+     */
+    static EntityTag buildEntityTag(String pi, long dateUpdated, long configTimestamp, long contentVersion, String accessContextKey,
+            String representation) {
+        return new EntityTag(StringTools.generateHash(
+                pi + '|' + dateUpdated + '|' + configTimestamp + '|' + contentVersion + '|' + accessContextKey + '|' + representation));
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.api.rest.filters;
+
+import java.io.IOException;
+import java.util.Date;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.ext.Provider;
+
+import io.goobi.viewer.api.rest.bindings.ConditionalGetBinding;
+
+/**
+ * Adds the validators determined by {@link ConditionalGetRequestFilter} to successful responses. Responses may be stored by the client, but must be
+ * revalidated before reuse.
+ */
+@Provider
+@ConditionalGetBinding
+public class ConditionalGetResponseFilter implements ContainerResponseFilter {
+
+    /** {@inheritDoc} */
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) throws IOException {
+        if (response.getStatus() != Status.OK.getStatusCode()) {
+            return;
+        }
+        Object entityTag = request.getProperty(ConditionalGetRequestFilter.PROPERTY_ENTITY_TAG);
+        Object lastModified = request.getProperty(ConditionalGetRequestFilter.PROPERTY_LAST_MODIFIED);
+        if (entityTag instanceof EntityTag && lastModified instanceof Date) {
+            response.getHeaders().putSingle(HttpHeaders.ETAG, entityTag);
+            response.getHeaders().putSingle(HttpHeaders.LAST_MODIFIED, lastModified);
+            // Overrides the no-store policy of HttpResponseFilter; the response depends on the access rights of the client
+            response.getHeaders().putSingle(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        }
+    }
+}
@@ -22,11 +22,13 @@
 package io.goobi.viewer.api.rest.filters;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
+import javax.ws.rs.Priorities;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.solr.common.SolrDocument;
@@ -39,12 +41,17 @@ import de.unigoettingen.sub.commons.contentlib.exceptions.ServiceNotImplementedE
 import de.unigoettingen.sub.commons.contentlib.imagelib.transform.Scale;
 import io.goobi.viewer.controller.Configuration;
 import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.controller.NetTools;
 import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.exceptions.IndexUnreachableException;
 import io.goobi.viewer.exceptions.PresentationException;
 import io.goobi.viewer.exceptions.RecordLimitExceededException;
 import io.goobi.viewer.exceptions.RecordNotFoundException;
+import io.goobi.viewer.model.search.SearchHelper;
 import io.goobi.viewer.model.security.AccessConditionUtils;
+import io.goobi.viewer.model.security.IPrivilegeHolder;
+import io.goobi.viewer.model.security.clients.ClientApplicationManager;
+import io.goobi.viewer.model.security.user.User;
 import io.goobi.viewer.solr.SolrConstants;
 import io.goobi.viewer.solr.SolrTools;
 
@@ -56,8 +63,14 @@ public final class FilterTools {
     public static final String ATTRIBUTE_FILENAME = "filename";
     public static final String ATTRIBUTE_LOGID = "logid";
     public static final String ATTRIBUTE_PAGENO = "pageno";
+    /** Request attribute holding the result of {@link #getRecordDateUpdated(String, HttpServletRequest)}. */
+    public static final String ATTRIBUTE_DATE_UPDATED = "dateupdated";
 
     public static final int PRIORITY_REDIRECT = 100;
+    /** Conditional GET requests are evaluated after all access checks. */
+    public static final int PRIORITY_CONDITIONAL_GET = Priorities.USER + 100;
+    /** Cached manifests are served after conditional GET requests have been evaluated. */
+    public static final int PRIORITY_MANIFEST_CACHE = Priorities.USER + 200;
 
     /**
      * Private constructor.
@@ -117,6 +130,55 @@ public final class FilterTools {
         }
     }
 
+    /**
+     * Returns the latest DATEUPDATED value of the given record. The value is stored in the request, so that the index is only queried once per
+     * request.
+     *
+     * @param pi Record identifier
+     * @param request
+     * @return Latest DATEUPDATED value of the given record; 0 if record not found
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    public static long getRecordDateUpdated(String pi, HttpServletRequest request) throws PresentationException, IndexUnreachableException {
+        Object stored = request != null ? request.getAttribute(ATTRIBUTE_DATE_UPDATED) : null;
+        if (stored instanceof Long l) {
+            return l;
+        }
+        SolrDocument doc = DataManager.getInstance()
+                .getSearchIndex()
+                .getFirstDoc(SolrConstants.PI + ":\"" + pi + '"', Collections.singletonList(SolrConstants.DATEUPDATED));
+        long ret = 0;
+        Collection<Object> values = doc != null ? doc.getFieldValues(SolrConstants.DATEUPDATED) : null;
+        if (values != null) {
+            for (Object value : values) {
+                if (value instanceof Long l && l > ret) {
+                    ret = l;
+                }
+            }
+        }
+        if (request != null) {
+            request.setAttribute(ATTRIBUTE_DATE_UPDATED, ret);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns a key that is identical for all requests with the same access rights (see
+     * {@link SearchHelper#buildAccessContextKey(User, String, java.util.Optional, String)}). Doesn't create a session.
+     *
+     * @param request
+     * @return Access context key; null if the access context cannot be determined
+     * @throws DAOException
+     */
+    public static String getAccessContextKey(HttpServletRequest request) throws DAOException {
+        HttpSession session = request.getSession(false);
+        User user = session != null ? (User) session.getAttribute("user") : null;
+        return SearchHelper.buildAccessContextKey(user, NetTools.getIpAddress(request), ClientApplicationManager.getClientFromSession(session),
+                IPrivilegeHolder.PRIV_LIST);
+    }
+
     /**
      * <p>
      * Check if the request contains a size and region parameter (and is this a IIIF image request) and if so wether they describe a request for a
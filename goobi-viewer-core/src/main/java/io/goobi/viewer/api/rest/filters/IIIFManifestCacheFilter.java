@@ -0,0 +1,190 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.api.rest.filters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.Priority;
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+import org.apache.commons.io.output.TeeOutputStream;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.goobi.viewer.api.rest.bindings.IIIFManifestCacheBinding;
+import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.exceptions.DAOException;
+import io.goobi.viewer.exceptions.IndexUnreachableException;
+import io.goobi.viewer.exceptions.PresentationException;
+import io.goobi.viewer.model.iiif.presentation.IIIFManifestCache;
+import io.goobi.viewer.model.iiif.presentation.IIIFManifestCache.CachedManifest;
+
+/**
+ * Serves IIIF manifests from the {@link IIIFManifestCache} and adds newly built manifests to it. If the manifest for a request is not cached, the
+ * request claims the cache key; concurrent requests for the same key wait for that build instead of building the manifest themselves. The built
+ * manifest is captured while it is serialized, i.e. after all response filters (such as {@link IIIFPresentationResponseFilter}) have been applied.
+ */
+@Provider
+@IIIFManifestCacheBinding
+@Priority(FilterTools.PRIORITY_MANIFEST_CACHE)
+public class IIIFManifestCacheFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+    private static final Logger logger = LogManager.getLogger(IIIFManifestCacheFilter.class);
+
+    /** Maximum time in seconds to wait for a manifest being built by another request before building it directly. */
+    private static final long BUILD_WAIT_TIMEOUT = 5;
+
+    /** Request context property holding the claimed cache key. */
+    static final String PROPERTY_KEY = IIIFManifestCacheFilter.class.getName() + ".key";
+    /** Request context property holding the record identifier for the claimed key. */
+    static final String PROPERTY_PI = IIIFManifestCacheFilter.class.getName() + ".pi";
+
+    @Context
+    private HttpServletRequest servletRequest;
+
+    /** {@inheritDoc} */
+    @Override
+    public void filter(ContainerRequestContext request) throws IOException {
+        IIIFManifestCache cache = DataManager.getInstance().getManifestCache();
+        String pi = (String) servletRequest.getAttribute(FilterTools.ATTRIBUTE_PI);
+        if (cache == null || StringUtils.isBlank(pi) || !HttpMethod.GET.equals(request.getMethod())) {
+            return;
+        }
+
+        try {
+            long dateUpdated = FilterTools.getRecordDateUpdated(pi, servletRequest);
+            String accessContextKey = FilterTools.getAccessContextKey(servletRequest);
+            if (dateUpdated == 0 || accessContextKey == null) {
+                return;
+            }
+            String key = IIIFManifestCache.buildKey(pi, request.getUriInfo().getRequestUri().toString(), String.valueOf(servletRequest.getLocale()),
+                    accessContextKey, dateUpdated, DataManager.getInstance().getConfiguration().getSnapshotTimestamp());
+
+            CachedManifest manifest = cache.get(key);
+            if (manifest == null) {
+                CompletableFuture<CachedManifest> building = cache.claim(pi, key);
+                if (building == null) {
+                    // This request builds the manifest
+                    request.setProperty(PROPERTY_KEY, key);
+                    request.setProperty(PROPERTY_PI, pi);
+                    return;
+                }
+                manifest = await(building, pi);
+            }
+            if (manifest != null) {
+                request.abortWith(Response.ok(manifest.getData()).header(HttpHeaders.CONTENT_TYPE, manifest.getMediaType()).build());
+            }
+        } catch (PresentationException | IndexUnreachableException | DAOException e) {
+            logger.warn("Unable to use manifest cache for {}: {}", pi, e.getMessage());
+        } catch (IOException e) {
+            // Cached file has been removed in the meantime; build the manifest
+            logger.debug("Unable to read cached manifest for {}: {}", pi, e.getMessage());
+        }
+    }
+
+    /**
+     * Waits for a manifest being built by another request.
+     *
+     * @param building
+     * @param pi
+     * @return Built manifest; null if the build failed or took too long
+     */
+    private static CachedManifest await(CompletableFuture<CachedManifest> building, String pi) {
+        try {
+            return building.get(BUILD_WAIT_TIMEOUT, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Waiting for manifest of {} failed, building it again", pi);
+        }
+        return null;
+    }
+
+    /**
+     * Releases the claim if the response is not a regular manifest.
+     */
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) throws IOException {
+        String key = (String) request.getProperty(PROPERTY_KEY);
+        if (key != null && (response.getStatus() != Status.OK.getStatusCode() || !response.hasEntity())) {
+            request.removeProperty(PROPERTY_KEY);
+            release(key);
+        }
+    }
+
+    /**
+     * Captures the serialized manifest and adds it to the cache.
+     */
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        String key = (String) context.getProperty(PROPERTY_KEY);
+        IIIFManifestCache cache = DataManager.getInstance().getManifestCache();
+        if (key == null || cache == null) {
+            context.proceed();
+            return;
+        }
+
+        OutputStream out = context.getOutputStream();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        context.setOutputStream(new TeeOutputStream(out, buffer));
+        try {
+            context.proceed();
+            Object contentType = context.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE);
+            cache.put((String) context.getProperty(PROPERTY_PI), key, buffer.toByteArray(),
+                    contentType != null ? contentType.toString() : String.valueOf(context.getMediaType()));
+        } finally {
+            context.setOutputStream(out);
+            // No-op if the manifest has been added
+            cache.release(key);
+        }
+    }
+
+    /**
+     *
+     * @param key
+     */
+    private static void release(String key) {
+        IIIFManifestCache cache = DataManager.getInstance().getManifestCache();
+        if (cache != null) {
+            cache.release(key);
+        }
+    }
+}
@@ -33,6 +33,10 @@ public class SitemapRequestParameters extends TaskParameter {
     @Schema(description = "The directory path in which to write the sitemap file", example = "/opt/digiverso/viewer/sitemap")
     private String outputPath;
 
+    @Schema(description = "If true, only sitemap files containing changed records will be rewritten; if not set, the configured default is used",
+            example = "true")
+    private Boolean incremental;
+
     /**
      * <p>
      * Getter for the field <code>outputPath</code>.
@@ -55,4 +59,18 @@ public class SitemapRequestParameters extends TaskParameter {
         this.outputPath = outputPath;
     }
 
+    /**
+     * @return the incremental
+     */
+    public Boolean getIncremental() {
+        return incremental;
+    }
+
+    /**
+     * @param incremental the incremental to set
+     */
+    public void setIncremental(Boolean incremental) {
+        this.incremental = incremental;
+    }
+
 }
@@ -178,8 +178,10 @@ public class TaskManager {
                     if (StringUtils.isBlank(outputPath)) {
                         outputPath = request.getServletContext().getRealPath("/");
                     }
+                    boolean incremental = params.getIncremental() != null ? params.getIncremental()
+                            : DataManager.getInstance().getConfiguration().isSitemapIncremental();
                     try {
-                        new SitemapBuilder(request).updateSitemap(outputPath, viewerRootUrl);
+                        new SitemapBuilder(request).updateSitemap(outputPath, viewerRootUrl, incremental);
                     } catch (AccessDeniedException | JSONException | PresentationException e) {
                         logger.error(ERROR_IN_JOB, job.getId(), e.toString());
                         job.setError(e.getMessage());
@@ -21,10 +21,9 @@
  */
 package io.goobi.viewer.api.rest.resourcebuilders;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -33,19 +32,19 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
-import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import javax.ws.rs.core.StreamingOutput;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -93,6 +92,18 @@ public class TextResourceBuilder {
 
     private static final String EXCEPTION_NO_DOCUMENT_FOUND = "No document found with pi ";
 
+    private static final int ZIP_COMPRESSION_LEVEL = 9;
+
+    /**
+     * Writes the content of a single zip entry.
+     *
+     * @param <T> Type of the entry source
+     */
+    @FunctionalInterface
+    interface ZipEntryWriter<T> {
+        void write(T source, OutputStream out) throws IOException;
+    }
+
     /**
      * Zero-arg constructor.
      */
@@ -118,40 +129,38 @@ public class TextResourceBuilder {
      * @throws PresentationException
      * @throws IndexUnreachableException
      * @throws ContentLibException
+     * @should throw ContentNotFoundException if no fulltext files found
      */
     public StreamingOutput getFulltextAsZip(String pi)
             throws IOException, PresentationException, IndexUnreachableException, ContentLibException {
         logger.trace("getFulltextAsZip: {}", pi);
-        String filename = pi + "_plaintext.zip";
-        //        String foldername = DataManager.getInstance().getConfiguration().getFulltextFolder();
-        //        String crowdsourcingFolderName = DataManager.getInstance().getConfiguration().getFulltextCrowdsourcingFolder();
-        //        List<Path> files = getFiles(pi, foldername, crowdsourcingFolderName, null);
-        //        if (files.isEmpty()) {
-        // Fallback if no plaintext files found
-        File tempFolder = new File(DataManager.getInstance().getConfiguration().getTempFolder(), pi + "_fulltext_" + System.currentTimeMillis());
-        tempFolder.mkdir();
-        Map<Path, String> map = this.getFulltextMap(pi);
-        List<Path> tempFiles = new ArrayList<>();
-        for (Entry<Path, String> entry : map.entrySet()) {
-            String text = entry.getValue();
-            File tempFile = new File(tempFolder, FilenameUtils.getBaseName(entry.getKey().getFileName().toString()) + ".txt");
-            FileUtils.write(tempFile, text, StandardCharsets.UTF_8.name());
-            tempFiles.add(tempFile.toPath());
-        }
-        tempFiles.sort((f1, f2) -> f1.getFileName().toString().compareTo(f2.getFileName().toString()));
-        return writeZipFile(tempFiles, filename);
-        //        }
-        //        return writeZipFile(files, filename);
+        Map<Path, Path> files = getFulltextFiles(pi);
+        if (files.isEmpty()) {
+            throw new ContentNotFoundException(StringConstants.EXCEPTION_RESOURCE_NOT_FOUND);
+        }
 
+        // Each page is read (and converted, if ALTO) only when its zip entry is written
+        return writeZipStream(getZipEntries(files, "txt"), (file, out) -> out.write(readFulltextFile(file).getBytes(StandardCharsets.UTF_8)));
     }
 
+    /**
+     * 
+     * @param pi
+     * @return {@link StreamingOutput}
+     * @throws IOException
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     * @throws ContentLibException
+     */
     public StreamingOutput getAltoAsZip(String pi)
             throws IOException, PresentationException, IndexUnreachableException, ContentLibException {
-        String filename = pi + "_alto.zip";
         String foldername = DataManager.getInstance().getConfiguration().getAltoFolder();
         String crowdsourcingFolderName = DataManager.getInstance().getConfiguration().getAltoCrowdsourcingFolder();
         List<Path> files = getFiles(pi, foldername, crowdsourcingFolderName, null);
-        return writeZipFile(files, filename);
+        if (files.isEmpty()) {
+            throw new ContentNotFoundException(StringConstants.EXCEPTION_RESOURCE_NOT_FOUND);
+        }
+        return writeZipStream(mapByFileName(files), Files::copy);
     }
 
     public String getAltoDocument(String pi)
@@ -322,10 +331,7 @@ public class TextResourceBuilder {
         java.nio.file.Path filePath = getDocumentLanguageVersion(teiPath, language);
 
         if (filePath != null && Files.isRegularFile(filePath)) {
-
-            String filename = pi + "_tei.zip";
-            return writeZipFile(Collections.singletonList(filePath), filename);
-
+            return writeZipStream(mapByFileName(Collections.singletonList(filePath)), Files::copy);
         }
 
         // All full-text pages as TEI
@@ -334,35 +340,26 @@ public class TextResourceBuilder {
             throw new ContentNotFoundException(EXCEPTION_NO_DOCUMENT_FOUND + pi);
         }
 
-        Map<java.nio.file.Path, String> fulltexts = getFulltextMap(pi);
-        if (fulltexts.isEmpty()) {
+        Map<Path, Path> files = getFulltextFiles(pi);
+        if (files.isEmpty()) {
             throw new ContentNotFoundException(StringConstants.EXCEPTION_RESOURCE_NOT_FOUND);
         }
+        Map<String, Path> entries = getZipEntries(files, "xml");
 
         TEIBuilder builder = new TEIBuilder();
         TEIHeaderBuilder header = createTEIHeader(solrDoc);
         HtmlToTEIConvert textConverter = new HtmlToTEIConvert();
-        Map<java.nio.file.Path, String> teis = new LinkedHashMap<>();
 
-        try {
-            for (Entry<Path, String> entry : fulltexts.entrySet()) {
-                String filename = entry.getKey().getFileName().toString();
-                filename = FilenameUtils.removeExtension(filename) + ".xml";
-                String content = entry.getValue();
-                content = convert(textConverter, content, filename);
-                Document xmlDoc;
-                xmlDoc = builder.build(header, content);
-                String tei = DocumentReader.getAsString(xmlDoc, Format.getPrettyFormat());
-                teis.put(Paths.get(filename), tei);
+        // Pages are converted one at a time while the zip is being written
+        return writeZipStream(entries, (file, out) -> {
+            try {
+                String content = convert(textConverter, readFulltextFile(file), file.getFileName().toString());
+                Document xmlDoc = builder.build(header, content);
+                out.write(DocumentReader.getAsString(xmlDoc, Format.getPrettyFormat()).getBytes(StandardCharsets.UTF_8));
+            } catch (JDOMException | UncheckedPresentationException e) {
+                throw new IOException("Unable to create tei content for " + file.getFileName() + " in " + pi, e);
             }
-            String filename = pi + "_tei.zip";
-            return writeZipFile(teis, filename);
-        } catch (JDOMException e) {
-            throw new ContentLibException("Unable to parse xml from tei content in " + pi, e);
-        } catch (UncheckedPresentationException e) {
-            throw new ContentLibException(e);
-        }
-
+        });
     }
 
     /**
@@ -464,63 +461,96 @@ public class TextResourceBuilder {
      * @should prioritize plaintext files over alto
      */
     public Map<java.nio.file.Path, String> getFulltextMap(String pi) throws IOException, PresentationException, IndexUnreachableException {
-        Map<java.nio.file.Path, String> ret = new HashMap<>();
+        Map<java.nio.file.Path, String> ret = new LinkedHashMap<>();
+        for (Entry<Path, Path> entry : getFulltextFiles(pi).entrySet()) {
+            ret.put(entry.getKey(), readFulltextFile(entry.getValue()));
+        }
+
+        return ret;
+    }
+
+    /**
+     * Collects the files from which the full-text of each page can be read, without reading them. Plaintext files are preferred, pages without a
+     * plaintext file fall back to ALTO.
+     *
+     * @param pi a {@link java.lang.String} object.
+     * @return Map of plain text file paths to the plaintext or ALTO file containing the text, sorted by file name
+     * @throws IOException
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    private static Map<java.nio.file.Path, java.nio.file.Path> getFulltextFiles(String pi)
+            throws IOException, PresentationException, IndexUnreachableException {
         List<java.nio.file.Path> fulltextFiles = getFiles(pi, DataManager.getInstance().getConfiguration().getFulltextCrowdsourcingFolder(),
                 DataManager.getInstance().getConfiguration().getFulltextFolder(), "(i?).*\\.txt");
+        List<java.nio.file.Path> altoFiles = getFiles(pi, DataManager.getInstance().getConfiguration().getAltoFolder(),
+                DataManager.getInstance().getConfiguration().getAltoFolder(), "(i?).*\\.(alto|xml)");
+
+        return getFulltextFiles(fulltextFiles, altoFiles);
+    }
+
+    /**
+     * 
+     * @param fulltextFiles Plaintext files of a record
+     * @param altoFiles ALTO files of a record
+     * @return Map of plain text file paths to the plaintext or ALTO file containing the text, sorted by file name
+     * @should prefer plaintext files over alto
+     * @should sort files by file name
+     */
+    static Map<java.nio.file.Path, java.nio.file.Path> getFulltextFiles(List<java.nio.file.Path> fulltextFiles,
+            List<java.nio.file.Path> altoFiles) {
+        // Keyed by file name so that ALTO files are only added for pages that have no plaintext file
+        Map<String, Path> targets = new HashMap<>();
+        Map<String, Path> sources = new TreeMap<>();
 
-        Map<java.nio.file.Path, String> fileMapFromPlaintext = null;
         if (!fulltextFiles.isEmpty()) {
             logger.debug("Collecting plaintext files from {}", fulltextFiles.get(0).getParent().toAbsolutePath());
-            fileMapFromPlaintext = fulltextFiles.stream().collect(Collectors.toMap(p -> p, p -> {
-                try {
-                    return FileTools.getStringFromFile(p.toFile(), StringTools.DEFAULT_ENCODING);
-                } catch (IOException e) {
-                    logger.error("Error reading file {}", p, e);
-                    return "";
-                }
-            }));
+            for (Path file : fulltextFiles) {
+                String fileName = file.getFileName().toString();
+                targets.put(fileName, file);
+                sources.put(fileName, file);
+                logger.trace("Added {} from plain text", file);
+            }
         }
 
-        Map<java.nio.file.Path, String> fileMapFromAlto = null;
-        List<java.nio.file.Path> altoFiles = getFiles(pi, DataManager.getInstance().getConfiguration().getAltoFolder(),
-                DataManager.getInstance().getConfiguration().getAltoFolder(), "(i?).*\\.(alto|xml)");
         if (!altoFiles.isEmpty()) {
-            logger.debug("Converting ALTO files from {}", altoFiles.get(0).getParent().toAbsolutePath());
-            fileMapFromAlto = altoFiles.stream()
-                    .collect(Collectors.toMap(
-                            p -> Paths.get(p.toString().replaceAll("(i?)\\.(alto|xml)", ".txt")),
-                            p -> {
-                                try {
-                                    return ALTOTools.getFulltext(p, StringTools.DEFAULT_ENCODING);
-                                } catch (IOException e) {
-                                    logger.error("Error reading file {}", p, e);
-                                    return "";
-                                }
-                            }));
-        }
-
-        // Add collected plaintext files
-        final Set<String> fileNames = new HashSet<>();
-        if (fileMapFromPlaintext != null && !fileMapFromPlaintext.isEmpty()) {
-            for (Entry<Path, String> entry : fileMapFromPlaintext.entrySet()) {
-                ret.put(entry.getKey(), entry.getValue());
-                fileNames.add(entry.getKey().getFileName().toString());
-                logger.trace("Added {} from plain text", entry.getKey());
+            logger.debug("Collecting ALTO files from {}", altoFiles.get(0).getParent().toAbsolutePath());
+            for (Path file : altoFiles) {
+                Path target = Paths.get(file.toString().replaceAll("(i?)\\.(alto|xml)", ".txt"));
+                String fileName = target.getFileName().toString();
+                if (!sources.containsKey(fileName)) {
+                    targets.put(fileName, target);
+                    sources.put(fileName, file);
+                }
             }
         }
 
-        // Add text files converted from ALTO. Only add files whose name wasn't already collected from plain text resources.
-        if (fileMapFromAlto != null && !fileMapFromAlto.isEmpty()) {
-            for (Entry<Path, String> entry : fileMapFromAlto.entrySet()) {
-                if (!fileNames.contains(entry.getKey().getFileName().toString())) {
-                    ret.put(entry.getKey(), entry.getValue());
-                }
-            }
+        Map<java.nio.file.Path, java.nio.file.Path> ret = new LinkedHashMap<>(sources.size());
+        for (Entry<String, Path> entry : sources.entrySet()) {
+            ret.put(targets.get(entry.getKey()), entry.getValue());
         }
 
         return ret;
     }
 
+    /**
+     * Reads the full-text from the given plaintext file or converts it from the given ALTO file.
+     *
+     * @param file Plaintext or ALTO file
+     * @return Full-text; empty string if the file could not be read
+     */
+    private static String readFulltextFile(java.nio.file.Path file) {
+        try {
+            if (FilenameUtils.isExtension(file.getFileName().toString().toLowerCase(), "txt")) {
+                return FileTools.getStringFromFile(file.toFile(), StringTools.DEFAULT_ENCODING);
+            }
+            return ALTOTools.getFulltext(file, StringTools.DEFAULT_ENCODING);
+        } catch (IOException e) {
+            logger.error("Error reading file {}", file, e);
+            return "";
+        }
+    }
+
     /**
      * <p>
      * getFiles.
@@ -789,74 +819,65 @@ public class TextResourceBuilder {
 
     /**
      * 
-     * @param contentMap
-     * @param filename
-     * @return {@link StreamingOutput}
-     * @throws ContentLibException
+     * @param files
+     * @return Given files mapped by their file names, in the given order
      */
-    private static StreamingOutput writeZipFile(Map<Path, String> contentMap, String filename) throws ContentLibException {
-        File tempFile = new File(DataManager.getInstance().getConfiguration().getTempFolder(), filename);
-        try {
-            if (!tempFile.getParentFile().exists() && !tempFile.getParentFile().mkdirs()) {
-                throw new ContentLibException("Not allowed to create temp file directory " + tempFile.getParentFile());
-            }
-
-            FileTools.compressZipFile(contentMap, tempFile, 9);
-            return out -> {
-                try (FileInputStream in = new FileInputStream(tempFile)) {
-                    FileTools.copyStream(out, in);
-                    out.flush();
-                    out.close();
-                } catch (IOException e) {
-                    logger.trace(e.getMessage(), e);
-                } finally {
-                    if (tempFile.exists()) {
-                        FileUtils.deleteQuietly(tempFile);
-                    }
-                }
-            };
-        } catch (IOException e) {
-            if (tempFile.exists()) {
-                FileUtils.deleteQuietly(tempFile);
-            }
-            throw new ContentNotFoundException("Resource not found or not accessible", e);
+    private static Map<String, Path> mapByFileName(List<Path> files) {
+        Map<String, Path> ret = new LinkedHashMap<>(files.size());
+        for (Path file : files) {
+            ret.putIfAbsent(file.getFileName().toString(), file);
         }
+        return ret;
     }
 
     /**
      * 
-     * @param files
-     * @param filename
-     * @return {@link StreamingOutput}
-     * @throws ContentLibException
+     * @param files Map of plain text file paths to the file containing the text, as returned by {@link #getFulltextFiles(String)}
+     * @param extension File extension of the zip entries
+     * @return Zip entry names mapped to the file containing the text, in the order of the given files
+     * @should name entries after plain text file with given extension
+     * @should keep file order
      */
-    private static StreamingOutput writeZipFile(List<Path> files, String filename) throws ContentLibException {
-        File tempFile = new File(DataManager.getInstance().getConfiguration().getTempFolder(), filename);
-        try {
-            if (!tempFile.getParentFile().exists() && !tempFile.getParentFile().mkdirs()) {
-                throw new ContentLibException("Not allowed to create temp file directory " + tempFile.getParentFile());
-            }
+    static Map<String, Path> getZipEntries(Map<Path, Path> files, String extension) {
+        Map<String, Path> ret = new LinkedHashMap<>(files.size());
+        for (Entry<Path, Path> entry : files.entrySet()) {
+            ret.put(FilenameUtils.getBaseName(entry.getKey().getFileName().toString()) + "." + extension, entry.getValue());
+        }
+        return ret;
+    }
 
-            FileTools.compressZipFile(files.stream().map(Path::toFile).collect(Collectors.toList()), tempFile, 9);
-            return out -> {
-                try (FileInputStream in = new FileInputStream(tempFile)) {
-                    FileTools.copyStream(out, in);
-                    out.flush();
-                    out.close();
-                } catch (IOException e) {
-                    logger.trace(e.getMessage(), e);
-                } finally {
-                    if (tempFile.exists()) {
-                        FileUtils.deleteQuietly(tempFile);
-                    }
+    /**
+     * Returns a {@link StreamingOutput} that writes the given entries as a zip archive directly into the response. Entry content is only produced
+     * when the entry is written, so neither temp files nor the content of all entries are held at any time.
+     * <p>
+     * Since the response may already be committed when an entry fails, the error cannot be turned into an error status any more. Instead, the
+     * archive is left unfinished (without central directory) and the exception is rethrown so that the container aborts the response. This way a
+     * failed export never arrives as a valid archive that silently lacks pages.
+     *
+     * @param <T> Type of the entry source
+     * @param entries Zip entry names mapped to the source of their content
+     * @param writer Writes the content of an entry
+     * @return {@link StreamingOutput}
+     * @should write entries in given order
+     * @should not finish archive if entry cannot be written
+     */
+    static <T> StreamingOutput writeZipStream(Map<String, T> entries, ZipEntryWriter<T> writer) {
+        return out -> {
+            // Not closed on failure, since closing would finish the archive
+            ZipOutputStream zos = new ZipOutputStream(out);
+            zos.setLevel(ZIP_COMPRESSION_LEVEL);
+            for (Entry<String, T> entry : entries.entrySet()) {
+                try {
+                    zos.putNextEntry(new ZipEntry(entry.getKey()));
+                    writer.write(entry.getValue(), zos);
+                    zos.closeEntry();
+                } catch (IOException | RuntimeException e) {
+                    logger.error("Aborting zip stream, unable to write entry {}: {}", entry.getKey(), e.getMessage());
+                    throw e;
                 }
-            };
-        } catch (IOException e) {
-            if (tempFile.exists()) {
-                FileUtils.deleteQuietly(tempFile);
             }
-            throw new ContentNotFoundException("Resource not found or not accessible", e);
-        }
+            zos.close();
+        };
     }
 
     /**
@@ -46,8 +46,14 @@ import io.goobi.viewer.api.rest.bindings.AuthorizationBinding;
 import io.goobi.viewer.api.rest.model.IResponseMessage;
 import io.goobi.viewer.api.rest.model.SuccessMessage;
 import io.goobi.viewer.api.rest.v1.ApiUrls;
+import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.exceptions.DAOException;
+import io.goobi.viewer.model.iiif.presentation.IIIFManifestCache;
 import io.goobi.viewer.model.job.download.DownloadJobTools;
+import io.goobi.viewer.model.maps.HeatmapCache;
+import io.goobi.viewer.model.termbrowsing.BrowseTermDictionaryCache;
+import io.goobi.viewer.model.viewer.collections.CollectionHierarchyCache;
+import io.goobi.viewer.solr.SolrQueryCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -85,6 +91,14 @@ public class CacheResource {
             jThumbs.append("objects", thumbs.getElementsInCache());
             jCaches.append("thumbnails", jThumbs);
         }
+        SolrQueryCache solr = DataManager.getInstance().getSearchIndex().getQueryCache();
+        if (solr != null) {
+            jCaches.append("solr", solr.getStatisticsAsJson());
+        }
+        IIIFManifestCache manifests = DataManager.getInstance().getManifestCache();
+        if (manifests != null) {
+            jCaches.append("manifests", manifests.getStatisticsAsJson());
+        }
         return jCaches.toString();
     }
 
@@ -98,15 +112,50 @@ public class CacheResource {
     @DELETE
     @Produces({ MediaType.APPLICATION_JSON })
     @AuthorizationBinding
-    @Operation(summary = "Requires an authentication token. Clears cache for main images, thumbnails and PDFs for all records", tags = { "cache" })
+    @Operation(summary = "Requires an authentication token. Clears cache for main images, thumbnails, PDFs, Solr query results, IIIF"
+            + " manifests, monthly usage statistics, collection hierarchies, term dictionaries and map heatmaps for all records", tags = { "cache" })
     public IResponseMessage clearCache(
             @Parameter(description = "If true, main image content cache will be cleared for all records") @QueryParam("content") boolean content,
             @Parameter(description = "If true, thumbnail cache will be cleared for all records") @QueryParam("thumbs") boolean thumbs,
-            @Parameter(description = "If true, PDF cache will be cleared for all records") @QueryParam("pdf") boolean pdf) {
-        logger.trace("clearCache: {}/{}/{}", content, thumbs, pdf);
+            @Parameter(description = "If true, PDF cache will be cleared for all records") @QueryParam("pdf") boolean pdf,
+            @Parameter(description = "If true, the Solr query result cache will be cleared") @QueryParam("solr") boolean solr,
+            @Parameter(description = "If true, the IIIF manifest cache will be cleared") @QueryParam("manifests") boolean manifests,
+            @Parameter(description = "If true, the monthly usage statistics rollups will be cleared") @QueryParam("statistics") boolean statistics,
+            @Parameter(description = "If true, the shared collection hierarchies will be cleared") @QueryParam("collections") boolean collections,
+            @Parameter(description = "If true, the shared term browsing dictionaries will be cleared") @QueryParam("terms") boolean terms,
+            @Parameter(description = "If true, the shared map heatmaps will be cleared") @QueryParam("heatmaps") boolean heatmaps) {
+        logger.trace("clearCache: {}/{}/{}/{}/{}/{}/{}/{}/{}", content, thumbs, pdf, solr, manifests, statistics, collections, terms, heatmaps);
 
         // TODO delete all download jobs for all records here?
         CacheUtils.emptyCache(content, thumbs, pdf);
+        if (solr) {
+            int count = DataManager.getInstance().getSearchIndex().clearQueryCache();
+            logger.debug("Removed {} Solr query cache entries", count);
+        }
+        IIIFManifestCache manifestCache = DataManager.getInstance().getManifestCache();
+        if (manifests && manifestCache != null) {
+            int count = manifestCache.clear();
+            logger.debug("Removed {} cached manifests", count);
+        }
+        if (statistics) {
+            int count = DataManager.getInstance().getMonthlyStatisticsCache().clear();
+            logger.debug("Removed {} monthly usage statistics rollups", count);
+        }
+        CollectionHierarchyCache collectionHierarchyCache = DataManager.getInstance().getCollectionHierarchyCache();
+        if (collections && collectionHierarchyCache != null) {
+            int count = collectionHierarchyCache.clear();
+            logger.debug("Removed {} cached collection hierarchies", count);
+        }
+        BrowseTermDictionaryCache browseTermDictionaryCache = DataManager.getInstance().getBrowseTermDictionaryCache();
+        if (terms && browseTermDictionaryCache != null) {
+            int count = browseTermDictionaryCache.clear();
+            logger.debug("Removed {} cached term dictionaries", count);
+        }
+        HeatmapCache heatmapCache = DataManager.getInstance().getHeatmapCache();
+        if (heatmaps && heatmapCache != null) {
+            int count = heatmapCache.clear();
+            logger.debug("Removed {} cached heatmaps", count);
+        }
 
         return new SuccessMessage(true, "Cache emptied successfully");
     }
@@ -140,6 +189,12 @@ public class CacheResource {
 
         int deleted = CacheUtils.deleteFromCache(pi, content, thumbs, pdf);
 
+        // The indexer calls this after each update, so cached manifests are always removed
+        IIIFManifestCache manifestCache = DataManager.getInstance().getManifestCache();
+        if (manifestCache != null) {
+            deleted += manifestCache.invalidate(pi);
+        }
+
         // Delete download jobs/files
         if (pdf) {
             try {
@@ -305,26 +305,9 @@ public class IndexResource {
             throws IndexUnreachableException {
         servletResponse.addHeader("Cache-Control", "max-age=300");
 
-        String finalQuery = filterQuery;
-        if (!finalQuery.startsWith("{!join")) {
-            finalQuery =
-                    new StringBuilder().append("+(")
-                            .append(filterQuery)
-                            .append(") +(-MD_GEOJSON_POLYGON:* -MD_GPS_POLYGON:* *:*)")
-                            .append(SearchHelper.getAllSuffixes(servletRequest, true, true))
-                            .toString();
-        } else {
-            //search query. Ignore all polygon results or the heatmap will have hits everywhere
-            if (finalQuery.endsWith(")")) {
-                finalQuery = finalQuery.substring(0, finalQuery.length() - 1) + "-MD_GEOJSON_POLYGON:* -MD_GPS_POLYGON:*)";
-            } else {
-                finalQuery = finalQuery + " -MD_GEOJSON_POLYGON:* -MD_GPS_POLYGON:*)";
-
-            }
-        }
-        return DataManager.getInstance()
-                .getSearchIndex()
-                .getHeatMap(solrField, wktRegion, finalQuery, facetQuery, gridLevel);
+        String suffixes = filterQuery.startsWith("{!join") ? "" : SearchHelper.getAllSuffixes(servletRequest, true, true);
+        String finalQuery = SearchHelper.buildHeatmapQuery(filterQuery, suffixes);
+        return SearchHelper.getHeatMap(solrField, wktRegion, finalQuery, facetQuery, gridLevel);
 
     }
 
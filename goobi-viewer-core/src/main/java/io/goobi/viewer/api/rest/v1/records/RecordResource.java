@@ -84,6 +84,8 @@ import de.unigoettingen.sub.commons.contentlib.servlet.rest.CORSBinding;
 import io.goobi.viewer.api.rest.AbstractApiUrlManager.ApiPath;
 import io.goobi.viewer.api.rest.bindings.AccessConditionBinding;
 import io.goobi.viewer.api.rest.bindings.AuthorizationBinding;
+import io.goobi.viewer.api.rest.bindings.ConditionalGetBinding;
+import io.goobi.viewer.api.rest.bindings.IIIFManifestCacheBinding;
 import io.goobi.viewer.api.rest.bindings.IIIFPresentationBinding;
 import io.goobi.viewer.api.rest.bindings.ViewerRestServiceBinding;
 import io.goobi.viewer.api.rest.filters.FilterTools;
@@ -154,6 +156,7 @@ public class RecordResource {
     @Produces({ MediaType.TEXT_PLAIN })
     @Operation(tags = { "records" }, summary = "Download ris as file")
     @AccessConditionBinding
+    @ConditionalGetBinding
     public String getRISAsFile()
             throws PresentationException, IndexUnreachableException, DAOException, ContentLibException {
 
@@ -178,6 +181,7 @@ public class RecordResource {
     @javax.ws.rs.Path(RECORDS_RIS_TEXT)
     @Produces({ MediaType.TEXT_PLAIN })
     @Operation(tags = { "records" }, summary = "Get ris as text")
+    @ConditionalGetBinding
     public String getRISAsText()
             throws PresentationException, IndexUnreachableException, ContentNotFoundException, DAOException {
         if (servletResponse != null) {
@@ -191,6 +195,7 @@ public class RecordResource {
     @javax.ws.rs.Path(RECORDS_TOC)
     @Produces({ MediaType.TEXT_PLAIN })
     @Operation(tags = { "records" }, summary = "Get table of contents of records")
+    @ConditionalGetBinding
     public String getTOCAsText()
             throws PresentationException, IndexUnreachableException, ContentNotFoundException, DAOException, ViewerConfigurationException {
         if (servletResponse != null) {
@@ -286,6 +291,8 @@ public class RecordResource {
     @Produces({ MediaType.APPLICATION_JSON })
     @Operation(tags = { "records", "iiif" }, summary = "Get IIIF 2.1.1 manifest for record")
     @IIIFPresentationBinding
+    @ConditionalGetBinding
+    @IIIFManifestCacheBinding
     public IPresentationModelElement getManifest(
             @Parameter(
                     description = "Build mode for manifest to select type of resources to include. Default is 'iiif' which returns the full"
@@ -314,6 +321,7 @@ public class RecordResource {
     @Produces({ MediaType.APPLICATION_JSON })
     @Operation(tags = { "records", "iiif" }, summary = "Get a layer within a IIIF 2.1.1 manifest")
     @IIIFPresentationBinding
+    @ConditionalGetBinding
     public IPresentationModelElement getLayer(
             @Parameter(description = "Name of the manifest layer") @PathParam("name") String layerName,
             @Parameter(
@@ -330,6 +338,7 @@ public class RecordResource {
     @javax.ws.rs.Path(RECORDS_NER_TAGS)
     @Produces({ MediaType.APPLICATION_JSON })
     @Operation(tags = { "records" }, summary = "Get NER tags for a record")
+    @ConditionalGetBinding
     public DocumentReference getNERTags(
             @Parameter(description = "First page to get tags for") @QueryParam("start") Integer start,
             @Parameter(description = "Last page to get tags for") @QueryParam("end") Integer end,
@@ -346,6 +355,7 @@ public class RecordResource {
     @Operation(tags = { "records" }, summary = "Get entire plaintext of record")
     @CORSBinding
     @IIIFPresentationBinding
+    @ConditionalGetBinding
     public String getPlaintext() throws PresentationException, IndexUnreachableException, IOException {
         if (servletResponse != null) {
             servletResponse.setCharacterEncoding(StringTools.DEFAULT_ENCODING);
@@ -358,6 +368,7 @@ public class RecordResource {
     @javax.ws.rs.Path(RECORDS_PLAINTEXT_ZIP)
     @Produces({ "application/zip" })
     @Operation(tags = { "records" }, summary = "Get entire plaintext of record")
+    @ConditionalGetBinding
     public StreamingOutput getPlaintextAsZip()
             throws PresentationException, IndexUnreachableException, IOException, ContentLibException {
         logger.trace("getPlaintextAsZip: {}", pi);
@@ -375,6 +386,7 @@ public class RecordResource {
     @javax.ws.rs.Path(RECORDS_ALTO)
     @Produces({ MediaType.TEXT_XML })
     @Operation(tags = { "records" }, summary = "Get entire alto document for record")
+    @ConditionalGetBinding
     public String getAlto() throws PresentationException, IndexUnreachableException, IOException, ContentLibException {
         checkFulltextAccessConditions(pi);
         if (servletResponse != null) {
@@ -387,6 +399,7 @@ public class RecordResource {
     @javax.ws.rs.Path(RECORDS_ALTO_ZIP)
     @Produces({ "application/zip" })
     @Operation(tags = { "records" }, summary = "Get entire plaintext of record")
+    @ConditionalGetBinding
     public StreamingOutput getAltoAsZip() throws PresentationException, IndexUnreachableException, IOException, ContentLibException {
         checkFulltextAccessConditions(pi);
         if (servletResponse != null) {
@@ -403,6 +416,7 @@ public class RecordResource {
     @Produces({ MediaType.TEXT_XML })
     @Operation(tags = { "records" }, summary = "Get CMDI record file in the requested language.",
             description = "If possible, directly read a CMDI file associated with the record")
+    @ConditionalGetBinding
     public String getCmdiLanguage(
             @Parameter(description = "perferred language for the TEI file, in ISO-639 format") @PathParam("lang") final String language)
             throws PresentationException, IndexUnreachableException, IOException, ContentLibException {
@@ -420,6 +434,7 @@ public class RecordResource {
     @Produces({ MediaType.TEXT_XML })
     @Operation(tags = { "records" }, summary = "Get TEI record file in the requested language.",
             description = "If possible, directly read a TEI file associated with the record, otherwise convert all fulltexts to TEI documents")
+    @ConditionalGetBinding
     public String getTeiLanguage(
             @Parameter(description = "perferred language for the TEI file, in ISO-639 format") @PathParam("lang") final String language)
             throws PresentationException, IndexUnreachableException, IOException, ContentLibException {
@@ -437,6 +452,7 @@ public class RecordResource {
     @Produces({ MediaType.TEXT_XML })
     @Operation(tags = { "records" }, summary = "Get text of record in TEI format.",
             description = "If possible, directly read a TEI file associated with the record, otherwise convert all fulltexts to TEI documents")
+    @ConditionalGetBinding
     public String getTei() throws PresentationException, IndexUnreachableException, IOException, ContentLibException {
         checkFulltextAccessConditions(pi);
         if (servletResponse != null) {
@@ -451,6 +467,7 @@ public class RecordResource {
     @Produces({ "application/zip" })
     @Operation(tags = { "records" }, summary = "Get text of record in TEI format as a zip file.",
             description = "If possible, directly read a TEI file associated with the record, otherwise convert all fulltexts to TEI documents")
+    @ConditionalGetBinding
     public StreamingOutput getTeiAsZip(
             @Parameter(description = "perferred language for the TEI file, in ISO-639 format") @QueryParam("lang") final String language)
             throws PresentationException, IndexUnreachableException, IOException, ContentLibException {
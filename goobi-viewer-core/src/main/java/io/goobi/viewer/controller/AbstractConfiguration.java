@@ -21,9 +21,20 @@
  */
 package io.goobi.viewer.controller;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import org.apache.commons.configuration2.HierarchicalConfiguration;
 import org.apache.commons.configuration2.XMLConfiguration;
@@ -36,14 +47,141 @@ import org.apache.logging.log4j.LogManager;
 
 /**
  * Abstract configuration with base getters.
+ * <p>
+ * In snapshot mode (see {@link #enableSnapshotMode(long)}), every value resolved by the <code>getLocal*</code> getters is kept in an in-memory
+ * snapshot, so that each configuration path is only evaluated once. Changes to the configuration files are detected by a background task, which
+ * replaces the snapshot with an empty one.
+ * </p>
  */
 public abstract class AbstractConfiguration {
 
     private static final Logger logger = LogManager.getLogger(AbstractConfiguration.class);
 
+    /** Placeholder for cached null values. */
+    private static final Object NULL_VALUE = new Object();
+
+    /** Shared executor for the reload checks of all configuration instances. */
+    private static final ScheduledExecutorService RELOAD_CHECK_EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "configuration-reload-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     protected ReloadingFileBasedConfigurationBuilder<XMLConfiguration> builder;
     protected ReloadingFileBasedConfigurationBuilder<XMLConfiguration> builderLocal;
 
+    /** Resolved values for the current state of the configuration files; null if snapshot mode is disabled. */
+    private volatile Map<String, Object> snapshot = null;
+    /** Time (in milliseconds) at which the current state of the configuration was established; increases with each change. */
+    private final AtomicLong snapshotTimestamp = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * Enables snapshot mode and starts the background check for changed configuration files. Replaces any on-request reload checks.
+     * <p>
+     * The snapshot timestamp is initialized with the last modification date of the configuration files, so that it stays the same across
+     * restarts as long as the files are unchanged.
+     * </p>
+     *
+     * @param reloadCheckInterval Interval between checks for changed configuration files in milliseconds
+     */
+    protected void enableSnapshotMode(long reloadCheckInterval) {
+        long lastModified = Math.max(getLastModified(builder), getLastModified(builderLocal));
+        if (lastModified > 0) {
+            snapshotTimestamp.set(lastModified);
+        }
+        snapshot = new ConcurrentHashMap<>();
+        if (RELOAD_CHECK_EXECUTOR.isShutdown()) {
+            logger.warn("Configuration reload checks have already been shut down, changed configuration files will not be detected.");
+            return;
+        }
+        ReloadCheckTask task = new ReloadCheckTask(this);
+        task.future = RELOAD_CHECK_EXECUTOR.scheduleWithFixedDelay(task, reloadCheckInterval, reloadCheckInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the background checks for changed configuration files of all configuration instances. To be called when the application is shut
+     * down.
+     */
+    public static void shutdown() {
+        RELOAD_CHECK_EXECUTOR.shutdownNow();
+    }
+
+    /**
+     * @param fileBuilder
+     * @return Last modification date of the file of the given builder in milliseconds; 0 if the file does not exist
+     */
+    private static long getLastModified(ReloadingFileBasedConfigurationBuilder<XMLConfiguration> fileBuilder) {
+        if (fileBuilder == null || fileBuilder.getFileHandler().getFile() == null) {
+            return 0;
+        }
+
+        return fileBuilder.getFileHandler().getFile().lastModified();
+    }
+
+    /**
+     * Checks both configuration files for changes. If any file has changed, the configuration is reloaded and the snapshot discarded.
+     *
+     * @return true if a reload took place; false otherwise
+     */
+    protected boolean checkForReloading() {
+        boolean reload = builder != null && builder.getReloadingController().checkForReloading(null);
+        reload |= builderLocal != null && builderLocal.getReloadingController().checkForReloading(null);
+        if (reload) {
+            // Load the new files right away, which also resets the reloading state of the builders
+            getConfig();
+            getConfigLocal();
+            invalidateSnapshot();
+            logger.info("Configuration files changed, reloaded.");
+        }
+
+        return reload;
+    }
+
+    /**
+     * Discards all values resolved so far (if in snapshot mode).
+     */
+    public void invalidateSnapshot() {
+        if (snapshot != null) {
+            snapshot = new ConcurrentHashMap<>();
+        }
+        snapshotTimestamp.accumulateAndGet(System.currentTimeMillis(), (prev, now) -> Math.max(prev + 1, now));
+    }
+
+    /**
+     * Returns the time at which the configuration was last (re)loaded or changed. Can be used as a version of the configuration state, e.g. for
+     * HTTP cache validators.
+     *
+     * @return Timestamp in milliseconds
+     * @should increase after value override
+     */
+    public long getSnapshotTimestamp() {
+        return snapshotTimestamp.get();
+    }
+
+    /**
+     * Returns the value for the given key from the current snapshot, resolving it via <code>loader</code> if not yet present. Calls
+     * <code>loader</code> directly if snapshot mode is disabled.
+     *
+     * @param key Unique key for the requested value (including default values)
+     * @param loader Resolves the value from the configuration
+     * @return Resolved value
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T getFromSnapshot(String key, Supplier<T> loader) {
+        Map<String, Object> currentSnapshot = snapshot;
+        if (currentSnapshot == null) {
+            return loader.get();
+        }
+        Object ret = currentSnapshot.get(key);
+        if (ret == null) {
+            ret = loader.get();
+            // Values resolved from an outdated configuration only end up in the outdated snapshot
+            currentSnapshot.put(key, ret != null ? ret : NULL_VALUE);
+        }
+
+        return ret == NULL_VALUE ? null : (T) ret;
+    }
+
     /**
      *
      * @return {@link XMLConfiguration} that is synced with the current state of the config file
@@ -84,6 +222,16 @@ public abstract class AbstractConfiguration {
      * @return a int.
      */
     protected int getLocalInt(String inPath, int inDefault) {
+        return getFromSnapshot("int:" + inPath + ':' + inDefault, () -> resolveLocalInt(inPath, inDefault));
+    }
+
+    /**
+     *
+     * @param inPath
+     * @param inDefault
+     * @return Configured value; inDefault if none found
+     */
+    private int resolveLocalInt(String inPath, int inDefault) {
         try {
             return getConfigLocal().getInt(inPath, getConfig().getInt(inPath, inDefault));
         } catch (ConversionException e) {
@@ -104,7 +252,7 @@ public abstract class AbstractConfiguration {
      * @return a float.
      */
     protected float getLocalFloat(String inPath) {
-        return getConfigLocal().getFloat(inPath, getConfig().getFloat(inPath));
+        return getFromSnapshot("float:" + inPath, () -> getConfigLocal().getFloat(inPath, getConfig().getFloat(inPath)));
     }
 
     /**
@@ -117,6 +265,16 @@ public abstract class AbstractConfiguration {
      * @return a float.
      */
     protected float getLocalFloat(String inPath, float inDefault) {
+        return getFromSnapshot("float:" + inPath + ':' + inDefault, () -> resolveLocalFloat(inPath, inDefault));
+    }
+
+    /**
+     *
+     * @param inPath
+     * @param inDefault
+     * @return Configured value; inDefault if none found
+     */
+    private float resolveLocalFloat(String inPath, float inDefault) {
         try {
             return getConfigLocal().getFloat(inPath, getConfig().getFloat(inPath, inDefault));
         } catch (ConversionException e) {
@@ -138,12 +296,14 @@ public abstract class AbstractConfiguration {
      * @return a {@link java.lang.String} object.
      */
     protected String getLocalString(String inPath, String inDefault) {
-        try {
-            return getConfigLocal().getString(inPath, getConfig().getString(inPath, inDefault));
-        } catch (Exception e) {
-            logger.error(e.getMessage(), e);
-            return inDefault;
-        }
+        return getFromSnapshot("string:" + inPath + ':' + inDefault, () -> {
+            try {
+                return getConfigLocal().getString(inPath, getConfig().getString(inPath, inDefault));
+            } catch (Exception e) {
+                logger.error(e.getMessage(), e);
+                return inDefault;
+            }
+        });
     }
 
     /**
@@ -155,7 +315,26 @@ public abstract class AbstractConfiguration {
      * @return a {@link java.lang.String} object.
      */
     protected String getLocalString(String inPath) {
-        return getConfigLocal().getString(inPath, getConfig().getString(inPath));
+        return getFromSnapshot("string:" + inPath, () -> getConfigLocal().getString(inPath, getConfig().getString(inPath)));
+    }
+
+    /**
+     * Returns the configured regular expression as a compiled {@link Pattern}. The pattern is only compiled once per snapshot.
+     *
+     * @param inPath a {@link java.lang.String} object.
+     * @param inDefault Default regular expression
+     * @return Compiled pattern; null if the configured expression is invalid
+     */
+    protected Pattern getLocalPattern(String inPath, String inDefault) {
+        return getFromSnapshot("pattern:" + inPath + ':' + inDefault, () -> {
+            String regex = getLocalString(inPath, inDefault);
+            try {
+                return regex != null ? Pattern.compile(regex) : null;
+            } catch (PatternSyntaxException e) {
+                logger.error("Invalid regular expression at '{}': {}", inPath, e.getMessage());
+                return null;
+            }
+        });
     }
 
     /**
@@ -167,6 +346,17 @@ public abstract class AbstractConfiguration {
      * @return a {@link java.util.List} object.
      */
     protected List<Object> getLocalNodeList(String inPath) {
+        List<Object> ret = getFromSnapshot("nodeList:" + inPath, () -> Collections.unmodifiableList(resolveLocalNodeList(inPath)));
+        // Callers may modify the returned list
+        return new ArrayList<>(ret);
+    }
+
+    /**
+     *
+     * @param inPath
+     * @return List of configured values
+     */
+    private List<Object> resolveLocalNodeList(String inPath) {
         List<Object> objects = ((HierarchicalConfiguration<ImmutableNode>) getConfigLocal()).getList(inPath,
                 ((HierarchicalConfiguration<ImmutableNode>) getConfig()).getList(inPath));
         if (objects != null && !objects.isEmpty()) {
@@ -218,7 +408,10 @@ public abstract class AbstractConfiguration {
      * @return configured list; defaultList if none found
      */
     protected List<String> getLocalList(String inPath, List<String> defaultList) {
-        return getLocalList(getConfigLocal(), getConfig(), inPath, defaultList);
+        List<String> ret = getFromSnapshot("list:" + inPath + ':' + defaultList,
+                () -> Collections.unmodifiableList(getLocalList(getConfigLocal(), getConfig(), inPath, defaultList)));
+        // Callers may modify the returned list
+        return new ArrayList<>(ret);
     }
 
     /**
@@ -243,12 +436,14 @@ public abstract class AbstractConfiguration {
      * @return a boolean.
      */
     protected boolean getLocalBoolean(String inPath, boolean inDefault) {
-        try {
-            return getConfigLocal().getBoolean(inPath, getConfig().getBoolean(inPath, inDefault));
-        } catch (Exception e) {
-            logger.error(e.getMessage(), e);
-            return inDefault;
-        }
+        return getFromSnapshot("boolean:" + inPath + ':' + inDefault, () -> {
+            try {
+                return getConfigLocal().getBoolean(inPath, getConfig().getBoolean(inPath, inDefault));
+            } catch (Exception e) {
+                logger.error(e.getMessage(), e);
+                return inDefault;
+            }
+        });
     }
 
     /**
@@ -281,7 +476,12 @@ public abstract class AbstractConfiguration {
      * @return a {@link java.util.List} object.
      */
     protected List<HierarchicalConfiguration<ImmutableNode>> getLocalConfigurationsAt(String inPath) {
-        return getLocalConfigurationsAt(getConfigLocal(), getConfig(), inPath);
+        List<HierarchicalConfiguration<ImmutableNode>> ret = getFromSnapshot("configurationsAt:" + inPath, () -> {
+            List<HierarchicalConfiguration<ImmutableNode>> list = getLocalConfigurationsAt(getConfigLocal(), getConfig(), inPath);
+            return list != null ? Collections.unmodifiableList(list) : null;
+        });
+        // Callers may modify the returned list
+        return ret != null ? new ArrayList<>(ret) : null;
     }
 
     /**
@@ -293,6 +493,15 @@ public abstract class AbstractConfiguration {
      * @return a {@link org.apache.commons.configuration2.HierarchicalConfiguration} object.
      */
     protected HierarchicalConfiguration<ImmutableNode> getLocalConfigurationAt(String inPath) {
+        return getFromSnapshot("configurationAt:" + inPath, () -> resolveLocalConfigurationAt(inPath));
+    }
+
+    /**
+     *
+     * @param inPath
+     * @return First configuration at inPath; null if none found
+     */
+    private HierarchicalConfiguration<ImmutableNode> resolveLocalConfigurationAt(String inPath) {
         List<HierarchicalConfiguration<ImmutableNode>> ret = null;
         try {
             ret = getConfigLocal().configurationsAt(inPath);
@@ -315,8 +524,41 @@ public abstract class AbstractConfiguration {
      *
      * @param property Property path (e.g. "accessConditions.fullAccessForLocalhost")
      * @param value New value to set
+     * @should discard resolved values
      */
     public void overrideValue(String property, Object value) {
         getConfig().setProperty(property, value);
+        invalidateSnapshot();
+    }
+
+    /**
+     * Periodic reload check. Only holds a weak reference to the configuration and cancels itself once the configuration has been garbage
+     * collected (e.g. after being replaced via {@link DataManager#injectConfiguration(Configuration)}).
+     */
+    private static class ReloadCheckTask implements Runnable {
+
+        private final WeakReference<AbstractConfiguration> configuration;
+        private volatile ScheduledFuture<?> future;
+
+        ReloadCheckTask(AbstractConfiguration configuration) {
+            this.configuration = new WeakReference<>(configuration);
+        }
+
+        @Override
+        public void run() {
+            AbstractConfiguration config = configuration.get();
+            if (config == null) {
+                if (future != null) {
+                    future.cancel(false);
+                }
+                return;
+            }
+            try {
+                config.checkForReloading();
+            } catch (Exception e) {
+                // Exceptions would cancel all further executions
+                logger.error(e.getMessage(), e);
+            }
+        }
     }
 }
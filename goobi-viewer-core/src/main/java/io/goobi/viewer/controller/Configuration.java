@@ -42,6 +42,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import javax.faces.model.SelectItem;
@@ -49,12 +50,9 @@ import javax.faces.model.SelectItem;
 import org.apache.commons.configuration2.BaseHierarchicalConfiguration;
 import org.apache.commons.configuration2.HierarchicalConfiguration;
 import org.apache.commons.configuration2.XMLConfiguration;
-import org.apache.commons.configuration2.builder.ConfigurationBuilderEvent;
 import org.apache.commons.configuration2.builder.ReloadingFileBasedConfigurationBuilder;
 import org.apache.commons.configuration2.builder.fluent.Parameters;
 import org.apache.commons.configuration2.convert.DefaultListDelimiterHandler;
-import org.apache.commons.configuration2.event.Event;
-import org.apache.commons.configuration2.event.EventListener;
 import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.commons.configuration2.tree.ImmutableNode;
 import org.apache.commons.lang3.StringUtils;
@@ -109,6 +107,7 @@ import io.goobi.viewer.model.viewer.PageType;
 import io.goobi.viewer.model.viewer.StringPair;
 import io.goobi.viewer.model.viewer.collections.DcSortingList;
 import io.goobi.viewer.solr.SolrConstants;
+import io.goobi.viewer.solr.SolrSearchIndex;
 
 /**
  * <p>
@@ -136,9 +135,16 @@ public class Configuration extends AbstractConfiguration {
     private static final String XML_PATH_SEARCH_SORTING_FIELD = "search.sorting.field";
     private static final String XML_PATH_TOC_TITLEBARLABEL_TEMPLATE = "toc.titleBarLabel.template";
     private static final String XML_PATH_USER_AUTH_PROVIDERS_PROVIDER = "user.authenticationProviders.provider(";
+    private static final String XML_PATH_STATISTICS_CRAWLER_DETECTION_REGEX = "statistics.crawlerDetection[@regex]";
+
+    private static final String DEFAULT_CRAWLER_DETECTION_REGEX =
+            ".*[bB]ot.*|.*Yahoo! Slurp.*|.*Feedfetcher-Google.*|.*Apache-HttpClient.*|.*[Ss]pider.*|.*[Cc]rawler.*|.*nagios.*|.*Yandex.*";
 
     static final String VALUE_DEFAULT = "_DEFAULT";
 
+    /** Interval in milliseconds in which the configuration files are checked for changes. */
+    private static final long RELOAD_CHECK_INTERVAL = 5000;
+
     private Set<String> stopwords;
 
     /**
@@ -148,7 +154,6 @@ public class Configuration extends AbstractConfiguration {
      *
      * @param configFilePath a {@link java.lang.String} object.
      */
-    @SuppressWarnings({ "unchecked", "rawtypes" })
     public Configuration(String configFilePath) {
         // Load default config file
         builder =
@@ -165,14 +170,6 @@ public class Configuration extends AbstractConfiguration {
             } catch (ConfigurationException e) {
                 logger.error(e.getMessage(), e);
             }
-            builder.addEventListener(ConfigurationBuilderEvent.CONFIGURATION_REQUEST,
-                    new EventListener() {
-
-                        @Override
-                        public void onEvent(Event event) {
-                            builder.getReloadingController().checkForReloading(null);
-                        }
-                    });
         } else {
             logger.error("Default configuration file not found: {}; Base path is {}", builder.getFileHandler().getFile().getAbsoluteFile(),
                     builder.getFileHandler().getBasePath());
@@ -193,14 +190,6 @@ public class Configuration extends AbstractConfiguration {
             } catch (ConfigurationException e) {
                 logger.error(e.getMessage(), e);
             }
-            builderLocal.addEventListener(ConfigurationBuilderEvent.CONFIGURATION_REQUEST,
-                    new EventListener() {
-
-                        @Override
-                        public void onEvent(Event event) {
-                            builderLocal.getReloadingController().checkForReloading(null);
-                        }
-                    });
         }
 
         // Load stopwords
@@ -215,6 +204,9 @@ public class Configuration extends AbstractConfiguration {
             logger.error(e.getMessage(), e);
             stopwords = new HashSet<>(0);
         }
+
+        // Resolve getter values only once per configuration file change
+        enableSnapshotMode(RELOAD_CHECK_INTERVAL);
     }
 
     /**
@@ -1553,6 +1545,33 @@ public class Configuration extends AbstractConfiguration {
         return getLocalInt("search.childHits.loadOnExpand", 20);
     }
 
+    /**
+     * 
+     * @return true if page full-texts for child hits are to be loaded in parallel; false otherwise
+     * @should return correct value
+     */
+    public boolean isSearchChildHitsParallelFulltextLoadingEnabled() {
+        return getLocalBoolean("search.childHits.parallelFulltextLoading[@enabled]", true);
+    }
+
+    /**
+     * 
+     * @return Time budget in milliseconds for loading child hit full-texts in parallel
+     * @should return correct value
+     */
+    public long getSearchChildHitsParallelFulltextLoadingTimeout() {
+        return getLocalInt("search.childHits.parallelFulltextLoading[@timeout]", 10000);
+    }
+
+    /**
+     * 
+     * @return Number of threads shared by all searches for loading child hit full-texts in parallel
+     * @should return correct value
+     */
+    public int getSearchChildHitsParallelFulltextLoadingThreads() {
+        return Math.max(1, getLocalInt("search.childHits.parallelFulltextLoading[@threads]", 8));
+    }
+
     /**
      * <p>
      * getSearchHitsPerPageDefaultValue.
@@ -4185,6 +4204,205 @@ public class Configuration extends AbstractConfiguration {
         return getLocalBoolean(("performance.solr.useHttp2"), true);
     }
 
+    /**
+     * Returns the number of documents fetched per request when streaming large Solr result sets.
+     *
+     * @return Configured value; default is 1000
+     * @should return correct value
+     */
+    public int getSolrStreamBatchSize() {
+        return getLocalInt("performance.solr.streamBatchSize", SolrSearchIndex.DEFAULT_STREAM_BATCH_SIZE);
+    }
+
+    /**
+     * Returns whether Solr query responses should be cached application-wide.
+     *
+     * @return true if enabled; false otherwise (default)
+     * @should return correct value
+     */
+    public boolean isSolrQueryCacheEnabled() {
+        return getLocalBoolean("performance.solr.queryCache[@enabled]", false);
+    }
+
+    /**
+     * @return Maximum number of cached Solr query responses; default is 1000
+     * @should return correct value
+     */
+    public int getSolrQueryCacheMaxEntries() {
+        return getLocalInt("performance.solr.queryCache.maxEntries", 1000);
+    }
+
+    /**
+     * @return Memory budget for cached Solr query responses in MB; default is 64
+     * @should return correct value
+     */
+    public int getSolrQueryCacheMaxSizeMB() {
+        return getLocalInt("performance.solr.queryCache.maxSizeMB", 64);
+    }
+
+    /**
+     * @return Minimum interval in seconds between Solr index version checks for the query cache; default is 10
+     * @should return correct value
+     */
+    public int getSolrQueryCacheVersionCheckInterval() {
+        return getLocalInt("performance.solr.queryCache.versionCheckInterval", 10);
+    }
+
+    /**
+     * Returns whether serialized IIIF manifests should be cached application-wide.
+     *
+     * @return true if enabled; false otherwise (default)
+     * @should return correct value
+     */
+    public boolean isIIIFManifestCacheEnabled() {
+        return getLocalBoolean("performance.iiif.manifestCache[@enabled]", false);
+    }
+
+    /**
+     * @return true if cached IIIF manifests should be stored in the temp folder instead of memory; default is false
+     * @should return correct value
+     */
+    public boolean isIIIFManifestCacheUseDisk() {
+        return getLocalBoolean("performance.iiif.manifestCache[@disk]", false);
+    }
+
+    /**
+     * @return Maximum number of cached IIIF manifests; default is 200
+     * @should return correct value
+     */
+    public int getIIIFManifestCacheMaxEntries() {
+        return getLocalInt("performance.iiif.manifestCache.maxEntries", 200);
+    }
+
+    /**
+     * @return Size budget for cached IIIF manifests in MB; default is 128
+     * @should return correct value
+     */
+    public int getIIIFManifestCacheMaxSizeMB() {
+        return getLocalInt("performance.iiif.manifestCache.maxSizeMB", 128);
+    }
+
+    /**
+     * Returns whether collection hierarchies should be shared application-wide instead of being loaded from Solr for each session.
+     *
+     * @return true if enabled (default); false otherwise
+     * @should return correct value
+     */
+    public boolean isCollectionHierarchyCacheEnabled() {
+        return getLocalBoolean("performance.collections.hierarchyCache[@enabled]", true);
+    }
+
+    /**
+     * @return Maximum number of cached collection hierarchies; default is 100
+     * @should return correct value
+     */
+    public int getCollectionHierarchyCacheMaxEntries() {
+        return getLocalInt("performance.collections.hierarchyCache.maxEntries", 100);
+    }
+
+    /**
+     * @return Minimum interval in seconds between Solr index version checks for the collection hierarchy cache; default is 10
+     * @should return correct value
+     */
+    public int getCollectionHierarchyCacheVersionCheckInterval() {
+        return getLocalInt("performance.collections.hierarchyCache.versionCheckInterval", 10);
+    }
+
+    /**
+     * Returns whether term dictionaries for term browsing should be shared application-wide instead of being loaded from Solr for each page.
+     *
+     * @return true if enabled (default); false otherwise
+     * @should return correct value
+     */
+    public boolean isTermBrowsingDictionaryCacheEnabled() {
+        return getLocalBoolean("performance.termBrowsing.dictionaryCache[@enabled]", true);
+    }
+
+    /**
+     * @return Maximum number of cached term dictionaries; default is 50
+     * @should return correct value
+     */
+    public int getTermBrowsingDictionaryCacheMaxEntries() {
+        return getLocalInt("performance.termBrowsing.dictionaryCache.maxEntries", 50);
+    }
+
+    /**
+     * @return Minimum interval in seconds between Solr index version checks for the term dictionary cache; default is 10
+     * @should return correct value
+     */
+    public int getTermBrowsingDictionaryCacheVersionCheckInterval() {
+        return getLocalInt("performance.termBrowsing.dictionaryCache.versionCheckInterval", 10);
+    }
+
+    /**
+     * Returns whether the sitemap update task should only rewrite the sitemap files containing records that have changed since the last run.
+     *
+     * @return true if enabled; false otherwise (default)
+     * @should return correct value
+     */
+    public boolean isSitemapIncremental() {
+        return getLocalBoolean("performance.sitemap.incremental", false);
+    }
+
+    /**
+     * @return Number of distinct saved search queries executed in parallel by a NOTIFY_SEARCH_UPDATE task; default is 2
+     * @should return correct value
+     */
+    public int getSearchHitsNotificationThreads() {
+        return getLocalInt("performance.searchHitsNotifications.threads", 2);
+    }
+
+    /**
+     * Returns whether map heatmaps should be cached application-wide instead of being requested from Solr for each map view.
+     *
+     * @return true if enabled (default); false otherwise
+     * @should return correct value
+     */
+    public boolean isGeoMapHeatmapCacheEnabled() {
+        return getLocalBoolean("performance.geoMaps.heatmapCache[@enabled]", true);
+    }
+
+    /**
+     * @return Maximum number of cached heatmaps; default is 500
+     * @should return correct value
+     */
+    public int getGeoMapHeatmapCacheMaxEntries() {
+        return getLocalInt("performance.geoMaps.heatmapCache.maxEntries", 500);
+    }
+
+    /**
+     * @return Minimum interval in seconds between Solr index version checks for the heatmap cache; default is 10
+     * @should return correct value
+     */
+    public int getGeoMapHeatmapCacheVersionCheckInterval() {
+        return getLocalInt("performance.geoMaps.heatmapCache.versionCheckInterval", 10);
+    }
+
+    /**
+     * @return Number of top tile levels for which heatmaps of CMS map feature sets are precomputed by the CACHE_GEOMAPS task; default is 0. The
+     *         task reduces the levels if the heatmaps would fill more than half of the heatmap cache.
+     * @should return correct value
+     */
+    public int getGeoMapHeatmapCachePrecomputeLevels() {
+        return getLocalInt("performance.geoMaps.heatmapCache.precomputeLevels", 0);
+    }
+
+    /**
+     * @return Number of single page pdfs rendered in parallel by a PRERENDER_PDF task; default is 1
+     * @should return correct value
+     */
+    public int getPrerenderPdfThreads() {
+        return getLocalInt("performance.pdf.prerender.threads", 1);
+    }
+
+    /**
+     * @return Heap in MB that must be available before a PRERENDER_PDF task renders another page in parallel; default is 256
+     * @should return correct value
+     */
+    public int getPrerenderPdfMinFreeMemoryMB() {
+        return getLocalInt("performance.pdf.prerender.minFreeMemoryMB", 256);
+    }
+
     /**
      * <p>
      * isSolrCompressionEnabled.
@@ -5092,6 +5310,26 @@ public class Configuration extends AbstractConfiguration {
         return getLocalInt("webapi.iiif.discovery.activitiesPerPage", 100);
     }
 
+    /**
+     * Configured in webapi.iiif.search.timeout. Default value is 30000
+     *
+     * @return Maximum time in milliseconds to wait for the concurrently executed parts of a IIIF content search
+     * @should return correct value
+     */
+    public long getIIIFSearchTimeout() {
+        return getLocalInt("webapi.iiif.search.timeout", 30000);
+    }
+
+    /**
+     * Configured in webapi.iiif.search.threads. Default value is 8
+     *
+     * @return Number of threads shared by all IIIF content searches for their concurrently executed parts
+     * @should return correct value
+     */
+    public int getIIIFSearchThreads() {
+        return Math.max(1, getLocalInt("webapi.iiif.search.threads", 8));
+    }
+
     /**
      * <p>
      * getIIIFLogo.
@@ -5741,6 +5979,27 @@ public class Configuration extends AbstractConfiguration {
         return getLocalConfigurationAt("archives.metadataList");
     }
 
+    /**
+     * Returns the archive metadata fields whose values are searchable in the archive tree in addition to the entry labels.
+     *
+     * @return List of configured metadata field labels
+     * @should return all configured elements
+     */
+    public List<String> getArchiveSearchFields() {
+        return getLocalList("archives.searchFields.field", new ArrayList<>());
+    }
+
+    /**
+     * Returns the folder in which parsed archive trees are stored so that they don't need to be parsed again after a restart. An empty value
+     * disables the snapshots.
+     *
+     * @return Configured value; default is the "archives" subfolder of the temp folder
+     * @should return correct value
+     */
+    public String getArchiveSnapshotFolder() {
+        return getLocalString("archives.snapshotFolder", Paths.get(getTempFolder(), "archives").toString());
+    }
+
     public boolean isDisplayUserGeneratedContentBelowImage() {
         return getLocalBoolean("webGuiDisplay.displayUserGeneratedContentBelowImage", false);
     }
@@ -5940,9 +6199,27 @@ public class Configuration extends AbstractConfiguration {
         return getLocalBoolean("statistics[@enabled]", false);
     }
 
+    /**
+     * Interval in seconds in which recorded usage statistics are written to the database. This is also the maximum time span of statistics that
+     * can be lost if the application terminates unexpectedly.
+     *
+     * @return Configured value; 60 if none configured
+     * @should return correct value
+     */
+    public int getStatisticsFlushInterval() {
+        return getLocalInt("statistics.flush[@interval]", 60);
+    }
+
+    /**
+     * @return Compiled {@link #getCrawlerDetectionRegex()}
+     * @should return correct value
+     */
+    public Pattern getCrawlerDetectionPattern() {
+        return getLocalPattern(XML_PATH_STATISTICS_CRAWLER_DETECTION_REGEX, DEFAULT_CRAWLER_DETECTION_REGEX);
+    }
+
     public String getCrawlerDetectionRegex() {
-        return getLocalString("statistics.crawlerDetection[@regex]",
-                ".*[bB]ot.*|.*Yahoo! Slurp.*|.*Feedfetcher-Google.*|.*Apache-HttpClient.*|.*[Ss]pider.*|.*[Cc]rawler.*|.*nagios.*|.*Yandex.*");
+        return getLocalString(XML_PATH_STATISTICS_CRAWLER_DETECTION_REGEX, DEFAULT_CRAWLER_DETECTION_REGEX);
     }
 
     /**
@@ -21,6 +21,7 @@
  */
 package io.goobi.viewer.controller;
 
+import java.nio.file.Paths;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
@@ -45,11 +46,16 @@ import io.goobi.viewer.exceptions.ModuleMissingException;
 import io.goobi.viewer.model.archives.ArchiveManager;
 import io.goobi.viewer.model.bookmark.SessionStoreBookmarkManager;
 import io.goobi.viewer.model.crowdsourcing.campaigns.Campaign;
+import io.goobi.viewer.model.iiif.presentation.IIIFManifestCache;
+import io.goobi.viewer.model.maps.HeatmapCache;
 import io.goobi.viewer.model.security.authentication.AuthResponseListener;
 import io.goobi.viewer.model.security.authentication.OpenIdProvider;
 import io.goobi.viewer.model.security.clients.ClientApplicationManager;
 import io.goobi.viewer.model.security.recordlock.RecordLockManager;
+import io.goobi.viewer.model.statistics.usage.MonthlyStatisticsCache;
 import io.goobi.viewer.model.statistics.usage.UsageStatisticsRecorder;
+import io.goobi.viewer.model.viewer.collections.CollectionHierarchyCache;
+import io.goobi.viewer.model.termbrowsing.BrowseTermDictionaryCache;
 import io.goobi.viewer.model.translations.language.LanguageHelper;
 import io.goobi.viewer.modules.IModule;
 import io.goobi.viewer.modules.interfaces.DefaultURLBuilder;
@@ -69,6 +75,9 @@ public final class DataManager {
 
     private static final int THREAD_POOL_SIZE = 10;
 
+    /** Maximum number of waiting tasks in the dedicated thread pools; further tasks are executed by the submitting thread. */
+    private static final int BOUNDED_POOL_QUEUE_CAPACITY = 100;
+
     private static DataManager instance = null;
 
     private final List<IModule> modules = new ArrayList<>();
@@ -113,10 +122,26 @@ public final class DataManager {
 
     private SecurityManager securityManager = null;
 
-    private UsageStatisticsRecorder usageStatisticsRecorder = null;
+    private volatile UsageStatisticsRecorder usageStatisticsRecorder = null;
 
     private ThreadPoolManager threadPoolManager = null;
 
+    private ThreadPoolManager iiifSearchThreadPoolManager = null;
+
+    private ThreadPoolManager fulltextThreadPoolManager = null;
+
+    private volatile IIIFManifestCache manifestCache = null;
+
+    private final RecordContentVersions recordContentVersions = new RecordContentVersions();
+
+    private volatile MonthlyStatisticsCache monthlyStatisticsCache = null;
+
+    private volatile CollectionHierarchyCache collectionHierarchyCache = null;
+
+    private volatile BrowseTermDictionaryCache browseTermDictionaryCache = null;
+
+    private volatile HeatmapCache heatmapCache = null;
+
     /**
      * <p>
      * Getter for the field <code>instance</code>.
@@ -593,7 +618,10 @@ public final class DataManager {
     public UsageStatisticsRecorder getUsageStatisticsRecorder() throws DAOException {
         if (usageStatisticsRecorder == null) {
             synchronized (LOCK) {
-                usageStatisticsRecorder = new UsageStatisticsRecorder(this.getDao(), this.getConfiguration(), this.getConfiguration().getTheme());
+                if (usageStatisticsRecorder == null) {
+                    usageStatisticsRecorder =
+                            new UsageStatisticsRecorder(this.getDao(), this.getConfiguration(), this.getConfiguration().getTheme());
+                }
             }
         }
 
@@ -604,6 +632,131 @@ public final class DataManager {
         this.usageStatisticsRecorder = usageStatisticsRecorder;
     }
 
+    /**
+     * 
+     * @return the IIIF manifest cache; null if disabled
+     */
+    public IIIFManifestCache getManifestCache() {
+        if (!getConfiguration().isIIIFManifestCacheEnabled()) {
+            return null;
+        }
+        IIIFManifestCache ret = manifestCache;
+        if (ret == null) {
+            synchronized (LOCK) {
+                ret = manifestCache;
+                if (ret == null) {
+                    Configuration config = getConfiguration();
+                    ret = new IIIFManifestCache(config.getIIIFManifestCacheMaxEntries(), config.getIIIFManifestCacheMaxSizeMB() * 1024L * 1024L,
+                            config.isIIIFManifestCacheUseDisk() ? Paths.get(config.getTempFolder(), "manifests") : null);
+                    manifestCache = ret;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * 
+     * @return the versions of database content embedded in record based resources
+     */
+    public RecordContentVersions getRecordContentVersions() {
+        return recordContentVersions;
+    }
+
+    /**
+     * 
+     * @return the monthly usage statistics rollups
+     */
+    public MonthlyStatisticsCache getMonthlyStatisticsCache() {
+        MonthlyStatisticsCache ret = monthlyStatisticsCache;
+        if (ret == null) {
+            synchronized (LOCK) {
+                ret = monthlyStatisticsCache;
+                if (ret == null) {
+                    ret = new MonthlyStatisticsCache(MonthlyStatisticsCache.DEFAULT_MAX_ENTRIES,
+                            MonthlyStatisticsCache.DEFAULT_VERSION_CHECK_INTERVAL, () -> getSearchIndex().getIndexVersion());
+                    monthlyStatisticsCache = ret;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * 
+     * @return the shared collection hierarchies; null if disabled
+     */
+    public CollectionHierarchyCache getCollectionHierarchyCache() {
+        if (!getConfiguration().isCollectionHierarchyCacheEnabled()) {
+            return null;
+        }
+        CollectionHierarchyCache ret = collectionHierarchyCache;
+        if (ret == null) {
+            synchronized (LOCK) {
+                ret = collectionHierarchyCache;
+                if (ret == null) {
+                    Configuration config = getConfiguration();
+                    ret = new CollectionHierarchyCache(config.getCollectionHierarchyCacheMaxEntries(),
+                            config.getCollectionHierarchyCacheVersionCheckInterval() * 1000L, () -> getSearchIndex().getIndexVersion());
+                    collectionHierarchyCache = ret;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * 
+     * @return the shared term dictionaries; null if disabled
+     */
+    public BrowseTermDictionaryCache getBrowseTermDictionaryCache() {
+        if (!getConfiguration().isTermBrowsingDictionaryCacheEnabled()) {
+            return null;
+        }
+        BrowseTermDictionaryCache ret = browseTermDictionaryCache;
+        if (ret == null) {
+            synchronized (LOCK) {
+                ret = browseTermDictionaryCache;
+                if (ret == null) {
+                    Configuration config = getConfiguration();
+                    ret = new BrowseTermDictionaryCache(config.getTermBrowsingDictionaryCacheMaxEntries(),
+                            config.getTermBrowsingDictionaryCacheVersionCheckInterval() * 1000L, () -> getSearchIndex().getIndexVersion(),
+                            getThreadPoolManager().getExecutorService());
+                    browseTermDictionaryCache = ret;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     *
+     * @return the shared map heatmaps; null if disabled
+     */
+    public HeatmapCache getHeatmapCache() {
+        if (!getConfiguration().isGeoMapHeatmapCacheEnabled()) {
+            return null;
+        }
+        HeatmapCache ret = heatmapCache;
+        if (ret == null) {
+            synchronized (LOCK) {
+                ret = heatmapCache;
+                if (ret == null) {
+                    Configuration config = getConfiguration();
+                    ret = new HeatmapCache(config.getGeoMapHeatmapCacheMaxEntries(), config.getGeoMapHeatmapCacheVersionCheckInterval() * 1000L,
+                            () -> getSearchIndex().getIndexVersion());
+                    heatmapCache = ret;
+                }
+            }
+        }
+
+        return ret;
+    }
+
     public synchronized ThreadPoolManager getThreadPoolManager() {
         if (threadPoolManager == null) {
             this.threadPoolManager = new ThreadPoolManager(THREAD_POOL_SIZE);
@@ -611,4 +764,28 @@ public final class DataManager {
         return threadPoolManager;
     }
 
+    /**
+     *
+     * @return Thread pool for the concurrently executed parts of IIIF content searches
+     */
+    public synchronized ThreadPoolManager getIIIFSearchThreadPoolManager() {
+        if (iiifSearchThreadPoolManager == null) {
+            this.iiifSearchThreadPoolManager =
+                    new ThreadPoolManager("iiif-search", getConfiguration().getIIIFSearchThreads(), BOUNDED_POOL_QUEUE_CAPACITY);
+        }
+        return iiifSearchThreadPoolManager;
+    }
+
+    /**
+     *
+     * @return Thread pool for loading child hit full-texts in parallel
+     */
+    public synchronized ThreadPoolManager getFulltextThreadPoolManager() {
+        if (fulltextThreadPoolManager == null) {
+            this.fulltextThreadPoolManager = new ThreadPoolManager("search-hit-fulltext",
+                    getConfiguration().getSearchChildHitsParallelFulltextLoadingThreads(), BOUNDED_POOL_QUEUE_CAPACITY);
+        }
+        return fulltextThreadPoolManager;
+    }
+
 }
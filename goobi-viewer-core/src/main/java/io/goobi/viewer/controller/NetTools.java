@@ -34,6 +34,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.regex.Pattern;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -72,6 +73,7 @@ import org.apache.logging.log4j.Logger;
 
 import io.goobi.viewer.api.rest.v1.ApiUrls;
 import io.goobi.viewer.exceptions.HTTPException;
+import io.goobi.viewer.filters.RequestClassification;
 import jakarta.mail.Message;
 import jakarta.mail.MessagingException;
 import jakarta.mail.PasswordAuthentication;
@@ -550,6 +552,12 @@ public final class NetTools {
      * @return a {@link java.lang.String} object.
      */
     public static String getIpAddress(HttpServletRequest request) {
+        // Use the address resolved by RequestClassificationFilter, if available
+        RequestClassification classification = RequestClassification.getStored(request);
+        if (classification != null) {
+            return classification.getIpAddress();
+        }
+
         String address = ADDRESS_LOCALHOST_IPV4;
         if (request != null) {
             //            if (logger.isTraceEnabled()) {
@@ -741,10 +749,24 @@ public final class NetTools {
      * @return true if the request is made by a web crawler
      */
     public static boolean isCrawlerBotRequest(HttpServletRequest request) {
-        String userAgent = request != null ? request.getHeader("User-Agent") : "";
-        return StringUtils.isNotBlank(userAgent)
-                && userAgent.matches(DataManager.getInstance().getConfiguration().getCrawlerDetectionRegex());
+        RequestClassification classification = RequestClassification.getStored(request);
+        if (classification != null) {
+            return classification.isBot();
+        }
+        return isCrawlerUserAgent(request != null ? request.getHeader("User-Agent") : "");
+    }
 
+    /**
+     * 
+     * @param userAgent Value of the User-Agent header
+     * @return true if userAgent matches the configured crawler detection pattern; false otherwise
+     */
+    public static boolean isCrawlerUserAgent(String userAgent) {
+        if (StringUtils.isBlank(userAgent)) {
+            return false;
+        }
+        Pattern pattern = DataManager.getInstance().getConfiguration().getCrawlerDetectionPattern();
+        return pattern != null && pattern.matcher(userAgent).matches();
     }
 
     /**
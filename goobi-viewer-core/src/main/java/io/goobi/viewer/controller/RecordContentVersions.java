@@ -0,0 +1,80 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks changes to database content that is embedded in record based resources (comments, crowdsourcing annotations, related CMS pages). Each change
+ * is assigned a strictly increasing version, which is the current time in milliseconds unless several changes occur within the same millisecond. The
+ * version of a record is the latest version of a change to that record or to all records. It starts with the time of application start, so that
+ * versions handed out before a restart are never repeated.
+ */
+public class RecordContentVersions {
+
+    /** Version of the most recent change */
+    private final AtomicLong lastVersion;
+    /** Version of the most recent change that affected all records */
+    private final AtomicLong globalVersion;
+    /** Version of the most recent change per record identifier */
+    private final Map<String, Long> recordVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     */
+    public RecordContentVersions() {
+        long now = System.currentTimeMillis();
+        this.lastVersion = new AtomicLong(now);
+        this.globalVersion = new AtomicLong(now);
+    }
+
+    /**
+     * 
+     * @param pi Record identifier
+     * @return Version of the database content of the given record
+     * @should return start version if nothing changed
+     * @should return higher version after record changed
+     * @should return higher version after all records changed
+     * @should not be affected by changes to other records
+     */
+    public long getVersion(String pi) {
+        long ret = globalVersion.get();
+        Long recordVersion = pi != null ? recordVersions.get(pi) : null;
+        return recordVersion != null ? Math.max(ret, recordVersion) : ret;
+    }
+
+    /**
+     * Registers a change to the database content of the given record.
+     * 
+     * @param pi Record identifier; null if all records are affected
+     */
+    public void changed(String pi) {
+        long version = lastVersion.updateAndGet(last -> Math.max(System.currentTimeMillis(), last + 1));
+        if (pi != null) {
+            recordVersions.merge(pi, version, Math::max);
+        } else {
+            globalVersion.accumulateAndGet(version, Math::max);
+        }
+    }
+}
@@ -21,10 +21,14 @@
  */
 package io.goobi.viewer.controller;
 
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.poi.ss.formula.functions.T;
 
@@ -37,6 +41,23 @@ public class ThreadPoolManager {
         this.executorService = Executors.newFixedThreadPool(size);
     }
 
+    /**
+     * Creates a pool with at most <code>size</code> threads and at most <code>queueCapacity</code> waiting tasks. Tasks submitted while the queue
+     * is full are executed by the submitting thread, so that the pool cannot grow without bounds under load.
+     *
+     * @param name Prefix for the names of the pool threads
+     * @param size Number of threads
+     * @param queueCapacity Maximum number of waiting tasks
+     */
+    public ThreadPoolManager(String name, int size, int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executorService = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
     public Future<T> execute(Callable<T> task) {
         synchronized (lock) {
             return this.executorService.submit(task);
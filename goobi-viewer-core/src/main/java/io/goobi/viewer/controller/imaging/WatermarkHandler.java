@@ -29,7 +29,7 @@ import java.util.Map;
 import java.util.Optional;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.SolrDocument;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
@@ -47,7 +47,6 @@ import io.goobi.viewer.model.viewer.PageType;
 import io.goobi.viewer.model.viewer.PhysicalElement;
 import io.goobi.viewer.model.viewer.StructElement;
 import io.goobi.viewer.solr.SolrConstants;
-import io.goobi.viewer.solr.SolrSearchIndex;
 
 /**
  * <p>
@@ -180,13 +179,14 @@ public class WatermarkHandler implements Serializable {
                 if (StringUtils.startsWithIgnoreCase(text, WATERMARK_TEXT_TYPE_SOLR)) {
                     String field = text.substring(WATERMARK_TEXT_TYPE_SOLR.length());
                     try {
-                        SolrDocumentList res = DataManager.getInstance()
+                        // Only the first hit is relevant, so there is no need to fetch more than one document
+                        SolrDocument res = DataManager.getInstance()
                                 .getSearchIndex()
-                                .search(new StringBuilder(SolrConstants.PI).append(":").append(page.getPi()).toString(), SolrSearchIndex.MAX_HITS,
-                                        null, Collections.singletonList(field));
-                        if (res != null && !res.isEmpty() && res.get(0).getFirstValue(field) != null) {
-                            // logger.debug(field + ":" + res.get(0).getFirstValue(field));
-                            urlBuilder.append((String) res.get(0).getFirstValue(field));
+                                .getFirstDoc(new StringBuilder(SolrConstants.PI).append(":").append(page.getPi()).toString(),
+                                        Collections.singletonList(field));
+                        if (res != null && res.getFirstValue(field) != null) {
+                            // logger.debug(field + ":" + res.getFirstValue(field));
+                            urlBuilder.append((String) res.getFirstValue(field));
                             break;
                         }
                     } catch (PresentationException e) {
@@ -241,13 +241,14 @@ public class WatermarkHandler implements Serializable {
                     if (StringUtils.startsWithIgnoreCase(text, WATERMARK_TEXT_TYPE_SOLR)) {
                         String field = text.substring(WATERMARK_TEXT_TYPE_SOLR.length());
                         try {
-                            SolrDocumentList res = DataManager.getInstance()
+                            // Only the first hit is relevant, so there is no need to fetch more than one document
+                            SolrDocument res = DataManager.getInstance()
                                     .getSearchIndex()
-                                    .search(new StringBuilder(SolrConstants.PI).append(":").append(doc.getPi()).toString(), SolrSearchIndex.MAX_HITS,
-                                            null, Collections.singletonList(field));
-                            if (res != null && !res.isEmpty() && res.get(0).getFirstValue(field) != null) {
-                                // logger.debug(field + ":" + res.get(0).getFirstValue(field));
-                                urlBuilder.append((String) res.get(0).getFirstValue(field));
+                                    .getFirstDoc(new StringBuilder(SolrConstants.PI).append(":").append(doc.getPi()).toString(),
+                                            Collections.singletonList(field));
+                            if (res != null && res.getFirstValue(field) != null) {
+                                // logger.debug(field + ":" + res.getFirstValue(field));
+                                urlBuilder.append((String) res.getFirstValue(field));
                                 break;
                             }
                         } catch (PresentationException e) {
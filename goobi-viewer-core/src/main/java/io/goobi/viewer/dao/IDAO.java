@@ -620,6 +620,14 @@ public interface IDAO {
 
     // LicenseType
 
+    /**
+     * Returns the version of the in-memory snapshot of all license types, IP ranges and client applications. The version changes with every write
+     * to any of these entity types, so caches of data derived from them can use it as part of their key.
+     *
+     * @return Current version
+     */
+    public long getAccessControlDataVersion();
+
     /**
      * <p>
      * getAllLicenseTypes.
@@ -2579,6 +2587,17 @@ public interface IDAO {
 
     public boolean saveClientApplication(ClientApplication client) throws DAOException;
 
+    /**
+     * Updates only the last access date of the client with the given id. Unlike {@link #saveClientApplication(ClientApplication)} this does not
+     * invalidate the access control data, since the last access date is not relevant for access checks.
+     *
+     * @param id id of the client to update
+     * @param dateLastAccess the new last access date
+     * @return true if successful; false otherwise
+     * @throws DAOException
+     */
+    public boolean updateClientApplicationLastAccess(long id, LocalDateTime dateLastAccess) throws DAOException;
+
     public boolean deleteClientApplication(long id) throws DAOException;
 
     public ClientApplication getClientApplicationByClientId(String clientId) throws DAOException;
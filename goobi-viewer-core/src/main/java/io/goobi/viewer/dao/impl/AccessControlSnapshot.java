@@ -0,0 +1,120 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.dao.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.goobi.viewer.model.security.LicenseType;
+import io.goobi.viewer.model.security.clients.ClientApplication;
+import io.goobi.viewer.model.security.user.IpRange;
+
+/**
+ * Immutable snapshot of the read-mostly entity sets used by access control and search filters: all {@link LicenseType}s, {@link IpRange}s and
+ * {@link ClientApplication}s. Lists are unmodifiable; the contained entities are shared between all readers and must not be modified in place
+ * (load them individually for editing).
+ */
+public final class AccessControlSnapshot {
+
+    private final long version;
+    private final List<LicenseType> allLicenseTypes;
+    private final List<LicenseType> recordLicenseTypes;
+    private final List<IpRange> ipRanges;
+    private final List<ClientApplication> clientApplications;
+    private final Map<String, ClientApplication> clientApplicationsByIdentifier;
+
+    /**
+     *
+     * @param version
+     * @param allLicenseTypes
+     * @param ipRanges
+     * @param clientApplications
+     */
+    public AccessControlSnapshot(long version, List<LicenseType> allLicenseTypes, List<IpRange> ipRanges,
+            List<ClientApplication> clientApplications) {
+        this.version = version;
+        this.allLicenseTypes = Collections.unmodifiableList(new ArrayList<>(allLicenseTypes));
+        List<LicenseType> recordTypes = new ArrayList<>(allLicenseTypes.size());
+        for (LicenseType licenseType : allLicenseTypes) {
+            if (!licenseType.isCore()) {
+                recordTypes.add(licenseType);
+            }
+        }
+        this.recordLicenseTypes = Collections.unmodifiableList(recordTypes);
+        this.ipRanges = Collections.unmodifiableList(new ArrayList<>(ipRanges));
+        this.clientApplications = Collections.unmodifiableList(new ArrayList<>(clientApplications));
+        Map<String, ClientApplication> byIdentifier = new HashMap<>(clientApplications.size());
+        for (ClientApplication client : clientApplications) {
+            if (client.getClientIdentifier() != null) {
+                byIdentifier.put(client.getClientIdentifier(), client);
+            }
+        }
+        this.clientApplicationsByIdentifier = Collections.unmodifiableMap(byIdentifier);
+    }
+
+    /**
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the allLicenseTypes
+     */
+    public List<LicenseType> getAllLicenseTypes() {
+        return allLicenseTypes;
+    }
+
+    /**
+     * @return the recordLicenseTypes (all non-core license types)
+     */
+    public List<LicenseType> getRecordLicenseTypes() {
+        return recordLicenseTypes;
+    }
+
+    /**
+     * @return the ipRanges
+     */
+    public List<IpRange> getIpRanges() {
+        return ipRanges;
+    }
+
+    /**
+     * @return the clientApplications
+     */
+    public List<ClientApplication> getClientApplications() {
+        return clientApplications;
+    }
+
+    /**
+     *
+     * @param clientIdentifier
+     * @return {@link ClientApplication} with the given identifier; null if none found
+     */
+    public ClientApplication getClientApplicationByClientId(String clientIdentifier) {
+        return clientApplicationsByIdentifier.get(clientIdentifier);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.dao.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.goobi.viewer.exceptions.DAOException;
+
+/**
+ * Read-through holder for the current {@link AccessControlSnapshot}. Every write to one of the contained entity types must call
+ * {@link #invalidate()}, which increments the version; the next read then loads a new snapshot. A snapshot loaded concurrently with a write is
+ * returned to its caller but never published, so readers can not get stuck on outdated data.
+ */
+public class AccessControlSnapshotRepository {
+
+    private static final Logger logger = LogManager.getLogger(AccessControlSnapshotRepository.class);
+
+    /**
+     * Loads a snapshot from the database.
+     */
+    @FunctionalInterface
+    public interface SnapshotLoader {
+
+        /**
+         *
+         * @param version Version to assign to the new snapshot
+         * @return Loaded {@link AccessControlSnapshot}
+         * @throws DAOException
+         */
+        AccessControlSnapshot load(long version) throws DAOException;
+    }
+
+    private final SnapshotLoader loader;
+    private final AtomicLong version = new AtomicLong(1);
+    private volatile AccessControlSnapshot snapshot = null;
+
+    /**
+     *
+     * @param loader
+     */
+    public AccessControlSnapshotRepository(SnapshotLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Returns the current snapshot, loading it if the last write made the previous one obsolete.
+     *
+     * @return Current {@link AccessControlSnapshot}
+     * @throws DAOException
+     * @should load snapshot only once per version
+     * @should reload snapshot after invalidation
+     */
+    public AccessControlSnapshot getSnapshot() throws DAOException {
+        AccessControlSnapshot ret = snapshot;
+        if (ret != null && ret.getVersion() == version.get()) {
+            return ret;
+        }
+
+        synchronized (this) {
+            ret = snapshot;
+            long currentVersion = version.get();
+            if (ret != null && ret.getVersion() == currentVersion) {
+                return ret;
+            }
+            logger.trace("Loading access control snapshot version {}", currentVersion);
+            ret = loader.load(currentVersion);
+            if (version.get() == currentVersion) {
+                snapshot = ret;
+            }
+            return ret;
+        }
+    }
+
+    /**
+     * Marks the current snapshot as obsolete.
+     *
+     * @return New version
+     */
+    public long invalidate() {
+        return version.incrementAndGet();
+    }
+
+    /**
+     * @return Current version; changes with every write to any of the contained entity types
+     */
+    public long getVersion() {
+        return version.get();
+    }
+}
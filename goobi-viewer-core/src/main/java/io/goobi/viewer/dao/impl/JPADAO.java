@@ -46,6 +46,7 @@ import org.apache.logging.log4j.Logger;
 import org.eclipse.persistence.exceptions.DatabaseException;
 
 import io.goobi.viewer.controller.AlphabetIterator;
+import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.controller.mq.MessageStatus;
 import io.goobi.viewer.controller.mq.ViewerMessage;
 import io.goobi.viewer.dao.IDAO;
@@ -81,6 +82,7 @@ import io.goobi.viewer.model.crowdsourcing.campaigns.CampaignRecordPageStatistic
 import io.goobi.viewer.model.crowdsourcing.campaigns.CampaignRecordStatistic;
 import io.goobi.viewer.model.crowdsourcing.campaigns.CrowdsourcingStatus;
 import io.goobi.viewer.model.crowdsourcing.questions.Question;
+import io.goobi.viewer.model.iiif.presentation.IIIFManifestCache;
 import io.goobi.viewer.model.job.JobStatus;
 import io.goobi.viewer.model.job.TaskType;
 import io.goobi.viewer.model.job.download.DownloadJob;
@@ -146,6 +148,8 @@ public class JPADAO implements IDAO {
     private final EntityManagerFactory factory;
     private Object cmsRequestLock = new Object();
     private Object crowdsourcingRequestLock = new Object();
+    /** Snapshot of license types, IP ranges and client applications, which are read on virtually every request */
+    private final AccessControlSnapshotRepository accessControlSnapshots = new AccessControlSnapshotRepository(this::loadAccessControlSnapshot);
 
     /**
      * <p>
@@ -1220,19 +1224,9 @@ public class JPADAO implements IDAO {
     }
 
     /** {@inheritDoc} */
-    @SuppressWarnings("unchecked")
     @Override
     public List<LicenseType> getAllLicenseTypes() throws DAOException {
-        preQuery();
-        EntityManager em = getEntityManager();
-        try {
-            Query q = em.createQuery("SELECT lt FROM LicenseType lt");
-            q.setFlushMode(FlushModeType.COMMIT);
-            // q.setHint(PARAM_STOREMODE, PARAM_STOREMODE_VALUE_REFRESH);
-            return q.getResultList();
-        } finally {
-            close(em);
-        }
+        return accessControlSnapshots.getSnapshot().getAllLicenseTypes();
     }
 
     /**
@@ -1240,17 +1234,9 @@ public class JPADAO implements IDAO {
      * 
      * @should only return non open access license types
      */
-    @SuppressWarnings("unchecked")
     @Override
     public List<LicenseType> getRecordLicenseTypes() throws DAOException {
-        preQuery();
-        EntityManager em = getEntityManager();
-        try {
-            Query q = em.createQuery("SELECT lt FROM LicenseType lt WHERE lt.core = false");
-            return q.getResultList();
-        } finally {
-            close(em);
-        }
+        return accessControlSnapshots.getSnapshot().getRecordLicenseTypes();
     }
 
     /**
@@ -1439,6 +1425,7 @@ public class JPADAO implements IDAO {
             startTransaction(em);
             em.persist(licenseType);
             commitTransaction(em);
+            accessControlSnapshots.invalidate();
         } catch (PersistenceException e) {
             handleException(em);
             return false;
@@ -1457,6 +1444,7 @@ public class JPADAO implements IDAO {
             startTransaction(em);
             em.merge(licenseType);
             commitTransaction(em);
+            accessControlSnapshots.invalidate();
             return true;
         } catch (PersistenceException e) {
             handleException(em);
@@ -1476,6 +1464,7 @@ public class JPADAO implements IDAO {
             LicenseType o = em.getReference(LicenseType.class, licenseType.getId());
             em.remove(o);
             commitTransaction(em);
+            accessControlSnapshots.invalidate();
             return true;
         } catch (PersistenceException e) {
             handleException(em);
@@ -1750,17 +1739,9 @@ public class JPADAO implements IDAO {
     }
 
     /** {@inheritDoc} */
-    @SuppressWarnings("unchecked")
     @Override
     public List<IpRange> getAllIpRanges() throws DAOException {
-        preQuery();
-        EntityManager em = getEntityManager();
-        try {
-            Query q = em.createQuery("SELECT ipr FROM IpRange ipr");
-            return q.getResultList();
-        } finally {
-            close(em);
-        }
+        return accessControlSnapshots.getSnapshot().getIpRanges();
     }
 
     /** {@inheritDoc} */
@@ -1848,6 +1829,7 @@ public class JPADAO implements IDAO {
             startTransaction(em);
             em.persist(ipRange);
             commitTransaction(em);
+            accessControlSnapshots.invalidate();
         } catch (PersistenceException e) {
             handleException(em);
             return false;
@@ -1866,6 +1848,7 @@ public class JPADAO implements IDAO {
             startTransaction(em);
             em.merge(ipRange);
             commitTransaction(em);
+            accessControlSnapshots.invalidate();
             return true;
         } catch (PersistenceException e) {
             handleException(em);
@@ -1885,6 +1868,7 @@ public class JPADAO implements IDAO {
             IpRange o = em.getReference(IpRange.class, ipRange.getId());
             em.remove(o);
             commitTransaction(em);
+            accessControlSnapshots.invalidate();
             return true;
         } catch (PersistenceException e) {
             handleException(em);
@@ -2162,6 +2146,7 @@ public class JPADAO implements IDAO {
             startTransaction(em);
             em.persist(comment);
             commitTransaction(em);
+            invalidateManifestCache(comment.getTargetPI());
             return true;
         } catch (PersistenceException e) {
             logger.error(e.toString(), e);
@@ -2181,6 +2166,7 @@ public class JPADAO implements IDAO {
             startTransaction(em);
             em.merge(comment);
             commitTransaction(em);
+            invalidateManifestCache(comment.getTargetPI());
             return true;
         } catch (PersistenceException e) {
             handleException(em);
@@ -2200,6 +2186,7 @@ public class JPADAO implements IDAO {
             Comment o = em.getReference(Comment.class, comment.getId());
             em.remove(o);
             commitTransaction(em);
+            invalidateManifestCache(comment.getTargetPI());
             return true;
         } catch (PersistenceException e) {
             handleException(em);
@@ -2232,6 +2219,7 @@ public class JPADAO implements IDAO {
                     .setParameter("newOwner", toUser.getId())
                     .executeUpdate();
             commitTransaction(em);
+            invalidateManifestCache(null);
 
             return rows;
         } catch (PersistenceException e) {
@@ -2282,12 +2270,43 @@ public class JPADAO implements IDAO {
             startTransaction(em);
             int rows = q.executeUpdate();
             commitTransaction(em);
+            invalidateManifestCache(StringUtils.isNotEmpty(pi) ? pi : null);
             return rows;
         } finally {
             close(em);
         }
     }
 
+    /**
+     * Registers a change to comments, crowdsourcing annotations or related CMS pages of the given record and removes cached IIIF manifests that
+     * embed them.
+     *
+     * @param pi Record identifier; null if all records are affected
+     */
+    private static void invalidateManifestCache(String pi) {
+        DataManager.getInstance().getRecordContentVersions().changed(pi);
+        IIIFManifestCache cache = DataManager.getInstance().getManifestCache();
+        if (cache == null) {
+            return;
+        }
+        if (pi != null) {
+            cache.invalidate(pi);
+        } else {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Calls {@link #invalidateManifestCache(String)} for the record of a CMS page. Pages without a related record do not affect any manifest.
+     *
+     * @param relatedPI Related record identifier of the CMS page; may be blank
+     */
+    private static void invalidateManifestCacheForCMSPage(String relatedPI) {
+        if (StringUtils.isNotBlank(relatedPI)) {
+            invalidateManifestCache(relatedPI);
+        }
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -3070,6 +3089,7 @@ public class JPADAO implements IDAO {
                 startTransaction(em);
                 em.persist(page);
                 commitTransaction(em);
+                invalidateManifestCacheForCMSPage(page.getRelatedPI());
                 return true;
             } catch (PersistenceException e) {
                 logger.error("Error adding cmsPage to database", e);
@@ -3089,8 +3109,14 @@ public class JPADAO implements IDAO {
             EntityManager em = getEntityManager();
             try {
                 startTransaction(em);
+                CMSPage o = page.getId() != null ? em.find(CMSPage.class, page.getId()) : null;
+                String oldRelatedPI = o != null ? o.getRelatedPI() : null;
                 em.merge(page);
                 commitTransaction(em);
+                invalidateManifestCacheForCMSPage(oldRelatedPI);
+                if (!StringUtils.equals(oldRelatedPI, page.getRelatedPI())) {
+                    invalidateManifestCacheForCMSPage(page.getRelatedPI());
+                }
                 return true;
             } catch (PersistenceException | NullPointerException e) {
                 logger.error("Error saving page ", e);
@@ -3114,6 +3140,7 @@ public class JPADAO implements IDAO {
                 CMSPage o = em.getReference(CMSPage.class, page.getId());
                 em.remove(o);
                 commitTransaction(em);
+                invalidateManifestCacheForCMSPage(page.getRelatedPI());
                 return true;
             } catch (PersistenceException e) {
                 handleException(em);
@@ -3955,10 +3982,41 @@ public class JPADAO implements IDAO {
     }
 
     /**
-     * currently noop since no persistence entity manager is kept
+     * Loads all entities contained in {@link AccessControlSnapshot} using a single {@link EntityManager}.
+     *
+     * @param version Version to assign to the snapshot
+     * @return New {@link AccessControlSnapshot}
+     * @throws DAOException
+     */
+    @SuppressWarnings("unchecked")
+    private AccessControlSnapshot loadAccessControlSnapshot(long version) throws DAOException {
+        preQuery();
+        EntityManager em = getEntityManager();
+        try {
+            List<LicenseType> licenseTypes = em.createQuery("SELECT lt FROM LicenseType lt").setFlushMode(FlushModeType.COMMIT).getResultList();
+            List<IpRange> ipRanges = em.createQuery("SELECT ipr FROM IpRange ipr").getResultList();
+            List<ClientApplication> clients = em.createQuery("SELECT c FROM ClientApplication c").getResultList();
+            return new AccessControlSnapshot(version, licenseTypes, ipRanges, clients);
+        } finally {
+            close(em);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @should increase after license type write
+     */
+    @Override
+    public long getAccessControlDataVersion() {
+        return accessControlSnapshots.getVersion();
+    }
+
+    /**
+     * No persistence entity manager is kept, so this only discards the access control snapshot.
      */
     public void clear() {
-        //noop
+        accessControlSnapshots.invalidate();
     }
 
     /** {@inheritDoc} */
@@ -5173,6 +5231,7 @@ public class JPADAO implements IDAO {
             startTransaction(em);
             em.persist(annotation);
             commitTransaction(em);
+            invalidateManifestCache(annotation.getTargetPI());
         } catch (PersistenceException e) {
             handleException(em);
             return false;
@@ -5191,6 +5250,7 @@ public class JPADAO implements IDAO {
             startTransaction(em);
             em.merge(annotation);
             commitTransaction(em);
+            invalidateManifestCache(annotation.getTargetPI());
             return true;
         } catch (IllegalArgumentException e) {
             return false;
@@ -5212,6 +5272,7 @@ public class JPADAO implements IDAO {
             CrowdsourcingAnnotation o = em.getReference(CrowdsourcingAnnotation.class, annotation.getId());
             em.remove(o);
             commitTransaction(em);
+            invalidateManifestCache(annotation.getTargetPI());
             return true;
         } catch (IllegalArgumentException e) {
             return false;
@@ -6449,15 +6510,8 @@ public class JPADAO implements IDAO {
 
     /** {@inheritDoc} */
     @Override
-    @SuppressWarnings("unchecked")
     public List<ClientApplication> getAllClientApplications() throws DAOException {
-        preQuery();
-        EntityManager em = getEntityManager();
-        try {
-            return em.createQuery("SELECT c FROM ClientApplication c").getResultList();
-        } finally {
-            close(em);
-        }
+        return accessControlSnapshots.getSnapshot().getClientApplications();
     }
 
     /** {@inheritDoc} */
@@ -6477,17 +6531,7 @@ public class JPADAO implements IDAO {
     /** {@inheritDoc} */
     @Override
     public ClientApplication getClientApplicationByClientId(String clientId) throws DAOException {
-        preQuery();
-        EntityManager em = getEntityManager();
-        try {
-            return (ClientApplication) em.createQuery("SELECT c FROM ClientApplication c WHERE c.clientIdentifier = :clientId")
-                    .setParameter("clientId", clientId)
-                    .getSingleResult();
-        } catch (NoResultException e) {
-            return null;
-        } finally {
-            close(em);
-        }
+        return accessControlSnapshots.getSnapshot().getClientApplicationByClientId(clientId);
     }
 
     /** {@inheritDoc} */
@@ -6503,6 +6547,7 @@ public class JPADAO implements IDAO {
                 em.merge(client);
             }
             commitTransaction(em);
+            accessControlSnapshots.invalidate();
             return true;
         } catch (PersistenceException e) {
             logger.error("Error saving disclaimer", e);
@@ -6513,6 +6558,32 @@ public class JPADAO implements IDAO {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @should not change access control data version
+     */
+    @Override
+    public boolean updateClientApplicationLastAccess(long id, LocalDateTime dateLastAccess) throws DAOException {
+        preQuery();
+        EntityManager em = getEntityManager();
+        try {
+            startTransaction(em);
+            int updated = em.createQuery("UPDATE ClientApplication c SET c.dateLastAccess = :date WHERE c.id = :id")
+                    .setParameter("date", dateLastAccess)
+                    .setParameter("id", id)
+                    .executeUpdate();
+            commitTransaction(em);
+            return updated > 0;
+        } catch (PersistenceException e) {
+            logger.error("Error updating last access of client application {}", id, e);
+            handleException(em);
+            return false;
+        } finally {
+            close(em);
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean deleteClientApplication(long id) throws DAOException {
@@ -6523,6 +6594,7 @@ public class JPADAO implements IDAO {
             ClientApplication o = em.getReference(ClientApplication.class, id);
             em.remove(o);
             commitTransaction(em);
+            accessControlSnapshots.invalidate();
             return true;
         } catch (PersistenceException e) {
             handleException(em);
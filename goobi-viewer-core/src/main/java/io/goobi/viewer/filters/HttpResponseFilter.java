@@ -24,8 +24,6 @@ package io.goobi.viewer.filters;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
@@ -50,16 +48,14 @@ public class HttpResponseFilter implements Filter {
     private static final Logger logger = LogManager.getLogger(HttpResponseFilter.class);
 
     private static boolean preventProxyCaching = DataManager.getInstance().getConfiguration().isPreventProxyCaching();
-    private static String alwaysCacheRegex = "/css|jquery|primefaces|\\.js|\\.gif|\\.png|\\.ico|\\.jpg|\\.jpeg";
 
     /** {@inheritDoc} */
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
-        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        RequestClassification classification = RequestClassification.get((HttpServletRequest) request);
 
         //rest calls should not carry character encoding
-        String path = httpRequest.getServletPath();
-        if (!path.equals("/rest") && !path.equals("/api/v1")) {
+        if (classification.isUseUtf8Encoding()) {
             request.setCharacterEncoding("UTF-8");
             response.setCharacterEncoding("UTF-8");
         }
@@ -68,10 +64,8 @@ public class HttpResponseFilter implements Filter {
             //            if (httpRequest.getRequestURI().contains("OpenLayers"))
             //            logger.debug(httpRequest.getRequestURI());
 
-            // Only disable caching if the URI doesn't match the regex
-            Pattern p = Pattern.compile(alwaysCacheRegex);
-            Matcher m = p.matcher(httpRequest.getRequestURI());
-            if (!m.find()) {
+            // Only disable caching for resources that aren't always cacheable
+            if (!classification.isCacheable()) {
                 //                logger.debug(httpRequest.getRequestURI());
                 HttpServletResponse httpResponse = (HttpServletResponse) response;
                 httpResponse.setHeader("Expires", "Tue, 03 Jul 2001 06:00:00 GMT");
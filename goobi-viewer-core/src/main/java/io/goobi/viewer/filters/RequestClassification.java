@@ -0,0 +1,213 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.filters;
+
+import java.util.regex.Pattern;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.lang3.StringUtils;
+
+import io.goobi.viewer.controller.NetTools;
+
+/**
+ * Immutable result of classifying a single http request. A classification is computed once per request by {@link RequestClassificationFilter} and
+ * stored as a request attribute, so that downstream filters and components don't need to evaluate the same regular expressions against the request
+ * URI and headers again.
+ */
+public final class RequestClassification {
+
+    /** Request attribute under which the classification of the current request is stored. */
+    public static final String REQUEST_ATTRIBUTE = RequestClassification.class.getName();
+
+    /** URIs matching this pattern are never prevented from being cached by proxies. */
+    static final Pattern ALWAYS_CACHE_PATTERN = Pattern.compile("/css|jquery|primefaces|\\.js|\\.gif|\\.png|\\.ico|\\.jpg|\\.jpeg");
+    /** Matches URIs of style sheets, scripts, fonts and images delivered as files (outside of the REST APIs). */
+    static final Pattern STATIC_RESOURCE_PATTERN =
+            Pattern.compile("/javax\\.faces\\.resource/|\\.(css|js|gif|png|ico|jpg|jpeg|svg|woff|woff2|ttf|eot|map)$", Pattern.CASE_INSENSITIVE);
+    /** Matches the servlet paths of the REST APIs. */
+    static final Pattern REST_PATH_PATTERN = Pattern.compile("^/(rest|api/v\\d+)(/.*)?$");
+    /** Matches IIIF presentation and image information resources. */
+    static final Pattern IIIF_PATTERN =
+            Pattern.compile("/(manifest|canvas|sequence|range|annotations|list|layer)(/|$)|/info\\.json$|/collection\\.json$");
+    /** Matches IIIF image requests, i.e. URIs ending in /{region}/{size}/{rotation}/{quality}.{format}. */
+    static final Pattern IMAGE_TILE_PATTERN = Pattern.compile("/[^/]+/[^/]+/!?\\d+(\\.\\d+)?/[^/.]+\\.(jpg|jpeg|png|gif|tif|tiff|jp2|webp)$");
+
+    private final String ipAddress;
+    private final boolean bot;
+    private final boolean staticResource;
+    private final boolean cacheable;
+    private final boolean rest;
+    private final boolean iiif;
+    private final boolean imageTile;
+    private final boolean utf8Encoding;
+
+    /**
+     * 
+     * @param ipAddress
+     * @param bot
+     * @param staticResource
+     * @param cacheable
+     * @param rest
+     * @param iiif
+     * @param imageTile
+     * @param utf8Encoding
+     */
+    RequestClassification(String ipAddress, boolean bot, boolean staticResource, boolean cacheable, boolean rest, boolean iiif, boolean imageTile,
+            boolean utf8Encoding) {
+        this.ipAddress = ipAddress;
+        this.bot = bot;
+        this.staticResource = staticResource;
+        this.cacheable = cacheable;
+        this.rest = rest;
+        this.iiif = iiif;
+        this.imageTile = imageTile;
+        this.utf8Encoding = utf8Encoding;
+    }
+
+    /**
+     * Returns the classification stored in the given request. If the request hasn't passed {@link RequestClassificationFilter}, the request is
+     * classified now and the result is stored in the request.
+     * 
+     * @param request
+     * @return {@link RequestClassification} of the request; null if request is null
+     * @should return stored classification
+     * @should classify and store if not yet classified
+     */
+    public static RequestClassification get(HttpServletRequest request) {
+        if (request == null) {
+            return null;
+        }
+        Object stored = request.getAttribute(REQUEST_ATTRIBUTE);
+        if (stored instanceof RequestClassification classification) {
+            return classification;
+        }
+        RequestClassification classification = classify(request);
+        request.setAttribute(REQUEST_ATTRIBUTE, classification);
+        return classification;
+    }
+
+    /**
+     * Returns the classification stored in the given request without computing one.
+     * 
+     * @param request
+     * @return Stored {@link RequestClassification}; null if none is stored
+     */
+    public static RequestClassification getStored(HttpServletRequest request) {
+        if (request == null) {
+            return null;
+        }
+        Object stored = request.getAttribute(REQUEST_ATTRIBUTE);
+        return stored instanceof RequestClassification classification ? classification : null;
+    }
+
+    /**
+     * Classifies the given request.
+     * 
+     * @param request
+     * @return New {@link RequestClassification}
+     * @should detect crawler bots
+     * @should detect static resources
+     * @should not consider rest resources static
+     * @should only consider image tiles cacheable if uri matches always cache pattern
+     * @should detect rest and iiif requests
+     * @should detect image tiles
+     */
+    static RequestClassification classify(HttpServletRequest request) {
+        String uri = StringUtils.defaultString(request.getRequestURI());
+        String servletPath = StringUtils.defaultString(request.getServletPath());
+        boolean rest = REST_PATH_PATTERN.matcher(servletPath).matches();
+        boolean imageTile = rest && IMAGE_TILE_PATTERN.matcher(uri).find();
+        boolean iiif = rest && (imageTile || IIIF_PATTERN.matcher(uri).find());
+
+        // Only these APIs are served without character encoding
+        boolean utf8Encoding = !"/rest".equals(servletPath) && !"/api/v1".equals(servletPath);
+
+        boolean staticResource = !rest && STATIC_RESOURCE_PATTERN.matcher(uri).find();
+
+        return new RequestClassification(NetTools.getIpAddress(request), NetTools.isCrawlerUserAgent(request.getHeader("User-Agent")),
+                staticResource, ALWAYS_CACHE_PATTERN.matcher(uri).find(), rest, iiif, imageTile, utf8Encoding);
+    }
+
+    /**
+     * @return the ipAddress
+     */
+    public String getIpAddress() {
+        return ipAddress;
+    }
+
+    /**
+     * @return true if the request was made by a web crawler
+     */
+    public boolean isBot() {
+        return bot;
+    }
+
+    /**
+     * @return true if the request targets a static resource file (style sheet, script, font, image) outside of the REST APIs
+     */
+    public boolean isStaticResource() {
+        return staticResource;
+    }
+
+    /**
+     * @return true if the request targets one of the REST APIs
+     */
+    public boolean isRest() {
+        return rest;
+    }
+
+    /**
+     * @return true if the request targets a IIIF resource
+     */
+    public boolean isIiif() {
+        return iiif;
+    }
+
+    /**
+     * @return true if the request is a IIIF image request
+     */
+    public boolean isImageTile() {
+        return imageTile;
+    }
+
+    /**
+     * @return true if responses to this request may be cached by proxies
+     */
+    public boolean isCacheable() {
+        return cacheable;
+    }
+
+    /**
+     * @return true if the response to this request should carry UTF-8 character encoding
+     */
+    public boolean isUseUtf8Encoding() {
+        return utf8Encoding;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "RequestClassification [ipAddress=" + ipAddress + ", bot=" + bot + ", staticResource=" + staticResource + ", cacheable=" + cacheable
+                + ", rest=" + rest + ", iiif=" + iiif + ", imageTile=" + imageTile + "]";
+    }
+}
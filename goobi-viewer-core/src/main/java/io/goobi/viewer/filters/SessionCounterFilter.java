@@ -66,6 +66,11 @@ public class SessionCounterFilter implements Filter {
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain fc) throws IOException, ServletException {
         // logger.trace("doFilter");
         HttpServletRequest req = (HttpServletRequest) request;
+        // Requests for style sheets, scripts and images don't count as session activity
+        if (RequestClassification.get(req).isStaticResource()) {
+            fc.doFilter(request, response);
+            return;
+        }
         String id = req.getSession().getId();
         Map<String, String> metadataMap = DataManager.getInstance().getSessionMap().get(id);
         ZonedDateTime now = LocalDateTime.now().atZone(ZoneId.systemDefault());
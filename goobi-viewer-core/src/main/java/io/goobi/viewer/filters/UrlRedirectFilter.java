@@ -86,6 +86,12 @@ public class UrlRedirectFilter implements Filter {
                 return;
             }
 
+            // REST API calls never resolve to a CMS page and must not change the view history
+            if (RequestClassification.get(httpRequest).isRest()) {
+                chain.doFilter(request, response);
+                return;
+            }
+
             Optional<ViewerPath> currentPath = ViewerPathBuilder.createPath(httpRequest);
             if (currentPath.isPresent()) {
                 logger.trace("currentPath: {}", currentPath.get());
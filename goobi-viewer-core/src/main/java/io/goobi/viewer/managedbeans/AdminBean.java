@@ -65,6 +65,7 @@ import io.goobi.viewer.managedbeans.utils.BeanUtils;
 import io.goobi.viewer.messages.Messages;
 import io.goobi.viewer.messages.ViewerResourceBundle;
 import io.goobi.viewer.model.job.download.DownloadJobTools;
+import io.goobi.viewer.model.search.SearchHelper;
 import io.goobi.viewer.model.security.Role;
 import io.goobi.viewer.model.security.authentication.AuthenticationProviderException;
 import io.goobi.viewer.model.security.user.IpRange;
@@ -463,6 +464,7 @@ public class AdminBean implements Serializable {
             }
         }
         setCurrentUserGroup(null);
+        SearchHelper.clearPersonalFilterQuerySuffixCache();
 
         return "pretty:adminGroups";
     }
@@ -477,6 +479,7 @@ public class AdminBean implements Serializable {
      */
     public void deleteUserGroupAction(UserGroup userGroup) throws DAOException {
         if (DataManager.getInstance().getDao().deleteUserGroup(userGroup)) {
+            SearchHelper.clearPersonalFilterQuerySuffixCache();
             Messages.info(StringConstants.MSG_ADMIN_DELETED_SUCCESSFULLY);
         } else {
             Messages.error(StringConstants.MSG_ADMIN_DELETE_FAILURE);
@@ -688,6 +691,7 @@ public class AdminBean implements Serializable {
 
             }
         } finally {
+            SearchHelper.clearPersonalFilterQuerySuffixCache();
             resetDirtyUserRolesAction();
         }
     }
@@ -729,6 +733,7 @@ public class AdminBean implements Serializable {
             }
         }
         setCurrentIpRange(null);
+        SearchHelper.clearPersonalFilterQuerySuffixCache();
 
         return "pretty:adminIpRanges";
     }
@@ -743,6 +748,7 @@ public class AdminBean implements Serializable {
      */
     public void deleteIpRangeAction(IpRange ipRange) throws DAOException {
         if (DataManager.getInstance().getDao().deleteIpRange(ipRange)) {
+            SearchHelper.clearPersonalFilterQuerySuffixCache();
             Messages.info(StringConstants.MSG_ADMIN_DELETED_SUCCESSFULLY);
         } else {
             Messages.error(StringConstants.MSG_ADMIN_DELETE_FAILURE);
@@ -41,6 +41,7 @@ import io.goobi.viewer.managedbeans.tabledata.TableDataSource;
 import io.goobi.viewer.managedbeans.tabledata.TableDataSourceException;
 import io.goobi.viewer.managedbeans.utils.BeanUtils;
 import io.goobi.viewer.messages.Messages;
+import io.goobi.viewer.model.search.SearchHelper;
 import io.goobi.viewer.model.security.clients.ClientApplication;
 import io.goobi.viewer.model.security.clients.ClientApplication.AccessStatus;
 import io.goobi.viewer.model.security.clients.ClientApplicationManager;
@@ -176,6 +177,7 @@ public class AdminClientsBean implements Serializable {
     public void save(ClientApplication client) {
         try {
             if (dao.saveClientApplication(client)) {
+                SearchHelper.clearPersonalFilterQuerySuffixCache();
                 Messages.info(null, "admin__clients__save_client__success", client.getClientIdentifier());
             } else {
                 Messages.error(null, "admin__clients__save_client__error", client.getClientIdentifier());
@@ -195,6 +197,7 @@ public class AdminClientsBean implements Serializable {
     public String delete(ClientApplication client) {
         try {
             if (dao.deleteClientApplication(client.getId())) {
+                SearchHelper.clearPersonalFilterQuerySuffixCache();
                 Messages.info(null, "admin__clients__delete_client__success", client.getClientIdentifier());
             } else {
                 Messages.error(null, "admin__clients__delete_client__error", client.getClientIdentifier());
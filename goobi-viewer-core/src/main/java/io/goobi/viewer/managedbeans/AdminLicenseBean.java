@@ -313,6 +313,7 @@ public class AdminLicenseBean implements Serializable {
                 return "pretty:adminLicenseNew";
             }
         }
+        SearchHelper.clearPersonalFilterQuerySuffixCache();
 
         return URL_PRETTY_ADMINLICENSES;
     }
@@ -332,6 +333,7 @@ public class AdminLicenseBean implements Serializable {
         }
 
         if (DataManager.getInstance().getDao().deleteLicenseType(licenseType)) {
+            SearchHelper.clearPersonalFilterQuerySuffixCache();
             Messages.info(StringConstants.MSG_ADMIN_DELETED_SUCCESSFULLY);
 
         } else {
@@ -525,6 +527,7 @@ public class AdminLicenseBean implements Serializable {
             error = true;
         }
 
+        SearchHelper.clearPersonalFilterQuerySuffixCache();
         if (error) {
             if (currentLicense.getId() != null) {
                 return "pretty:adminRightsEdit";
@@ -566,6 +569,7 @@ public class AdminLicenseBean implements Serializable {
         }
 
         if (success) {
+            SearchHelper.clearPersonalFilterQuerySuffixCache();
             Messages.info("license_deleteSuccess");
         } else {
             Messages.error("license_deleteFailure");
@@ -62,7 +62,7 @@ import io.goobi.viewer.model.search.CollectionResult;
 import io.goobi.viewer.model.search.SearchHelper;
 import io.goobi.viewer.model.search.SearchResultGroup;
 import io.goobi.viewer.model.termbrowsing.BrowseTerm;
-import io.goobi.viewer.model.termbrowsing.BrowseTermComparator;
+import io.goobi.viewer.model.termbrowsing.BrowseTermDictionary;
 import io.goobi.viewer.model.termbrowsing.BrowsingMenuFieldConfig;
 import io.goobi.viewer.model.viewer.PageType;
 import io.goobi.viewer.model.viewer.StringPair;
@@ -70,7 +70,6 @@ import io.goobi.viewer.model.viewer.collections.BrowseDcElement;
 import io.goobi.viewer.model.viewer.collections.CollectionView;
 import io.goobi.viewer.model.viewer.collections.CollectionView.BrowseDataProvider;
 import io.goobi.viewer.solr.SolrConstants;
-import io.goobi.viewer.solr.SolrSearchIndex;
 
 /**
  * This bean provides the data for collection and term browsing.
@@ -401,7 +400,6 @@ public class BrowseBean implements Serializable {
                 locale = ViewerResourceBundle.getDefaultLocale();
             }
 
-            List<BrowseTerm> terms = null;
             BrowsingMenuFieldConfig currentBmfc = null;
             List<BrowsingMenuFieldConfig> bmfcList = DataManager.getInstance().getConfiguration().getBrowsingMenuFields();
             for (BrowsingMenuFieldConfig bmfc : bmfcList) {
@@ -423,46 +421,14 @@ public class BrowseBean implements Serializable {
                             : DataManager.getInstance().getConfiguration().getSearchResultGroups());
             // logger.trace("useFilterQuery: {}", useFilterQuery); //NOSONAR Sometimes needed for debugging
 
+            // All terms of the field are sorted once and kept in memory, so filter letters, term counts and pages don't require further queries
+            BrowseTermDictionary dictionary = SearchHelper.getTermDictionary(currentBmfc, useFilterQuery, locale);
+
             // Populate the list of available starting characters with ones that actually exist in the complete terms list
             String browsingMenuFieldForCurrentLanguage = getBrowsingMenuFieldForLanguage(locale.getLanguage());
-            if (availableStringFilters.get(browsingMenuFieldForCurrentLanguage) == null) {
-                logger.trace("Collecting available filters for {}", browsingMenuFieldForCurrentLanguage);
-                int numRows = StringUtils.isNotEmpty(currentBmfc.getSortField()) ? SolrSearchIndex.MAX_HITS : 0;
-                terms = SearchHelper.getFilteredTerms(currentBmfc, "", useFilterQuery, 0, numRows, new BrowseTermComparator(locale),
-                        locale.getLanguage());
-                if (availableStringFilters.get(browsingMenuFieldForCurrentLanguage) == null || filterQuery != null) {
-                    logger.trace("Populating search term filters for field '{}'...", browsingMenuFieldForCurrentLanguage);
-                    availableStringFilters.put(browsingMenuFieldForCurrentLanguage, new ArrayList<>());
-                    for (BrowseTerm term : terms) {
-                        String rawTerm;
-                        if (StringUtils.isNotEmpty(term.getSortTerm())) {
-                            rawTerm = term.getSortTerm();
-                        } else {
-                            rawTerm = term.getTerm();
-                        }
-                        if (StringUtils.isEmpty(rawTerm)) {
-                            continue;
-                        }
-                        String firstChar;
-                        if (StringUtils.isNotEmpty(DataManager.getInstance().getConfiguration().getBrowsingMenuSortingIgnoreLeadingChars())) {
-                            // Exclude leading characters from filters explicitly configured to be ignored
-                            firstChar = BrowseTermComparator.normalizeString(rawTerm,
-                                    DataManager.getInstance().getConfiguration().getBrowsingMenuSortingIgnoreLeadingChars())
-                                    .trim()
-                                    .substring(0, 1)
-                                    .toUpperCase();
-                        } else {
-                            firstChar = rawTerm.substring(0, 1).toUpperCase();
-                        }
-                        if (!availableStringFilters.get(browsingMenuFieldForCurrentLanguage).contains(firstChar) && !"-".equals(firstChar)) {
-                            availableStringFilters.get(browsingMenuFieldForCurrentLanguage).add(firstChar);
-                        }
-                    }
-                }
-
-                Collections.sort(availableStringFilters.get(browsingMenuFieldForCurrentLanguage),
-                        new AlphanumCollatorComparator(Collator.getInstance(locale)));
-            }
+            List<String> filters = dictionary.getFilterLetters();
+            Collections.sort(filters, new AlphanumCollatorComparator(Collator.getInstance(locale)));
+            availableStringFilters.put(browsingMenuFieldForCurrentLanguage, filters);
 
             // If no filter is set, redirect to first available filter (if so configured)
             if (StringUtils.isEmpty(currentStringFilter) && currentBmfc.isAlwaysApplyFilter()
@@ -473,7 +439,7 @@ public class BrowseBean implements Serializable {
                 throw new RedirectException("");
             }
 
-            hitsCount = SearchHelper.getFilteredTermsCount(currentBmfc, currentStringFilter, useFilterQuery, locale.getLanguage());
+            hitsCount = dictionary.getTermCount(currentStringFilter);
             if (hitsCount == 0) {
                 resetTerms();
                 return "searchTermList";
@@ -493,15 +459,8 @@ public class BrowseBean implements Serializable {
 
             // Get terms for the current page
             logger.trace("Fetching terms for page {} ({} - {})", currentPage, start, end - 1);
-            terms = SearchHelper.getFilteredTerms(currentBmfc, currentStringFilter, useFilterQuery, 0, SolrSearchIndex.MAX_HITS,
-                    new BrowseTermComparator(locale), locale.getLanguage());
-
-            for (int i = start; i < end; ++i) {
-                if (i >= terms.size()) {
-                    //filtered queries may return less results than max (why? SearchHelper.getFilteredTermsCount should already account for filtering)
-                    break;
-                }
-                BrowseTerm term = terms.get(i);
+            List<BrowseTerm> terms = dictionary.getTerms(currentStringFilter, start, end - start);
+            for (BrowseTerm term : terms) {
                 Optional<String> translation = term.getTranslations() != null ? term.getTranslations().getValue(locale) : Optional.empty();
                 if (translation.isPresent()) {
                     // Use translated label, if present
@@ -509,7 +468,7 @@ public class BrowseBean implements Serializable {
                 } else {
                     browseTermList.add(term.getTerm());
                 }
-                browseTermHitCountList.add(terms.get(i).getHitCount());
+                browseTermHitCountList.add(term.getHitCount());
 
                 // Escape characters such as quotation marks
                 String escapedTerm = ClientUtils.escapeQueryChars(term.getTerm().intern());
@@ -47,6 +47,7 @@ import io.goobi.viewer.model.administration.legal.Disclaimer;
 import io.goobi.viewer.model.security.License;
 import io.goobi.viewer.model.security.LicenseType;
 import io.goobi.viewer.model.security.user.IpRange;
+import io.goobi.viewer.model.security.user.IpRangeMatcher;
 import io.goobi.viewer.model.security.user.User;
 import io.goobi.viewer.model.security.user.UserGroup;
 import io.goobi.viewer.solr.SolrSearchIndex;
@@ -193,7 +194,7 @@ public class DisclaimerBean implements Serializable {
         List<License> licenses = dao.getLicenses(type);
         List<UserGroup> userGroups = user.map(User::getAllUserGroups).orElse(Collections.emptyList());
         String ipAddress = navigationHelper.getSessionIPAddress();
-        List<IpRange> ipRanges = dao.getAllIpRanges().stream().filter(range -> range.matchIp(ipAddress)).collect(Collectors.toList());
+        List<IpRange> ipRanges = IpRangeMatcher.getInstance(dao).getMatchingIpRanges(ipAddress);
 
         List<License> applyingLicenses = licenses.stream()
                 .filter(license -> {
@@ -2371,6 +2371,8 @@ public class SearchBean implements SearchInterface, Serializable {
             currentSearch.setOwner(ub.getUser());
         }
         currentSearch.setDateUpdated(LocalDateTime.now());
+        // New hit notifications only consider records created after saving
+        currentSearch.setLastNotificationCheck(currentSearch.getDateUpdated());
         if (DataManager.getInstance().getDao().addSearch(currentSearch)) {
             currentSearch.setSaved(true);
             Messages.info("saveSearchSuccess");
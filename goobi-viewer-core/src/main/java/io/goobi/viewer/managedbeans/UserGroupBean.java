@@ -42,6 +42,7 @@ import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.exceptions.PresentationException;
 import io.goobi.viewer.managedbeans.utils.BeanUtils;
 import io.goobi.viewer.messages.Messages;
+import io.goobi.viewer.model.search.SearchHelper;
 import io.goobi.viewer.model.security.Role;
 import io.goobi.viewer.model.security.user.User;
 import io.goobi.viewer.model.security.user.UserGroup;
@@ -95,12 +96,14 @@ public class UserGroupBean implements Serializable {
         if (ub != null && ub.getUser() != null && StringUtils.isNotEmpty(currentOwnUserGroup.getName())) {
             if (ub.getUser().getUserGroupOwnerships().contains(currentOwnUserGroup)) {
                 DataManager.getInstance().getDao().updateUserGroup(currentOwnUserGroup);
+                SearchHelper.clearPersonalFilterQuerySuffixCache();
                 Messages.info("updatedSuccessfully");
                 logger.debug("Bookshelf '" + currentOwnUserGroup.getName() + "' updated.");
                 return;
             }
             currentOwnUserGroup.setOwner(ub.getUser());
             if (DataManager.getInstance().getDao().addUserGroup(currentOwnUserGroup)) {
+                SearchHelper.clearPersonalFilterQuerySuffixCache();
                 resetCurrentUserGroupAction();
                 Messages.info("savedSuccessfully");
                 logger.debug("Bookshelf '" + currentOwnUserGroup.getName() + "' added.");
@@ -121,6 +124,7 @@ public class UserGroupBean implements Serializable {
         if (ub != null && ub.getUser() != null) {
             logger.debug(currentOwnUserGroup.getName());
             if (DataManager.getInstance().getDao().deleteUserGroup(currentOwnUserGroup)) {
+                SearchHelper.clearPersonalFilterQuerySuffixCache();
                 Messages.info("deletedSuccessfully");
                 logger.debug("UserGroup '" + currentOwnUserGroup.getName() + "' deleted.");
             }
@@ -25,14 +25,16 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.io.StringReader;
 import java.net.URI;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import javax.ws.rs.core.UriBuilder;
@@ -45,8 +47,6 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.solr.common.SolrDocument;
-import org.apache.solr.common.SolrDocumentList;
 import org.jdom2.Document;
 import org.jdom2.JDOMException;
 
@@ -86,6 +86,9 @@ public class ArchiveManager implements Serializable {
 
     private final BasexEADParser eadParser;
 
+    /** Persistent snapshots of parsed trees; null if disabled */
+    private final transient ArchiveSnapshotStore snapshotStore;
+
     public enum DatabaseState {
         /**
          * State before the first query to the basex server
@@ -118,6 +121,7 @@ public class ArchiveManager implements Serializable {
     }
 
     public ArchiveManager(String basexUrl, Map<String, String> archiveNodeTypes, SolrSearchIndex searchIndex) {
+        this.snapshotStore = createSnapshotStore();
         BasexEADParser parser = null;
         if (StringUtils.isNotBlank(basexUrl)) {
             try {
@@ -138,6 +142,17 @@ public class ArchiveManager implements Serializable {
     }
 
     public ArchiveManager(BasexEADParser eadParser, Map<String, String> archiveNodeTypes) {
+        this(eadParser, archiveNodeTypes, createSnapshotStore());
+    }
+
+    /**
+     *
+     * @param eadParser
+     * @param archiveNodeTypes
+     * @param snapshotStore Store for parsed trees; may be null
+     */
+    public ArchiveManager(BasexEADParser eadParser, Map<String, String> archiveNodeTypes, ArchiveSnapshotStore snapshotStore) {
+        this.snapshotStore = snapshotStore;
         try {
             initArchivesFromBaseXServer(eadParser);
             //this.archives = eadParser.getPossibleDatabases().stream().collect(Collectors.toMap(db -> db, db -> null));
@@ -150,6 +165,19 @@ public class ArchiveManager implements Serializable {
         this.nodeTypes = loadNodeTypes(archiveNodeTypes);
     }
 
+    /**
+     *
+     * @return {@link ArchiveSnapshotStore} for the configured snapshot folder; null if none is configured
+     */
+    private static ArchiveSnapshotStore createSnapshotStore() {
+        String folder = DataManager.getInstance().getConfiguration().getArchiveSnapshotFolder();
+        if (StringUtils.isBlank(folder)) {
+            return null;
+        }
+
+        return new ArchiveSnapshotStore(Paths.get(folder));
+    }
+
     /**
      * Queries the list of databases from the basex server and updated the internal database list from it.
      *
@@ -262,26 +290,26 @@ public class ArchiveManager implements Serializable {
         List<StringPair> sortFields = Collections.singletonList(new StringPair(SolrConstants.PI, "asc"));
         List<String> fieldList = Arrays.asList(SolrConstants.PI, SolrConstants.ARCHIVE_ENTRY_ID);
 
-        SolrDocumentList docs = DataManager.getInstance()
+        AtomicReference<String> prev = new AtomicReference<>();
+        AtomicReference<String> next = new AtomicReference<>();
+        AtomicBoolean found = new AtomicBoolean(false);
+        // Only the current batch of docs is held in memory; once the neighbours are known, no further docs are requested
+        DataManager.getInstance()
                 .getSearchIndex()
-                .search(query, SolrSearchIndex.MAX_HITS, sortFields, fieldList);
-        Optional<String> prev = Optional.empty();
-        Optional<String> next = Optional.empty();
-
-        ListIterator<SolrDocument> iter = docs.listIterator();
-        while (iter.hasNext()) {
-            SolrDocument doc = iter.next();
-            String id = SolrTools.getSingleFieldStringValue(doc, SolrConstants.ARCHIVE_ENTRY_ID);
-            if (id.equals(entryId)) {
-                if (iter.hasNext()) {
-                    String nextId = SolrTools.getSingleFieldStringValue(iter.next(), SolrConstants.ARCHIVE_ENTRY_ID);
-                    next = Optional.of(nextId);
-                }
-                break;
-            }
-            prev = Optional.of(id);
-        }
-        return Pair.of(prev, next);
+                .streamWhile(query, sortFields, fieldList, doc -> {
+                    String id = SolrTools.getSingleFieldStringValue(doc, SolrConstants.ARCHIVE_ENTRY_ID);
+                    if (found.get()) {
+                        next.set(id);
+                        return false;
+                    } else if (id.equals(entryId)) {
+                        found.set(true);
+                    } else {
+                        prev.set(id);
+                    }
+                    return true;
+                });
+
+        return Pair.of(Optional.ofNullable(prev.get()), Optional.ofNullable(next.get()));
     }
 
     /**
@@ -374,7 +402,14 @@ public class ArchiveManager implements Serializable {
 
         if (resource != null) {
             try {
-                if (this.archives.get(resource) == null || isOutdated(resource)) {
+                if (this.archives.get(resource) == null) {
+                    ArchiveTree archiveTree = loadDatabase(eadParser, resource);
+                    this.archives.put(resource, archiveTree);
+                } else if (isOutdated(resource)) {
+                    // The resource still carries the old modified date, so the matching snapshot is outdated as well
+                    if (snapshotStore != null) {
+                        snapshotStore.delete(resource);
+                    }
                     ArchiveTree archiveTree = loadDatabase(eadParser, resource);
                     this.archives.put(resource, archiveTree);
                 }
@@ -418,8 +453,18 @@ public class ArchiveManager implements Serializable {
             throws ConfigurationException, IllegalStateException, IOException, HTTPException, JDOMException {
         HierarchicalConfiguration<ImmutableNode> baseXMetadataConfig = DataManager.getInstance().getConfiguration().getArchiveMetadataConfig();
         eadParser.readConfiguration(baseXMetadataConfig);
-        ArchiveEntry rootElement = eadParser.loadDatabase(archive);
-        logger.info("Loaded EAD database: {}", archive.getCombinedName());
+        // The snapshot is only valid if it was written for the same modified date as reported by BaseX
+        ArchiveEntry rootElement = snapshotStore != null ? snapshotStore.load(archive, eadParser.getConfiguredFields()) : null;
+        if (rootElement != null) {
+            eadParser.applyAssociatedRecords(rootElement);
+            logger.info("Loaded EAD database from snapshot: {}", archive.getCombinedName());
+        } else {
+            rootElement = eadParser.loadDatabase(archive);
+            logger.info("Loaded EAD database: {}", archive.getCombinedName());
+            if (snapshotStore != null) {
+                snapshotStore.save(archive, rootElement, eadParser.getConfiguredFields());
+            }
+        }
         return loadTree(rootElement);
     }
 
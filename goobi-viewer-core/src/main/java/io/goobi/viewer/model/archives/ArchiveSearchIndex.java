@@ -0,0 +1,258 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.archives;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Lookup structures for an {@link ArchiveTree}. Contains an identifier map for direct entry access and an n-gram inverted index over the
+ * normalized labels and configured metadata values of all entries, so that searches only need to check entries that contain all n-grams of the
+ * search term.
+ * <p>
+ * The index only refers to entries by their position in the document order. Copies of a tree (one per user session) can therefore reuse the
+ * index of the original tree via {@link #ArchiveSearchIndex(ArchiveSearchIndex, ArchiveEntry)} and just map the positions to their own entries.
+ * </p>
+ */
+class ArchiveSearchIndex {
+
+    /** Length of the indexed n-grams. Shorter search terms are matched against all entries. */
+    static final int NGRAM_LENGTH = 3;
+
+    /** Separator between the searchable values of an entry; prevents matches that span two values. */
+    private static final char VALUE_SEPARATOR = '\n';
+
+    /** All entries in document order. */
+    private final List<ArchiveEntry> entries;
+    /** Normalized searchable text for each entry, same positions as <code>entries</code>. Shared between copies. */
+    private final List<String> texts;
+    /** Position of the first entry for each identifier. Shared between copies. */
+    private final Map<String, Integer> idMap;
+    /** Ascending entry positions for each n-gram. Shared between copies. */
+    private final Map<String, int[]> ngramMap;
+
+    /**
+     *
+     * @param root Root element of the tree
+     * @param searchFields Metadata fields whose values are searchable in addition to the label
+     */
+    ArchiveSearchIndex(ArchiveEntry root, List<String> searchFields) {
+        if (root == null) {
+            throw new IllegalArgumentException("root may not be null");
+        }
+        this.entries = new ArrayList<>(root.getAsFlatList(true));
+        this.texts = new ArrayList<>(entries.size());
+        this.idMap = new HashMap<>();
+        Map<String, List<Integer>> positionLists = new HashMap<>();
+        for (int pos = 0; pos < entries.size(); ++pos) {
+            add(pos, searchFields != null ? searchFields : Collections.emptyList(), positionLists);
+        }
+        this.ngramMap = new HashMap<>(positionLists.size());
+        for (Entry<String, List<Integer>> entry : positionLists.entrySet()) {
+            ngramMap.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    /**
+     * Creates an index for a copy of the tree indexed by <code>source</code>, reusing its texts and n-gram positions.
+     *
+     * @param source Index of the original tree
+     * @param root Root element of the copied tree; must have the same structure as the original tree
+     * @should map positions to entries of copied tree
+     */
+    ArchiveSearchIndex(ArchiveSearchIndex source, ArchiveEntry root) {
+        if (source == null) {
+            throw new IllegalArgumentException("source may not be null");
+        }
+        if (root == null) {
+            throw new IllegalArgumentException("root may not be null");
+        }
+        this.entries = new ArrayList<>(root.getAsFlatList(true));
+        if (entries.size() != source.entries.size()) {
+            throw new IllegalArgumentException("Tree structure differs from indexed tree");
+        }
+        this.texts = source.texts;
+        this.idMap = source.idMap;
+        this.ngramMap = source.ngramMap;
+    }
+
+    /**
+     *
+     * @param pos
+     * @param searchFields
+     * @param positionLists
+     */
+    private void add(int pos, List<String> searchFields, Map<String, List<Integer>> positionLists) {
+        ArchiveEntry entry = entries.get(pos);
+        if (entry.getId() != null) {
+            idMap.putIfAbsent(entry.getId(), pos);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        if (entry.getLabel() != null) {
+            sb.append(normalize(entry.getLabel()));
+        }
+        for (String field : searchFields) {
+            String value = entry.getFieldValue(field);
+            if (StringUtils.isNotBlank(value)) {
+                sb.append(VALUE_SEPARATOR).append(normalize(value));
+            }
+        }
+        String text = sb.toString();
+        texts.add(text);
+
+        for (int i = 0; i + NGRAM_LENGTH <= text.length(); ++i) {
+            List<Integer> positions = positionLists.computeIfAbsent(text.substring(i, i + NGRAM_LENGTH), k -> new ArrayList<>());
+            if (positions.isEmpty() || positions.get(positions.size() - 1) != pos) {
+                positions.add(pos);
+            }
+        }
+    }
+
+    /**
+     *
+     * @param identifier
+     * @return Entry with the given identifier; null if none found
+     * @should return entry with given identifier
+     * @should return null if identifier not found
+     */
+    ArchiveEntry getEntry(String identifier) {
+        if (StringUtils.isBlank(identifier)) {
+            return null;
+        }
+        Integer pos = idMap.get(identifier);
+        return pos != null ? entries.get(pos) : null;
+    }
+
+    /**
+     * Returns all entries whose identifier equals the given search value or whose label or configured metadata values contain it
+     * (case-insensitive).
+     *
+     * @param searchValue
+     * @return Matching entries in document order, with the identifier match (if any) first
+     * @should find entries by label substring
+     * @should find entries by identifier
+     * @should find entries by configured metadata field
+     * @should find entries by short search terms
+     * @should return empty list if nothing found
+     */
+    List<ArchiveEntry> find(String searchValue) {
+        if (StringUtils.isEmpty(searchValue)) {
+            return Collections.emptyList();
+        }
+
+        List<ArchiveEntry> ret = new LinkedList<>();
+        ArchiveEntry idMatch = getEntry(searchValue);
+        String term = normalize(searchValue);
+        int[] candidates = getCandidates(term);
+        if (candidates == null) {
+            // Term too short for the n-gram index
+            candidates = IntStream.range(0, entries.size()).toArray();
+        }
+        for (int pos : candidates) {
+            if (texts.get(pos).contains(term) && entries.get(pos) != idMatch) {
+                ret.add(entries.get(pos));
+            }
+        }
+        if (idMatch != null) {
+            ret.add(0, idMatch);
+        }
+
+        return ret;
+    }
+
+    /**
+     *
+     * @param term Normalized search term
+     * @return Positions of all entries that contain every n-gram of the term; null if the term is too short to use the index
+     */
+    private int[] getCandidates(String term) {
+        if (term.length() < NGRAM_LENGTH) {
+            return null;
+        }
+        int[] ret = null;
+        for (int i = 0; i + NGRAM_LENGTH <= term.length(); ++i) {
+            int[] positions = ngramMap.get(term.substring(i, i + NGRAM_LENGTH));
+            if (positions == null) {
+                return new int[0];
+            }
+            ret = ret == null ? positions : intersect(ret, positions);
+            if (ret.length == 0) {
+                break;
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     *
+     * @param a Ascending array
+     * @param b Ascending array
+     * @return Ascending array of the values contained in both arrays
+     */
+    static int[] intersect(int[] a, int[] b) {
+        int[] ret = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                ret[count++] = a[i];
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+
+        return Arrays.copyOf(ret, count);
+    }
+
+    /**
+     *
+     * @param s
+     * @return Lower case version of s
+     */
+    static String normalize(String s) {
+        return s.toLowerCase();
+    }
+
+    /**
+     *
+     * @return Number of indexed entries
+     */
+    int getSize() {
+        return entries.size();
+    }
+}
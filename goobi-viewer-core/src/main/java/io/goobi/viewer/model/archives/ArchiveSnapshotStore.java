@@ -0,0 +1,297 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.archives;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Persists parsed archive trees as compact binary snapshots on disk, so that archives don't need to be fetched from BaseX and parsed again
+ * after a restart. A snapshot is only used if the modified date of the archive resource and the configured metadata fields are the same as
+ * when the snapshot was written. Associated record identifiers are not part of the snapshot, since they depend on the Solr index rather than
+ * on the EAD document (see {@link BasexEADParser#applyAssociatedRecords(ArchiveEntry)}).
+ */
+public class ArchiveSnapshotStore {
+
+    private static final Logger logger = LogManager.getLogger(ArchiveSnapshotStore.class);
+
+    private static final int MAGIC = 0x45414453;
+    /** Increase whenever the file format changes */
+    private static final int FORMAT_VERSION = 1;
+    private static final String FILE_EXTENSION = ".snapshot";
+
+    private final Path folder;
+
+    /**
+     *
+     * @param folder Folder in which the snapshots are stored
+     */
+    public ArchiveSnapshotStore(Path folder) {
+        if (folder == null) {
+            throw new IllegalArgumentException("folder may not be null");
+        }
+        this.folder = folder;
+    }
+
+    /**
+     * Loads the snapshot of the given archive resource.
+     *
+     * @param resource
+     * @param configuredFields Currently configured metadata fields
+     * @return Root element of the restored tree; null if no valid snapshot exists for the given resource version and field configuration
+     * @should restore saved tree
+     * @should return null if no snapshot exists
+     * @should return null if modified date differs
+     * @should return null if configured fields differ
+     */
+    public ArchiveEntry load(ArchiveResource resource, List<ArchiveMetadataField> configuredFields) {
+        Path file = getSnapshotPath(resource);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                logger.debug("Snapshot {} has an unknown format", file);
+                return null;
+            }
+            if (!resource.getCombinedId().equals(readString(in))
+                    || !resource.getModifiedDate().toString().equals(readString(in))
+                    || !getFieldSignature(configuredFields).equals(readString(in))) {
+                logger.debug("Snapshot {} is outdated", file);
+                return null;
+            }
+            ArchiveEntry ret = readEntry(in, null);
+            logger.debug("Restored archive {} from snapshot", resource.getCombinedName());
+            return ret;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not read archive snapshot {}: {}", file, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Writes a snapshot of the given tree. The file is written to a temporary location first and then moved into place, so that concurrent
+     * readers never see a partially written snapshot. Errors are logged but not propagated.
+     *
+     * @param resource
+     * @param root Root element of the tree
+     * @param configuredFields Metadata fields used to parse the tree
+     * @return true if the snapshot was written successfully; false otherwise
+     */
+    public boolean save(ArchiveResource resource, ArchiveEntry root, List<ArchiveMetadataField> configuredFields) {
+        Path file = getSnapshotPath(resource);
+        Path tempFile = null;
+        try {
+            Files.createDirectories(folder);
+            tempFile = Files.createTempFile(folder, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tempFile))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                writeString(out, resource.getCombinedId());
+                writeString(out, resource.getModifiedDate().toString());
+                writeString(out, getFieldSignature(configuredFields));
+                writeEntry(out, root);
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Wrote snapshot for archive {}", resource.getCombinedName());
+            return true;
+        } catch (IOException e) {
+            logger.warn("Could not write archive snapshot {}: {}", file, e.toString());
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e1) {
+                    logger.warn(e1.getMessage());
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Deletes the snapshot of the given archive resource, if one exists.
+     *
+     * @param resource
+     * @return true if a snapshot was deleted; false otherwise
+     * @should delete snapshot
+     */
+    public boolean delete(ArchiveResource resource) {
+        try {
+            return Files.deleteIfExists(getSnapshotPath(resource));
+        } catch (IOException e) {
+            logger.warn("Could not delete archive snapshot for {}: {}", resource.getCombinedName(), e.toString());
+            return false;
+        }
+    }
+
+    /**
+     *
+     * @param resource
+     * @return Path of the snapshot file for the given resource
+     */
+    Path getSnapshotPath(ArchiveResource resource) {
+        return folder.resolve(resource.getCombinedId().replaceAll("[^\\w.-]", "_") + FILE_EXTENSION);
+    }
+
+    /**
+     *
+     * @param configuredFields
+     * @return String representation of the given field configuration
+     */
+    static String getFieldSignature(List<ArchiveMetadataField> configuredFields) {
+        StringBuilder sb = new StringBuilder();
+        if (configuredFields != null) {
+            for (ArchiveMetadataField field : configuredFields) {
+                sb.append(field.getLabel())
+                        .append('|')
+                        .append(field.getType())
+                        .append('|')
+                        .append(field.getXpath())
+                        .append('|')
+                        .append(field.getXpathType())
+                        .append('\n');
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     *
+     * @param entry
+     * @return Metadata field lists of the given entry, in the order in which they are written to the snapshot
+     */
+    private static List<List<ArchiveMetadataField>> getAreaLists(ArchiveEntry entry) {
+        return Arrays.asList(entry.getIdentityStatementAreaList(), entry.getContextAreaList(), entry.getContentAndStructureAreaAreaList(),
+                entry.getAccessAndUseAreaList(), entry.getAlliedMaterialsAreaList(), entry.getNotesAreaList(),
+                entry.getDescriptionControlAreaList());
+    }
+
+    private static void writeEntry(DataOutputStream out, ArchiveEntry entry) throws IOException {
+        out.writeInt(entry.getOrderNumber() != null ? entry.getOrderNumber() : -1);
+        out.writeInt(entry.getHierarchyLevel() != null ? entry.getHierarchyLevel() : -1);
+        writeString(out, entry.getId());
+        writeString(out, entry.getLabel());
+        writeString(out, entry.getNodeType());
+        writeString(out, entry.getDescriptionLevel());
+        out.writeBoolean(entry.isDisplayChildren());
+        for (List<ArchiveMetadataField> fields : getAreaLists(entry)) {
+            out.writeInt(fields.size());
+            for (ArchiveMetadataField field : fields) {
+                writeString(out, field.getLabel());
+                out.writeInt(field.getType());
+                writeString(out, field.getXpath());
+                writeString(out, field.getXpathType());
+                List<FieldValue> values = field.getValues() != null ? field.getValues() : new ArrayList<>();
+                out.writeInt(values.size());
+                for (FieldValue value : values) {
+                    writeString(out, value.getValue());
+                }
+            }
+        }
+        out.writeInt(entry.getSubEntryList().size());
+        for (ArchiveEntry child : entry.getSubEntryList()) {
+            writeEntry(out, child);
+        }
+    }
+
+    private static ArchiveEntry readEntry(DataInputStream in, ArchiveEntry parent) throws IOException {
+        int order = in.readInt();
+        int hierarchy = in.readInt();
+        ArchiveEntry ret = new ArchiveEntry(order >= 0 ? order : null, hierarchy >= 0 ? hierarchy : null);
+        ret.setId(readString(in));
+        ret.setLabel(readString(in));
+        ret.setNodeType(readString(in));
+        ret.setDescriptionLevel(readString(in));
+        ret.setDisplayChildren(in.readBoolean());
+        for (List<ArchiveMetadataField> fields : getAreaLists(ret)) {
+            int fieldCount = in.readInt();
+            for (int i = 0; i < fieldCount; ++i) {
+                ArchiveMetadataField field = new ArchiveMetadataField(readString(in), in.readInt(), readString(in), readString(in));
+                field.setEadEntry(ret);
+                int valueCount = in.readInt();
+                for (int j = 0; j < valueCount; ++j) {
+                    FieldValue value = new FieldValue(field);
+                    String s = readString(in);
+                    // Values are null for fields that were turned into the entry label during parsing
+                    if (s != null) {
+                        value.setValue(s);
+                    }
+                    field.addFieldValue(value);
+                }
+                fields.add(field);
+            }
+        }
+        if (parent != null) {
+            parent.addSubEntry(ret);
+        }
+        int childCount = in.readInt();
+        for (int i = 0; i < childCount; ++i) {
+            readEntry(in, ret);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Writes a nullable string of any length.
+     *
+     * @param out
+     * @param s
+     * @throws IOException
+     */
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
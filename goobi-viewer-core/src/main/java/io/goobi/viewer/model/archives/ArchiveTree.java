@@ -27,12 +27,13 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import io.goobi.viewer.controller.DataManager;
+
 /**
  * Table of contents and associated functionality for a record.
  */
@@ -61,6 +62,18 @@ public class ArchiveTree implements Serializable {
 
     private boolean treeBuilt = false;
 
+    /** Metadata fields that are searchable in addition to the entry labels. */
+    private ArrayList<String> searchFields = new ArrayList<>();
+
+    /** Identifier and label index. Not serialized; built on demand. */
+    private transient ArchiveSearchIndex searchIndex;
+
+    /** Tree this tree was copied from, whose search index is reused. */
+    private transient ArchiveTree sourceTree;
+
+    /** Root element of <code>sourceTree</code> at the time of copying. */
+    private transient ArchiveEntry sourceRootElement;
+
     /**
      * <p>
      * Constructor for TOC.
@@ -70,12 +83,30 @@ public class ArchiveTree implements Serializable {
         logger.trace("new EADTree()");
     }
 
+    /**
+     * Creates a copy of the given tree with its own entry state. The search index of the original tree is shared with the copy.
+     *
+     * @param orig Tree to copy
+     * @should reuse search index of original tree
+     */
     public ArchiveTree(ArchiveTree orig) {
-        this.generate(new ArchiveEntry(orig.getRootElement(), null));
+        this.generate(new ArchiveEntry(orig.getRootElement(), null), orig.searchFields);
+        this.sourceTree = orig;
+        this.sourceRootElement = orig.getTrueRootElement();
         this.getTreeViewForGroup(DEFAULT_GROUP);
     }
 
     public void generate(ArchiveEntry root) {
+        generate(root, DataManager.getInstance().getConfiguration().getArchiveSearchFields());
+    }
+
+    /**
+     *
+     * @param root Root element of the tree
+     * @param searchFields Metadata fields that are searchable in addition to the entry labels
+     * @should build search index on demand
+     */
+    public void generate(ArchiveEntry root, List<String> searchFields) {
         if (root == null) {
             throw new IllegalArgumentException("root may not be null");
         }
@@ -84,6 +115,27 @@ public class ArchiveTree implements Serializable {
 
         List<ArchiveEntry> tree = root.getAsFlatList(true);
         entryMap.put(DEFAULT_GROUP, tree);
+
+        this.searchFields = searchFields != null ? new ArrayList<>(searchFields) : new ArrayList<>();
+    }
+
+    /**
+     *
+     * @return Search index for the current root element; built on demand if not yet available
+     */
+    synchronized ArchiveSearchIndex getSearchIndex() {
+        if (searchIndex == null && trueRootElement != null) {
+            // Only reuse the index of the source tree if it still contains the entries this tree was copied from
+            ArchiveSearchIndex sourceIndex =
+                    sourceTree != null && sourceTree.getTrueRootElement() == sourceRootElement ? sourceTree.getSearchIndex() : null;
+            if (sourceIndex != null) {
+                searchIndex = new ArchiveSearchIndex(sourceIndex, trueRootElement);
+            } else {
+                searchIndex = new ArchiveSearchIndex(trueRootElement, searchFields);
+            }
+        }
+
+        return searchIndex;
     }
 
     /**
@@ -252,8 +304,11 @@ public class ArchiveTree implements Serializable {
     /**
      * @param trueRootElement the trueRootElement to set
      */
-    public void setTrueRootElement(ArchiveEntry trueRootElement) {
+    public synchronized void setTrueRootElement(ArchiveEntry trueRootElement) {
         this.trueRootElement = trueRootElement;
+        this.searchIndex = null;
+        this.sourceTree = null;
+        this.sourceRootElement = null;
     }
 
     /**
@@ -375,7 +430,10 @@ public class ArchiveTree implements Serializable {
      * @param identifier
      */
     public ArchiveEntry getEntryById(String identifier) {
-        return findEntry(identifier, getRootElement()).orElse(null);
+        if (getSearchIndex() == null) {
+            return null;
+        }
+        return getSearchIndex().getEntry(identifier);
     }
 
     /**
@@ -391,10 +449,10 @@ public class ArchiveTree implements Serializable {
         if (StringUtils.isNotBlank(searchValue)) {
             // hide all elements
             getRootElement().resetFoundList();
-            // search in all/some metadata fields of all elements?
-
-            // for now: search only labels
-            searchInNode(getRootElement(), searchValue);
+            // mark matching elements + all parents as displayable
+            for (ArchiveEntry entry : getSearchIndex().find(searchValue)) {
+                entry.markAsFound(true);
+            }
 
             // fill flatList with displayable fields
             flatEntryList = getRootElement().getSearchList();
@@ -403,51 +461,6 @@ public class ArchiveTree implements Serializable {
         }
     }
 
-    /**
-     *
-     * @param node
-     * @param searchValue
-     */
-    static void searchInNode(ArchiveEntry node, String searchValue) {
-        if (node.getId() != null && node.getId().equals(searchValue)) {
-            // ID match
-            node.markAsFound(true);
-        } else if (node.getLabel() != null && node.getLabel().toLowerCase().contains(searchValue.toLowerCase())) {
-            // mark element + all parents as displayable
-            node.markAsFound(true);
-        }
-        if (node.getSubEntryList() != null) {
-            for (ArchiveEntry child : node.getSubEntryList()) {
-                searchInNode(child, searchValue);
-            }
-        }
-    }
-
-    /**
-     * Return this node if it has the given identifier or the first of its descendents with the identifier
-     *
-     * @param identifier
-     * @param node
-     * @return Optional<ArchiveEntry>
-     */
-    private Optional<ArchiveEntry> findEntry(String identifier, ArchiveEntry node) {
-        if (StringUtils.isNotBlank(identifier)) {
-            if (identifier.equals(node.getId())) {
-                return Optional.of(node);
-            }
-            if (node.getSubEntryList() != null) {
-                for (ArchiveEntry child : node.getSubEntryList()) {
-                    Optional<ArchiveEntry> find = findEntry(identifier, child);
-                    if (find.isPresent()) {
-                        return find;
-                    }
-                }
-            }
-        }
-
-        return Optional.empty();
-    }
-
     public void resetSearch() {
         trueRootElement.resetFoundList();
         flatEntryList = null;
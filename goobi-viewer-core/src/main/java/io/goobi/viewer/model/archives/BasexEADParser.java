@@ -22,11 +22,14 @@
 package io.goobi.viewer.model.archives;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
 import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -35,6 +38,10 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 import javax.ws.rs.core.UriBuilder;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.apache.commons.configuration2.HierarchicalConfiguration;
 import org.apache.commons.configuration2.ex.ConfigurationException;
@@ -156,22 +163,23 @@ public class BasexEADParser {
     }
 
     /**
-     * Loads the given database and parses the EAD document.
+     * Loads the given database and parses the EAD document. The document is read with a streaming parser, so that only the current branch of
+     * the document is held in memory as JDOM elements.
      *
      * @param database
      * @return Root element of the loaded tree
      * @throws IllegalStateException
      * @throws IOException
      * @throws HTTPException
-     * @throws JDOMException
+     * @throws JDOMException if the document could not be parsed
      */
     public ArchiveEntry loadDatabase(ArchiveResource database)
             throws IllegalStateException, IOException, HTTPException, JDOMException {
-
-        Document document = retrieveDatabaseDocument(database);
-
-        // parse ead file
-        return parseEadFile(document);
+        try (Reader reader = retrieveDatabase(database)) {
+            return parseEadStream(reader);
+        } catch (XMLStreamException e) {
+            throw new JDOMException("Failed to parse EAD document " + database.getCombinedName(), e);
+        }
     }
 
     /**
@@ -193,25 +201,153 @@ public class BasexEADParser {
         return rootElement;
     }
 
+    /**
+     * Reads the hierarchy from the given EAD document using a StAX parser. Each <code>c</code> element (and the <code>ead</code> root element)
+     * is collected into a JDOM element without its sub-components and converted into an {@link ArchiveEntry} as soon as it is closed, so
+     * that the configured xpath expressions can still be evaluated, but the complete document never needs to be held in memory.
+     *
+     * @param reader Reader for the EAD document
+     * @return Root element of the tree
+     * @throws XMLStreamException
+     * @should parse document correctly
+     * @should produce same tree as parseEadFile
+     */
+    ArchiveEntry parseEadStream(Reader reader) throws XMLStreamException {
+        if (reader == null) {
+            throw new IllegalArgumentException("reader may not be null");
+        }
+        if (configuredFields == null) {
+            throw new IllegalArgumentException("configuredFields may not be null");
+        }
+
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // Disable access to external entities
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XMLStreamReader parser = factory.createXMLStreamReader(reader);
+        try {
+            // Components that are currently open, innermost first
+            Deque<StreamedComponent> open = new ArrayDeque<>();
+            while (parser.hasNext()) {
+                switch (parser.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        boolean ead = NAMESPACE_EAD.getURI().equals(parser.getNamespaceURI());
+                        if (open.isEmpty()) {
+                            // Skip any wrapper elements around <ead>
+                            if (ead && "ead".equals(parser.getLocalName())) {
+                                open.push(new StreamedComponent(1, 0, createElement(parser)));
+                            }
+                        } else if (ead && "c".equals(parser.getLocalName())) {
+                            StreamedComponent parent = open.peek();
+                            open.push(new StreamedComponent(parent.children.size(), parent.hierarchy + 1, createElement(parser)));
+                        } else {
+                            Element element = createElement(parser);
+                            open.peek().current.addContent(element);
+                            open.peek().current = element;
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        if (!open.isEmpty()) {
+                            open.peek().current.addContent(new Text(parser.getText()));
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (open.isEmpty()) {
+                            break;
+                        }
+                        StreamedComponent component = open.peek();
+                        if (component.current != component.element) {
+                            component.current = component.current.getParentElement();
+                            break;
+                        }
+                        open.pop();
+                        ArchiveEntry entry = createEntry(component.order, component.hierarchy, component.element, configuredFields,
+                                associatedRecordMap);
+                        addSubEntries(entry, component.children);
+                        if (open.isEmpty()) {
+                            entry.setDisplayChildren(true);
+                            return entry;
+                        }
+                        open.peek().children.add(entry);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } finally {
+            parser.close();
+        }
+
+        throw new XMLStreamException("No ead element found");
+    }
+
+    /**
+     *
+     * @param parser Parser positioned on a start element
+     * @return JDOM {@link Element} with the name, namespace and attributes of the current element
+     */
+    private static Element createElement(XMLStreamReader parser) {
+        Element ret = new Element(parser.getLocalName(), getNamespace(parser.getPrefix(), parser.getNamespaceURI()));
+        for (int i = 0; i < parser.getAttributeCount(); ++i) {
+            ret.setAttribute(parser.getAttributeLocalName(i), parser.getAttributeValue(i),
+                    getNamespace(parser.getAttributePrefix(i), parser.getAttributeNamespace(i)));
+        }
+
+        return ret;
+    }
+
+    /**
+     *
+     * @param prefix
+     * @param uri
+     * @return {@link Namespace}
+     */
+    private static Namespace getNamespace(String prefix, String uri) {
+        if (StringUtils.isEmpty(uri)) {
+            return Namespace.NO_NAMESPACE;
+        }
+
+        return Namespace.getNamespace(prefix != null ? prefix : "", uri);
+    }
+
+    /**
+     * Component element that is currently being read by {@link BasexEADParser#parseEadStream(Reader)}.
+     */
+    private static class StreamedComponent {
+
+        private final int order;
+        private final int hierarchy;
+        /** Component element without sub-components */
+        private final Element element;
+        /** Element inside <code>element</code> that is currently being read */
+        private Element current;
+        /** Already parsed sub-components */
+        private final List<ArchiveEntry> children = new ArrayList<>();
+
+        private StreamedComponent(int order, int hierarchy, Element element) {
+            this.order = order;
+            this.hierarchy = hierarchy;
+            this.element = element;
+            this.current = element;
+        }
+    }
+
     /**
      *
      * @param archive
-     * @return {@link Document}
+     * @return {@link Reader} for the EAD document of the given archive
      * @throws IOException
      * @throws IllegalStateException
      * @throws HTTPException
-     * @throws JDOMException
      */
-    private Document retrieveDatabaseDocument(ArchiveResource archive) throws IOException, IllegalStateException, HTTPException, JDOMException {
+    Reader retrieveDatabase(ArchiveResource archive) throws IOException, IllegalStateException, HTTPException {
         if (archive != null) {
-            String response;
             String url =
                     UriBuilder.fromPath(basexUrl).path("db").path(archive.getDatabaseName()).path(archive.getResourceName()).build().toString();
             logger.trace("URL: {}", url);
-            response = NetTools.getWebContentGET(url);
-
-            // get xml root element
-            return openDocument(response);
+            return new StringReader(NetTools.getWebContentGET(url));
         }
         throw new IllegalStateException("Must provide database name before loading database");
     }
@@ -229,6 +365,44 @@ public class BasexEADParser {
      */
     private static ArchiveEntry parseElement(int order, int hierarchy, Element element, List<ArchiveMetadataField> configuredFields,
             Map<String, Entry<String, Boolean>> associatedPIs) {
+        ArchiveEntry entry = createEntry(order, hierarchy, element, configuredFields, associatedPIs);
+
+        // get child elements
+        List<Element> clist = null;
+        Element archdesc = element.getChild("archdesc", NAMESPACE_EAD);
+        if (archdesc != null) {
+            Element dsc = archdesc.getChild("dsc", NAMESPACE_EAD);
+            if (dsc != null) {
+                clist = dsc.getChildren("c", NAMESPACE_EAD);
+            }
+        }
+        if (clist == null) {
+            clist = element.getChildren("c", NAMESPACE_EAD);
+        }
+        List<ArchiveEntry> children = new ArrayList<>(clist.size());
+        int subOrder = 0;
+        int subHierarchy = hierarchy + 1;
+        for (Element c : clist) {
+            children.add(parseElement(subOrder, subHierarchy, c, configuredFields, associatedPIs));
+            subOrder++;
+        }
+        addSubEntries(entry, children);
+
+        return entry;
+    }
+
+    /**
+     * Creates an {@link ArchiveEntry} for the given element, without any sub-entries.
+     *
+     * @param order
+     * @param hierarchy
+     * @param element
+     * @param configuredFields
+     * @param associatedPIs
+     * @return {@link ArchiveEntry}
+     */
+    private static ArchiveEntry createEntry(int order, int hierarchy, Element element, List<ArchiveMetadataField> configuredFields,
+            Map<String, Entry<String, Boolean>> associatedPIs) {
         if (element == null) {
             throw new IllegalArgumentException("element may not be null");
         }
@@ -239,32 +413,7 @@ public class BasexEADParser {
         ArchiveEntry entry = new ArchiveEntry(order, hierarchy);
 
         for (ArchiveMetadataField emf : configuredFields) {
-
-            List<String> stringValues = new ArrayList<>();
-            if ("text".equalsIgnoreCase(emf.getXpathType())) {
-                XPathExpression<Text> engine = XFACTORY.compile(emf.getXpath(), Filters.text(), null, NAMESPACE_EAD);
-                List<Text> values = engine.evaluate(element);
-                for (Text value : values) {
-                    String stringValue = value.getValue();
-                    stringValues.add(stringValue);
-                }
-            } else if ("attribute".equalsIgnoreCase(emf.getXpathType())) {
-                XPathExpression<Attribute> engine = XFACTORY.compile(emf.getXpath(), Filters.attribute(), null, NAMESPACE_EAD);
-                List<Attribute> values = engine.evaluate(element);
-
-                for (Attribute value : values) {
-                    String stringValue = value.getValue();
-                    stringValues.add(stringValue);
-                }
-            } else {
-                XPathExpression<Element> engine = XFACTORY.compile(emf.getXpath(), Filters.element(), null, NAMESPACE_EAD);
-                List<Element> values = engine.evaluate(element);
-                for (Element value : values) {
-                    String stringValue = value.getValue();
-                    stringValues.add(stringValue);
-                }
-            }
-            addFieldToEntry(entry, emf, stringValues);
+            addFieldToEntry(entry, emf, evaluateField(emf, element));
         }
 
         Element eadheader = element.getChild("eadheader", NAMESPACE_EAD);
@@ -278,21 +427,8 @@ public class BasexEADParser {
                 .ifPresent(s -> entry.setLabel(s));
 
         // nodeType
-        // get child elements
-        List<Element> clist = null;
         Element archdesc = element.getChild("archdesc", NAMESPACE_EAD);
-        if (archdesc != null) {
-            setNodeType(archdesc, entry);
-            Element dsc = archdesc.getChild("dsc", NAMESPACE_EAD);
-            if (dsc != null) {
-                clist = dsc.getChildren("c", NAMESPACE_EAD);
-            }
-
-        } else {
-            setNodeType(element, entry);
-
-        }
-
+        setNodeType(archdesc != null ? archdesc : element, entry);
         if (entry.getNodeType() == null) {
             entry.setNodeType("folder");
         }
@@ -306,20 +442,21 @@ public class BasexEADParser {
         // Set description level value
         entry.setDescriptionLevel(element.getAttributeValue("level"));
 
-        if (clist == null) {
-            clist = element.getChildren("c", NAMESPACE_EAD);
-        }
-        if (clist != null) {
-            int subOrder = 0;
-            int subHierarchy = hierarchy + 1;
-            for (Element c : clist) {
-                ArchiveEntry child = parseElement(subOrder, subHierarchy, c, configuredFields, associatedPIs);
-                entry.addSubEntry(child);
-                child.setParentNode(entry);
-                if (child.isContainsImage()) {
-                    entry.setContainsImage(true);
-                }
-                subOrder++;
+        return entry;
+    }
+
+    /**
+     * Adds the given children to the given entry and generates an identifier for entries without one.
+     *
+     * @param entry
+     * @param children
+     */
+    private static void addSubEntries(ArchiveEntry entry, List<ArchiveEntry> children) {
+        for (ArchiveEntry child : children) {
+            entry.addSubEntry(child);
+            child.setParentNode(entry);
+            if (child.isContainsImage()) {
+                entry.setContainsImage(true);
             }
         }
 
@@ -327,8 +464,62 @@ public class BasexEADParser {
         if (entry.getId() == null) {
             entry.setId(String.valueOf(UUID.randomUUID()));
         }
+    }
 
-        return entry;
+    /**
+     *
+     * @param emf
+     * @param element
+     * @return Values of the given field in the given element
+     */
+    private static List<String> evaluateField(ArchiveMetadataField emf, Element element) {
+        List<String> stringValues = new ArrayList<>();
+        if ("text".equalsIgnoreCase(emf.getXpathType())) {
+            XPathExpression<Text> engine = XFACTORY.compile(emf.getXpath(), Filters.text(), null, NAMESPACE_EAD);
+            for (Text value : engine.evaluate(element)) {
+                stringValues.add(value.getValue());
+            }
+        } else if ("attribute".equalsIgnoreCase(emf.getXpathType())) {
+            XPathExpression<Attribute> engine = XFACTORY.compile(emf.getXpath(), Filters.attribute(), null, NAMESPACE_EAD);
+            for (Attribute value : engine.evaluate(element)) {
+                stringValues.add(value.getValue());
+            }
+        } else {
+            XPathExpression<Element> engine = XFACTORY.compile(emf.getXpath(), Filters.element(), null, NAMESPACE_EAD);
+            for (Element value : engine.evaluate(element)) {
+                stringValues.add(value.getValue());
+            }
+        }
+
+        return stringValues;
+    }
+
+    /**
+     * Updates the associated record identifiers and image flags of the given entry and all its descendants from the current associated
+     * record map. Used for trees that were not freshly parsed, e.g. restored from an {@link ArchiveSnapshotStore}.
+     *
+     * @param entry
+     */
+    public void applyAssociatedRecords(ArchiveEntry entry) {
+        applyAssociatedRecords(entry, associatedRecordMap);
+    }
+
+    /**
+     *
+     * @param entry
+     * @param associatedPIs
+     * @should set associated records and propagate image flag to ancestors
+     */
+    static void applyAssociatedRecords(ArchiveEntry entry, Map<String, Entry<String, Boolean>> associatedPIs) {
+        Entry<String, Boolean> associatedRecordEntry = associatedPIs.get(entry.getId());
+        entry.setAssociatedRecordPi(associatedRecordEntry != null ? associatedRecordEntry.getKey() : null);
+        entry.setContainsImage(associatedRecordEntry != null && Boolean.TRUE.equals(associatedRecordEntry.getValue()));
+        for (ArchiveEntry child : entry.getSubEntryList()) {
+            applyAssociatedRecords(child, associatedPIs);
+            if (child.isContainsImage()) {
+                entry.setContainsImage(true);
+            }
+        }
     }
 
     /**
@@ -469,6 +660,13 @@ public class BasexEADParser {
         return this;
     }
 
+    /**
+     * @return the configuredFields
+     */
+    public List<ArchiveMetadataField> getConfiguredFields() {
+        return configuredFields;
+    }
+
     /**
      * @return the basexUrl
      */
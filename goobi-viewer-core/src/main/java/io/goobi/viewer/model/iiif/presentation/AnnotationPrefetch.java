@@ -0,0 +1,154 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.iiif.presentation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.exceptions.DAOException;
+import io.goobi.viewer.model.annotation.CrowdsourcingAnnotation;
+import io.goobi.viewer.model.annotation.PersistentAnnotation;
+import io.goobi.viewer.model.annotation.comments.Comment;
+
+/**
+ * All comments and crowdsourcing annotations of a record, loaded with one query each and grouped by target page order. Used when building IIIF
+ * sequences or manifests so that canvas generation does not have to query the database once per page.
+ */
+public final class AnnotationPrefetch {
+
+    private final String pi;
+    private final Map<Integer, List<Comment>> comments;
+    private final Map<Integer, List<CrowdsourcingAnnotation>> annotations;
+
+    /**
+     * 
+     * @param pi
+     * @param comments
+     * @param annotations
+     */
+    AnnotationPrefetch(String pi, List<Comment> comments, List<CrowdsourcingAnnotation> annotations) {
+        this.pi = pi;
+        this.comments = groupByPage(comments);
+        this.annotations = groupByPage(annotations);
+    }
+
+    /**
+     * Loads all comments and crowdsourcing annotations for the given record.
+     *
+     * @param pi Record identifier
+     * @return {@link AnnotationPrefetch}
+     * @throws DAOException
+     * @should load comments of all pages
+     */
+    public static AnnotationPrefetch load(String pi) throws DAOException {
+        return new AnnotationPrefetch(pi, DataManager.getInstance().getDao().getCommentsForWork(pi),
+                DataManager.getInstance().getDao().getAnnotationsForWork(pi));
+    }
+
+    /**
+     * Groups the given annotations by their target page order. Annotations targeting the record as a whole are skipped.
+     *
+     * @param <T>
+     * @param annotations
+     * @return Map of page orders to the annotations targeting that page, sorted by page order
+     * @should group annotations by page order
+     * @should skip annotations without page order
+     * @should return empty map if annotations null
+     */
+    static <T extends PersistentAnnotation> Map<Integer, List<T>> groupByPage(List<T> annotations) {
+        Map<Integer, List<T>> ret = new TreeMap<>();
+        if (annotations == null) {
+            return ret;
+        }
+        for (T annotation : annotations) {
+            if (annotation != null && annotation.getTargetPageOrder() != null) {
+                ret.computeIfAbsent(annotation.getTargetPageOrder(), k -> new ArrayList<>()).add(annotation);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * @return the pi
+     */
+    public String getPi() {
+        return pi;
+    }
+
+    /**
+     * 
+     * @param order Page order
+     * @return Comments targeting the given page; empty list if none
+     */
+    public List<Comment> getComments(int order) {
+        return comments.getOrDefault(order, Collections.emptyList());
+    }
+
+    /**
+     * 
+     * @param order Page order
+     * @return Crowdsourcing annotations targeting the given page; empty list if none
+     */
+    public List<CrowdsourcingAnnotation> getAnnotations(int order) {
+        return annotations.getOrDefault(order, Collections.emptyList());
+    }
+
+    /**
+     * 
+     * @param order Page order
+     * @return true if at least one comment targets the given page; false otherwise
+     */
+    public boolean hasComments(int order) {
+        return comments.containsKey(order);
+    }
+
+    /**
+     * 
+     * @param order Page order
+     * @return true if at least one crowdsourcing annotation targets the given page; false otherwise
+     */
+    public boolean hasAnnotations(int order) {
+        return annotations.containsKey(order);
+    }
+
+    /**
+     * 
+     * @return Sorted page orders that have at least one comment
+     */
+    public List<Integer> getPagesWithComments() {
+        return new ArrayList<>(comments.keySet());
+    }
+
+    /**
+     * 
+     * @return All crowdsourcing annotations of the record that target a page, in page order
+     */
+    public List<CrowdsourcingAnnotation> getAllAnnotations() {
+        List<CrowdsourcingAnnotation> ret = new ArrayList<>();
+        annotations.values().forEach(ret::addAll);
+        return ret;
+    }
+}
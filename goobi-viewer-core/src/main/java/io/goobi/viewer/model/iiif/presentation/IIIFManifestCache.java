@@ -0,0 +1,443 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.iiif.presentation;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONObject;
+
+import io.goobi.viewer.controller.StringTools;
+
+/**
+ * Application-scoped LRU cache for serialized IIIF manifests. Entries are bounded by number and by total size in bytes and can be kept either in
+ * memory or as files in a temp folder. All entries for a record can be invalidated at once via {@link #invalidate(String)}.
+ * <p>
+ * To avoid building the same manifest several times in parallel, a request that misses the cache should {@link #claim(String)} the key. Only the
+ * first claimant gets to build the manifest; all others receive a future that is completed once the manifest has been {@link #put(String, String,
+ * byte[], String)} or the claim has been {@link #release(String)}d. Manifests whose record has been invalidated while they were being built are
+ * not added, since they may lack the changes that caused the invalidation.
+ * </p>
+ */
+public class IIIFManifestCache {
+
+    private static final Logger logger = LogManager.getLogger(IIIFManifestCache.class);
+
+    private final int maxEntries;
+    private final long maxBytes;
+    /** Folder for cached manifest files; null if manifests are kept in memory. */
+    private final Path diskFolder;
+
+    /** Access-ordered map; the eldest entry is the least recently used one. */
+    private final LinkedHashMap<String, CachedManifest> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes = 0;
+    /** Manifests currently being built, keyed like the cache entries. */
+    private final Map<String, CompletableFuture<CachedManifest>> inFlight = new ConcurrentHashMap<>();
+    /** Number of invalidations per record; only contains records that have been invalidated at least once. */
+    private final Map<String, Long> epochs = new ConcurrentHashMap<>();
+    /** Invalidation epoch of the record at the time each key in {@link #inFlight} was claimed. */
+    private final Map<String, Long> claimEpochs = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+
+    /**
+     * Manifest files left in the disk folder by a previous run are deleted, since they are no longer referenced by any entry.
+     *
+     * @param maxEntries Maximum number of cached manifests
+     * @param maxBytes Maximum total size of all cached manifests in bytes
+     * @param diskFolder Folder in which to store the manifests; null to keep them in memory
+     * @should delete manifest files left in disk folder
+     */
+    public IIIFManifestCache(int maxEntries, long maxBytes, Path diskFolder) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.diskFolder = diskFolder;
+        if (diskFolder != null) {
+            purgeDiskFolder();
+        }
+    }
+
+    /**
+     * Deletes all manifest files in the disk folder.
+     */
+    private void purgeDiskFolder() {
+        if (!Files.isDirectory(diskFolder)) {
+            return;
+        }
+        int count = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(diskFolder, "*.json")) {
+            for (Path file : stream) {
+                Files.deleteIfExists(file);
+                count++;
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to purge manifest cache folder {}: {}", diskFolder, e.getMessage());
+        }
+        if (count > 0) {
+            logger.info("Deleted {} manifest files from previous run in {}", count, diskFolder);
+        }
+    }
+
+    /**
+     * Builds the cache key for a manifest. All parameters that may affect the content of the manifest must be part of the key.
+     *
+     * @param pi Record identifier
+     * @param requestUri Request URI including the API version and all query parameters
+     * @param locale Language of the request
+     * @param accessContextKey Access context of the client
+     * @param dateUpdated Latest index timestamp of the record
+     * @param configTimestamp Configuration state
+     * @return Cache key
+     * @should return different keys for different api versions
+     * @should return different keys for different access contexts
+     */
+    public static String buildKey(String pi, String requestUri, String locale, String accessContextKey, long dateUpdated, long configTimestamp) {
+        return pi + '|' + requestUri + '|' + locale + '|' + accessContextKey + '|' + dateUpdated + '|' + configTimestamp;
+    }
+
+    /**
+     *
+     * @param key
+     * @return Cached manifest; null if not cached
+     * @should return null if not cached
+     * @should return cached manifest
+     */
+    public CachedManifest get(String key) {
+        CachedManifest ret;
+        synchronized (entries) {
+            ret = entries.get(key);
+        }
+        if (ret == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return ret;
+    }
+
+    /**
+     * Claims the right to build the manifest for the given key.
+     *
+     * @param pi Record identifier
+     * @param key
+     * @return null if the caller has claimed the key and must build the manifest; otherwise a future for the manifest being built by another thread,
+     *         which is completed with null if that build fails
+     * @should return null for first claimant
+     * @should return future for further claimants
+     */
+    public CompletableFuture<CachedManifest> claim(String pi, String key) {
+        synchronized (entries) {
+            CompletableFuture<CachedManifest> ret = inFlight.putIfAbsent(key, new CompletableFuture<>());
+            if (ret == null) {
+                claimEpochs.put(key, epochs.getOrDefault(pi, 0L));
+            }
+            return ret;
+        }
+    }
+
+    /**
+     * Gives up a claim without adding a manifest. Threads waiting for the manifest receive null.
+     *
+     * @param key
+     */
+    public void release(String key) {
+        claimEpochs.remove(key);
+        CompletableFuture<CachedManifest> future = inFlight.remove(key);
+        if (future != null) {
+            future.complete(null);
+        }
+    }
+
+    /**
+     * Adds the given manifest to the cache, evicting least recently used entries if the size limits are exceeded, and completes the claim for the
+     * key.
+     *
+     * @param pi Record identifier
+     * @param key Cache key
+     * @param data Serialized manifest
+     * @param mediaType Content type of the serialized manifest
+     * @return The added {@link CachedManifest}; null if it could not be added
+     * @should complete claim
+     * @should evict least recently used entries if max size exceeded
+     * @should not add manifest larger than quarter of budget
+     * @should store manifest in disk folder if configured
+     * @should not add manifest if record invalidated since claim
+     */
+    public CachedManifest put(String pi, String key, byte[] data, String mediaType) {
+        CachedManifest manifest = null;
+        Long claimEpoch = claimEpochs.remove(key);
+        try {
+            if (data == null || data.length > maxBytes / 4) {
+                logger.trace("Manifest for {} too large for cache", pi);
+                return null;
+            }
+            manifest = diskFolder != null ? CachedManifest.onDisk(pi, writeToDisk(key, data), data.length, mediaType)
+                    : CachedManifest.inMemory(pi, data, mediaType);
+            synchronized (entries) {
+                if (claimEpoch != null && claimEpoch.longValue() != epochs.getOrDefault(pi, 0L)) {
+                    logger.debug("Manifest for {} has been invalidated while being built, not caching it", pi);
+                    if (manifest.file != null) {
+                        Files.deleteIfExists(manifest.file);
+                    }
+                    // Waiting requests must build the manifest themselves
+                    manifest = null;
+                    return null;
+                }
+                CachedManifest old = entries.put(key, manifest);
+                if (old != null) {
+                    remove(old);
+                }
+                currentBytes += manifest.size;
+                Iterator<Entry<String, CachedManifest>> iterator = entries.entrySet().iterator();
+                while ((entries.size() > maxEntries || currentBytes > maxBytes) && iterator.hasNext()) {
+                    CachedManifest eldest = iterator.next().getValue();
+                    iterator.remove();
+                    remove(eldest);
+                    evictions.incrementAndGet();
+                }
+            }
+            return manifest;
+        } catch (IOException e) {
+            logger.error("Unable to cache manifest for {}: {}", pi, e.getMessage());
+            return null;
+        } finally {
+            CompletableFuture<CachedManifest> future = inFlight.remove(key);
+            if (future != null) {
+                future.complete(manifest);
+            }
+        }
+    }
+
+    /**
+     * Removes all cached manifests for the given record.
+     *
+     * @param pi Record identifier
+     * @return Number of removed manifests
+     * @should remove all manifests for record
+     */
+    public int invalidate(String pi) {
+        int ret = 0;
+        synchronized (entries) {
+            // Manifests currently being built for this record will not be added
+            epochs.merge(pi, 1L, Long::sum);
+            Iterator<CachedManifest> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                CachedManifest manifest = iterator.next();
+                if (manifest.pi.equals(pi)) {
+                    iterator.remove();
+                    remove(manifest);
+                    ret++;
+                }
+            }
+        }
+        if (ret > 0) {
+            logger.debug("Removed {} cached manifests for {}", ret, pi);
+        }
+        return ret;
+    }
+
+    /**
+     * Removes all cached manifests.
+     *
+     * @return Number of removed manifests
+     */
+    public int clear() {
+        synchronized (entries) {
+            int ret = entries.size();
+            for (CachedManifest manifest : entries.values()) {
+                remove(manifest);
+            }
+            entries.clear();
+            currentBytes = 0;
+            return ret;
+        }
+    }
+
+    /**
+     * Subtracts the size of the given (already removed) entry and deletes its file, if any. Must be called while holding the lock on entries.
+     *
+     * @param manifest
+     */
+    private void remove(CachedManifest manifest) {
+        currentBytes -= manifest.size;
+        if (manifest.file != null) {
+            try {
+                Files.deleteIfExists(manifest.file);
+            } catch (IOException e) {
+                logger.warn("Unable to delete cached manifest file {}: {}", manifest.file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     *
+     * @param key
+     * @param data
+     * @return Path of the written file
+     * @throws IOException
+     */
+    private Path writeToDisk(String key, byte[] data) throws IOException {
+        Files.createDirectories(diskFolder);
+        // Unique name per write, so that a replaced entry's file can be deleted safely
+        Path tempFile = Files.createTempFile(diskFolder, StringTools.generateHash(key).substring(0, 16) + "_", ".json");
+        Files.write(tempFile, data);
+        return tempFile;
+    }
+
+    /**
+     *
+     * @return Number of cached manifests
+     */
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     *
+     * @return Total size of all cached manifests in bytes
+     */
+    public long getSizeInBytes() {
+        synchronized (entries) {
+            return currentBytes;
+        }
+    }
+
+    /**
+     * @return the hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return the misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the evictions
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     *
+     * @return Cache statistics as JSON
+     */
+    public JSONObject getStatisticsAsJson() {
+        JSONObject ret = new JSONObject();
+        ret.put("objects", getSize());
+        ret.put("bytes", getSizeInBytes());
+        ret.put("maxObjects", maxEntries);
+        ret.put("maxBytes", maxBytes);
+        ret.put("hits", getHits());
+        ret.put("misses", getMisses());
+        ret.put("evictions", getEvictions());
+        ret.put("building", inFlight.size());
+        ret.put("disk", diskFolder != null);
+        return ret;
+    }
+
+    /**
+     * A serialized manifest, either held in memory or stored in a file.
+     */
+    public static final class CachedManifest {
+
+        private final String pi;
+        private final byte[] data;
+        private final Path file;
+        private final long size;
+        private final String mediaType;
+
+        /**
+         *
+         * @param pi
+         * @param data
+         * @param file
+         * @param size
+         * @param mediaType
+         */
+        private CachedManifest(String pi, byte[] data, Path file, long size, String mediaType) {
+            this.pi = pi;
+            this.data = data;
+            this.file = file;
+            this.size = size;
+            this.mediaType = mediaType;
+        }
+
+        static CachedManifest inMemory(String pi, byte[] data, String mediaType) {
+            return new CachedManifest(pi, data, null, data.length, mediaType);
+        }
+
+        static CachedManifest onDisk(String pi, Path file, long size, String mediaType) {
+            return new CachedManifest(pi, null, file, size, mediaType);
+        }
+
+        /**
+         *
+         * @return Serialized manifest
+         * @throws IOException if the cached file cannot be read (e.g. because it has been evicted in the meantime)
+         */
+        public byte[] getData() throws IOException {
+            return data != null ? data : Files.readAllBytes(file);
+        }
+
+        /**
+         * @return the pi
+         */
+        public String getPi() {
+            return pi;
+        }
+
+        /**
+         * @return the mediaType
+         */
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        /**
+         * @return the size
+         */
+        public long getSize() {
+            return size;
+        }
+    }
+}
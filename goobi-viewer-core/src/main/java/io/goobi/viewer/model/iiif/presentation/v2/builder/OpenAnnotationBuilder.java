@@ -59,6 +59,7 @@ import io.goobi.viewer.exceptions.IndexUnreachableException;
 import io.goobi.viewer.exceptions.PresentationException;
 import io.goobi.viewer.model.annotation.AnnotationConverter;
 import io.goobi.viewer.model.annotation.CrowdsourcingAnnotation;
+import io.goobi.viewer.model.iiif.presentation.AnnotationPrefetch;
 import io.goobi.viewer.solr.SolrConstants;
 import io.goobi.viewer.solr.SolrTools;
 
@@ -114,7 +115,25 @@ public class OpenAnnotationBuilder extends AbstractAnnotationBuilder {
      */
     public Map<Integer, List<OpenAnnotation>> getCrowdsourcingAnnotations(String pi, boolean urlOnlyTarget, HttpServletRequest request)
             throws DAOException {
-        List<CrowdsourcingAnnotation> pAnnos = DataManager.getInstance().getDao().getAnnotationsForWork(pi);
+        return toOpenAnnotationMap(DataManager.getInstance().getDao().getAnnotationsForWork(pi));
+    }
+
+    /**
+     * Converts the crowdsourcing annotations contained in the given prefetch into OpenAnnotations, mapped by page number.
+     *
+     * @param prefetch Comments and annotations of the record, loaded in bulk
+     * @return A map of page numbers (1-based) mapped to a list of associated annotations
+     */
+    public Map<Integer, List<OpenAnnotation>> getCrowdsourcingAnnotations(AnnotationPrefetch prefetch) {
+        return toOpenAnnotationMap(prefetch.getAllAnnotations());
+    }
+
+    /**
+     * 
+     * @param pAnnos
+     * @return A map of page numbers (1-based) mapped to a list of associated annotations
+     */
+    private static Map<Integer, List<OpenAnnotation>> toOpenAnnotationMap(List<CrowdsourcingAnnotation> pAnnos) {
         Map<Integer, List<OpenAnnotation>> annoMap = new HashMap<>();
         if (pAnnos != null) {
             for (CrowdsourcingAnnotation pAnno : pAnnos) {
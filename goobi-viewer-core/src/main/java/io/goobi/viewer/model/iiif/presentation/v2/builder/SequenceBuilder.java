@@ -70,7 +70,6 @@ import de.unigoettingen.sub.commons.contentlib.exceptions.ContentLibException;
 import de.unigoettingen.sub.commons.contentlib.exceptions.ContentNotFoundException;
 import io.goobi.viewer.api.rest.AbstractApiUrlManager;
 import io.goobi.viewer.api.rest.resourcebuilders.TextResourceBuilder;
-import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.exceptions.IndexUnreachableException;
 import io.goobi.viewer.exceptions.PresentationException;
@@ -80,6 +79,7 @@ import io.goobi.viewer.managedbeans.utils.BeanUtils;
 import io.goobi.viewer.messages.ViewerResourceBundle;
 import io.goobi.viewer.model.annotation.AltoAnnotationBuilder;
 import io.goobi.viewer.model.annotation.comments.Comment;
+import io.goobi.viewer.model.iiif.presentation.AnnotationPrefetch;
 import io.goobi.viewer.model.iiif.presentation.v2.builder.LinkingProperty.LinkingTarget;
 import io.goobi.viewer.model.viewer.BaseMimeType;
 import io.goobi.viewer.model.viewer.PageType;
@@ -167,15 +167,18 @@ public class SequenceBuilder extends AbstractBuilder {
             }
 
             if (getBuildMode().equals(BuildMode.IIIF)) {
+                // Load all comments and crowdsourcing annotations of the record at once instead of querying each page
+                AnnotationPrefetch prefetch = null;
                 try {
-                    annotationMap.put(AnnotationType.COMMENT, addComments(canvasMap, doc.getPi(), false));
+                    prefetch = AnnotationPrefetch.load(doc.getPi());
+                    annotationMap.put(AnnotationType.COMMENT, addComments(canvasMap, prefetch, false));
                 } catch (DAOException e) {
                     logger.error(e.toString());
                 }
                 if (sequence.getCanvases() != null) {
                     OpenAnnotationBuilder annoBuilder = new OpenAnnotationBuilder(urls);
-                    addCrowdourcingAnnotations(sequence.getCanvases(), annoBuilder.getCrowdsourcingAnnotations(doc.getPi(), false, request),
-                            annotationMap);
+                    addCrowdourcingAnnotations(sequence.getCanvases(), prefetch != null ? annoBuilder.getCrowdsourcingAnnotations(prefetch)
+                            : annoBuilder.getCrowdsourcingAnnotations(doc.getPi(), false, request), annotationMap);
                 }
             }
         }
@@ -230,16 +233,30 @@ public class SequenceBuilder extends AbstractBuilder {
      */
     public List<AnnotationList> addComments(Map<Integer, Canvas2> canvases, String pi, boolean populate)
             throws DAOException, URISyntaxException, ViewerConfigurationException {
+        return addComments(canvases, AnnotationPrefetch.load(pi), populate);
+    }
+
+    /**
+     * Adds a comment annotation to all cavases which contain comments.
+     *
+     * @param canvases All canvases which may get comments, mapped by their page order
+     * @param prefetch Comments and annotations of the work containing the pages, loaded in bulk
+     * @param populate if true, the actual annotations will be included in the resources property
+     * @return a map with the list of all annotationlists (one list per page)
+     * @throws java.net.URISyntaxException if any.
+     * @throws io.goobi.viewer.exceptions.ViewerConfigurationException if any.
+     */
+    public List<AnnotationList> addComments(Map<Integer, Canvas2> canvases, AnnotationPrefetch prefetch, boolean populate)
+            throws URISyntaxException, ViewerConfigurationException {
         List<AnnotationList> list = new ArrayList<>();
-        List<Integer> pages = DataManager.getInstance().getDao().getPagesWithComments(pi);
-        for (Integer order : pages) {
+        String pi = prefetch.getPi();
+        for (Integer order : prefetch.getPagesWithComments()) {
             Canvas2 canvas = canvases.get(order);
             if (canvas != null) {
                 AnnotationList annoList = new AnnotationList(getAnnotationListURI(pi, order, AnnotationType.COMMENT, true));
                 annoList.setLabel(ViewerResourceBundle.getTranslations(AnnotationType.COMMENT.name()));
                 if (populate) {
-                    List<Comment> comments = DataManager.getInstance().getDao().getCommentsForPage(pi, order);
-                    for (Comment comment : comments) {
+                    for (Comment comment : prefetch.getComments(order)) {
                         OpenAnnotation anno = new OpenAnnotation(getCommentAnnotationURI(comment.getId()));
                         anno.setMotivation(Motivation.COMMENTING);
                         anno.setTarget(createSpecificResource(canvas, 0, 0, canvas.getWidth(), canvas.getHeight()));
@@ -143,7 +143,6 @@ public class DataRetriever {
                 .stream()
                 .filter(c -> !c.getName().contains(splittingChar))
                 .sorted((c1, c2) -> c1.getName().compareTo(c2.getName()))
-                .peek(c -> c.setChildCount(getChildCount(c.getName(), splittingChar, result.keySet())))
                 .toList();
     }
 
@@ -167,7 +166,6 @@ public class DataRetriever {
                 .stream()
                 .filter(c -> c.getName().matches(regex))
                 .sorted((c1, c2) -> c1.getName().compareTo(c2.getName()))
-                .peek(c -> c.setChildCount(getChildCount(c.getName(), splittingChar, result.keySet())))
                 .toList();
     }
 
@@ -207,17 +205,6 @@ public class DataRetriever {
         }
     }
 
-    /**
-     * @param collection
-     * @param splittingChar
-     * @param allCollections
-     * @return Child count
-     */
-    private static long getChildCount(String collection, String splittingChar, Set<String> allCollections) {
-        String regex = collection + "[{}][^{}]+$".replace("{}", splittingChar);
-        return allCollections.stream().filter(c -> c.matches(regex)).count();
-    }
-
     /**
      * Adds all metadata from the given events to the first work document contained in eles. All metadata will be attached twice, once in the form
      * "/[fieldName]" and once in the form "[eventType]/[fieldName]"
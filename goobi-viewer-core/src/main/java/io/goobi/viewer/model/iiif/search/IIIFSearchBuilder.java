@@ -31,6 +31,13 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -38,7 +45,6 @@ import javax.servlet.http.HttpServletRequest;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.solr.common.SolrDocument;
-import org.apache.solr.common.SolrDocumentList;
 import org.jdom2.JDOMException;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
@@ -63,7 +69,6 @@ import io.goobi.viewer.model.iiif.search.model.SearchTermList;
 import io.goobi.viewer.model.iiif.search.parser.AbstractSearchParser;
 import io.goobi.viewer.model.viewer.StringPair;
 import io.goobi.viewer.solr.SolrConstants;
-import io.goobi.viewer.solr.SolrSearchIndex;
 import io.goobi.viewer.solr.SolrTools;
 
 /**
@@ -318,32 +323,24 @@ public class IIIFSearchBuilder {
         long mostHits = 0;
         long total = 0;
         if (StringUtils.isNotBlank(query)) {
+            int firstHitIndex = getFirstHitIndex(getPage());
+            List<SearchBranch<AnnotationResultList>> searches = new ArrayList<>(4);
             if (motivation.isEmpty() || motivation.contains(Motivation.PAINTING)) {
-                AnnotationResultList fulltextAnnotations = searchFulltext(query, pi, getFirstHitIndex(getPage()), getHitsPerPage());
-                resultList.add(fulltextAnnotations);
-                mostHits = Math.max(mostHits, fulltextAnnotations.getNumHits());
-                total += fulltextAnnotations.getNumHits();
+                searches.add(new SearchBranch<>(() -> searchFulltext(query, pi, firstHitIndex, getHitsPerPage()), false));
             }
             if (motivation.isEmpty() || motivation.contains(MOTIVATION_NON_PAINTING) || motivation.contains(Motivation.DESCRIBING)) {
-                AnnotationResultList annotations = searchAnnotations(query, pi, getFirstHitIndex(getPage()), getHitsPerPage(), request);
-                resultList.add(annotations);
-                mostHits = Math.max(mostHits, annotations.getNumHits());
-                total += annotations.getNumHits();
-
+                // Access checks for annotations depend on the request, which must not be used outside of the request thread
+                searches.add(new SearchBranch<>(() -> searchAnnotations(query, pi, firstHitIndex, getHitsPerPage(), request), true));
+                searches.add(new SearchBranch<>(() -> searchMetadata(query, pi, firstHitIndex, getHitsPerPage()), false));
+                searches.add(new SearchBranch<>(() -> searchComments(query, pi, firstHitIndex, getHitsPerPage()), false));
             }
-            if (motivation.isEmpty() || motivation.contains(MOTIVATION_NON_PAINTING) || motivation.contains(Motivation.DESCRIBING)) {
-                AnnotationResultList metadata = searchMetadata(query, pi, getFirstHitIndex(getPage()), getHitsPerPage());
-                resultList.add(metadata);
-                mostHits = Math.max(mostHits, metadata.getNumHits());
-                total += metadata.getNumHits();
-
-            }
-            if (motivation.isEmpty() || motivation.contains(MOTIVATION_NON_PAINTING) || motivation.contains(Motivation.DESCRIBING)) {
-                AnnotationResultList annotations = searchComments(query, pi, getFirstHitIndex(getPage()), getHitsPerPage());
-                resultList.add(annotations);
-                mostHits = Math.max(mostHits, annotations.getNumHits());
-                total += annotations.getNumHits();
-
+            // Results are merged in the same order in which the searches were added, regardless of which one finishes first
+            for (AnnotationResultList results : executeConcurrently(searches,
+                    DataManager.getInstance().getIIIFSearchThreadPoolManager().getExecutorService(),
+                    DataManager.getInstance().getConfiguration().getIIIFSearchTimeout())) {
+                resultList.add(results);
+                mostHits = Math.max(mostHits, results.getNumHits());
+                total += results.getNumHits();
             }
         }
 
@@ -381,17 +378,21 @@ public class IIIFSearchBuilder {
 
         SearchTermList terms = new SearchTermList();
         if (StringUtils.isNotBlank(query)) {
+            List<SearchBranch<SearchTermList>> searches = new ArrayList<>(3);
             if (motivation.isEmpty() || motivation.contains("painting")) {
                 //add terms from fulltext?
             }
             if (motivation.isEmpty() || motivation.contains(MOTIVATION_NON_PAINTING) || motivation.contains("describing")) {
-                terms.addAll(autoSuggestAnnotations(query, getPi(), request));
-            }
-            if (motivation.isEmpty() || motivation.contains(MOTIVATION_NON_PAINTING) || motivation.contains("describing")) {
-                terms.addAll(autoSuggestMetadata(query, getPi()));
+                searches.add(new SearchBranch<>(() -> autoSuggestAnnotations(query, getPi(), request), true));
+                searches.add(new SearchBranch<>(() -> autoSuggestMetadata(query, getPi()), false));
             }
             if (motivation.isEmpty() || motivation.contains(MOTIVATION_NON_PAINTING) || motivation.contains("commenting")) {
-                terms.addAll(autoSuggestComments(query, getPi()));
+                searches.add(new SearchBranch<>(() -> autoSuggestComments(query, getPi()), false));
+            }
+            for (SearchTermList results : executeConcurrently(searches,
+                    DataManager.getInstance().getIIIFSearchThreadPoolManager().getExecutorService(),
+                    DataManager.getInstance().getConfiguration().getIIIFSearchTimeout())) {
+                terms.addAll(results);
             }
         }
 
@@ -401,6 +402,103 @@ public class IIIFSearchBuilder {
         return result;
     }
 
+    /**
+     * Runs the given searches concurrently and waits for them to finish, but no longer than <code>timeout</code> milliseconds. Searches bound to
+     * the calling thread are executed directly while the others are running in the given executor. If any search does not finish in time, all
+     * unfinished searches are cancelled and the whole search fails, since partial results would distort the reported hit counts.
+     *
+     * @param <T>
+     * @param searches Searches to execute
+     * @param executor Executor for searches not bound to the calling thread
+     * @param timeout Maximum time in milliseconds to wait for all searches
+     * @return Results in the same order as the given searches
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     * @should return results in order of given searches
+     * @should execute searches bound to calling thread on calling thread
+     * @should throw PresentationException if search times out
+     */
+    static <T> List<T> executeConcurrently(List<SearchBranch<T>> searches, ExecutorService executor, long timeout)
+            throws PresentationException, IndexUnreachableException {
+        List<T> ret = new ArrayList<>(searches.size());
+        if (searches.isEmpty()) {
+            return ret;
+        }
+
+        long deadline = System.currentTimeMillis() + timeout;
+        List<Future<T>> futures = new ArrayList<>(searches.size());
+        try {
+            for (SearchBranch<T> search : searches) {
+                futures.add(search.callingThread ? null : executor.submit(search.callable));
+            }
+            for (int i = 0; i < searches.size(); ++i) {
+                ret.add(futures.get(i) == null ? searches.get(i).callable.call() : null);
+            }
+            for (int i = 0; i < searches.size(); ++i) {
+                if (futures.get(i) != null) {
+                    ret.set(i, futures.get(i).get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS));
+                }
+            }
+        } catch (TimeoutException e) {
+            logger.error("IIIF search did not finish within {} ms.", timeout);
+            throw new PresentationException("IIIF search did not finish within " + timeout + " ms");
+        } catch (ExecutionException e) {
+            throw toSearchException(e.getCause() != null ? e.getCause() : e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PresentationException("IIIF search interrupted");
+        } catch (PresentationException | IndexUnreachableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw toSearchException(e);
+        } finally {
+            for (Future<T> future : futures) {
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     *
+     * @param e
+     * @return e if it is a {@link PresentationException}; a new {@link PresentationException} otherwise
+     * @throws IndexUnreachableException if e is an {@link IndexUnreachableException}
+     */
+    private static PresentationException toSearchException(Throwable e) throws IndexUnreachableException {
+        if (e instanceof PresentationException pe) {
+            return pe;
+        } else if (e instanceof IndexUnreachableException iue) {
+            throw iue;
+        }
+        return new PresentationException(e.getMessage());
+    }
+
+    /**
+     * Part of a IIIF content search.
+     *
+     * @param <T> Result type
+     */
+    static class SearchBranch<T> {
+
+        private final Callable<T> callable;
+        /** If true, the search must be executed on the calling thread, e.g. because it uses the current request. */
+        private final boolean callingThread;
+
+        /**
+         *
+         * @param callable
+         * @param callingThread
+         */
+        SearchBranch(Callable<T> callable, boolean callingThread) {
+            this.callable = callable;
+            this.callingThread = callingThread;
+        }
+    }
+
     private AnnotationResultList searchComments(String query, String pi, int firstHitIndex, int hitsPerPage) {
 
         AnnotationResultList results = new AnnotationResultList();
@@ -478,25 +576,24 @@ public class IIIFSearchBuilder {
         queryBuilder.append(")");
 
         try {
-            SolrDocumentList docList = DataManager.getInstance()
+            AtomicLong hitIndex = new AtomicLong(0);
+            DataManager.getInstance()
                     .getSearchIndex()
-                    .search(queryBuilder.toString(), SolrSearchIndex.MAX_HITS, getDocStructSortFields(),
-                            converter.getPresentationBuilder().getSolrFieldList());
-            long hitIndex = 0;
-            for (SolrDocument doc : docList) {
-                Map<String, List<String>> fieldNames = SolrTools.getFieldValueMap(doc);
-                for (String fieldName : fieldNames.keySet()) {
-                    if (fieldNameMatches(fieldName, displayFields)) {
-                        hitIndex++;
-                        String fieldValue = fieldNames.get(fieldName).stream().collect(Collectors.joining(" "));
-                        String containesWordRegex = AbstractSearchParser.getContainedWordRegex(AbstractSearchParser.getQueryRegex(query));
-                        if (fieldValue.matches(containesWordRegex) && hitIndex >= firstHitIndex && hitIndex < firstHitIndex + hitsPerPage) {
-                            SearchHit hit = converter.convertMetadataToHit(AbstractSearchParser.getQueryRegex(query), fieldName, doc);
-                            results.add(hit);
+                    .stream(queryBuilder.toString(), getDocStructSortFields(), converter.getPresentationBuilder().getSolrFieldList(), doc -> {
+                        Map<String, List<String>> fieldNames = SolrTools.getFieldValueMap(doc);
+                        for (String fieldName : fieldNames.keySet()) {
+                            if (fieldNameMatches(fieldName, displayFields)) {
+                                long currentHitIndex = hitIndex.incrementAndGet();
+                                String fieldValue = fieldNames.get(fieldName).stream().collect(Collectors.joining(" "));
+                                String containesWordRegex = AbstractSearchParser.getContainedWordRegex(AbstractSearchParser.getQueryRegex(query));
+                                if (fieldValue.matches(containesWordRegex) && currentHitIndex >= firstHitIndex
+                                        && currentHitIndex < firstHitIndex + hitsPerPage) {
+                                    SearchHit hit = converter.convertMetadataToHit(AbstractSearchParser.getQueryRegex(query), fieldName, doc);
+                                    results.add(hit);
+                                }
+                            }
                         }
-                    }
-                }
-            }
+                    });
         } catch (PresentationException | IndexUnreachableException e) {
             logger.error(e.toString(), e);
         }
@@ -529,23 +626,22 @@ public class IIIFSearchBuilder {
         queryBuilder.append(")");
 
         try {
-            SolrDocumentList docList = DataManager.getInstance()
-                    .getSearchIndex()
-                    .search(queryBuilder.toString(), SolrSearchIndex.MAX_HITS, getDocStructSortFields(),
-                            converter.getPresentationBuilder().getSolrFieldList());
             String escapedQuery = Pattern.quote(query);
-            for (SolrDocument doc : docList) {
-                Map<String, List<String>> fieldNames = SolrTools.getFieldValueMap(doc);
-                for (String fieldName : fieldNames.keySet()) {
-                    if (fieldNameMatches(fieldName, displayFields)) {
-                        String fieldValue = fieldNames.get(fieldName).stream().collect(Collectors.joining(" "));
-                        if (fieldValue.matches(AbstractSearchParser.getContainedWordRegex(AbstractSearchParser.getAutoSuggestRegex(escapedQuery)))) {
-                            terms.addAll(
-                                    converter.getSearchTerms(AbstractSearchParser.getAutoSuggestRegex(escapedQuery), fieldValue, getMotivation()));
+            DataManager.getInstance()
+                    .getSearchIndex()
+                    .stream(queryBuilder.toString(), getDocStructSortFields(), converter.getPresentationBuilder().getSolrFieldList(), doc -> {
+                        Map<String, List<String>> fieldNames = SolrTools.getFieldValueMap(doc);
+                        for (String fieldName : fieldNames.keySet()) {
+                            if (fieldNameMatches(fieldName, displayFields)) {
+                                String fieldValue = fieldNames.get(fieldName).stream().collect(Collectors.joining(" "));
+                                if (fieldValue
+                                        .matches(AbstractSearchParser.getContainedWordRegex(AbstractSearchParser.getAutoSuggestRegex(escapedQuery)))) {
+                                    terms.addAll(converter.getSearchTerms(AbstractSearchParser.getAutoSuggestRegex(escapedQuery), fieldValue,
+                                            getMotivation()));
+                                }
+                            }
                         }
-                    }
-                }
-            }
+                    });
         } catch (PresentationException | IndexUnreachableException e) {
             logger.error(e.toString(), e);
         }
@@ -633,26 +729,29 @@ public class IIIFSearchBuilder {
         queryBuilder.append(" +FULLTEXT:").append(query);
 
         AnnotationResultList results = new AnnotationResultList();
+        // Separate converter instance, since the page number is changed for each page while other searches may be running concurrently
+        SearchResultConverter fulltextConverter = new SearchResultConverter(urls, pi, 0);
 
-        SolrDocumentList docList = DataManager.getInstance()
+        // Page docs are processed one batch at a time so that records with many pages don't need to be loaded into memory at once
+        DataManager.getInstance()
                 .getSearchIndex()
-                .search(queryBuilder.toString(), SolrSearchIndex.MAX_HITS, getPageSortFields(), FULLTEXTFIELDLIST);
-        for (SolrDocument doc : docList) {
-            Path altoFile = getPath(pi, SolrTools.getSingleFieldStringValue(doc, SolrConstants.FILENAME_ALTO));
-            Path fulltextFile = getPath(pi, SolrTools.getSingleFieldStringValue(doc, SolrConstants.FILENAME_FULLTEXT));
-            Integer pageNo = SolrTools.getAsInt(doc.getFieldValue(SolrConstants.ORDER));
-            converter.setPageNo(pageNo);
-            try {
-                if (altoFile != null && Files.exists(altoFile)) {
-                    results.add(converter.getAnnotationsFromAlto(altoFile, queryRegex));
-                } else if (fulltextFile != null && Files.exists(fulltextFile)) {
-                    String text = new String(Files.readAllBytes(fulltextFile), StandardCharsets.UTF_8.name());
-                    results.add(converter.getAnnotationsFromFulltext(text, pi, pageNo, queryRegex, results.getNumHits(), firstIndex, numHits));
-                }
-            } catch (IOException | JDOMException e) {
-                logger.error("Error reading {}", fulltextFile, e);
-            }
-        }
+                .stream(queryBuilder.toString(), getPageSortFields(), FULLTEXTFIELDLIST, doc -> {
+                    Path altoFile = getPath(pi, SolrTools.getSingleFieldStringValue(doc, SolrConstants.FILENAME_ALTO));
+                    Path fulltextFile = getPath(pi, SolrTools.getSingleFieldStringValue(doc, SolrConstants.FILENAME_FULLTEXT));
+                    Integer pageNo = SolrTools.getAsInt(doc.getFieldValue(SolrConstants.ORDER));
+                    fulltextConverter.setPageNo(pageNo);
+                    try {
+                        if (altoFile != null && Files.exists(altoFile)) {
+                            results.add(fulltextConverter.getAnnotationsFromAlto(altoFile, queryRegex));
+                        } else if (fulltextFile != null && Files.exists(fulltextFile)) {
+                            String text = new String(Files.readAllBytes(fulltextFile), StandardCharsets.UTF_8.name());
+                            results.add(fulltextConverter.getAnnotationsFromFulltext(text, pi, pageNo, queryRegex, results.getNumHits(), firstIndex,
+                                    numHits));
+                        }
+                    } catch (IOException | JDOMException e) {
+                        logger.error("Error reading {}", fulltextFile, e);
+                    }
+                });
         return results;
     }
 
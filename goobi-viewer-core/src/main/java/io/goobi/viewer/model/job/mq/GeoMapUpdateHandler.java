@@ -21,6 +21,7 @@
  */
 package io.goobi.viewer.model.job.mq;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.logging.log4j.LogManager;
@@ -33,17 +34,24 @@ import io.goobi.viewer.controller.mq.MessageStatus;
 import io.goobi.viewer.controller.mq.ViewerMessage;
 import io.goobi.viewer.dao.IDAO;
 import io.goobi.viewer.exceptions.DAOException;
+import io.goobi.viewer.exceptions.IndexUnreachableException;
 import io.goobi.viewer.exceptions.PresentationException;
 import io.goobi.viewer.managedbeans.PersistentStorageBean;
 import io.goobi.viewer.managedbeans.utils.BeanUtils;
 import io.goobi.viewer.model.job.TaskType;
 import io.goobi.viewer.model.maps.FeatureSet;
 import io.goobi.viewer.model.maps.GeoMap;
+import io.goobi.viewer.model.maps.HeatmapCache;
+import io.goobi.viewer.model.maps.SolrFeatureSet;
+import io.goobi.viewer.model.search.SearchHelper;
+import io.goobi.viewer.model.security.IPrivilegeHolder;
 
 public class GeoMapUpdateHandler implements MessageHandler<MessageStatus> {
 
     private static final Logger logger = LogManager.getLogger(GeoMapUpdateHandler.class);
     private static final long GEOMAP_TIME_TO_LIVE = 90;
+    /** Solr field queried by the heatmap layer of CMS maps. */
+    private static final String HEATMAP_FIELD = "WKT_COORDS";
 
     public GeoMapUpdateHandler() {
         // Empty constructor
@@ -62,6 +70,9 @@ public class GeoMapUpdateHandler implements MessageHandler<MessageStatus> {
                 for (GeoMap geomap : dao.getAllGeoMaps()) {
                     updateMapInCache(applicationBean, geomap);
                 }
+                if (shouldPrecomputeHeatmaps()) {
+                    precomputeHeatmaps(dao.getAllGeoMaps());
+                }
             }
             return MessageStatus.FINISH;
         } catch (PresentationException | DAOException e) {
@@ -86,6 +97,50 @@ public class GeoMapUpdateHandler implements MessageHandler<MessageStatus> {
         applicationBean.put("cms_geomap_" + geomap.getId(), geomap);
     }
 
+    /**
+     * Loads the heatmaps of all tile blocks of the configured top tile levels for all query based feature sets of the given maps into the
+     * {@link HeatmapCache}, as requested by anonymous clients. Heatmaps that are already cached are not loaded again.
+     *
+     * @param geomaps
+     * @throws PresentationException
+     */
+    private static void precomputeHeatmaps(List<GeoMap> geomaps) throws PresentationException {
+        HeatmapCache cache = DataManager.getInstance().getHeatmapCache();
+        if (cache == null) {
+            return;
+        }
+        List<SolrFeatureSet> featureSets = new ArrayList<>();
+        for (GeoMap geomap : geomaps) {
+            for (FeatureSet featureSet : geomap.getFeatureSets()) {
+                if (featureSet instanceof SolrFeatureSet solrFeatureSet && solrFeatureSet.hasSolrQuery()) {
+                    featureSets.add(solrFeatureSet);
+                }
+            }
+        }
+        int configuredLevels = DataManager.getInstance().getConfiguration().getGeoMapHeatmapCachePrecomputeLevels();
+        int levels = HeatmapCache.getPrecomputeLevels(configuredLevels, featureSets.size(), cache.getMaxEntries());
+        if (levels < configuredLevels) {
+            logger.warn("Heatmaps of {} tile levels for {} feature sets do not fit into the heatmap cache ({} entries), precomputing {} levels.",
+                    configuredLevels, featureSets.size(), cache.getMaxEntries(), levels);
+        }
+        List<String> regions = HeatmapCache.getPrecomputableRegions(levels);
+        if (regions.isEmpty()) {
+            return;
+        }
+        try {
+            String suffixes = SearchHelper.getAllSuffixesForAnonymousClient(IPrivilegeHolder.PRIV_LIST);
+            for (SolrFeatureSet featureSet : featureSets) {
+                String query = SearchHelper.buildHeatmapQuery(featureSet.getSolrQuery(), suffixes);
+                for (String region : regions) {
+                    SearchHelper.getHeatMap(HEATMAP_FIELD, region, query, "", null);
+                }
+                logger.debug("Precomputed {} heatmaps for feature set query {}", regions.size(), featureSet.getSolrQuery());
+            }
+        } catch (IndexUnreachableException | DAOException e) {
+            throw new PresentationException("Error precomputing heatmaps: " + e.toString());
+        }
+    }
+
     @Override
     public String getMessageHandlerName() {
         return TaskType.CACHE_GEOMAPS.name();
@@ -94,13 +149,23 @@ public class GeoMapUpdateHandler implements MessageHandler<MessageStatus> {
     public static boolean shouldUpdateGeomaps() throws DAOException {
         IDAO dao = DataManager.getInstance().getDao();
         boolean useHeatmap = DataManager.getInstance().getConfiguration().useHeatmapForCMSMaps();
-        return !useHeatmap && dao.getAllGeoMaps()
+        return (!useHeatmap || shouldPrecomputeHeatmaps()) && dao.getAllGeoMaps()
                 .stream()
                 .map(GeoMap::getFeatureSets)
                 .flatMap(List::stream)
                 .anyMatch(FeatureSet::isQueryResultSet);
     }
 
+    /**
+     *
+     * @return true if CMS maps use heatmaps and heatmap precomputation is enabled; false otherwise
+     */
+    private static boolean shouldPrecomputeHeatmaps() {
+        return DataManager.getInstance().getConfiguration().useHeatmapForCMSMaps()
+                && DataManager.getInstance().getConfiguration().isGeoMapHeatmapCacheEnabled()
+                && DataManager.getInstance().getConfiguration().getGeoMapHeatmapCachePrecomputeLevels() > 0;
+    }
+
     public static long getGeoMapTimeToLive() {
         return GEOMAP_TIME_TO_LIVE;
     }
@@ -27,10 +27,21 @@ import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -40,12 +51,14 @@ import de.unigoettingen.sub.commons.contentlib.servlet.controller.GetPdfAction;
 import de.unigoettingen.sub.commons.contentlib.servlet.model.ContentServerConfiguration;
 import de.unigoettingen.sub.commons.contentlib.servlet.model.SinglePdfRequest;
 import de.unigoettingen.sub.commons.util.PathConverter;
+import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.controller.FileTools;
 import io.goobi.viewer.controller.ProcessDataResolver;
 import io.goobi.viewer.controller.mq.MessageHandler;
 import io.goobi.viewer.controller.mq.MessageQueueManager;
 import io.goobi.viewer.controller.mq.MessageStatus;
 import io.goobi.viewer.controller.mq.ViewerMessage;
+import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.exceptions.IndexUnreachableException;
 import io.goobi.viewer.exceptions.PresentationException;
 import io.goobi.viewer.model.job.TaskType;
@@ -57,17 +70,44 @@ public class PrerenderPdfMessageHandler implements MessageHandler<MessageStatus>
     private static final String MEDIA = "media";
     private static final String ALTO = "alto";
 
+    /** Message property containing the number of processed pages out of the pages that need to be rendered */
+    public static final String MESSAGE_PROPERTY_PROGRESS = "progress";
+
+    static final int DEFAULT_THREADS = 1;
+    static final int DEFAULT_MIN_FREE_MEMORY_MB = 256;
+
+    private static final long MEMORY_WAIT_INTERVAL_MS = 500;
+    /** Minimum interval between two progress updates written to the database */
+    private static final long PROGRESS_PERSIST_INTERVAL_MS = 5000;
+
     private final ProcessDataResolver processDataResolver;
     private final ContentServerConfiguration contentServerConfiguration;
+    private final int threads;
+    private final long minFreeMemory;
 
     public PrerenderPdfMessageHandler() {
-        this.processDataResolver = new ProcessDataResolver();
-        this.contentServerConfiguration = ContentServerConfiguration.getInstance();
+        this(new ProcessDataResolver(), ContentServerConfiguration.getInstance(),
+                DataManager.getInstance().getConfiguration().getPrerenderPdfThreads(),
+                DataManager.getInstance().getConfiguration().getPrerenderPdfMinFreeMemoryMB());
     }
 
     public PrerenderPdfMessageHandler(ProcessDataResolver processDataResolver, ContentServerConfiguration contentServerConfiguration) {
+        this(processDataResolver, contentServerConfiguration, DEFAULT_THREADS, DEFAULT_MIN_FREE_MEMORY_MB);
+    }
+
+    /**
+     * 
+     * @param processDataResolver
+     * @param contentServerConfiguration
+     * @param threads Number of pages rendered in parallel
+     * @param minFreeMemoryMB Heap that must be available before another page is rendered in parallel
+     */
+    public PrerenderPdfMessageHandler(ProcessDataResolver processDataResolver, ContentServerConfiguration contentServerConfiguration, int threads,
+            int minFreeMemoryMB) {
         this.processDataResolver = processDataResolver;
         this.contentServerConfiguration = contentServerConfiguration;
+        this.threads = Math.max(1, threads);
+        this.minFreeMemory = Math.max(0, minFreeMemoryMB) * 1024L * 1024L;
     }
 
     @Override
@@ -80,7 +120,8 @@ public class PrerenderPdfMessageHandler implements MessageHandler<MessageStatus>
         if (StringUtils.isNotBlank(pi)) {
             logger.trace("Starting task to prerender pdf files for PI {}, using config {}; force = {}", pi, this.contentServerConfiguration, force);
             try {
-                if (!createPdfFiles(pi, configVariant, force)) {
+                // Intermediate progress is only written to the database if the ticket is handled by the message queue
+                if (!createPdfFiles(pi, configVariant, force, ticket, queueManager != null)) {
                     return MessageStatus.ERROR;
                 }
             } catch (IndexUnreachableException | PresentationException e) {
@@ -91,26 +132,70 @@ public class PrerenderPdfMessageHandler implements MessageHandler<MessageStatus>
         return MessageStatus.FINISH;
     }
 
-    private boolean createPdfFiles(String pi, String configVariant, boolean force) throws PresentationException, IndexUnreachableException {
+    private boolean createPdfFiles(String pi, String configVariant, boolean force, ViewerMessage ticket, boolean persistProgress)
+            throws PresentationException, IndexUnreachableException {
         Map<String, Path> dataFolders = processDataResolver.getDataFolders(pi, MEDIA, PDF, ALTO);
         Path imageFolder = dataFolders.get(MEDIA);
         Path pdfFolder = dataFolders.get(PDF);
         Path altoFolder = dataFolders.get(ALTO);
         if (imageFolder != null && pdfFolder != null && Files.exists(imageFolder)) {
             List<Path> imageFiles = FileTools.listFiles(imageFolder, FileTools.IMAGE_NAME_FILTER);
-            List<Path> pdfFiles = FileTools.listFiles(pdfFolder, FileTools.PDF_NAME_FILTER);
             if (imageFiles.isEmpty()) {
                 logger.trace("No images in {}. Abandoning task", imageFolder);
-            } else if (imageFiles.size() == pdfFiles.size() && !force) {
+                return true;
+            }
+            List<Path> outdatedFiles = force ? imageFiles : getOutdatedImageFiles(imageFiles, pdfFolder, altoFolder);
+            String info = String.format("%d of %d pages need rendering", outdatedFiles.size(), imageFiles.size());
+            ticket.getProperties().put(ViewerMessage.MESSAGE_PROPERTY_INFO, info);
+            if (persistProgress) {
+                persist(ticket);
+            }
+            if (outdatedFiles.isEmpty()) {
                 logger.trace("PDF files already exist. Abandoning task");
-            } else {
-                return createPdfFiles(configVariant, pdfFolder, altoFolder, imageFiles);
+                return true;
             }
+            return createPdfFiles(configVariant, pdfFolder, altoFolder, outdatedFiles, ticket, persistProgress);
         }
         return true;
     }
 
-    private boolean createPdfFiles(String configVariant, Path pdfFolder, Path altoFolder, List<Path> imageFiles) {
+    /**
+     * Returns the image files whose single page pdf is missing or older than the image or its ALTO file.
+     *
+     * @param imageFiles
+     * @param pdfFolder
+     * @param altoFolder
+     * @return Image files that need to be rendered
+     * @should return images without pdf
+     * @should return images newer than pdf
+     * @should return images with alto newer than pdf
+     * @should not return images with up to date pdf
+     */
+    static List<Path> getOutdatedImageFiles(List<Path> imageFiles, Path pdfFolder, Path altoFolder) {
+        List<Path> ret = new ArrayList<>();
+        for (Path imagePath : imageFiles) {
+            Path pdfPath = pdfFolder.resolve(FileTools.replaceExtension(imagePath.getFileName(), PDF));
+            Path altoPath = altoFolder != null ? altoFolder.resolve(FileTools.replaceExtension(imagePath.getFileName(), "xml")) : null;
+            try {
+                if (!Files.isRegularFile(pdfPath)) {
+                    ret.add(imagePath);
+                    continue;
+                }
+                FileTime pdfTime = Files.getLastModifiedTime(pdfPath);
+                if (Files.getLastModifiedTime(imagePath).compareTo(pdfTime) > 0
+                        || (altoPath != null && Files.isRegularFile(altoPath) && Files.getLastModifiedTime(altoPath).compareTo(pdfTime) > 0)) {
+                    ret.add(imagePath);
+                }
+            } catch (IOException e) {
+                logger.warn("Cannot read modification time for {}: {}", imagePath, e.toString());
+                ret.add(imagePath);
+            }
+        }
+        return ret;
+    }
+
+    private boolean createPdfFiles(String configVariant, Path pdfFolder, Path altoFolder, List<Path> imageFiles, ViewerMessage ticket,
+            boolean persistProgress) {
         if (!Files.exists(pdfFolder)) {
             try {
                 Files.createDirectories(pdfFolder);
@@ -119,12 +204,128 @@ public class PrerenderPdfMessageHandler implements MessageHandler<MessageStatus>
                 return false;
             }
         }
-        for (Path imagePath : imageFiles) {
-            if (!createPdfFile(imagePath, pdfFolder, altoFolder, configVariant)) {
-                return false;
+
+        AtomicInteger done = new AtomicInteger();
+        AtomicInteger rendering = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean(false);
+        // Time of the last progress update written to the database; null if progress is not persisted
+        AtomicLong lastPersisted = persistProgress ? new AtomicLong() : null;
+        updateProgress(ticket, 0, imageFiles.size(), lastPersisted);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, imageFiles.size()));
+        try {
+            List<Future<?>> futures = new ArrayList<>(imageFiles.size());
+            for (Path imagePath : imageFiles) {
+                futures.add(executor.submit(() -> {
+                    // Stop rendering further pages after the first failure
+                    if (failed.get() || !acquireRenderSlot(rendering)) {
+                        return;
+                    }
+                    try {
+                        if (!createPdfFile(imagePath, pdfFolder, altoFolder, configVariant)) {
+                            failed.set(true);
+                        }
+                    } finally {
+                        releaseRenderSlot(rendering);
+                    }
+                    updateProgress(ticket, done.incrementAndGet(), imageFiles.size(), lastPersisted);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            logger.error("Failed to create pdf files: {}", e.toString());
+            return false;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return !failed.get();
+    }
+
+    /**
+     * Waits until enough heap is available to render another page and registers the page as being rendered. A page is always rendered if no
+     * other page is currently being rendered. The memory check and the registration happen while holding the monitor of <code>rendering</code>,
+     * so that several threads cannot pass the check on the same free memory.
+     *
+     * @param rendering Number of pages currently being rendered
+     * @return false if interrupted; true if a render slot has been acquired
+     */
+    private boolean acquireRenderSlot(AtomicInteger rendering) {
+        synchronized (rendering) {
+            while (rendering.get() > 0 && getAvailableMemory() < minFreeMemory) {
+                try {
+                    rendering.wait(MEMORY_WAIT_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
             }
+            rendering.incrementAndGet();
+            return true;
+        }
+    }
+
+    /**
+     * Releases a render slot acquired via {@link #acquireRenderSlot(AtomicInteger)} and wakes up threads waiting for free memory.
+     *
+     * @param rendering Number of pages currently being rendered
+     */
+    private static void releaseRenderSlot(AtomicInteger rendering) {
+        synchronized (rendering) {
+            rendering.decrementAndGet();
+            rendering.notifyAll();
+        }
+    }
+
+    private static long getAvailableMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+    }
+
+    /**
+     * Sets the progress property of the given ticket and writes it to the database at most every {@link #PROGRESS_PERSIST_INTERVAL_MS}
+     * milliseconds, as well as for the first and the last page.
+     *
+     * @param ticket
+     * @param done Number of rendered pages
+     * @param total Number of pages to render
+     * @param lastPersisted Time of the last database update; null if the progress is not to be persisted
+     */
+    private static void updateProgress(ViewerMessage ticket, int done, int total, AtomicLong lastPersisted) {
+        synchronized (ticket) {
+            ticket.getProperties().put(MESSAGE_PROPERTY_PROGRESS, done + "/" + total);
+            long now = System.currentTimeMillis();
+            if (lastPersisted != null && (done == 0 || done == total || now - lastPersisted.get() >= PROGRESS_PERSIST_INTERVAL_MS)) {
+                lastPersisted.set(now);
+                persist(ticket);
+            }
+        }
+    }
+
+    /**
+     * Writes the current properties of the given ticket to the database so that they are visible while the task is still running. A ticket
+     * that has not been persisted yet is added with status {@link MessageStatus#PROCESSING}; the final status is set by the
+     * {@link MessageQueueManager} once the handler returns.
+     *
+     * @param ticket
+     */
+    private static void persist(ViewerMessage ticket) {
+        ticket.setLastUpdateTime(LocalDateTime.now());
+        try {
+            if (ticket.getId() == null) {
+                ticket.setMessageStatus(MessageStatus.PROCESSING);
+                ticket.setQueue(MessageQueueManager.getQueueForMessageType(ticket.getTaskName()));
+                DataManager.getInstance().getDao().addViewerMessage(ticket);
+            } else {
+                DataManager.getInstance().getDao().updateViewerMessage(ticket);
+            }
+        } catch (DAOException e) {
+            logger.warn("Could not update progress of message {}: {}", ticket.getMessageId(), e.toString());
         }
-        return true;
     }
 
     private boolean createPdfFile(Path imagePath, Path pdfFolder, Path altoFolder, String configVariant) {
@@ -133,12 +334,14 @@ public class PrerenderPdfMessageHandler implements MessageHandler<MessageStatus>
                 "ignoreCache", "true",
                 "altoSource", Optional.ofNullable(altoFolder).map(f -> PathConverter.toURI(f.toAbsolutePath()).toString()).orElse(""),
                 "imageSource", PathConverter.toURI(imagePath.getParent().toAbsolutePath()).toString());
-        Path pdfPath = pdfFolder.resolve(FileTools.replaceExtension(imagePath.getFileName(), "pdf"));
+        Path pdfPath = pdfFolder.resolve(FileTools.replaceExtension(imagePath.getFileName(), PDF));
         try (OutputStream out = Files.newOutputStream(pdfPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
             SinglePdfRequest request = new SinglePdfRequest(imagePath.toString(), params);
             new GetPdfAction().writePdf(request, this.contentServerConfiguration, out);
         } catch (ContentLibException | IOException | URISyntaxException e) {
             logger.error("Failed to create pdf file {} from {}. Reason: {}", pdfPath, imagePath, e.toString());
+            // Remove the incomplete file so that it is not considered up to date in the next run
+            FileUtils.deleteQuietly(pdfPath.toFile());
             return false;
         }
         return true;
@@ -0,0 +1,402 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.maps;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.goobi.viewer.exceptions.IndexUnreachableException;
+import io.goobi.viewer.solr.IndexVersionedCache;
+
+/**
+ * Application-scoped cache for Solr facet heatmaps. Requested regions are snapped to a grid of map tiles, so small pans and zooms of a map
+ * resolve to the same cache entry. The key also contains the Solr field, query (including the access condition suffix of the requesting
+ * client), facet query and grid resolution. Heatmaps are discarded when the Solr index version changes.
+ */
+public class HeatmapCache {
+
+    /** Region covering the whole world. */
+    public static final String WORLD_REGION = "[\"-180 -90\" TO \"180 90\"]";
+
+    /** Finest tile level used for snapping regions; smaller regions are snapped to tiles of this level. */
+    static final int MAX_TILE_LEVEL = 20;
+
+    /** Fraction of the distance from a region's center to its corner that Solr uses as maximum cell size if no grid level is requested. */
+    static final double DIST_ERR_PCT = 0.15;
+
+    /** Number of maximum cell sizes per halving; cell sizes are rounded down to these steps. */
+    private static final int DIST_ERR_STEPS = 4;
+
+    private static final Pattern PATTERN_REGION =
+            Pattern.compile("^\\[\\s*\"?\\s*(-?[\\d.]+)\\s+(-?[\\d.]+)\\s*\"?\\s+TO\\s+\"?\\s*(-?[\\d.]+)\\s+(-?[\\d.]+)\\s*\"?\\s*\\]$");
+
+    /**
+     * Loads a heatmap from Solr if it is not cached.
+     */
+    @FunctionalInterface
+    public interface HeatmapLoader {
+        /**
+         *
+         * @param region Region to load the heatmap for
+         * @param distErr Maximum cell size in degrees from which Solr derives the grid level; null to use the given grid level or to let Solr
+         *            derive it from the region
+         * @return Heatmap as JSON string
+         * @throws IndexUnreachableException
+         */
+        String load(String region, Double distErr) throws IndexUnreachableException;
+    }
+
+    private final IndexVersionedCache<String> cache;
+
+    /**
+     *
+     * @param maxEntries Maximum number of cached heatmaps; the least recently used one is removed when exceeded
+     * @param versionCheckInterval Minimum interval between index version checks in milliseconds
+     * @param indexVersionSupplier Returns the current index version or a negative value if unknown
+     */
+    public HeatmapCache(int maxEntries, long versionCheckInterval, LongSupplier indexVersionSupplier) {
+        this.cache = new IndexVersionedCache<>("heatmaps", maxEntries, versionCheckInterval, indexVersionSupplier);
+    }
+
+    /**
+     * Snaps the given WKT rectangle outward to the smallest tile level at which a single tile is at least as large as the region, so that the
+     * result covers at most 2x2 tiles. Tiles at level z are 360/2^z degrees wide and 180/2^z degrees high.
+     * <p>
+     * The region is larger than a tile of the next level in at least one dimension, so that dimension grows by less than a factor of four (two
+     * tiles of up to twice its size). For regions with the 2:1 aspect ratio of the tiles this applies to both dimensions; the shorter side of
+     * regions with a different aspect ratio can grow more.
+     *
+     * @param wktRegion Region in the format <code>["minX minY" TO "maxX maxY"]</code>
+     * @return Tile aligned region containing the given region; null if the region cannot be parsed or crosses the antimeridian
+     * @should snap region to tile grid
+     * @should return same region for slightly moved regions
+     * @should return tile aligned regions unchanged
+     * @should grow regions with tile aspect ratio by less than factor four per dimension
+     * @should return null for regions crossing the antimeridian
+     */
+    public static String quantizeRegion(String wktRegion) {
+        double[] bounds = parseRegion(wktRegion);
+        if (bounds == null) {
+            return null;
+        }
+        double minX = bounds[0];
+        double minY = bounds[1];
+        double maxX = bounds[2];
+        double maxY = bounds[3];
+
+        int level = 0;
+        while (level < MAX_TILE_LEVEL && getTileWidth(level + 1) >= maxX - minX && getTileHeight(level + 1) >= maxY - minY) {
+            level++;
+        }
+        double tileWidth = getTileWidth(level);
+        double tileHeight = getTileHeight(level);
+        int tileCount = 1 << level;
+        int x0 = Math.max(0, (int) Math.floor((minX + 180) / tileWidth));
+        int x1 = Math.min(tileCount, (int) Math.ceil((maxX + 180) / tileWidth));
+        int y0 = Math.max(0, (int) Math.floor((minY + 90) / tileHeight));
+        int y1 = Math.min(tileCount, (int) Math.ceil((maxY + 90) / tileHeight));
+
+        return getRegion(-180 + x0 * tileWidth, -90 + y0 * tileHeight, -180 + x1 * tileWidth, -90 + y1 * tileHeight);
+    }
+
+    /**
+     * Returns the maximum cell size from which Solr derives the grid level of a heatmap for the given region if no grid level is requested, i.e.
+     * {@link #DIST_ERR_PCT} of the great circle distance from the region's center to its corner closer to the pole. Passing this value along
+     * with the snapped region gives the heatmap the grid resolution of the requested region instead of the coarser one of the larger snapped
+     * region. The value is rounded down to one of four steps per halving, so that regions of about the same size share a cache entry; the
+     * resolution is therefore never coarser than that of the requested region.
+     *
+     * @param wktRegion Region in the format <code>["minX minY" TO "maxX maxY"]</code>
+     * @return Maximum cell size in degrees; null if the region cannot be parsed or crosses the antimeridian
+     * @should round down maximum cell size of requested region
+     * @should return same value for slightly moved regions
+     * @should return smaller value for smaller regions
+     */
+    public static Double getDistErr(String wktRegion) {
+        double[] bounds = parseRegion(wktRegion);
+        if (bounds == null) {
+            return null;
+        }
+        double centerX = (bounds[0] + bounds[2]) / 2;
+        double centerY = (bounds[1] + bounds[3]) / 2;
+        double distErr = getDistance(centerX, centerY, bounds[2], centerY >= 0 ? bounds[3] : bounds[1]) * DIST_ERR_PCT;
+        int step = (int) Math.ceil(DIST_ERR_STEPS * Math.log(360 / distErr) / Math.log(2));
+
+        return 360 / Math.pow(2, (double) step / DIST_ERR_STEPS);
+    }
+
+    /**
+     * Returns all regions that {@link #quantizeRegion(String)} can produce for map views at the given tile levels, i.e. all blocks of up to 2x2
+     * tiles.
+     *
+     * @param levels Number of tile levels, starting with level 0
+     * @return List of tile aligned regions
+     * @should return world region for level 0
+     * @should return each block of up to 2x2 tiles once
+     */
+    public static List<String> getPrecomputableRegions(int levels) {
+        Set<String> ret = new LinkedHashSet<>();
+        for (int level = 0; level < Math.min(levels, MAX_TILE_LEVEL + 1); ++level) {
+            double tileWidth = getTileWidth(level);
+            double tileHeight = getTileHeight(level);
+            int tileCount = 1 << level;
+            for (int x = 0; x < tileCount; ++x) {
+                for (int y = 0; y < tileCount; ++y) {
+                    for (int width = 1; width <= Math.min(2, tileCount - x); ++width) {
+                        for (int height = 1; height <= Math.min(2, tileCount - y); ++height) {
+                            ret.add(getRegion(-180 + x * tileWidth, -90 + y * tileHeight, -180 + (x + width) * tileWidth,
+                                    -90 + (y + height) * tileHeight));
+                        }
+                    }
+                }
+            }
+        }
+
+        return new ArrayList<>(ret);
+    }
+
+    /**
+     * Returns the number of regions {@link #getPrecomputableRegions(int)} returns for the given number of tile levels without building them. Each
+     * level z has (2*2^z-1)^2 blocks of up to 2x2 tiles; the aligned 2x2 blocks of all levels but the first are the tiles of the previous level.
+     *
+     * @param levels Number of tile levels, starting with level 0
+     * @return Number of precomputable regions
+     * @should return number of precomputable regions
+     */
+    static long getPrecomputableRegionCount(int levels) {
+        long ret = 0;
+        for (int level = 0; level < Math.min(levels, MAX_TILE_LEVEL + 1); ++level) {
+            long blocksPerAxis = 2L * (1L << level) - 1;
+            ret += blocksPerAxis * blocksPerAxis;
+            if (level > 0) {
+                ret -= 1L << (2 * (level - 1));
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Limits the number of tile levels to precompute so that the heatmaps of all given feature sets fill at most half of the cache. Otherwise
+     * precomputed heatmaps would evict each other (the number of regions grows by a factor of four per level) and leave no room for heatmaps
+     * requested by users.
+     *
+     * @param levels Configured number of tile levels
+     * @param featureSets Number of feature sets for which heatmaps are precomputed
+     * @param maxEntries Maximum number of cached heatmaps
+     * @return Number of tile levels that can be precomputed; 0 if not even the world region fits
+     * @should return configured levels if all regions fit
+     * @should reduce levels if regions exceed half of cache
+     * @should return zero if world regions do not fit
+     */
+    public static int getPrecomputeLevels(int levels, int featureSets, int maxEntries) {
+        int ret = Math.max(0, Math.min(levels, MAX_TILE_LEVEL + 1));
+        long budget = maxEntries / 2L;
+        while (ret > 0 && getPrecomputableRegionCount(ret) * Math.max(1, featureSets) > budget) {
+            ret--;
+        }
+
+        return ret;
+    }
+
+    /**
+     *
+     * @param solrField Solr field containing the coordinates
+     * @param region Tile aligned region
+     * @param query Final query, including all suffixes
+     * @param facetQuery Filter query
+     * @param gridLevel Optional grid level
+     * @param distErr Optional maximum cell size
+     * @return Cache key
+     */
+    public static String buildKey(String solrField, String region, String query, String facetQuery, Integer gridLevel, Double distErr) {
+        return new StringBuilder().append(solrField)
+                .append('|')
+                .append(region)
+                .append('|')
+                .append(query)
+                .append('|')
+                .append(facetQuery)
+                .append('|')
+                .append(gridLevel)
+                .append('|')
+                .append(distErr)
+                .toString();
+    }
+
+    /**
+     * Returns the cached heatmap for the given parameters, loading it via the given loader if it isn't cached yet. The region is snapped to the
+     * tile grid first; regions that cannot be snapped are loaded without caching. If no grid level is given, the heatmap is loaded with the
+     * maximum cell size of the requested region (see {@link #getDistErr(String)}). Concurrent requests for the same key wait for the first one
+     * to finish instead of querying Solr again. Empty heatmaps are not cached.
+     *
+     * @param solrField Solr field containing the coordinates
+     * @param wktRegion Requested region
+     * @param query Final query, including all suffixes
+     * @param facetQuery Filter query
+     * @param gridLevel Optional grid level
+     * @param loader
+     * @return Heatmap as JSON string
+     * @throws IndexUnreachableException
+     * @should load heatmap only once for slightly moved regions
+     * @should not cache empty heatmaps
+     * @should reload heatmap if index version changed
+     * @should load heatmap with grid resolution of requested region
+     */
+    public String get(String solrField, String wktRegion, String query, String facetQuery, Integer gridLevel, HeatmapLoader loader)
+            throws IndexUnreachableException {
+        String region = quantizeRegion(wktRegion);
+        if (region == null) {
+            return loader.load(wktRegion, null);
+        }
+        Double distErr = gridLevel == null ? getDistErr(wktRegion) : null;
+
+        return cache.get(buildKey(solrField, region, query, facetQuery, gridLevel, distErr), () -> loader.load(region, distErr),
+                heatmap -> !"{}".equals(heatmap));
+    }
+
+    /**
+     *
+     * @return Maximum number of cached heatmaps
+     */
+    public int getMaxEntries() {
+        return cache.getMaxEntries();
+    }
+
+    /**
+     * Removes all cached heatmaps.
+     *
+     * @return Number of removed heatmaps
+     */
+    public int clear() {
+        return cache.clear();
+    }
+
+    /**
+     *
+     * @return Number of cached heatmaps
+     */
+    public int getSize() {
+        return cache.getSize();
+    }
+
+    /**
+     *
+     * @param wktRegion Region in the format <code>["minX minY" TO "maxX maxY"]</code>
+     * @return Bounds of the region (minX, minY, maxX, maxY) limited to valid coordinates; null if the region cannot be parsed or crosses the
+     *         antimeridian
+     */
+    private static double[] parseRegion(String wktRegion) {
+        if (wktRegion == null) {
+            return null;
+        }
+        Matcher m = PATTERN_REGION.matcher(wktRegion.trim());
+        if (!m.matches()) {
+            return null;
+        }
+        double[] ret;
+        try {
+            ret = new double[] { clamp(Double.parseDouble(m.group(1)), 180), clamp(Double.parseDouble(m.group(2)), 90),
+                    clamp(Double.parseDouble(m.group(3)), 180), clamp(Double.parseDouble(m.group(4)), 90) };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (ret[0] >= ret[2] || ret[1] >= ret[3]) {
+            return null;
+        }
+
+        return ret;
+    }
+
+    /**
+     * Computes the great circle distance between two points with the haversine formula, as Solr does for geographic coordinates.
+     *
+     * @param x1 Longitude of the first point
+     * @param y1 Latitude of the first point
+     * @param x2 Longitude of the second point
+     * @param y2 Latitude of the second point
+     * @return Distance in degrees
+     */
+    private static double getDistance(double x1, double y1, double x2, double y2) {
+        double lat1 = Math.toRadians(y1);
+        double lat2 = Math.toRadians(y2);
+        double h = Math.pow(Math.sin((lat2 - lat1) / 2), 2) + Math.cos(lat1) * Math.cos(lat2) * Math.pow(Math.sin(Math.toRadians(x2 - x1) / 2), 2);
+        return Math.toDegrees(2 * Math.atan2(Math.sqrt(h), Math.sqrt(1 - h)));
+    }
+
+    /**
+     *
+     * @param value
+     * @param limit
+     * @return value limited to [-limit, limit]
+     */
+    private static double clamp(double value, double limit) {
+        return Math.max(-limit, Math.min(limit, value));
+    }
+
+    /**
+     *
+     * @param level
+     * @return Width of a tile at the given level in degrees
+     */
+    private static double getTileWidth(int level) {
+        return 360.0 / (1 << level);
+    }
+
+    /**
+     *
+     * @param level
+     * @return Height of a tile at the given level in degrees
+     */
+    private static double getTileHeight(int level) {
+        return 180.0 / (1 << level);
+    }
+
+    /**
+     *
+     * @param minX
+     * @param minY
+     * @param maxX
+     * @param maxY
+     * @return WKT rectangle
+     */
+    private static String getRegion(double minX, double minY, double maxX, double maxY) {
+        return "[\"" + format(minX) + ' ' + format(minY) + "\" TO \"" + format(maxX) + ' ' + format(maxY) + "\"]";
+    }
+
+    /**
+     *
+     * @param coordinate
+     * @return Coordinate without trailing zeros
+     */
+    private static String format(double coordinate) {
+        if (coordinate == Math.rint(coordinate)) {
+            return String.valueOf((long) coordinate);
+        }
+        return String.valueOf(coordinate);
+    }
+}
@@ -140,6 +140,10 @@ public class Search implements Serializable {
     @Column(name = "new_hits_notification")
     private boolean newHitsNotification = false;
 
+    /** Upper bound of the creation date range checked for new hits by the last notification run. */
+    @Column(name = "last_notification_check")
+    private LocalDateTime lastNotificationCheck;
+
     @Column(name = "proximity_search_distance")
     private int proximitySearchDistance = 0;
 
@@ -191,6 +195,7 @@ public class Search implements Serializable {
         this.searchType = blueprint.searchType;
         this.query = blueprint.query;
         this.expandQuery = blueprint.expandQuery;
+        this.customFilterQuery = blueprint.customFilterQuery;
         this.searchFilter = blueprint.searchFilter;
         this.page = blueprint.page;
         this.facetString = blueprint.facetString;
@@ -199,6 +204,7 @@ public class Search implements Serializable {
         this.dateUpdated = blueprint.dateUpdated;
         this.lastHitsCount = blueprint.lastHitsCount;
         this.newHitsNotification = blueprint.newHitsNotification;
+        this.lastNotificationCheck = blueprint.lastNotificationCheck;
         this.proximitySearchDistance = blueprint.proximitySearchDistance;
         this.resultGroups = new ArrayList<>();
         for (SearchResultGroup resultGroup : blueprint.getResultGroups()) {
@@ -1228,6 +1234,20 @@ public class Search implements Serializable {
         this.newHitsNotification = newHitsNotification;
     }
 
+    /**
+     * @return the lastNotificationCheck
+     */
+    public LocalDateTime getLastNotificationCheck() {
+        return lastNotificationCheck;
+    }
+
+    /**
+     * @param lastNotificationCheck the lastNotificationCheck to set
+     */
+    public void setLastNotificationCheck(LocalDateTime lastNotificationCheck) {
+        this.lastNotificationCheck = lastNotificationCheck;
+    }
+
     /**
      * @return the proximitySearchDistance
      */
@@ -32,6 +32,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -87,19 +88,25 @@ import io.goobi.viewer.managedbeans.NavigationHelper;
 import io.goobi.viewer.managedbeans.utils.BeanUtils;
 import io.goobi.viewer.messages.ViewerResourceBundle;
 import io.goobi.viewer.model.export.ExportFieldConfiguration;
+import io.goobi.viewer.model.maps.HeatmapCache;
 import io.goobi.viewer.model.search.SearchQueryItem.SearchItemOperator;
 import io.goobi.viewer.model.security.AccessConditionUtils;
 import io.goobi.viewer.model.security.IPrivilegeHolder;
 import io.goobi.viewer.model.security.LicenseType;
 import io.goobi.viewer.model.security.clients.ClientApplication;
 import io.goobi.viewer.model.security.clients.ClientApplicationManager;
+import io.goobi.viewer.model.security.user.IpRange;
+import io.goobi.viewer.model.security.user.IpRangeMatcher;
 import io.goobi.viewer.model.security.user.User;
 import io.goobi.viewer.model.termbrowsing.BrowseTerm;
 import io.goobi.viewer.model.termbrowsing.BrowseTermComparator;
+import io.goobi.viewer.model.termbrowsing.BrowseTermDictionary;
+import io.goobi.viewer.model.termbrowsing.BrowseTermDictionaryCache;
 import io.goobi.viewer.model.termbrowsing.BrowsingMenuFieldConfig;
 import io.goobi.viewer.model.translations.language.LocaleComparator;
 import io.goobi.viewer.model.viewer.PageType;
 import io.goobi.viewer.model.viewer.StringPair;
+import io.goobi.viewer.model.viewer.collections.CollectionHierarchyCache;
 import io.goobi.viewer.servlets.IdentifierResolver;
 import io.goobi.viewer.solr.SolrConstants;
 import io.goobi.viewer.solr.SolrConstants.DocType;
@@ -115,6 +122,21 @@ public final class SearchHelper {
 
     /** Constant <code>PARAM_NAME_FILTER_QUERY_SUFFIX="filterQuerySuffix"</code> */
     public static final String PARAM_NAME_FILTER_QUERY_SUFFIX = "filterQuerySuffix";
+    /** Maximum number of cached personal filter query suffixes. */
+    private static final int FILTER_QUERY_SUFFIX_CACHE_MAX_ENTRIES = 1000;
+    /** Time to live for cached personal filter query suffixes (licenses can have an end date). */
+    private static final long FILTER_QUERY_SUFFIX_CACHE_TTL = 300000;
+    /** Personal filter query suffixes, keyed by access context (see {@link #buildAccessContextKey(User, String, Optional, String)}). */
+    private static final Map<String, CachedFilterQuerySuffix> FILTER_QUERY_SUFFIX_CACHE =
+            Collections.synchronizedMap(new LinkedHashMap<String, CachedFilterQuerySuffix>(16, 0.75f, true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedFilterQuerySuffix> eldest) {
+                    return size() > FILTER_QUERY_SUFFIX_CACHE_MAX_ENTRIES;
+                }
+            });
     /** Constant <code>SEARCH_TERM_SPLIT_REGEX</code> */
     public static final String SEARCH_TERM_SPLIT_REGEX = "[ ,・]";
     /** Constant <code>PLACEHOLDER_HIGHLIGHTING_START="##HLS##"</code> */
@@ -532,6 +554,38 @@ public final class SearchHelper {
      */
     public static String getAllSuffixes(HttpServletRequest request, boolean addStaticQuerySuffix, boolean addCollectionBlacklistSuffix,
             String privilege) {
+        StringBuilder sbSuffix = getStaticSuffixes(addStaticQuerySuffix, addCollectionBlacklistSuffix);
+        String filterQuerySuffix = getFilterQuerySuffix(request, privilege);
+        // logger.trace("filterQuerySuffix: {}", filterQuerySuffix);
+        if (filterQuerySuffix != null) {
+            sbSuffix.append(filterQuerySuffix);
+        }
+
+        return sbSuffix.toString();
+    }
+
+    /**
+     * Returns all suffixes relevant to search filtering for an anonymous client without a request, e.g. for results precomputed by background
+     * tasks.
+     *
+     * @param privilege Privilege to check
+     * @return Static query suffix, collection blacklist suffix and the access condition suffix for anonymous clients
+     * @throws IndexUnreachableException
+     * @throws PresentationException
+     * @throws DAOException
+     */
+    public static String getAllSuffixesForAnonymousClient(String privilege)
+            throws IndexUnreachableException, PresentationException, DAOException {
+        return getStaticSuffixes(true, true).append(getCachedPersonalFilterQuerySuffix(null, null, Optional.empty(), privilege)).toString();
+    }
+
+    /**
+     *
+     * @param addStaticQuerySuffix
+     * @param addCollectionBlacklistSuffix
+     * @return {@link StringBuilder} containing the requested suffixes
+     */
+    private static StringBuilder getStaticSuffixes(boolean addStaticQuerySuffix, boolean addCollectionBlacklistSuffix) {
         StringBuilder sbSuffix = new StringBuilder("");
         if (addStaticQuerySuffix && StringUtils.isNotBlank(DataManager.getInstance().getConfiguration().getStaticQuerySuffix())) {
             String staticSuffix = DataManager.getInstance().getConfiguration().getStaticQuerySuffix();
@@ -543,13 +597,8 @@ public final class SearchHelper {
         if (addCollectionBlacklistSuffix) {
             sbSuffix.append(getCollectionBlacklistFilterSuffix(SolrConstants.DC));
         }
-        String filterQuerySuffix = getFilterQuerySuffix(request, privilege);
-        // logger.trace("filterQuerySuffix: {}", filterQuerySuffix);
-        if (filterQuerySuffix != null) {
-            sbSuffix.append(filterQuerySuffix);
-        }
 
-        return sbSuffix.toString();
+        return sbSuffix;
     }
 
     /**
@@ -691,7 +740,8 @@ public final class SearchHelper {
 
     /**
      * Returns a Map with hierarchical values from the given field and their respective record counts. Results are filtered by AccessConditions
-     * available for current HttpRequest
+     * available for current HttpRequest. If the {@link CollectionHierarchyCache} is enabled, the result is shared with all clients with the same
+     * access rights and may not be modified.
      *
      * @param luceneField the SOLR field over which to build the collections (typically "DC")
      * @param groupingField
@@ -709,26 +759,47 @@ public final class SearchHelper {
         if (StringUtils.isBlank(splittingChar)) {
             throw new IllegalArgumentException("Splitting char may not be empty. Check configuration for collection field " + luceneField);
         }
-        try {
-            StringBuilder sbQuery = new StringBuilder();
-            if (StringUtils.isNotBlank(filterQuery)) {
-                sbQuery.append(filterQuery);
-            }
-            if (filterForWhitelist) {
-                if (sbQuery.length() > 0) {
-                    sbQuery.append(SolrConstants.SOLR_QUERY_AND);
-                }
-                sbQuery.append("+(").append(getDocstrctWhitelistFilterQuery()).append(')');
-            }
-            sbQuery.append(SearchHelper.getAllSuffixesExceptCollectionBlacklist());
-            if (filterForBlacklist) {
-                sbQuery.append(getCollectionBlacklistFilterSuffix(luceneField));
+        StringBuilder sbQuery = new StringBuilder();
+        if (StringUtils.isNotBlank(filterQuery)) {
+            sbQuery.append(filterQuery);
+        }
+        if (filterForWhitelist) {
+            if (sbQuery.length() > 0) {
+                sbQuery.append(SolrConstants.SOLR_QUERY_AND);
             }
+            sbQuery.append("+(").append(getDocstrctWhitelistFilterQuery()).append(')');
+        }
+        sbQuery.append(SearchHelper.getAllSuffixesExceptCollectionBlacklist());
+        if (filterForBlacklist) {
+            sbQuery.append(getCollectionBlacklistFilterSuffix(luceneField));
+        }
+        String query = sbQuery.toString();
 
-            // Iterate over record hits instead of using facets to determine the size of the parent collections
+        // The query contains the access condition suffix of the current client, so the hierarchy can be shared between clients with the
+        // same access rights
+        CollectionHierarchyCache cache = DataManager.getInstance().getCollectionHierarchyCache();
+        if (cache != null) {
+            return cache.get(CollectionHierarchyCache.buildKey(luceneField, groupingField, query, splittingChar),
+                    () -> loadCollectionsFromField(luceneField, groupingField, query, splittingChar));
+        }
 
-            FacetField facetResults = null;
-            FacetField groupResults = null;
+        return loadCollectionsFromField(luceneField, groupingField, query, splittingChar);
+    }
+
+    /**
+     * Queries the collection facets for the given query. The sizes of parent collections are aggregated from the facet counts of their
+     * descendants, so no record hits need to be iterated.
+     *
+     * @param luceneField
+     * @param groupingField
+     * @param query
+     * @param splittingChar
+     * @return Map<String, CollectionResult>
+     * @throws IndexUnreachableException
+     */
+    private static Map<String, CollectionResult> loadCollectionsFromField(String luceneField, String groupingField, String query,
+            String splittingChar) throws IndexUnreachableException {
+        try {
             List<String> facetFields = new ArrayList<>();
             facetFields.add(luceneField);
             if (StringUtils.isNotBlank(groupingField)) {
@@ -736,13 +807,13 @@ public final class SearchHelper {
             }
             QueryResponse response = DataManager.getInstance()
                     .getSearchIndex()
-                    .searchFacetsAndStatistics(sbQuery.toString(), null, facetFields, 1, false);
-            facetResults = response.getFacetField(luceneField);
-            groupResults = response.getFacetField(groupingField);
+                    .searchFacetsAndStatistics(query, null, facetFields, 1, false);
+            FacetField facetResults = response.getFacetField(luceneField);
+            FacetField groupResults = response.getFacetField(groupingField);
 
             Map<String, CollectionResult> ret = createCollectionResults(facetResults, splittingChar);
 
-            addGrouping(ret, luceneField, groupResults, sbQuery.toString());
+            addGrouping(ret, luceneField, groupResults, query);
 
             logger.debug("{} collections found", ret.size());
             return ret;
@@ -792,6 +863,17 @@ public final class SearchHelper {
             }
         }
 
+        // Count direct child collections
+        for (String dc : ret.keySet()) {
+            int index = dc.lastIndexOf(splittingChar);
+            if (index > 0) {
+                CollectionResult parentCollection = ret.get(dc.substring(0, index));
+                if (parentCollection != null) {
+                    parentCollection.setChildCount(parentCollection.getChildCount() + 1);
+                }
+            }
+        }
+
         return ret;
     }
 
@@ -1098,11 +1180,10 @@ public final class SearchHelper {
     public static void updateFilterQuerySuffix(HttpServletRequest request, String privilege)
             throws IndexUnreachableException, PresentationException, DAOException {
         String filterQuerySuffix =
-                getPersonalFilterQuerySuffix(DataManager.getInstance().getDao().getRecordLicenseTypes(),
-                        (User) Optional.ofNullable(request)
-                                .map(HttpServletRequest::getSession)
-                                .map(session -> session.getAttribute("user"))
-                                .orElse(null),
+                getCachedPersonalFilterQuerySuffix((User) Optional.ofNullable(request)
+                        .map(HttpServletRequest::getSession)
+                        .map(session -> session.getAttribute("user"))
+                        .orElse(null),
                         NetTools.getIpAddress(request),
                         ClientApplicationManager.getClientFromRequest(request), privilege);
         logger.trace("New filter query suffix: {}", filterQuerySuffix);
@@ -1113,6 +1194,116 @@ public final class SearchHelper {
         }
     }
 
+    /**
+     * Returns the personal search query filter suffix for the given access context from the cache, or constructs and caches it if no valid cached
+     * value exists. Clients with the same user, matching IP ranges, client application and privilege share one cache entry.
+     *
+     * @param user
+     * @param ipAddress
+     * @param client
+     * @param privilege Privilege to check (Connector checks a different privilege)
+     * @return Filter query suffix
+     * @throws IndexUnreachableException
+     * @throws PresentationException
+     * @throws DAOException
+     * @should return cached suffix for same access context
+     */
+    static String getCachedPersonalFilterQuerySuffix(User user, String ipAddress, Optional<ClientApplication> client, String privilege)
+            throws IndexUnreachableException, PresentationException, DAOException {
+        if (privilege == null) {
+            throw new IllegalArgumentException("privilege may not be null");
+        }
+
+        String key = buildAccessContextKey(user, ipAddress, client, privilege);
+        if (key == null) {
+            return getPersonalFilterQuerySuffix(DataManager.getInstance().getDao().getRecordLicenseTypes(), user, ipAddress, client, privilege);
+        }
+
+        CachedFilterQuerySuffix cached = FILTER_QUERY_SUFFIX_CACHE.get(key);
+        if (cached != null && System.currentTimeMillis() - cached.created < FILTER_QUERY_SUFFIX_CACHE_TTL) {
+            logger.trace("Using cached filter query suffix for access context {}", key);
+            return cached.suffix;
+        }
+
+        String ret = getPersonalFilterQuerySuffix(DataManager.getInstance().getDao().getRecordLicenseTypes(), user, ipAddress, client, privilege);
+        FILTER_QUERY_SUFFIX_CACHE.put(key, new CachedFilterQuerySuffix(ret));
+
+        return ret;
+    }
+
+    /**
+     * Builds a key from all inputs that affect the personal filter query suffix: the access control data version, privilege, user, the IP ranges
+     * matching the given address and the client application.
+     *
+     * @param user
+     * @param ipAddress
+     * @param client
+     * @param privilege
+     * @return Access context key; null if the context cannot be cached
+     * @throws DAOException
+     * @should return same key for addresses in same ip ranges
+     * @should return different keys for different users
+     * @should return null if user not persisted
+     */
+    public static String buildAccessContextKey(User user, String ipAddress, Optional<ClientApplication> client, String privilege)
+            throws DAOException {
+        StringBuilder sbKey = new StringBuilder().append(DataManager.getInstance().getDao().getAccessControlDataVersion())
+                .append('|')
+                .append(privilege)
+                .append('|');
+        if (user == null) {
+            sbKey.append('-');
+        } else if (user.getId() == null) {
+            return null;
+        } else {
+            sbKey.append(user.isSuperuser() ? "su" : "u").append(user.getId());
+        }
+        sbKey.append('|');
+        if (StringUtils.isEmpty(ipAddress)) {
+            sbKey.append('-');
+        } else if (NetTools.isIpAddressLocalhost(ipAddress)) {
+            sbKey.append("localhost");
+        } else {
+            List<Long> ipRangeIds = new ArrayList<>();
+            for (IpRange ipRange : IpRangeMatcher.getInstance().getMatchingIpRanges(ipAddress)) {
+                ipRangeIds.add(ipRange.getId());
+            }
+            Collections.sort(ipRangeIds);
+            sbKey.append("ip").append(ipRangeIds);
+        }
+        sbKey.append('|');
+        if (client != null && client.isPresent()) {
+            boolean mayLogIn = StringUtils.isNotEmpty(ipAddress) && client.get().mayLogIn(ipAddress);
+            sbKey.append('c').append(client.get().getId()).append(mayLogIn ? "+" : "-");
+        } else {
+            sbKey.append('-');
+        }
+
+        return sbKey.toString();
+    }
+
+    /**
+     * Removes all cached personal filter query suffixes. Must be called whenever user or user group licenses or memberships change (changes to
+     * license types, IP ranges and client applications already result in a new key).
+     */
+    public static void clearPersonalFilterQuerySuffixCache() {
+        FILTER_QUERY_SUFFIX_CACHE.clear();
+        logger.debug("Personal filter query suffix cache cleared.");
+    }
+
+    /**
+     * Cached filter query suffix along with its creation time.
+     */
+    private static final class CachedFilterQuerySuffix {
+
+        private final String suffix;
+        private final long created = System.currentTimeMillis();
+
+        private CachedFilterQuerySuffix(String suffix) {
+            this.suffix = suffix;
+        }
+    }
+
     /**
      * Constructs a personal search query filter suffix for the given user and IP address.
      *
@@ -1210,7 +1401,8 @@ public final class SearchHelper {
     }
 
     /**
-     * TODO This method might be quite expensive.
+     * Creates highlighted fragments of the given full-text around the occurrences of the given search terms. The prepared terms are cached per
+     * term set (see {@link SearchTermHighlighter}).
      *
      * @param searchTerms a {@link java.util.Set} object.
      * @param inFulltext a {@link java.lang.String} object.
@@ -1236,85 +1428,11 @@ public final class SearchHelper {
             throw new IllegalArgumentException("fulltext may not be null");
         }
         // Remove HTML breaks
-        String fulltext = Jsoup.parse(inFulltext).text();
+        String fulltext = toPlainText(inFulltext);
         List<String> ret = new ArrayList<>();
         if (searchTerms != null && !searchTerms.isEmpty()) {
-            for (final String term : searchTerms) {
-                if (term.length() == 0) {
-                    continue;
-                }
-                String searchTerm = SearchHelper.removeTruncation(term);
-                // logger.trace("term: {}", searchTerm); //NOSONAR Debug
-                // Stopwords do not get pre-filtered out when doing a phrase search
-                if (searchTerm.contains(" ")) {
-                    for (String stopword : DataManager.getInstance().getConfiguration().getStopwords()) {
-                        if (searchTerm.startsWith(stopword + " ") || searchTerm.endsWith(" " + stopword)) {
-                            logger.trace("filtered out stopword '{}' from term '{}'", stopword, searchTerm);
-                            searchTerm = searchTerm.replace(stopword, "").trim();
-                        }
-                    }
-                }
-                if (searchTerm.length() > 1 && searchTerm.endsWith("*") || searchTerm.endsWith("?")) {
-                    searchTerm = searchTerm.substring(0, searchTerm.length() - 1);
-                }
-                if (searchTerm.length() > 1 && searchTerm.charAt(0) == '*' || searchTerm.charAt(0) == '?') {
-                    searchTerm = searchTerm.substring(1);
-                }
-                if (searchTerm.contains("*") || searchTerm.contains("?")) {
-                    break;
-                }
-                if (FuzzySearchTerm.isFuzzyTerm(searchTerm)) {
-                    // Fuzzy search
-                    FuzzySearchTerm fuzzySearchTerm = new FuzzySearchTerm(searchTerm);
-                    Matcher m = Pattern.compile(FuzzySearchTerm.WORD_PATTERN).matcher(fulltext.toLowerCase());
-                    int lastIndex = -1;
-                    while (m.find()) {
-                        String word = m.group();
-                        if (fuzzySearchTerm.matches(word)) {
-                            if (lastIndex != -1 && m.start() <= lastIndex + searchTerm.length()) {
-                                continue;
-                            }
-                            lastIndex = createFulltextFragment(m, fulltext, word, targetFragmentLength, ret);
-                            if (firstMatchOnly) {
-                                break;
-                            }
-                        }
-                    }
-                } else if (proximitySearchDistance > 0 && searchTerm.contains(" ")) {
-                    // Proximity search
-                    String regex = buildProximitySearchRegexPattern(searchTerm, proximitySearchDistance);
-                    if (regex != null) {
-                        Matcher m = Pattern.compile(regex).matcher(fulltext.toLowerCase());
-                        // logger.trace(fulltext.toLowerCase());
-                        int lastIndex = -1;
-                        while (m.find()) {
-                            // Skip match if it follows right after the last match
-                            if (lastIndex != -1 && m.start() <= lastIndex + searchTerm.length()) {
-                                continue;
-                            }
-                            String fragment = fulltext.substring(m.start(), m.end());
-                            logger.trace("fragment: {}", fragment);
-                            lastIndex = createFulltextFragment(m, fulltext, fragment, targetFragmentLength, ret);
-                            if (firstMatchOnly) {
-                                break;
-                            }
-                        }
-                    }
-                } else {
-                    Matcher m = Pattern.compile(searchTerm.toLowerCase()).matcher(fulltext.toLowerCase());
-                    int lastIndex = -1;
-                    while (m.find()) {
-                        // Skip match if it follows right after the last match
-                        if (lastIndex != -1 && m.start() <= lastIndex + searchTerm.length()) {
-                            continue;
-                        }
-                        lastIndex = createFulltextFragment(m, fulltext, searchTerm, targetFragmentLength, ret);
-                        if (firstMatchOnly) {
-                            break;
-                        }
-                    }
-                }
-            }
+            ret.addAll(SearchTermHighlighter.getInstance(searchTerms)
+                    .createFragments(fulltext, targetFragmentLength, firstMatchOnly, proximitySearchDistance));
 
             // If no search term has been found (i.e. when searching for a phrase), make sure no empty string gets delivered
             if (addFragmentIfNoMatches && ret.isEmpty()) {
@@ -1349,6 +1467,38 @@ public final class SearchHelper {
         return ret;
     }
 
+    /**
+     * Returns the text content of the given HTML string, with whitespace normalized. Strings that cannot contain any markup are processed
+     * directly, without building a DOM.
+     *
+     * @param html
+     * @return Text content of html
+     * @should return same result as jsoup
+     */
+    static String toPlainText(String html) {
+        if (html.indexOf('<') != -1 || html.indexOf('&') != -1 || html.indexOf('\0') != -1) {
+            return Jsoup.parse(html).text();
+        }
+
+        // Same whitespace normalization as Element.text()
+        StringBuilder sb = new StringBuilder(html.length());
+        boolean lastWasWhite = false;
+        for (int i = 0; i < html.length(); ++i) {
+            char c = html.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r' || c == '\u00a0') {
+                if (!lastWasWhite) {
+                    sb.append(' ');
+                    lastWasWhite = true;
+                }
+            } else if (c != '\u200b' && c != '\u00ad') {
+                sb.append(c);
+                lastWasWhite = false;
+            }
+        }
+
+        return sb.toString().trim();
+    }
+
     /**
      * Builds regex for proximity search full-text snippets.
      *
@@ -1398,16 +1548,16 @@ public final class SearchHelper {
 
     /**
      *
-     * @param m
+     * @param start Start index of the matched term in fulltext
      * @param fulltext
      * @param searchTerm
      * @param targetFragmentLength
      * @param ret
      * @return Last index of text fragment
      */
-    private static int createFulltextFragment(Matcher m, String fulltext, String searchTerm, int targetFragmentLength, List<String> ret) {
-        int indexOfTerm = m.start();
-        int lastIndex = m.start();
+    static int createFulltextFragment(int start, String fulltext, String searchTerm, int targetFragmentLength, List<String> ret) {
+        int indexOfTerm = start;
+        int lastIndex = start;
 
         // fulltextFragment = getTextFragmentFromLine(fulltext, searchTerm, indexOfTerm, targetFragmentLength);
         String fragment = getTextFragmentRandomized(fulltext, searchTerm, indexOfTerm, targetFragmentLength);
@@ -1462,25 +1612,7 @@ public final class SearchHelper {
             throw new IllegalArgumentException("terms may not be null");
         }
 
-        String highlightedValue = phrase;
-        for (final String t : terms) {
-            //remove fuzzy search suffix
-            FuzzySearchTerm fuzzyTerm = new FuzzySearchTerm(t);
-            String term = fuzzyTerm.getTerm();
-            // Highlighting single-character terms can take a long time, so skip them
-            if (term.length() < 2) {
-                continue;
-            }
-            term = SearchHelper.removeTruncation(term);
-            String normalizedPhrase = normalizeString(phrase);
-            String normalizedTerm = normalizeString(term);
-            if (contains(normalizedPhrase, normalizedTerm, fuzzyTerm.getMaxDistance())) {
-                highlightedValue = SearchHelper.applyHighlightingToPhrase(highlightedValue, term);
-                // logger.trace("highlighted value: {}", highlightedValue);
-            }
-        }
-
-        return highlightedValue;
+        return SearchTermHighlighter.getInstance(terms).applyHighlighting(phrase);
     }
 
     /**
@@ -1826,6 +1958,27 @@ public final class SearchHelper {
      */
     public static List<BrowseTerm> getFilteredTerms(BrowsingMenuFieldConfig bmfc, String startsWith, String filterQuery, int start, final int rows,
             Comparator<BrowseTerm> comparator, String language) throws PresentationException, IndexUnreachableException {
+        return getFilteredTerms(bmfc, startsWith, filterQuery, start, rows, comparator, language, null);
+    }
+
+    /**
+     * Returns a list of index terms for the given field name, using the given query suffixes instead of those of the current request.
+     *
+     * @param bmfc
+     * @param startsWith
+     * @param filterQuery
+     * @param start
+     * @param rows
+     * @param comparator
+     * @param language Language for language-specific fields
+     * @param suffixes Query suffixes to use; if null, the suffixes of the current request are used
+     * @return List of terms
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    private static List<BrowseTerm> getFilteredTerms(BrowsingMenuFieldConfig bmfc, String startsWith, String filterQuery, int start,
+            final int rows, Comparator<BrowseTerm> comparator, String language, String suffixes)
+            throws PresentationException, IndexUnreachableException {
         if (bmfc == null) {
             throw new IllegalArgumentException("bmfc may not be null");
         }
@@ -1844,7 +1997,7 @@ public final class SearchHelper {
 
         List<StringPair> sortFields =
                 StringUtils.isEmpty(bmfc.getSortField()) ? null : Collections.singletonList(new StringPair(bmfc.getSortField(), "asc"));
-        QueryResponse resp = getFilteredTermsFromIndex(bmfc, startsWith, filterQuery, sortFields, start, returnRows, language);
+        QueryResponse resp = getFilteredTermsFromIndex(bmfc, startsWith, filterQuery, sortFields, start, returnRows, language, suffixes);
         logger.debug("getFilteredTerms hits: {}", resp.getResults().getNumFound());
         if ("0-9".equals(startsWith)) {
             // TODO Is this still necessary?
@@ -1936,6 +2089,101 @@ public final class SearchHelper {
         return ret;
     }
 
+    /**
+     * Returns the sorted dictionary of all terms of the given browsing menu field, which answers filter letter, count and paging requests from
+     * memory. If the {@link BrowseTermDictionaryCache} is enabled, the dictionary is shared with all clients with the same access rights until
+     * the index changes.
+     *
+     * @param bmfc Browsing menu field configuration
+     * @param filterQuery Optional additional filter query
+     * @param locale Locale for language-specific fields, translations and sorting
+     * @return {@link BrowseTermDictionary}
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    public static BrowseTermDictionary getTermDictionary(BrowsingMenuFieldConfig bmfc, String filterQuery, Locale locale)
+            throws PresentationException, IndexUnreachableException {
+        if (bmfc == null) {
+            throw new IllegalArgumentException("bmfc may not be null");
+        }
+
+        Locale useLocale = locale != null ? locale : ViewerResourceBundle.getDefaultLocale();
+        BrowseTermDictionaryCache cache = DataManager.getInstance().getBrowseTermDictionaryCache();
+        if (cache != null) {
+            // The dictionary may be rebuilt in the background, so the suffixes of the current client are passed on explicitly
+            String suffixes = getAllSuffixes(null, true, true, IPrivilegeHolder.PRIV_LIST);
+            return cache.get(BrowseTermDictionaryCache.buildKey(bmfc, filterQuery, useLocale.getLanguage(), suffixes),
+                    () -> loadTermDictionary(bmfc, filterQuery, useLocale, suffixes));
+        }
+
+        return loadTermDictionary(bmfc, filterQuery, useLocale, null);
+    }
+
+    /**
+     * Adds the given suffixes to a heatmap query and excludes polygon features, which would otherwise produce hits in every heatmap cell.
+     *
+     * @param query Query of the map feature set or search
+     * @param suffixes Query suffixes of the requesting client
+     * @return Final heatmap query
+     * @should add suffixes and exclude polygons
+     * @should exclude polygons in join queries
+     */
+    public static String buildHeatmapQuery(String query, String suffixes) {
+        if (!query.startsWith("{!join")) {
+            return new StringBuilder().append("+(")
+                    .append(query)
+                    .append(") +(-MD_GEOJSON_POLYGON:* -MD_GPS_POLYGON:* *:*)")
+                    .append(suffixes)
+                    .toString();
+        }
+        //search query. Ignore all polygon results or the heatmap will have hits everywhere
+        if (query.endsWith(")")) {
+            return query.substring(0, query.length() - 1) + "-MD_GEOJSON_POLYGON:* -MD_GPS_POLYGON:*)";
+        }
+        return query + " -MD_GEOJSON_POLYGON:* -MD_GPS_POLYGON:*)";
+    }
+
+    /**
+     * Returns the facet heatmap for the given query and region. If the {@link HeatmapCache} is enabled, the region is snapped to a tile grid and
+     * the heatmap is shared with all clients requesting the same tiles with the same query and grid resolution until the index changes.
+     *
+     * @param solrField Solr field containing the coordinates
+     * @param wktRegion Requested region
+     * @param query Final query, including all suffixes
+     * @param facetQuery Filter query
+     * @param gridLevel Optional grid level
+     * @return Heatmap as JSON string
+     * @throws IndexUnreachableException
+     */
+    public static String getHeatMap(String solrField, String wktRegion, String query, String facetQuery, Integer gridLevel)
+            throws IndexUnreachableException {
+        HeatmapCache cache = DataManager.getInstance().getHeatmapCache();
+        if (cache != null) {
+            return cache.get(solrField, wktRegion, query, facetQuery, gridLevel, (region, distErr) -> DataManager.getInstance()
+                    .getSearchIndex()
+                    .getHeatMap(solrField, region, query, facetQuery, gridLevel, distErr));
+        }
+
+        return DataManager.getInstance().getSearchIndex().getHeatMap(solrField, wktRegion, query, facetQuery, gridLevel);
+    }
+
+    /**
+     *
+     * @param bmfc
+     * @param filterQuery
+     * @param locale
+     * @param suffixes Query suffixes to use; if null, the suffixes of the current request are used
+     * @return {@link BrowseTermDictionary} containing all terms of the given field
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    private static BrowseTermDictionary loadTermDictionary(BrowsingMenuFieldConfig bmfc, String filterQuery, Locale locale, String suffixes)
+            throws PresentationException, IndexUnreachableException {
+        List<BrowseTerm> terms = getFilteredTerms(bmfc, "", filterQuery, 0, SolrSearchIndex.MAX_HITS, new BrowseTermComparator(locale),
+                locale.getLanguage(), suffixes);
+        return new BrowseTermDictionary(terms, DataManager.getInstance().getConfiguration().getBrowsingMenuSortingIgnoreLeadingChars());
+    }
+
     /**
      *
      * @param bmfc
@@ -1953,6 +2201,26 @@ public final class SearchHelper {
      */
     static QueryResponse getFilteredTermsFromIndex(BrowsingMenuFieldConfig bmfc, String startsWith, String filterQuery, List<StringPair> sortFields,
             int start, int rows, String language) throws PresentationException, IndexUnreachableException {
+        return getFilteredTermsFromIndex(bmfc, startsWith, filterQuery, sortFields, start, rows, language, null);
+    }
+
+    /**
+     *
+     * @param bmfc
+     * @param startsWith
+     * @param filterQuery
+     * @param sortFields
+     * @param start
+     * @param rows
+     * @param language
+     * @param suffixes Query suffixes to use; if null, the suffixes of the current request are used
+     * @return {@link QueryResponse}
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    private static QueryResponse getFilteredTermsFromIndex(BrowsingMenuFieldConfig bmfc, String startsWith, String filterQuery,
+            List<StringPair> sortFields, int start, int rows, String language, String suffixes)
+            throws PresentationException, IndexUnreachableException {
         List<String> fields = new ArrayList<>(3);
         fields.add(SolrConstants.PI_TOPSTRUCT);
         fields.add(bmfc.getFieldForLanguage(language));
@@ -1985,7 +2253,8 @@ public final class SearchHelper {
         }
 
         // logger.trace("getFilteredTermsFromIndex startsWith: {}", startsWith); //NOSONAR Debug
-        String query = buildFinalQuery(sbQuery.toString(), false, SearchAggregationType.NO_AGGREGATION);
+        String query = suffixes != null ? "+(" + sbQuery.toString() + ")" + suffixes
+                : buildFinalQuery(sbQuery.toString(), false, SearchAggregationType.NO_AGGREGATION);
         logger.trace("getFilteredTermsFromIndex query: {}", query);
         if (logger.isTraceEnabled()) {
             for (String fq : filterQueries) {
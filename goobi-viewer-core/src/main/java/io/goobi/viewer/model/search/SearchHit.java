@@ -28,6 +28,8 @@ import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -35,6 +37,12 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 import javax.servlet.http.HttpServletRequest;
@@ -72,9 +80,12 @@ import io.goobi.viewer.model.cms.pages.content.CMSContent;
 import io.goobi.viewer.model.cms.pages.content.PersistentCMSComponent;
 import io.goobi.viewer.model.cms.pages.content.TranslatableCMSContent;
 import io.goobi.viewer.model.security.AccessConditionUtils;
+import io.goobi.viewer.model.security.AccessPermission;
+import io.goobi.viewer.model.security.IPrivilegeHolder;
 import io.goobi.viewer.model.viewer.StringPair;
 import io.goobi.viewer.solr.SolrConstants;
 import io.goobi.viewer.solr.SolrConstants.DocType;
+import io.goobi.viewer.solr.SolrTools;
 
 /**
  * Wrapper class for search hits. Contains the corresponding <code>BrowseElement</code>
@@ -93,6 +104,8 @@ public class SearchHit implements Comparable<SearchHit> {
     private List<SolrDocument> childDocs;
     private final Map<String, SearchHit> ownerHits = new HashMap<>();
     private final Map<String, SolrDocument> ownerDocs = new HashMap<>();
+    /** Owner docs retrieved in bulk in {@link #populateChildren(int, int, Locale, HttpServletRequest)} that have no owner hit yet. */
+    private final Map<String, SolrDocument> prefetchedOwnerDocs = new HashMap<>();
     private final Set<String> ugcDocIddocs = new HashSet<>();
     private final Map<String, Set<String>> searchTerms;
     /** Docstruct metadata that matches the search terms. */
@@ -107,6 +120,10 @@ public class SearchHit implements Comparable<SearchHit> {
      * Hits generated from {@link #childDocs} in {@link #populateChildren(int, int, Locale, HttpServletRequest)}
      */
     private int hitsPopulated = 0;
+    /** Index of the next element in {@link #childDocs} to be processed by {@link #populateChildren(int, int, Locale, HttpServletRequest)}. */
+    private int nextChildDocIndex = 0;
+    /** Full-texts loaded in parallel that have not been processed yet, keyed by index in {@link #childDocs}. Kept for the next call. */
+    private final Map<Integer, Future<StringPair>> loadedFulltexts = new HashMap<>();
     /**
      * Hits generated when hit is created in
      * {@link SearchHelper#searchWithAggregation(String, int, int, List, List, List, Map, Map, List, String, Locale, boolean, int)} This hits are part
@@ -398,6 +415,8 @@ public class SearchHit implements Comparable<SearchHit> {
      * @throws io.goobi.viewer.exceptions.IndexUnreachableException if any.
      * @throws io.goobi.viewer.exceptions.DAOException if any.
      * @throws io.goobi.viewer.exceptions.ViewerConfigurationException if any.
+     * @should retrieve owner docs with a single batched query
+     * @should continue with next unprocessed child doc
      */
     public void populateChildren(final int number, int skip, Locale locale, HttpServletRequest request)
             throws PresentationException, IndexUnreachableException, DAOException, ViewerConfigurationException {
@@ -415,10 +434,25 @@ public class SearchHit implements Comparable<SearchHit> {
         if (num + skip > childDocs.size()) {
             num = childDocs.size() - skip;
         }
-        int childDocIndex = skip;
+        // Child docs skipped in a previous call (e.g. pages without full-text) are not processed again
+        int childDocIndex = Math.max(skip, nextChildDocIndex);
         int hitCount = getHitCount() - getHitsPreloaded();
-        while (childDocIndex < childDocs.size() && hitsPopulated < Math.min(hitCount, num + skip)) {
+        boolean parallelFulltextLoading = DataManager.getInstance().getConfiguration().isSearchChildHitsParallelFulltextLoadingEnabled();
+        long deadline = System.currentTimeMillis() + DataManager.getInstance().getConfiguration().getSearchChildHitsParallelFulltextLoadingTimeout();
+        Map<Integer, Future<StringPair>> fulltextFutures = loadedFulltexts;
+        int hitsPopulatedAtStart = hitsPopulated;
+        int prefetchedUpToIndex = childDocIndex;
+        childDocLoop: while (childDocIndex < childDocs.size() && hitsPopulated < Math.min(hitCount, num + skip)) {
+            if (childDocIndex >= prefetchedUpToIndex) {
+                // Resolve owner docs for the next window of child docs in bulk instead of one request per owner
+                prefetchedUpToIndex = Math.min(childDocs.size(), childDocIndex + Math.max(num, 1));
+                prefetchOwnerDocs(childDocs.subList(childDocIndex, prefetchedUpToIndex));
+                if (parallelFulltextLoading) {
+                    prefetchFulltexts(childDocIndex, prefetchedUpToIndex, request, pi, fulltextFutures);
+                }
+            }
             SolrDocument childDoc = childDocs.get(childDocIndex);
+            Future<StringPair> fulltextFuture = fulltextFutures.remove(childDocIndex);
             childDocIndex++;
             String fulltext = null;
             DocType docType = DocType.getByName((String) childDoc.getFieldValue(SolrConstants.DOCTYPE));
@@ -427,7 +461,18 @@ public class SearchHit implements Comparable<SearchHit> {
                 switch (docType) {
                     case PAGE: //NOSONAR, no break on purpose to run through all cases
                         try {
-                            fulltext = getFulltext(request, pi, authorityDataIdentifier, childDoc);
+                            if (fulltextFuture != null) {
+                                // Always wait for the first hit so that each call makes progress
+                                fulltext = getPrefetchedFulltext(fulltextFuture, hitsPopulated > hitsPopulatedAtStart ? deadline : Long.MAX_VALUE);
+                            } else {
+                                fulltext = getFulltext(request, pi, authorityDataIdentifier, childDoc);
+                            }
+                        } catch (TimeoutException e) {
+                            // Time budget exhausted: leave this and all following child docs for the next call
+                            logger.debug("Full-text loading time budget exceeded for {}, {} child hit(s) populated", pi, hitsPopulated);
+                            fulltextFuture.cancel(true);
+                            childDocIndex--;
+                            break childDocLoop;
                         } catch (AccessDeniedException e) {
                             acccessDeniedType = true;
                         } catch (PresentationException | FileNotFoundException e) {
@@ -460,10 +505,161 @@ public class SearchHit implements Comparable<SearchHit> {
             }
         }
 
+        nextChildDocIndex = childDocIndex;
+        // Full-texts that have already been loaded are kept for the next call, all others are cancelled to free the pool
+        Iterator<Future<StringPair>> futureIterator = fulltextFutures.values().iterator();
+        while (futureIterator.hasNext()) {
+            Future<StringPair> future = futureIterator.next();
+            if (!future.isDone()) {
+                future.cancel(true);
+                futureIterator.remove();
+            }
+        }
+
         if (childDocs.isEmpty()) {
             ownerDocs.clear();
             ownerHits.clear();
         }
+        prefetchedOwnerDocs.clear();
+    }
+
+    /**
+     * Checks full-text access for all page docs in the given range of {@link #childDocs} and submits the loading of permitted full-texts to the
+     * full-text thread pool. Access checks are done on the calling thread because they use the session of the given request; all pages of the
+     * range are checked with a single index query.
+     *
+     * @param fromIndex First index in {@link #childDocs} (inclusive)
+     * @param toIndex Last index in {@link #childDocs} (exclusive)
+     * @param request
+     * @param pi
+     * @param fulltextFutures Map with full-text futures, keyed by child doc index; pages already contained are skipped
+     * @throws IndexUnreachableException
+     * @throws DAOException
+     */
+    private void prefetchFulltexts(int fromIndex, int toIndex, HttpServletRequest request, String pi,
+            Map<Integer, Future<StringPair>> fulltextFutures) throws IndexUnreachableException, DAOException {
+        Map<Integer, SolrDocument> pageDocs = new LinkedHashMap<>();
+        for (int i = fromIndex; i < toIndex; ++i) {
+            SolrDocument childDoc = childDocs.get(i);
+            if (!fulltextFutures.containsKey(i)
+                    && DocType.PAGE.equals(DocType.getByName((String) childDoc.getFieldValue(SolrConstants.DOCTYPE)))) {
+                pageDocs.put(i, childDoc);
+            }
+        }
+        if (pageDocs.isEmpty()) {
+            return;
+        }
+
+        // Same file names as used by checkFulltextAccess(), so that session permissions are shared
+        Map<Integer, String> pageFileNames = new HashMap<>();
+        for (SolrDocument pageDoc : pageDocs.values()) {
+            Integer order = SolrTools.getAsInt(pageDoc.getFirstValue(SolrConstants.ORDER));
+            String plaintextFilename = (String) pageDoc.getFirstValue(SolrConstants.FILENAME_FULLTEXT);
+            String filename = StringUtils.isNotBlank(plaintextFilename) ? plaintextFilename
+                    : (String) pageDoc.getFirstValue(SolrConstants.FILENAME_ALTO);
+            if (order != null && StringUtils.isNotBlank(filename)) {
+                pageFileNames.put(order, filename);
+            }
+        }
+        Map<Integer, AccessPermission> permissions = Collections.emptyMap();
+        try {
+            permissions = AccessConditionUtils.checkAccessPermissionByIdentifierAndPageOrders(pi, pageFileNames,
+                    IPrivilegeHolder.PRIV_VIEW_FULLTEXT, request);
+        } catch (PresentationException e) {
+            logger.error(e.getMessage());
+        }
+
+        ExecutorService executor = DataManager.getInstance().getFulltextThreadPoolManager().getExecutorService();
+        for (Entry<Integer, SolrDocument> entry : pageDocs.entrySet()) {
+            SolrDocument childDoc = entry.getValue();
+            String altoFilename = (String) childDoc.getFirstValue(SolrConstants.FILENAME_ALTO);
+            String plaintextFilename = (String) childDoc.getFirstValue(SolrConstants.FILENAME_FULLTEXT);
+            Object order = childDoc.getFirstValue(SolrConstants.ORDER);
+            Integer pageOrder = SolrTools.getAsInt(order);
+            try {
+                if (pageOrder != null && pageFileNames.containsKey(pageOrder)) {
+                    if (!permissions.getOrDefault(pageOrder, AccessPermission.denied()).isGranted()) {
+                        throw new AccessDeniedException("Access denied to full-text of " + pi + ", page " + order);
+                    }
+                } else {
+                    // Pages that could not be included in the batch check
+                    checkFulltextAccess(request, pi, altoFilename, plaintextFilename, order);
+                }
+            } catch (AccessDeniedException | PresentationException e) {
+                fulltextFutures.put(entry.getKey(), CompletableFuture.failedFuture(e));
+                continue;
+            }
+            String authorityIdentifier = authorityDataIdentifier;
+            fulltextFutures.put(entry.getKey(), executor.submit(() -> loadFulltext(pi, authorityIdentifier, altoFilename, plaintextFilename, order)));
+        }
+    }
+
+    /**
+     * Waits for the given prefetched full-text until the given deadline.
+     *
+     * @param future Future created by {@link #prefetchFulltexts(int, int, HttpServletRequest, String, Map)}
+     * @param deadline Time in milliseconds after which not yet completed full-texts are no longer awaited
+     * @return Full-text
+     * @throws TimeoutException If the full-text has not been loaded before the deadline
+     * @throws FileNotFoundException
+     * @throws AccessDeniedException
+     * @throws PresentationException
+     */
+    private String getPrefetchedFulltext(Future<StringPair> future, long deadline)
+            throws TimeoutException, FileNotFoundException, AccessDeniedException, PresentationException {
+        try {
+            StringPair result = future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            applyHighlightWord(result.getTwo());
+            return result.getOne();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PresentationException("Full-text loading interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof FileNotFoundException fnfe) {
+                throw fnfe;
+            }
+            if (e.getCause() instanceof AccessDeniedException ade) {
+                throw ade;
+            }
+            if (e.getCause() instanceof PresentationException pe) {
+                throw pe;
+            }
+            throw new PresentationException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Retrieves the owner docs of all metadata, page, UGC and event docs in the given list that are not yet known and stores them in
+     * {@link #prefetchedOwnerDocs}.
+     *
+     * @param docs Child docs
+     * @throws IndexUnreachableException
+     * @throws PresentationException
+     */
+    private void prefetchOwnerDocs(List<SolrDocument> docs) throws IndexUnreachableException, PresentationException {
+        Set<String> ownerIddocs = new HashSet<>();
+        for (SolrDocument doc : docs) {
+            DocType docType = DocType.getByName((String) doc.getFieldValue(SolrConstants.DOCTYPE));
+            if (docType == null) {
+                continue;
+            }
+            switch (docType) {
+                case PAGE:
+                case METADATA:
+                case UGC:
+                case EVENT:
+                    String ownerIddoc = (String) doc.getFieldValue(SolrConstants.IDDOC_OWNER);
+                    if (ownerIddoc != null && !ownerHits.containsKey(ownerIddoc) && !prefetchedOwnerDocs.containsKey(ownerIddoc)) {
+                        ownerIddocs.add(ownerIddoc);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (!ownerIddocs.isEmpty()) {
+            prefetchedOwnerDocs.putAll(DataManager.getInstance().getSearchIndex().getDocumentsByIddocs(ownerIddocs));
+        }
     }
 
     public void handleMetadataHit(SolrDocument childDoc, String fulltext, DocType docType, boolean acccessDeniedType)
@@ -471,7 +667,10 @@ public class SearchHit implements Comparable<SearchHit> {
         String ownerIddoc = (String) childDoc.getFieldValue(SolrConstants.IDDOC_OWNER);
         SearchHit ownerHit = ownerHits.get(ownerIddoc);
         if (ownerHit == null) {
-            SolrDocument ownerDoc = DataManager.getInstance().getSearchIndex().getDocumentByIddoc(ownerIddoc);
+            SolrDocument ownerDoc = prefetchedOwnerDocs.remove(ownerIddoc);
+            if (ownerDoc == null) {
+                ownerDoc = DataManager.getInstance().getSearchIndex().getDocumentByIddoc(ownerIddoc);
+            }
             if (ownerDoc != null) {
                 ownerHit = factory.createSearchHit(ownerDoc, null, fulltext, null);
                 ownerHit.containsSearchTerms = false;
@@ -527,58 +726,101 @@ public class SearchHit implements Comparable<SearchHit> {
      */
     public String getFulltext(HttpServletRequest request, String pi, String authorityIdentifier, SolrDocument childDoc)
             throws FileNotFoundException, PresentationException, AccessDeniedException {
-        String fulltext = null;
         String altoFilename = (String) childDoc.getFirstValue(SolrConstants.FILENAME_ALTO);
         String plaintextFilename = (String) childDoc.getFirstValue(SolrConstants.FILENAME_FULLTEXT);
+        Object order = childDoc.getFirstValue(SolrConstants.ORDER);
+        checkFulltextAccess(request, pi, altoFilename, plaintextFilename, order);
+        StringPair result = loadFulltext(pi, authorityIdentifier, altoFilename, plaintextFilename, order);
+        applyHighlightWord(result.getTwo());
+
+        return result.getOne();
+    }
+
+    /**
+     * 
+     * @param request
+     * @param pi
+     * @param altoFilename
+     * @param plaintextFilename
+     * @param order Page number (for logging)
+     * @throws AccessDeniedException If the request is missing access rights to the fulltext resource
+     * @throws PresentationException
+     */
+    private static void checkFulltextAccess(HttpServletRequest request, String pi, String altoFilename, String plaintextFilename, Object order)
+            throws AccessDeniedException, PresentationException {
+        String filename = StringUtils.isNotBlank(plaintextFilename) ? plaintextFilename : altoFilename;
+        if (StringUtils.isBlank(filename)) {
+            return;
+        }
+        try {
+            if (!AccessConditionUtils.checkAccess(request, "text", pi, filename, false).isGranted()) {
+                throw new AccessDeniedException("Access denied to resource " + pi + " / " + filename);
+            }
+        } catch (IndexUnreachableException | DAOException e) {
+            throw new PresentationException("Error reading fulltext for " + pi + ", page " + order, e);
+        }
+    }
+
+    /**
+     * Loads the full-text from the given plain text or ALTO file, without checking access. If an authority identifier is given, the word tagged
+     * with that identifier is determined as well. Does not modify any state, so it can be called from worker threads.
+     * 
+     * @param pi
+     * @param authorityIdentifier
+     * @param altoFilename
+     * @param plaintextFilename
+     * @param order Page number (for logging)
+     * @return {@link StringPair} containing the full-text and the word to highlight (both may be null)
+     * @throws FileNotFoundException If the fulltext resource is not found
+     * @throws PresentationException If an internal error occurs when trying to retrieve the fulltext resource
+     */
+    static StringPair loadFulltext(String pi, String authorityIdentifier, String altoFilename, String plaintextFilename, Object order)
+            throws FileNotFoundException, PresentationException {
+        String fulltext = null;
+        String highlightWord = null;
         try {
             if (StringUtils.isNotBlank(plaintextFilename)) {
-                boolean access = AccessConditionUtils.checkAccess(request, "text", pi, plaintextFilename, false).isGranted();
-                if (access) {
-                    fulltext = DataFileTools.loadFulltext(null, plaintextFilename, false);
-                } else {
-                    throw new AccessDeniedException("Access denied to resource " + pi + " / " + plaintextFilename);
-                }
+                fulltext = DataFileTools.loadFulltext(null, plaintextFilename, false);
             } else if (StringUtils.isNotBlank(altoFilename)) {
-                boolean access = AccessConditionUtils.checkAccess(request, "text", pi, altoFilename, false).isGranted();
-                if (access) {
-                    if (StringUtils.isNotEmpty(authorityIdentifier)) {
-                        // If authority identifier is used, load NE tags and match word with identifier
-                        try {
-                            StringPair alto = DataFileTools.loadAlto(altoFilename);
-                            fulltext = ALTOTools.getFulltext(alto.getOne(), alto.getTwo(), true);
-                            List<TagCount> tags = ALTOTools.getNERTags(alto.getOne(), alto.getTwo(), null);
-                            // logger.trace("found {} entity tags", tags.size());
-                            String highlightWord = null;
-                            for (TagCount tag : tags) {
-                                if (tag.getIdentifier() != null) {
-                                    //logger.trace("tag identifier: {}", tag.getIdentifier());
-                                }
-                                if (authorityIdentifier.equals(tag.getIdentifier())) {
-                                    highlightWord = tag.getValue();
-                                    break;
-                                }
+                if (StringUtils.isNotEmpty(authorityIdentifier)) {
+                    // If authority identifier is used, load NE tags and match word with identifier
+                    try {
+                        StringPair alto = DataFileTools.loadAlto(altoFilename);
+                        fulltext = ALTOTools.getFulltext(alto.getOne(), alto.getTwo(), true);
+                        List<TagCount> tags = ALTOTools.getNERTags(alto.getOne(), alto.getTwo(), null);
+                        // logger.trace("found {} entity tags", tags.size());
+                        for (TagCount tag : tags) {
+                            if (authorityIdentifier.equals(tag.getIdentifier())) {
+                                highlightWord = tag.getValue();
+                                break;
                             }
-                            if (StringUtils.isNotEmpty(highlightWord)) {
-                                searchTerms.put(SolrConstants.FULLTEXT, Collections.singleton(highlightWord));
-                            }
-                        } catch (ContentNotFoundException | PresentationException e) {
-                            logger.error(e.getMessage());
                         }
-                    } else {
-                        // Just load the full-text
-                        fulltext = DataFileTools.loadFulltext(altoFilename, null, false);
+                    } catch (ContentNotFoundException | PresentationException e) {
+                        logger.error(e.getMessage());
                     }
                 } else {
-                    throw new AccessDeniedException("Access denied to resource " + pi + " / " + altoFilename);
+                    // Just load the full-text
+                    fulltext = DataFileTools.loadFulltext(altoFilename, null, false);
                 }
             }
         } catch (FileNotFoundException e) {
             throw e;
-        } catch (IndexUnreachableException | DAOException | IOException e) {
-            throw new PresentationException("Error reading fulltext for " + pi + ", page " + childDoc.getFirstValue(SolrConstants.ORDER), e);
+        } catch (IndexUnreachableException | IOException e) {
+            throw new PresentationException("Error reading fulltext for " + pi + ", page " + order, e);
         }
 
-        return fulltext;
+        return new StringPair(fulltext, highlightWord);
+    }
+
+    /**
+     * Replaces the full-text search terms with the given word, if not empty.
+     * 
+     * @param highlightWord Word tagged with the authority data identifier
+     */
+    private void applyHighlightWord(String highlightWord) {
+        if (StringUtils.isNotEmpty(highlightWord)) {
+            searchTerms.put(SolrConstants.FULLTEXT, Collections.singleton(highlightWord));
+        }
     }
 
     /**
@@ -684,9 +926,16 @@ public class SearchHit implements Comparable<SearchHit> {
      * </p>
      *
      * @param childDocs the childDocs to set
+     * @should reset child doc cursor
      */
     public void setChildDocs(SolrDocumentList childDocs) {
         this.childDocs = childDocs;
+        // Cursor refers to the previous list
+        nextChildDocIndex = 0;
+        for (Future<StringPair> future : loadedFulltexts.values()) {
+            future.cancel(true);
+        }
+        loadedFulltexts.clear();
     }
 
     /**
@@ -22,17 +22,25 @@
 package io.goobi.viewer.model.search;
 
 import java.io.UnsupportedEncodingException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.controller.DateTools;
 import io.goobi.viewer.controller.NetTools;
 import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.exceptions.IndexUnreachableException;
@@ -51,6 +59,27 @@ public class SearchHitsNotifier {
 
     private static final Logger logger = LogManager.getLogger(SearchHitsNotifier.class);
 
+    /** Maximum number of new hits listed in a notification. */
+    private static final int MAX_NEW_HITS = 100;
+
+    /**
+     * Records only become searchable after the next index commit, i.e. some time after their DATECREATED value. Check time frames therefore end
+     * this long before the check, so that records committed late are still found by the following check.
+     */
+    static final Duration INDEX_COMMIT_MARGIN = Duration.ofMinutes(10);
+
+    /**
+     * Checks all saved searches with enabled notifications for new hits and notifies their owners via e-mail. Searches with identical queries and
+     * check time frames are executed only once; distinct queries are executed in parallel, using the configured number of threads. Searches
+     * that have already been checked before are only executed for records created since the last check. Each check covers records created up
+     * to {@link #INDEX_COMMIT_MARGIN} before it, since more recent records may not be searchable yet.
+     *
+     * @return Debug output
+     * @throws DAOException
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     * @throws ViewerConfigurationException
+     */
     public String sendNewHitsNotifications() throws DAOException, PresentationException, IndexUnreachableException, ViewerConfigurationException {
         logger.trace("sendNewHitsNotifications");
         Map<String, String> filters = new HashMap<>();
@@ -58,23 +87,109 @@ public class SearchHitsNotifier {
         long searchCount = DataManager.getInstance().getDao().getSearchCount(null, filters);
         logger.info("Found {} saved searches with notifications enabled.", searchCount);
         int pageSize = 100;
+        LocalDateTime checkTime = LocalDateTime.now().minus(INDEX_COMMIT_MARGIN);
 
-        StringBuilder sbDebug = new StringBuilder();
+        // Group searches with identical queries and check time frames
+        Map<String, List<Search>> searchGroups = new LinkedHashMap<>();
         for (int i = 0; i < searchCount; i += pageSize) {
             logger.debug("Getting searches {}-{}", i, i + pageSize);
             List<Search> searches = DataManager.getInstance().getDao().getSearches(null, i, pageSize, null, false, filters);
             for (Search search : searches) {
                 // TODO access condition filters for each user
-                List<SearchHit> newHits = getNewHits(search);
-                if (!newHits.isEmpty()) {
-                    String email = search.getOwner().getEmail();
-                    sendEmailNotification(newHits, search.getName(), email);
-                    DataManager.getInstance().getDao().updateSearch(search);
+                String key = search.getLastNotificationCheck() != null ? buildKey(search) : "legacy_" + search.getId();
+                searchGroups.computeIfAbsent(key, k -> new ArrayList<>()).add(search);
+            }
+        }
+        logger.info("Checking {} distinct queries for new hits.", searchGroups.size());
+        if (searchGroups.isEmpty()) {
+            return "";
+        }
+
+        int threads = Math.max(1, DataManager.getInstance().getConfiguration().getSearchHitsNotificationThreads());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, searchGroups.size()));
+        try {
+            List<Future<?>> futures = new ArrayList<>(searchGroups.size());
+            for (List<Search> searchGroup : searchGroups.values()) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        notifySearchGroup(searchGroup, checkTime);
+                    } catch (PresentationException | IndexUnreachableException | DAOException | ViewerConfigurationException e) {
+                        logger.error("Could not check saved search '{}' for new hits: {}", searchGroup.get(0).getName(), e.getMessage());
+                    }
+                }));
+            }
+            // Wait for all groups, even if one of them failed
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    logger.error(e.getMessage(), e);
                 }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return "";
+    }
+
+    /**
+     * Checks the given group of identical searches for new hits once and notifies the owners of all searches in the group.
+     *
+     * @param searchGroup Searches with identical queries and check time frames
+     * @param checkTime Upper bound of the creation date range to check
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     * @throws DAOException
+     * @throws ViewerConfigurationException
+     */
+    private void notifySearchGroup(List<Search> searchGroup, LocalDateTime checkTime)
+            throws PresentationException, IndexUnreachableException, DAOException, ViewerConfigurationException {
+        Search first = searchGroup.get(0);
+        if (first.getLastNotificationCheck() == null) {
+            // Searches saved before time frame checks were introduced still need a full recount once
+            List<SearchHit> newHits = getNewHits(first);
+            if (!newHits.isEmpty()) {
+                sendEmailNotification(newHits, first.getName(), first.getOwner().getEmail());
+            }
+            first.setLastNotificationCheck(checkTime);
+            DataManager.getInstance().getDao().updateSearch(first);
+            return;
+        }
+
+        Search tempSearch = executeForTimeFrame(first, first.getLastNotificationCheck(), checkTime, MAX_NEW_HITS);
+        List<SearchHit> newHits = tempSearch.getHits();
+        for (Search search : searchGroup) {
+            if (!newHits.isEmpty()) {
+                sendEmailNotification(newHits, search.getName(), search.getOwner().getEmail());
+                search.setLastHitsCount(search.getLastHitsCount() + tempSearch.getHitsCount());
+            }
+            search.setLastNotificationCheck(checkTime);
+            DataManager.getInstance().getDao().updateSearch(search);
         }
+    }
 
-        return sbDebug.toString();
+    /**
+     * Builds a key that is identical for all searches that would return the same new hits.
+     *
+     * @param search
+     * @return Key consisting of the normalized query, filters and the start of the check time frame
+     * @should return same key for queries differing only in whitespace
+     * @should return different keys for different time frames
+     */
+    static String buildKey(Search search) {
+        return new StringBuilder().append(StringUtils.normalizeSpace(search.getQuery()))
+                .append('|')
+                .append(StringUtils.trimToEmpty(search.getFacetString()))
+                .append('|')
+                .append(StringUtils.normalizeSpace(StringUtils.trimToEmpty(search.getCustomFilterQuery())))
+                .append('|')
+                .append(search.getProximitySearchDistance())
+                .append('|')
+                .append(search.getLastNotificationCheck())
+                .toString();
     }
 
     /**
@@ -134,7 +249,7 @@ public class SearchHitsNotifier {
         // TODO what if there're >100 new hits?
         if (tempSearch.getHitsCount() > tempSearch.getLastHitsCount()) {
             int newHitsCount = (int) (tempSearch.getHitsCount() - tempSearch.getLastHitsCount());
-            newHitsCount = Math.min(100, newHitsCount); //don't query more than 100 hits
+            newHitsCount = Math.min(MAX_NEW_HITS, newHitsCount); //don't query more than 100 hits
             //sort so newest hits come first
             tempSearch.setSortString('!' + SolrConstants.DATECREATED);
             //after last execution, page is 0, set back to 1 to actually get some results
@@ -150,4 +265,56 @@ public class SearchHitsNotifier {
         }
         return new ArrayList<>();
     }
+
+    /**
+     * Executes a copy of the given search, restricted to records created within the given time frame, with the newest hits first.
+     *
+     * @param search Saved search
+     * @param from Exclusive lower bound of the creation date
+     * @param to Inclusive upper bound of the creation date
+     * @param maxHits Maximum number of hits to return
+     * @return Executed copy of the search
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     * @throws DAOException
+     * @throws ViewerConfigurationException
+     */
+    Search executeForTimeFrame(Search search, LocalDateTime from, LocalDateTime to, int maxHits)
+            throws PresentationException, IndexUnreachableException, DAOException, ViewerConfigurationException {
+        //clone the search so any alterations are discarded later
+        Search tempSearch = new Search(search);
+        tempSearch.setCustomFilterQuery(buildTimeFrameFilterQuery(search.getCustomFilterQuery(), from, to));
+        tempSearch.setSortString('!' + SolrConstants.DATECREATED);
+        tempSearch.setPage(1);
+        tempSearch.setHitsCount(0);
+        SearchFacets facets = new SearchFacets();
+        facets.setActiveFacetString(tempSearch.getFacetString());
+        tempSearch.execute(facets, null, maxHits, null);
+
+        return tempSearch;
+    }
+
+    /**
+     *
+     * @param customFilterQuery Optional filter query of the saved search
+     * @param from Exclusive lower bound of the creation date
+     * @param to Inclusive upper bound of the creation date
+     * @return Filter query restricting hits to the given time frame
+     * @should add time frame to existing filter query
+     */
+    static String buildTimeFrameFilterQuery(String customFilterQuery, LocalDateTime from, LocalDateTime to) {
+        StringBuilder sb = new StringBuilder();
+        if (StringUtils.isNotBlank(customFilterQuery)) {
+            sb.append("+(").append(customFilterQuery).append(") ");
+        }
+        sb.append('+')
+                .append(SolrConstants.DATECREATED)
+                .append(":{")
+                .append(DateTools.getMillisFromLocalDateTime(from, false))
+                .append(" TO ")
+                .append(DateTools.getMillisFromLocalDateTime(to, false))
+                .append(']');
+
+        return sb.toString();
+    }
 }
@@ -0,0 +1,334 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.goobi.viewer.controller.DataManager;
+
+/**
+ * Precompiled highlighter for a set of search terms. All terms are combined into a single {@link TermAutomaton}, so that a text only needs to be
+ * scanned once, regardless of the number of terms. Instances are immutable and cached per term set, so they can be shared by all hits of a
+ * search. The iteration order of the term set is preserved, since it determines the order of the fragment terms.
+ */
+public final class SearchTermHighlighter {
+
+    private static final Logger logger = LogManager.getLogger(SearchTermHighlighter.class);
+
+    /** Maximum number of cached highlighters (one per distinct search term sequence). */
+    private static final int MAX_CACHED_INSTANCES = 100;
+
+    private static final Pattern PATTERN_WORD = Pattern.compile(FuzzySearchTerm.WORD_PATTERN);
+
+    private static final Map<List<String>, SearchTermHighlighter> INSTANCES =
+            Collections.synchronizedMap(new LinkedHashMap<List<String>, SearchTermHighlighter>(16, 0.75f, true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<String>, SearchTermHighlighter> eldest) {
+                    return size() > MAX_CACHED_INSTANCES;
+                }
+            });
+
+    /** Normalized terms for {@link #applyHighlighting(String)}. */
+    private final List<String> highlightTerms = new ArrayList<>();
+    /** Maximum fuzzy distances for {@link #highlightTerms}. */
+    private final List<Integer> highlightMaxDistances = new ArrayList<>();
+    private final TermAutomaton highlightAutomaton;
+
+    /** Terms for {@link #createFragments(String, int, boolean, int)}, in search term order. */
+    private final List<String> fragmentTerms = new ArrayList<>();
+    /** Fuzzy terms for {@link #fragmentTerms}; null for non-fuzzy terms. */
+    private final List<FuzzySearchTerm> fragmentFuzzyTerms = new ArrayList<>();
+    /** Automaton for the lower-cased non-fuzzy {@link #fragmentTerms}. */
+    private final TermAutomaton fragmentAutomaton;
+    /** Compiled proximity search patterns, keyed by fragment term index and distance. */
+    private final Map<String, Pattern> proximityPatterns = new ConcurrentHashMap<>();
+
+    /**
+     * 
+     * @param terms Search terms in the iteration order of the caller's term set
+     */
+    SearchTermHighlighter(List<String> terms) {
+        for (String t : terms) {
+            // Remove fuzzy search suffix
+            FuzzySearchTerm fuzzyTerm = new FuzzySearchTerm(t);
+            String term = fuzzyTerm.getTerm();
+            // Highlighting single-character terms can take a long time, so skip them
+            if (term.length() < 2) {
+                continue;
+            }
+            highlightTerms.add(SearchHelper.normalizeString(SearchHelper.removeTruncation(term)));
+            highlightMaxDistances.add(fuzzyTerm.getMaxDistance());
+        }
+        this.highlightAutomaton = new TermAutomaton(highlightTerms);
+
+        List<String> plainFragmentTerms = new ArrayList<>();
+        for (String term : terms) {
+            String searchTerm = prepareFragmentTerm(term);
+            if (searchTerm == null) {
+                continue;
+            }
+            if (searchTerm.contains("*") || searchTerm.contains("?")) {
+                break;
+            }
+            boolean fuzzy = FuzzySearchTerm.isFuzzyTerm(searchTerm);
+            fragmentTerms.add(searchTerm);
+            fragmentFuzzyTerms.add(fuzzy ? new FuzzySearchTerm(searchTerm) : null);
+            plainFragmentTerms.add(fuzzy ? null : searchTerm.toLowerCase());
+        }
+        this.fragmentAutomaton = new TermAutomaton(plainFragmentTerms);
+    }
+
+    /**
+     * Returns the (cached) highlighter for the given search terms. Term sets are cached in their iteration order, since fragment terms are
+     * collected in that order and only up to the first term containing a wildcard.
+     * 
+     * @param terms Search terms
+     * @return {@link SearchTermHighlighter}
+     * @should return same instance for equal term sets
+     * @should preserve term order
+     */
+    public static SearchTermHighlighter getInstance(Set<String> terms) {
+        if (terms == null) {
+            throw new IllegalArgumentException("terms may not be null");
+        }
+        List<String> key = List.copyOf(terms);
+        SearchTermHighlighter ret = INSTANCES.get(key);
+        if (ret == null) {
+            ret = new SearchTermHighlighter(key);
+            INSTANCES.put(key, ret);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Removes truncation, stopwords and wildcards from the given term, as required for full-text fragment matching.
+     * 
+     * @param term
+     * @return Prepared term; null if the term is empty
+     */
+    private static String prepareFragmentTerm(String term) {
+        if (term.length() == 0) {
+            return null;
+        }
+        String searchTerm = SearchHelper.removeTruncation(term);
+        // Stopwords do not get pre-filtered out when doing a phrase search
+        if (searchTerm.contains(" ")) {
+            for (String stopword : DataManager.getInstance().getConfiguration().getStopwords()) {
+                if (searchTerm.startsWith(stopword + " ") || searchTerm.endsWith(" " + stopword)) {
+                    logger.trace("filtered out stopword '{}' from term '{}'", stopword, searchTerm);
+                    searchTerm = searchTerm.replace(stopword, "").trim();
+                }
+            }
+        }
+        if (searchTerm.length() > 1 && searchTerm.endsWith("*") || searchTerm.endsWith("?")) {
+            searchTerm = searchTerm.substring(0, searchTerm.length() - 1);
+        }
+        if (searchTerm.isEmpty()) {
+            return null;
+        }
+        if (searchTerm.length() > 1 && searchTerm.charAt(0) == '*' || searchTerm.charAt(0) == '?') {
+            searchTerm = searchTerm.substring(1);
+        }
+
+        return searchTerm;
+    }
+
+    /**
+     * Adds highlighting placeholders around all occurrences of the search terms in the given phrase. Overlapping occurrences are resolved in favor
+     * of the leftmost and then longest one.
+     * 
+     * @param phrase
+     * @return phrase with highlighting placeholders
+     * @should apply highlighting for all terms
+     * @should prefer longest of overlapping terms
+     * @should only highlight fuzzy terms if phrase contains similar word
+     */
+    public String applyHighlighting(String phrase) {
+        if (phrase == null) {
+            throw new IllegalArgumentException("phrase may not be null");
+        }
+        if (highlightAutomaton.isEmpty()) {
+            return phrase;
+        }
+
+        String normalizedPhrase = SearchHelper.normalizeString(phrase);
+        Boolean[] fuzzyMatches = new Boolean[highlightTerms.size()];
+        List<int[]> matches = new ArrayList<>();
+        highlightAutomaton.findAll(normalizedPhrase, (patternIndex, start, end) -> {
+            int maxDistance = highlightMaxDistances.get(patternIndex);
+            if (maxDistance > 0) {
+                if (fuzzyMatches[patternIndex] == null) {
+                    fuzzyMatches[patternIndex] = SearchHelper.contains(normalizedPhrase, highlightTerms.get(patternIndex), maxDistance);
+                }
+                if (!fuzzyMatches[patternIndex]) {
+                    return;
+                }
+            }
+            matches.add(new int[] { start, Math.min(end, phrase.length()) });
+        });
+        if (matches.isEmpty()) {
+            return phrase;
+        }
+
+        matches.sort((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(b[1], a[1]));
+        StringBuilder sb = new StringBuilder(phrase.length() + matches.size() * 16);
+        int lastEnd = 0;
+        for (int[] match : matches) {
+            if (match[0] < lastEnd || match[0] >= match[1]) {
+                continue;
+            }
+            sb.append(phrase, lastEnd, match[0])
+                    .append(SearchHelper.PLACEHOLDER_HIGHLIGHTING_START)
+                    .append(phrase, match[0], match[1])
+                    .append(SearchHelper.PLACEHOLDER_HIGHLIGHTING_END);
+            lastEnd = match[1];
+        }
+        sb.append(phrase, lastEnd, phrase.length());
+
+        return sb.toString();
+    }
+
+    /**
+     * Creates highlighted text fragments around the occurrences of the search terms in the given plain text. Occurrences of all non-fuzzy terms
+     * are located in a single pass; fragments are returned grouped by term.
+     * 
+     * @param fulltext Plain text
+     * @param targetFragmentLength Desired (approximate) length of the text fragment.
+     * @param firstMatchOnly If true, only the fragment for the first match of each term will be returned
+     * @param proximitySearchDistance
+     * @return List of fragments
+     * @should create fragments for all terms
+     * @should return first match only if so requested
+     */
+    public List<String> createFragments(String fulltext, int targetFragmentLength, boolean firstMatchOnly, int proximitySearchDistance) {
+        List<String> ret = new ArrayList<>();
+        if (fragmentTerms.isEmpty()) {
+            return ret;
+        }
+
+        String lowerCaseFulltext = fulltext.toLowerCase();
+        List<List<Integer>> occurrences = findFragmentTermOccurrences(lowerCaseFulltext);
+        for (int i = 0; i < fragmentTerms.size(); ++i) {
+            String searchTerm = fragmentTerms.get(i);
+            FuzzySearchTerm fuzzySearchTerm = fragmentFuzzyTerms.get(i);
+            int lastIndex = -1;
+            if (fuzzySearchTerm != null) {
+                // Fuzzy search
+                Matcher m = PATTERN_WORD.matcher(lowerCaseFulltext);
+                while (m.find()) {
+                    String word = m.group();
+                    if (fuzzySearchTerm.matches(word)) {
+                        if (lastIndex != -1 && m.start() <= lastIndex + searchTerm.length()) {
+                            continue;
+                        }
+                        lastIndex = SearchHelper.createFulltextFragment(m.start(), fulltext, word, targetFragmentLength, ret);
+                        if (firstMatchOnly) {
+                            break;
+                        }
+                    }
+                }
+            } else if (proximitySearchDistance > 0 && searchTerm.contains(" ")) {
+                // Proximity search
+                Pattern pattern = getProximityPattern(i, proximitySearchDistance);
+                if (pattern != null) {
+                    Matcher m = pattern.matcher(lowerCaseFulltext);
+                    while (m.find()) {
+                        // Skip match if it follows right after the last match
+                        if (lastIndex != -1 && m.start() <= lastIndex + searchTerm.length()) {
+                            continue;
+                        }
+                        String fragment = fulltext.substring(m.start(), m.end());
+                        logger.trace("fragment: {}", fragment);
+                        lastIndex = SearchHelper.createFulltextFragment(m.start(), fulltext, fragment, targetFragmentLength, ret);
+                        if (firstMatchOnly) {
+                            break;
+                        }
+                    }
+                }
+            } else {
+                for (int start : occurrences.get(i)) {
+                    // Skip match if it follows right after the last match
+                    if (lastIndex != -1 && start <= lastIndex + searchTerm.length()) {
+                        continue;
+                    }
+                    lastIndex = SearchHelper.createFulltextFragment(start, fulltext, searchTerm, targetFragmentLength, ret);
+                    if (firstMatchOnly) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Finds the start indexes of all non-overlapping occurrences of each non-fuzzy fragment term in the given text.
+     * 
+     * @param lowerCaseText Lower-cased text
+     * @return List of start index lists, one for each fragment term
+     */
+    private List<List<Integer>> findFragmentTermOccurrences(String lowerCaseText) {
+        List<List<Integer>> ret = new ArrayList<>(fragmentTerms.size());
+        int[] lastEnds = new int[fragmentTerms.size()];
+        for (int i = 0; i < fragmentTerms.size(); ++i) {
+            ret.add(new ArrayList<>());
+        }
+        fragmentAutomaton.findAll(lowerCaseText, (patternIndex, start, end) -> {
+            // Same semantics as consecutive Matcher.find() calls: occurrences of the same term may not overlap
+            if (start >= lastEnds[patternIndex]) {
+                ret.get(patternIndex).add(start);
+                lastEnds[patternIndex] = end;
+            }
+        });
+
+        return ret;
+    }
+
+    /**
+     * 
+     * @param termIndex Index in {@link #fragmentTerms}
+     * @param proximitySearchDistance
+     * @return Compiled proximity search pattern
+     */
+    private Pattern getProximityPattern(int termIndex, int proximitySearchDistance) {
+        return proximityPatterns.computeIfAbsent(termIndex + "_" + proximitySearchDistance, k -> {
+            String regex = SearchHelper.buildProximitySearchRegexPattern(fragmentTerms.get(termIndex), proximitySearchDistance);
+            return regex != null ? Pattern.compile(regex) : null;
+        });
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aho-Corasick automaton that finds all occurrences of a fixed set of patterns in a text with a single pass over the text.
+ */
+class TermAutomaton {
+
+    /**
+     * Callback for matches found by {@link TermAutomaton#findAll(CharSequence, MatchHandler)}.
+     */
+    @FunctionalInterface
+    interface MatchHandler {
+
+        /**
+         * @param patternIndex Index of the matched pattern in the pattern list passed to the constructor
+         * @param start Start index of the match (inclusive)
+         * @param end End index of the match (exclusive)
+         */
+        void onMatch(int patternIndex, int start, int end);
+    }
+
+    private static final class Node {
+
+        private final Map<Character, Node> next = new HashMap<>();
+        /** Longest proper suffix of this node's path that is also a path in the trie. */
+        private Node fail;
+        /** Nearest node along the fail chain that completes at least one pattern. */
+        private Node output;
+        /** Indexes of patterns ending at this node. */
+        private final List<Integer> patternIndexes = new ArrayList<>(1);
+    }
+
+    private final Node root = new Node();
+    private final int[] patternLengths;
+
+    /**
+     * 
+     * @param patterns Patterns to match; empty or null patterns are ignored
+     * @should find all occurrences of all patterns
+     * @should find overlapping occurrences
+     */
+    TermAutomaton(List<String> patterns) {
+        this.patternLengths = new int[patterns.size()];
+        for (int i = 0; i < patterns.size(); ++i) {
+            String pattern = patterns.get(i);
+            if (pattern == null || pattern.isEmpty()) {
+                continue;
+            }
+            patternLengths[i] = pattern.length();
+            Node node = root;
+            for (int j = 0; j < pattern.length(); ++j) {
+                node = node.next.computeIfAbsent(pattern.charAt(j), c -> new Node());
+            }
+            node.patternIndexes.add(i);
+        }
+
+        // Breadth-first construction of fail and output links
+        Deque<Node> queue = new ArrayDeque<>();
+        for (Node child : root.next.values()) {
+            child.fail = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (Map.Entry<Character, Node> entry : node.next.entrySet()) {
+                Node child = entry.getValue();
+                Node fail = node.fail;
+                while (fail != null && !fail.next.containsKey(entry.getKey())) {
+                    fail = fail.fail;
+                }
+                child.fail = fail != null ? fail.next.get(entry.getKey()) : root;
+                child.output = child.fail.patternIndexes.isEmpty() ? child.fail.output : child.fail;
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * 
+     * @return true if no patterns have been added; false otherwise
+     */
+    boolean isEmpty() {
+        return root.next.isEmpty();
+    }
+
+    /**
+     * Passes all (possibly overlapping) occurrences of all patterns in the given text to the given handler, ordered by end index.
+     * 
+     * @param text Text to search
+     * @param handler Match handler
+     */
+    void findAll(CharSequence text, MatchHandler handler) {
+        Node node = root;
+        for (int i = 0; i < text.length(); ++i) {
+            char c = text.charAt(i);
+            while (node != root && !node.next.containsKey(c)) {
+                node = node.fail;
+            }
+            node = node.next.getOrDefault(c, root);
+            for (Node out = node.patternIndexes.isEmpty() ? node.output : node; out != null; out = out.output) {
+                for (int patternIndex : out.patternIndexes) {
+                    handler.onMatch(patternIndex, i + 1 - patternLengths[patternIndex], i + 1);
+                }
+            }
+        }
+    }
+}
@@ -33,6 +33,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
@@ -63,11 +64,13 @@ import io.goobi.viewer.model.search.SearchHelper;
 import io.goobi.viewer.model.security.clients.ClientApplication;
 import io.goobi.viewer.model.security.clients.ClientApplicationManager;
 import io.goobi.viewer.model.security.user.IpRange;
+import io.goobi.viewer.model.security.user.IpRangeMatcher;
 import io.goobi.viewer.model.security.user.User;
 import io.goobi.viewer.model.security.user.UserGroup;
 import io.goobi.viewer.model.viewer.PhysicalElement;
 import io.goobi.viewer.solr.SolrConstants;
 import io.goobi.viewer.solr.SolrConstants.DocType;
+import io.goobi.viewer.solr.SolrDocumentConsumer;
 import io.goobi.viewer.solr.SolrSearchIndex;
 import io.goobi.viewer.solr.SolrTools;
 
@@ -276,26 +279,37 @@ public final class AccessConditionUtils {
         try {
             // Collect access conditions required by the page
             Map<String, Set<String>> requiredAccessConditions = new HashMap<>();
-            SolrDocumentList results = DataManager.getInstance()
-                    .getSearchIndex()
-                    .search(query, "*".equals(fileName) ? SolrSearchIndex.MAX_HITS : 1, null,
-                            Arrays.asList(SolrConstants.ACCESSCONDITION));
-            if (results != null) {
-                if (results.isEmpty()) {
-                    logger.debug("No hits for permission check query: {}", query); //NOSONAR this will help identify index inconsistencies
+            SolrDocumentConsumer collector = doc -> {
+                Collection<Object> fieldsAccessConddition = doc.getFieldValues(SolrConstants.ACCESSCONDITION);
+                if (fieldsAccessConddition != null) {
+                    Set<String> pageAccessConditions = new HashSet<>();
+                    for (Object accessCondition : fieldsAccessConddition) {
+                        pageAccessConditions.add(accessCondition.toString());
+                        // logger.trace(accessCondition.toString());
+                    }
+                    requiredAccessConditions.put(fileName, pageAccessConditions);
                 }
-                for (SolrDocument doc : results) {
-                    Collection<Object> fieldsAccessConddition = doc.getFieldValues(SolrConstants.ACCESSCONDITION);
-                    if (fieldsAccessConddition != null) {
-                        Set<String> pageAccessConditions = new HashSet<>();
-                        for (Object accessCondition : fieldsAccessConddition) {
-                            pageAccessConditions.add(accessCondition.toString());
-                            // logger.trace(accessCondition.toString());
-                        }
-                        requiredAccessConditions.put(fileName, pageAccessConditions);
+            };
+            long found = 0;
+            if ("*".equals(fileName)) {
+                // All pages of a record: stream docs in batches instead of loading them all at once
+                found = DataManager.getInstance()
+                        .getSearchIndex()
+                        .stream(query, null, Arrays.asList(SolrConstants.ACCESSCONDITION), collector);
+            } else {
+                SolrDocumentList results = DataManager.getInstance()
+                        .getSearchIndex()
+                        .search(query, 1, null, Arrays.asList(SolrConstants.ACCESSCONDITION));
+                if (results != null) {
+                    for (SolrDocument doc : results) {
+                        collector.accept(doc);
+                        found++;
                     }
                 }
             }
+            if (found == 0) {
+                logger.debug("No hits for permission check query: {}", query); //NOSONAR this will help identify index inconsistencies
+            }
 
             User user = BeanUtils.getUserFromRequest(request);
             if (user == null) {
@@ -354,6 +368,112 @@ public final class AccessConditionUtils {
 
     }
 
+    /**
+     * Checks the given privilege for several pages of the same record with a single index query. Same semantics as
+     * {@link #checkAccessPermissionByIdentifierAndFileNameWithSessionMap(HttpServletRequest, String, String, String)} for each page: permissions
+     * already stored in the session are reused and new ones are added to it, pages without access conditions are denied. Permissions are only
+     * evaluated once per distinct combination of access conditions, unless a moving wall license type makes them depend on the page.
+     *
+     * @param pi Record identifier
+     * @param pageFileNames Content file names of the pages to check, keyed by page number; the file names are used for the session permissions
+     * @param privilegeName Privilege to check
+     * @param request Calling HttpServiceRequest.
+     * @return Map with the access permission for each page number; pages not found in the index are missing
+     * @throws IndexUnreachableException
+     * @throws PresentationException
+     * @throws DAOException
+     * @should deny pages without access conditions
+     * @should grant open access pages
+     * @should use permissions from session
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<Integer, AccessPermission> checkAccessPermissionByIdentifierAndPageOrders(String pi, Map<Integer, String> pageFileNames,
+            String privilegeName, HttpServletRequest request) throws IndexUnreachableException, PresentationException, DAOException {
+        if (StringUtils.isEmpty(pi) || pageFileNames == null || pageFileNames.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        // Same session handling as checkAccessPermissionByIdentifierAndFileNameWithSessionMap()
+        boolean piChanged = request != null && !pi.equals(request.getSession().getAttribute("currentPi"));
+        if (piChanged) {
+            request.getSession().setAttribute("currentPi", pi);
+        }
+        Map<Integer, AccessPermission> ret = new HashMap<>(pageFileNames.size());
+        Map<Integer, Map<String, AccessPermission>> sessionPermissions = new HashMap<>(pageFileNames.size());
+        for (Entry<Integer, String> entry : pageFileNames.entrySet()) {
+            String attributeName = IPrivilegeHolder.PREFIX_PRIV + privilegeName + "_" + pi + "_" + entry.getValue();
+            Map<String, AccessPermission> permissions = null;
+            if (!piChanged) {
+                permissions = (Map<String, AccessPermission>) getSessionPermission(attributeName, request);
+            }
+            if (permissions == null) {
+                permissions = new HashMap<>();
+            }
+            AccessPermission access = permissions.get(pi + "_" + entry.getValue());
+            if (access != null) {
+                ret.put(entry.getKey(), access);
+            } else {
+                sessionPermissions.put(entry.getKey(), permissions);
+            }
+        }
+        if (sessionPermissions.isEmpty()) {
+            return ret;
+        }
+
+        String query = "+" + SolrConstants.PI_TOPSTRUCT + ":" + pi + " +" + SolrConstants.DOCTYPE + ":" + DocType.PAGE.name() + " +"
+                + SolrConstants.ORDER + ":(" + sessionPermissions.keySet().stream().map(String::valueOf).collect(Collectors.joining(" ")) + ")";
+        SolrDocumentList docs = DataManager.getInstance()
+                .getSearchIndex()
+                .search(query, sessionPermissions.size(), null, Arrays.asList(SolrConstants.ORDER, SolrConstants.ACCESSCONDITION));
+        if (docs == null || docs.isEmpty()) {
+            return ret;
+        }
+
+        User user = BeanUtils.getUserFromRequest(request);
+        if (user == null) {
+            UserBean userBean = BeanUtils.getUserBean();
+            if (userBean != null) {
+                user = userBean.getUser();
+            }
+        }
+        List<LicenseType> licenseTypes = DataManager.getInstance().getDao().getRecordLicenseTypes();
+        String ipAddress = NetTools.getIpAddress(request);
+        Optional<ClientApplication> client = ClientApplicationManager.getClientFromRequest(request);
+
+        Map<Set<String>, AccessPermission> permissionsByConditions = new HashMap<>();
+        for (SolrDocument doc : docs) {
+            Integer order = SolrTools.getAsInt(doc.getFieldValue(SolrConstants.ORDER));
+            if (order == null || !sessionPermissions.containsKey(order)) {
+                continue;
+            }
+            Set<String> accessConditions = new HashSet<>(SolrTools.getMetadataValues(doc, SolrConstants.ACCESSCONDITION));
+            if (accessConditions.isEmpty()) {
+                // Index inconsistency: deny and do not store, like the single page check
+                logger.debug("No access conditions found for {}, page {}", pi, order);
+                ret.put(order, AccessPermission.denied());
+                continue;
+            }
+            AccessPermission access = permissionsByConditions.get(accessConditions);
+            if (access == null) {
+                // Moving wall license types are evaluated against the query, so they require a query for this page only
+                String pageQuery = "+" + SolrConstants.PI_TOPSTRUCT + ":" + pi + " +" + SolrConstants.ORDER + ":" + order;
+                access = checkAccessPermission(licenseTypes, accessConditions, privilegeName, user, ipAddress, client, pageQuery);
+                if (licenseTypes == null
+                        || licenseTypes.stream().noneMatch(lt -> lt.isMovingWall() && accessConditions.contains(lt.getName()))) {
+                    permissionsByConditions.put(accessConditions, access);
+                }
+            }
+            ret.put(order, access);
+
+            String fileName = pageFileNames.get(order);
+            Map<String, AccessPermission> permissions = sessionPermissions.get(order);
+            permissions.put(pi + "_" + fileName, access);
+            addSessionPermission(IPrivilegeHolder.PREFIX_PRIV + privilegeName + "_" + pi + "_" + fileName, permissions, request);
+        }
+
+        return ret;
+    }
+
     /**
      * Checks whether the current users has the given access permissions to the element with the given identifier and LOGID.
      *
@@ -904,14 +1024,12 @@ public final class AccessConditionUtils {
                     return AccessPermission.granted();
                 }
                 // Check whether the requested privilege is allowed to this IP range (for all access conditions)
-                for (IpRange ipRange : DataManager.getInstance().getDao().getAllIpRanges()) {
-                    if (ipRange.matchIp(remoteAddress)) {
-                        AccessPermission access =
-                                ipRange.canSatisfyAllAccessConditions(useAccessConditions, relevantLicenseTypes, privilegeName, null);
-                        if (access.isGranted()) {
-                            logger.trace("Access granted to {} via IP range {}", remoteAddress, ipRange.getName());
-                            return access;
-                        }
+                for (IpRange ipRange : IpRangeMatcher.getInstance().getMatchingIpRanges(remoteAddress)) {
+                    AccessPermission access =
+                            ipRange.canSatisfyAllAccessConditions(useAccessConditions, relevantLicenseTypes, privilegeName, null);
+                    if (access.isGranted()) {
+                        logger.trace("Access granted to {} via IP range {}", remoteAddress, ipRange.getName());
+                        return access;
                     }
                 }
             }
@@ -1156,8 +1274,7 @@ public final class AccessConditionUtils {
     public static List<License> getApplyingLicenses(Optional<User> user, String ipAddress, LicenseType type, IDAO dao) throws DAOException {
         List<License> licenses = dao.getLicenses(type);
         List<UserGroup> userGroups = user.map(User::getAllUserGroups).orElse(Collections.emptyList());
-        List<IpRange> ipRangesApplyingToGivenIp =
-                dao.getAllIpRanges().stream().filter(range -> range.matchIp(ipAddress)).toList();
+        List<IpRange> ipRangesApplyingToGivenIp = IpRangeMatcher.getInstance(dao).getMatchingIpRanges(ipAddress);
 
         List<License> applyingLicenses = licenses.stream()
                 .filter(license -> {
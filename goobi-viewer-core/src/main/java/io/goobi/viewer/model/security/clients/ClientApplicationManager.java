@@ -111,7 +111,8 @@ public class ClientApplicationManager {
 
     /**
      * Store the given client in the given session to consider it for access condition checks. If the session doesn't contain the client yet, its
-     * {@link ClientApplication#getDateLastAccess()} is updated and the client saved to database
+     * {@link ClientApplication#getDateLastAccess()} is updated in the database. The given client instance may be shared with the cached access
+     * control data and is therefore not modified unless it has not been persisted yet
      * 
      * @param client the client to register
      * @param session the session to store the client
@@ -120,8 +121,13 @@ public class ClientApplicationManager {
     public boolean registerClientInSession(ClientApplication client, HttpSession session) {
         if (getClientFromSession(session).isEmpty()) {
             try {
-                client.setDateLastAccess(LocalDateTime.now());
-                dao.saveClientApplication(client);
+                if (client.getId() != null) {
+                    dao.updateClientApplicationLastAccess(client.getId(), LocalDateTime.now());
+                } else {
+                    // New client that is not part of the cached access control data yet
+                    client.setDateLastAccess(LocalDateTime.now());
+                    dao.saveClientApplication(client);
+                }
             } catch (DAOException e) {
                 logger.error("Error updating client in database ", e);
             }
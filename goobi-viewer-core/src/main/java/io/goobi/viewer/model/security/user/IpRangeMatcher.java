@@ -0,0 +1,268 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.security.user;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.controller.NetTools;
+import io.goobi.viewer.dao.IDAO;
+import io.goobi.viewer.exceptions.DAOException;
+
+/**
+ * Immutable, precompiled index over all {@link IpRange}s. Each subnet mask is parsed once into a numeric IPv4 interval; the intervals are then cut
+ * into disjoint segments, each of which holds the (pre-sorted) list of ranges covering it. A lookup is a binary search over the segment
+ * boundaries and does not allocate. Matching semantics are identical to {@link IpRange#matchIp(String)}.
+ */
+public final class IpRangeMatcher {
+
+    private static final Logger logger = LogManager.getLogger(IpRangeMatcher.class);
+
+    private static final long IPV4_MAX = 0xFFFFFFFFL;
+
+    private static volatile IpRangeMatcher instance = null;
+
+    /** Sorted segment start addresses. */
+    private final long[] segmentStarts;
+    /** Ranges covering the segment with the same index, in their original order. */
+    private final List<List<IpRange>> segmentRanges;
+    private final int size;
+    /** DAO this matcher was built from; null if built from a given list */
+    private final IDAO dao;
+    /** Access control data version this matcher was built for */
+    private final long dataVersion;
+
+    /**
+     * Compiles the given IP ranges. Ranges with invalid subnet masks are logged and skipped.
+     *
+     * @param ipRanges
+     * @should skip ranges with invalid subnet masks
+     */
+    public IpRangeMatcher(List<IpRange> ipRanges) {
+        this(ipRanges, null, -1);
+    }
+
+    /**
+     *
+     * @param ipRanges
+     * @param dao
+     * @param dataVersion
+     */
+    private IpRangeMatcher(List<IpRange> ipRanges, IDAO dao, long dataVersion) {
+        this.dao = dao;
+        this.dataVersion = dataVersion;
+        List<IpRange> compiledRanges = new ArrayList<>(ipRanges.size());
+        List<long[]> intervals = new ArrayList<>(ipRanges.size());
+        TreeSet<Long> boundaries = new TreeSet<>();
+        for (IpRange ipRange : ipRanges) {
+            long[] interval = parseSubnetMask(ipRange.getSubnetMask());
+            if (interval == null) {
+                logger.error("Invalid subnet mask in IP range '{}': {}", ipRange.getName(), ipRange.getSubnetMask());
+                continue;
+            }
+            compiledRanges.add(ipRange);
+            intervals.add(interval);
+            boundaries.add(interval[0]);
+            boundaries.add(interval[1] + 1);
+        }
+
+        this.size = compiledRanges.size();
+        this.segmentStarts = new long[boundaries.size()];
+        this.segmentRanges = new ArrayList<>(boundaries.size());
+        int i = 0;
+        for (long start : boundaries) {
+            segmentStarts[i++] = start;
+            List<IpRange> covering = new ArrayList<>();
+            for (int j = 0; j < intervals.size(); ++j) {
+                if (intervals.get(j)[0] <= start && start <= intervals.get(j)[1]) {
+                    covering.add(compiledRanges.get(j));
+                }
+            }
+            segmentRanges.add(covering.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(covering));
+        }
+    }
+
+    /**
+     * Returns the shared matcher for all IP ranges in the database. The matcher is rebuilt whenever the DAO's access control data version changes.
+     *
+     * @return Shared {@link IpRangeMatcher}
+     * @throws DAOException
+     */
+    public static IpRangeMatcher getInstance() throws DAOException {
+        return getInstance(DataManager.getInstance().getDao());
+    }
+
+    /**
+     * Returns the shared matcher for all IP ranges in the given database. The matcher is rebuilt whenever the DAO's access control data version
+     * changes or a different DAO is given.
+     *
+     * @param dao DAO to read the IP ranges from
+     * @return Shared {@link IpRangeMatcher}
+     * @throws DAOException
+     * @should reuse matcher while data version unchanged
+     * @should rebuild matcher for different dao
+     */
+    public static IpRangeMatcher getInstance(IDAO dao) throws DAOException {
+        // Read the version before the ranges, so that a concurrent write can only make the matcher newer than its version, never older
+        long dataVersion = dao.getAccessControlDataVersion();
+        IpRangeMatcher ret = instance;
+        if (ret == null || ret.dao != dao || ret.dataVersion != dataVersion) {
+            ret = new IpRangeMatcher(dao.getAllIpRanges(), dao, dataVersion);
+            instance = ret;
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns all IP ranges that match the given address, in the same order as the list this matcher was built from.
+     *
+     * @param ipAddress
+     * @return Unmodifiable list of matching {@link IpRange}s; empty list if none match or the address is not a valid IPv4 address
+     * @should return all ranges containing address
+     * @should return empty list if no range matches
+     * @should match edge addresses
+     * @should match IPv6 localhost to IPv4 mask
+     * @should return empty list for invalid address
+     */
+    public List<IpRange> getMatchingIpRanges(String ipAddress) {
+        if (ipAddress == null || segmentStarts.length == 0) {
+            return Collections.emptyList();
+        }
+        String ip = NetTools.ADDRESS_LOCALHOST_IPV6.equals(ipAddress) ? NetTools.ADDRESS_LOCALHOST_IPV4 : ipAddress;
+        long address = parseAddress(ip, 0, ip.length());
+        if (address < 0) {
+            return Collections.emptyList();
+        }
+        int index = Arrays.binarySearch(segmentStarts, address);
+        if (index < 0) {
+            // Insertion point minus one is the segment containing the address
+            index = -index - 2;
+            if (index < 0) {
+                return Collections.emptyList();
+            }
+        }
+
+        return segmentRanges.get(index);
+    }
+
+    /**
+     *
+     * @param ipAddress
+     * @return true if at least one IP range matches ipAddress; false otherwise
+     */
+    public boolean matches(String ipAddress) {
+        return !getMatchingIpRanges(ipAddress).isEmpty();
+    }
+
+    /**
+     * @return Number of compiled IP ranges
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Parses a subnet mask in CIDR notation (e.g. <code>192.168.0.0/16</code>) into the inclusive interval of addresses it covers.
+     *
+     * @param subnetMask
+     * @return long[] { first, last }; null if subnetMask is not valid
+     * @should parse cidr notation correctly
+     * @should return null for invalid mask
+     */
+    static long[] parseSubnetMask(String subnetMask) {
+        if (subnetMask == null) {
+            return null;
+        }
+        int slash = subnetMask.indexOf('/');
+        if (slash < 0) {
+            return null;
+        }
+        long address = parseAddress(subnetMask, 0, slash);
+        int cidr = parseNumber(subnetMask, slash + 1, subnetMask.length(), 2);
+        if (address < 0 || cidr < 0 || cidr > 32) {
+            return null;
+        }
+        long mask = cidr == 0 ? 0 : (IPV4_MAX << (32 - cidr)) & IPV4_MAX;
+        long network = address & mask;
+
+        return new long[] { network, network | (~mask & IPV4_MAX) };
+    }
+
+    /**
+     * Parses the dotted-quad IPv4 address between start and end without allocating.
+     *
+     * @param s
+     * @param start
+     * @param end
+     * @return Numeric address; -1 if not a valid IPv4 address
+     */
+    static long parseAddress(String s, int start, int end) {
+        long ret = 0;
+        int partStart = start;
+        for (int part = 0; part < 4; ++part) {
+            int partEnd = part < 3 ? s.indexOf('.', partStart) : end;
+            if (partEnd < 0 || partEnd > end) {
+                return -1;
+            }
+            int value = parseNumber(s, partStart, partEnd, 3);
+            if (value < 0 || value > 255) {
+                return -1;
+            }
+            ret = (ret << 8) | value;
+            partStart = partEnd + 1;
+        }
+
+        return ret;
+    }
+
+    /**
+     *
+     * @param s
+     * @param start
+     * @param end
+     * @param maxDigits
+     * @return Parsed non-negative number; -1 if the given section is empty, too long or contains non-digits
+     */
+    private static int parseNumber(String s, int start, int end, int maxDigits) {
+        if (start >= end || end - start > maxDigits) {
+            return -1;
+        }
+        int ret = 0;
+        for (int i = start; i < end; ++i) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            ret = ret * 10 + (c - '0');
+        }
+
+        return ret;
+    }
+}
@@ -23,6 +23,12 @@ package io.goobi.viewer.model.sitemap;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -30,19 +36,20 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.Namespace;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
 
 import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.controller.DateTools;
-import io.goobi.viewer.controller.FileTools;
+import io.goobi.viewer.controller.StringTools;
 import io.goobi.viewer.controller.XmlTools;
 import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.exceptions.IndexUnreachableException;
@@ -53,10 +60,13 @@ import io.goobi.viewer.model.viewer.PageType;
 import io.goobi.viewer.model.viewer.StringPair;
 import io.goobi.viewer.solr.SolrConstants;
 import io.goobi.viewer.solr.SolrConstants.DocType;
-import io.goobi.viewer.solr.SolrSearchIndex;
 
 /**
- * Sitemap generation.
+ * Sitemap generation. Records are streamed from the index in the order of their creation date and written to gzipped sitemap files as soon as
+ * a file is full, so only one sitemap file is held in memory at any time. CMS pages are added to the last file(s).
+ * <p>
+ * The record range of each file is stored in a state file, which allows an incremental mode that only rewrites the files containing records
+ * that have been updated, added or removed since the last run.
  */
 public class Sitemap {
 
@@ -64,20 +74,70 @@ public class Sitemap {
 
     static final Namespace NS_SITEMAP = Namespace.getNamespace(null, "http://www.sitemaps.org/schemas/sitemap/0.9");
 
-    private String viewerRootUrl = "http://localhost:8080/viewer";
-    private Document docIndex = new Document();
-    private List<Document> docListSitemap = new ArrayList<>();
+    /** Maximum number of URLs per sitemap file, as defined by the sitemap protocol. */
+    static final int MAX_URLS_PER_FILE = 50000;
+    /** Number of records whose full-text pages are looked up with a single query. */
+    static final int RECORD_BATCH_SIZE = 100;
+    static final String INDEX_FILE_NAME = "sitemap_index.xml";
+    static final String STATE_FILE_NAME = "sitemap_state.json";
+
+    private static final String[] FIELDS = { SolrConstants.PI, SolrConstants.DATECREATED, SolrConstants.DATEUPDATED,
+            SolrConstants.FULLTEXTAVAILABLE, SolrConstants.DOCTYPE, SolrConstants.ISANCHOR, SolrConstants.THUMBPAGENO };
+    private static final String[] PAGE_FIELDS = { SolrConstants.PI_TOPSTRUCT, SolrConstants.ORDER };
+    /** Stable record order; the identifier keeps records with identical creation dates in the same order across runs. */
+    private static final List<StringPair> SORT_FIELDS =
+            Arrays.asList(new StringPair(SolrConstants.DATECREATED, "asc"), new StringPair(SolrConstants.PI, "asc"));
 
-    private int index = -1;
+    private String viewerRootUrl = "http://localhost:8080/viewer";
+    private Path outputDir;
+
+    /** Sitemap files of the current run, in file order. */
+    private final List<SitemapShard> shards = new ArrayList<>();
+    /** Files written in the current run. */
+    private final List<File> writtenFiles = new ArrayList<>();
+    /** Sitemap file that is currently being filled. */
+    private SitemapShard currentShard = null;
     private Document currentDocSitemap = null;
-    private Element eleCurrectIndexSitemap = null;
+    /** Records waiting for their full-text page lookup. */
+    private final List<SolrDocument> recordBatch = new ArrayList<>(RECORD_BATCH_SIZE);
+
+    /** Sitemap files of the previous run (incremental mode only). */
+    private List<SitemapShard> previousShards = Collections.emptyList();
+    private long previousTimestamp = 0;
+    private int previousShardIndex = 0;
+    /** Records in the range of the previous sitemap file that is currently being checked (incremental mode only). */
+    private final List<SolrDocument> previousShardRecords = new ArrayList<>();
+    private boolean previousShardChanged = false;
+    private boolean previousShardOverflow = false;
+
+    private int recordIndex = 0;
+    private long recordBatchStart = 0;
 
     /**
-     * Generates sitemap files and writes them to the given outputPath (or web root).
+     * Generates all sitemap files and writes them to the given outputPath (or web root).
      *
      * @param viewerRootUrl Root URL of the Goobi viewer instance
      * @param outputPath Destination folder path for the sitemap files.
      * @return File list
+     * @throws java.io.IOException if any.
+     * @throws io.goobi.viewer.exceptions.PresentationException if any.
+     * @throws io.goobi.viewer.exceptions.IndexUnreachableException if any.
+     * @throws io.goobi.viewer.exceptions.DAOException if any.
+     */
+    public List<File> generate(String viewerRootUrl, String outputPath)
+            throws IOException, PresentationException, IndexUnreachableException, DAOException {
+        return generate(viewerRootUrl, outputPath, false);
+    }
+
+    /**
+     * Generates sitemap files and writes them to the given outputPath (or web root). In incremental mode, only the files containing records that
+     * have been updated, added or removed since the last run are rewritten; if no usable state from a previous run exists, or if a changed file
+     * would exceed the URL limit, all files are generated.
+     *
+     * @param viewerRootUrl Root URL of the Goobi viewer instance
+     * @param outputPath Destination folder path for the sitemap files.
+     * @param incremental If true, only changed sitemap files will be rewritten
+     * @return Index file and all sitemap files written in this run
      * @should generate sitemap element for each sitemap in index file
      * @should set correct lastmod date for each sitemap in index file
      * @should generate sitemap files correctly
@@ -91,41 +151,19 @@ public class Sitemap {
      * @throws io.goobi.viewer.exceptions.IndexUnreachableException if any.
      * @throws io.goobi.viewer.exceptions.DAOException if any.
      */
-    public List<File> generate(String viewerRootUrl, String outputPath)
+    public List<File> generate(String viewerRootUrl, String outputPath, boolean incremental)
             throws IOException, PresentationException, IndexUnreachableException, DAOException {
         this.viewerRootUrl = viewerRootUrl;
         if (this.viewerRootUrl != null && !this.viewerRootUrl.endsWith("/")) {
             this.viewerRootUrl += "/";
         }
-        // Sitemap index root
-        docIndex.setRootElement(new Element("sitemapindex", NS_SITEMAP));
-
-        index = -1;
-        long timestampModified = 0;
-        if (index == -1) {
-            increment(timestampModified);
-        }
-
-        // CMS pages
-        try {
-            List<CMSPage> pages = DataManager.getInstance().getDao().getAllCMSPages();
-            if (!pages.isEmpty()) {
-                for (CMSPage page : pages) {
-                    String url = viewerRootUrl + "/" + page.getRelativeUrlPath();
-                    String dateUpdated = "";
-                    if (page.getDateUpdated() != null) {
-                        dateUpdated = DateTools.format(page.getDateUpdated(), DateTools.FORMATTERISO8601DATE, false);
-                    } else if (page.getDateCreated() != null) {
-                        DateTools.format(page.getDateCreated(), DateTools.FORMATTERISO8601DATE, false);
-                    }
-                    currentDocSitemap.getRootElement().addContent(createUrlElement(url, dateUpdated, "weekly", "0.5"));
-                    increment(timestampModified);
-                    logger.debug("Sitemap: added CMS page: {}", page.getTitle());
-                }
-            }
-        } catch (DAOException e) {
-            logger.warn("Sitemap: unable to read DAO, cannot include cms pages in sitemap", e);
+        if (outputPath == null || !Files.isDirectory(Paths.get(outputPath))) {
+            throw new IOException("Sitemap output folder not found: " + outputPath);
         }
+        outputDir = Paths.get(outputPath);
+        long timestamp = System.currentTimeMillis();
+        Path stateFile = outputDir.resolve(STATE_FILE_NAME);
+        SitemapState previousState = incremental ? SitemapState.load(stateFile) : null;
 
         // Create query that filters out blacklisted collections and any records that do not allow listing by default
         // (ignore any individual agent's privileges for the sitemap).
@@ -136,155 +174,484 @@ public class Sitemap {
                 .append(":*)")
                 .append(SearchHelper.getAllSuffixes(null, true, true));
         logger.debug("Sitemap: sitemap query: {}", sbQuery);
-        String[] fields = { SolrConstants.PI, SolrConstants.DATECREATED, SolrConstants.DATEUPDATED, SolrConstants.FULLTEXTAVAILABLE,
-                SolrConstants.DOCTYPE, SolrConstants.ISANCHOR, SolrConstants.THUMBPAGENO };
-        String[] pageFields = { SolrConstants.ORDER };
 
-        QueryResponse qr = DataManager.getInstance()
-                .getSearchIndex()
-                .search(sbQuery.toString(), 0, SolrSearchIndex.MAX_HITS, Collections.singletonList(new StringPair(SolrConstants.DATECREATED, "asc")),
-                        null, null, Arrays.asList(fields), null, null);
-        logger.debug("Sitemap: found {} records.", qr.getResults().size());
-
-        long latestTimestampModified = 0;
-        int recordIndex = 0;
-        long start = System.nanoTime();
-        for (SolrDocument solrDoc : qr.getResults()) {
-            if (Thread.interrupted()) {
-                break;
+        reset();
+        boolean done = false;
+        if (previousState != null && !previousState.getShards().isEmpty()) {
+            logger.info("Sitemap: updating sitemap files with records changed since {}...",
+                    DateTools.format(DateTools.getLocalDateTimeFromMillis(previousState.getTimestamp(), false),
+                            DateTools.FORMATTERISO8601DATETIME, false));
+            done = addRecordsIncrementally(sbQuery.toString(), previousState);
+            if (!done) {
+                logger.info("Sitemap: a changed sitemap file exceeds the URL limit, regenerating all files.");
+                reset();
             }
-            String pi = (String) solrDoc.getFieldValue(SolrConstants.PI);
-            String dateModified = null;
-            Collection<Object> dateUpdatedValues = solrDoc.getFieldValues(SolrConstants.DATEUPDATED);
-            if (dateUpdatedValues != null && !dateUpdatedValues.isEmpty()) {
-                // Get latest DATEUPDATED values
-                for (Object dateUpdated : dateUpdatedValues) {
-                    if (((long) dateUpdated) > timestampModified) {
-                        timestampModified = (long) dateUpdated;
+        } else if (incremental) {
+            logger.info("Sitemap: no usable state from a previous run found, generating all files.");
+        }
+        if (!done) {
+            addAllRecords(sbQuery.toString());
+        }
+        closeShard();
+        List<SitemapShard> recordShards = new ArrayList<>(shards);
+
+        // CMS pages are always regenerated
+        addCmsPages();
+        closeShard();
+
+        // Remove files left over from previous runs that produced more files
+        for (int i = shards.size() + 1; Files.deleteIfExists(outputDir.resolve(getFileName(i))); ++i) {
+            logger.debug("Sitemap: removed obsolete file {}", getFileName(i));
+        }
+
+        logger.info("Sitemap: writing sitemap index to '{}'...", outputPath);
+        List<File> ret = new ArrayList<>(writtenFiles.size() + 1);
+        ret.add(writeIndex());
+        ret.addAll(writtenFiles);
+        if (Thread.currentThread().isInterrupted()) {
+            // Incomplete files must not be used as the basis for the next incremental run
+            logger.warn("Sitemap: generation interrupted, the next run will generate all files.");
+            Files.deleteIfExists(stateFile);
+        } else {
+            new SitemapState(timestamp, recordShards).save(stateFile);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Resets all data of the current run.
+     */
+    private void reset() {
+        shards.clear();
+        writtenFiles.clear();
+        currentShard = null;
+        currentDocSitemap = null;
+        recordBatch.clear();
+        previousShardRecords.clear();
+        recordIndex = 0;
+        recordBatchStart = System.nanoTime();
+    }
+
+    /**
+     * Streams all records matching the given query and adds their URLs to the sitemap files.
+     *
+     * @param query
+     * @throws IOException
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    private void addAllRecords(String query) throws IOException, PresentationException, IndexUnreachableException {
+        try {
+            long found = DataManager.getInstance().getSearchIndex().streamWhile(query, SORT_FIELDS, Arrays.asList(FIELDS), solrDoc -> {
+                if (Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                recordBatch.add(solrDoc);
+                if (recordBatch.size() >= RECORD_BATCH_SIZE) {
+                    flushRecordBatchUnchecked();
+                }
+                return true;
+            });
+            flushRecordBatch();
+            logger.debug("Sitemap: found {} records.", found);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Streams all records matching the given query and assigns them to the sitemap files of the previous run, using the last record of each
+     * file as the boundary. Files are only rewritten if their record set has changed or any of their records has been updated since the
+     * previous run. New records are appended to the last file.
+     *
+     * @param query
+     * @param previousState
+     * @return true if successful; false if a changed file (other than the last) would exceed the URL limit
+     * @throws IOException
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    private boolean addRecordsIncrementally(String query, SitemapState previousState)
+            throws IOException, PresentationException, IndexUnreachableException {
+        previousShards = previousState.getShards();
+        previousTimestamp = previousState.getTimestamp();
+        previousShardIndex = 0;
+        previousShardChanged = false;
+        previousShardOverflow = false;
+        try {
+            long found = DataManager.getInstance().getSearchIndex().streamWhile(query, SORT_FIELDS, Arrays.asList(FIELDS), solrDoc -> {
+                if (Thread.currentThread().isInterrupted() || previousShardOverflow) {
+                    return false;
+                }
+                // The last file has no upper boundary
+                long dateCreated = getDateCreated(solrDoc);
+                String pi = (String) solrDoc.getFieldValue(SolrConstants.PI);
+                while (!previousShardOverflow && previousShardIndex < previousShards.size() - 1
+                        && previousShards.get(previousShardIndex).isBefore(dateCreated, pi)) {
+                    try {
+                        finishPreviousShard();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
                     }
                 }
-                dateModified =
-                        DateTools.format(DateTools.getLocalDateTimeFromMillis(timestampModified, false), DateTools.FORMATTERISO8601DATE, false);
-                if (timestampModified > latestTimestampModified) {
-                    latestTimestampModified = timestampModified;
-                    eleCurrectIndexSitemap.getChild("lastmod", NS_SITEMAP).setText(dateModified);
-                    //                        logger.debug("Sitemap: set latest modified date: " + dateModified);
+                previousShardRecords.add(solrDoc);
+                if (getLastmod(solrDoc) > previousTimestamp) {
+                    previousShardChanged = true;
                 }
+                // No further records are needed once a file overflows
+                return !previousShardOverflow;
+            });
+            while (!previousShardOverflow && previousShardIndex < previousShards.size()) {
+                finishPreviousShard();
             }
-            if (solrDoc.getFieldValue(SolrConstants.ISANCHOR) != null && (Boolean) solrDoc.getFieldValue(SolrConstants.ISANCHOR)) {
-                // Anchor
-
-                // Anchor TOC URL
-                currentDocSitemap.getRootElement().addContent(createUrlElement(pi, 1, dateModified, PageType.viewToc.getName(), "weekly", "0.5"));
-                increment(timestampModified);
-
-                // Anchor metadata URL
-                currentDocSitemap.getRootElement()
-                        .addContent(createUrlElement(pi, 1, dateModified, PageType.viewMetadata.getName(), "weekly", "0.5"));
-                increment(timestampModified);
-            } else if (DocType.GROUP.toString().equals(solrDoc.getFieldValue(SolrConstants.DOCTYPE))) {
-                // Group
-
-                // Group TOC URL
-                currentDocSitemap.getRootElement().addContent(createUrlElement(pi, 1, dateModified, PageType.viewToc.getName(), "weekly", "0.5"));
-                increment(timestampModified);
-            } else {
-                // RECORD
-                // Record object URL (representative page)
-                int recOrder = solrDoc.containsKey(SolrConstants.THUMBPAGENO) ? (int) solrDoc.getFieldValue(SolrConstants.THUMBPAGENO) : 1;
-                currentDocSitemap.getRootElement()
-                        .addContent(createUrlElement(pi, recOrder, dateModified, PageType.viewObject.getName(), "weekly", "0.5"));
-                increment(timestampModified);
-
-                // Record metadata URL
-                currentDocSitemap.getRootElement()
-                        .addContent(createUrlElement(pi, 1, dateModified, PageType.viewMetadata.getName(), "weekly", "0.5"));
-                increment(timestampModified);
-
-                // Record TOC URL
-                currentDocSitemap.getRootElement().addContent(createUrlElement(pi, 1, dateModified, PageType.viewToc.getName(), "weekly", "0.5"));
-                increment(timestampModified);
-
-                QueryResponse qrPages;
-                // PAGES
-                StringBuilder sbPagesQuery = new StringBuilder();
-                sbPagesQuery.append(SolrConstants.PI_TOPSTRUCT)
-                        .append(':')
-                        .append(pi)
-                        .append(" AND ")
-                        .append(SolrConstants.DOCTYPE)
-                        .append(':')
-                        .append(SolrConstants.DocType.PAGE)
-                        .append(" AND ")
-                        .append(SolrConstants.FULLTEXTAVAILABLE)
-                        .append(":true");
-                // logger.trace("Sitemap: pages query: {}", sbPagesQuery.toString()); //NOSONAR Debug
-                qrPages = DataManager.getInstance()
-                        .getSearchIndex()
-                        .search(sbPagesQuery.toString(), 0, SolrSearchIndex.MAX_HITS,
-                                Collections.singletonList(new StringPair(SolrConstants.ORDER, "asc")), null, null, Arrays.asList(pageFields), null,
-                                null);
-                if (!qrPages.getResults().isEmpty()) {
-                    logger.debug("Sitemap: found {} pages with full-text for '{}'.", qrPages.getResults().size(), pi);
-                    for (SolrDocument solrPageDoc : qrPages.getResults()) {
-                        int pageOrder = (int) solrPageDoc.getFieldValue(SolrConstants.ORDER);
-                        // Page full-text URL
-                        currentDocSitemap.getRootElement()
-                                .addContent(createUrlElement(pi, pageOrder, dateModified, PageType.viewFulltext.getName(), "weekly", "0.5"));
-                        increment(timestampModified);
-                    }
+            logger.debug("Sitemap: found {} records.", found);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        return !previousShardOverflow;
+    }
+
+    /**
+     * Keeps the sitemap file of the previous run that is currently being checked, or rewrites it if its records have changed.
+     *
+     * @throws IOException
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    private void finishPreviousShard() throws IOException, PresentationException, IndexUnreachableException {
+        SitemapShard previousShard = previousShards.get(previousShardIndex);
+        boolean last = previousShardIndex == previousShards.size() - 1;
+        if (!previousShardChanged && previousShardRecords.size() == previousShard.getRecordCount()
+                && Files.isRegularFile(outputDir.resolve(getFileName(previousShard.getNumber())))) {
+            shards.add(previousShard);
+        } else {
+            logger.debug("Sitemap: rewriting file {}", getFileName(previousShard.getNumber()));
+            openShard();
+            for (SolrDocument solrDoc : previousShardRecords) {
+                recordBatch.add(solrDoc);
+                if (recordBatch.size() >= RECORD_BATCH_SIZE) {
+                    flushRecordBatch();
                 }
             }
-            recordIndex++;
-            if (recordIndex % 50 == 0) {
-                logger.debug("Sitemap: parsed record {}", recordIndex);
-                long end = System.nanoTime();
-                logger.debug("Sitemap: parsing 50 records took {}" + " seconds", ((end - start) / 1e9));
-                start = end;
+            flushRecordBatch();
+            if (!last) {
+                // All files before the last one must keep their number
+                previousShardOverflow = shards.size() > previousShardIndex;
+                closeShard();
+            }
+        }
+        previousShardRecords.clear();
+        previousShardChanged = false;
+        previousShardIndex++;
+    }
+
+    /**
+     * Variant of {@link #flushRecordBatch()} for use in {@link io.goobi.viewer.solr.SolrDocumentConsumer}s, which cannot throw IOExceptions.
+     *
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    private void flushRecordBatchUnchecked() throws PresentationException, IndexUnreachableException {
+        try {
+            flushRecordBatch();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Looks up the full-text pages of all records in the current batch with a single query and adds the URLs of all records in the batch.
+     *
+     * @throws IOException
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    private void flushRecordBatch() throws IOException, PresentationException, IndexUnreachableException {
+        if (recordBatch.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<Integer>> pageOrders = getFulltextPageOrders(recordBatch);
+        for (SolrDocument solrDoc : recordBatch) {
+            String pi = (String) solrDoc.getFieldValue(SolrConstants.PI);
+            addRecordUrls(solrDoc, pageOrders.getOrDefault(pi, Collections.emptyList()));
+        }
+        recordBatch.clear();
+    }
+
+    /**
+     * Returns the page numbers of all pages with full-text of the given records.
+     *
+     * @param solrDocs Record documents
+     * @return Map with record identifiers as keys and sorted page numbers as values
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    private static Map<String, List<Integer>> getFulltextPageOrders(List<SolrDocument> solrDocs)
+            throws PresentationException, IndexUnreachableException {
+        StringBuilder sbPis = new StringBuilder();
+        for (SolrDocument solrDoc : solrDocs) {
+            if (isAnchor(solrDoc) || DocType.GROUP.toString().equals(solrDoc.getFieldValue(SolrConstants.DOCTYPE))) {
+                continue;
+            }
+            if (sbPis.length() > 0) {
+                sbPis.append(" OR ");
             }
+            sbPis.append('"').append(solrDoc.getFieldValue(SolrConstants.PI)).append('"');
+        }
+        if (sbPis.length() == 0) {
+            return Collections.emptyMap();
+        }
+
+        String query = "+" + SolrConstants.PI_TOPSTRUCT + ":(" + sbPis + ") +" + SolrConstants.DOCTYPE + ":" + DocType.PAGE + " +"
+                + SolrConstants.FULLTEXTAVAILABLE + ":true";
+        // logger.trace("Sitemap: pages query: {}", query); //NOSONAR Debug
+        Map<String, List<Integer>> ret = new HashMap<>();
+        DataManager.getInstance()
+                .getSearchIndex()
+                .stream(query, Arrays.asList(new StringPair(SolrConstants.PI_TOPSTRUCT, "asc"), new StringPair(SolrConstants.ORDER, "asc")),
+                        Arrays.asList(PAGE_FIELDS), solrPageDoc -> ret
+                                .computeIfAbsent((String) solrPageDoc.getFieldValue(SolrConstants.PI_TOPSTRUCT), k -> new ArrayList<>())
+                                .add((Integer) solrPageDoc.getFieldValue(SolrConstants.ORDER)));
+
+        return ret;
+    }
+
+    /**
+     * Adds sitemap URLs for the given record document and, if applicable, its full-text pages.
+     *
+     * @param solrDoc Record document
+     * @param fulltextPageOrders Page numbers of the record's pages with full-text
+     * @throws IOException
+     */
+    private void addRecordUrls(SolrDocument solrDoc, List<Integer> fulltextPageOrders) throws IOException {
+        String pi = (String) solrDoc.getFieldValue(SolrConstants.PI);
+        long lastmod = getLastmod(solrDoc);
+        String dateModified =
+                lastmod > 0 ? DateTools.format(DateTools.getLocalDateTimeFromMillis(lastmod, false), DateTools.FORMATTERISO8601DATE, false)
+                        : null;
+
+        List<Element> urls = new ArrayList<>();
+        if (isAnchor(solrDoc)) {
+            // Anchor TOC URL
+            urls.add(createUrlElement(pi, 1, dateModified, PageType.viewToc.getName(), "weekly", "0.5"));
+            // Anchor metadata URL
+            urls.add(createUrlElement(pi, 1, dateModified, PageType.viewMetadata.getName(), "weekly", "0.5"));
+        } else if (DocType.GROUP.toString().equals(solrDoc.getFieldValue(SolrConstants.DOCTYPE))) {
+            // Group TOC URL
+            urls.add(createUrlElement(pi, 1, dateModified, PageType.viewToc.getName(), "weekly", "0.5"));
+        } else {
+            // Record object URL (representative page)
+            int recOrder = solrDoc.containsKey(SolrConstants.THUMBPAGENO) ? (int) solrDoc.getFieldValue(SolrConstants.THUMBPAGENO) : 1;
+            urls.add(createUrlElement(pi, recOrder, dateModified, PageType.viewObject.getName(), "weekly", "0.5"));
+            // Record metadata URL
+            urls.add(createUrlElement(pi, 1, dateModified, PageType.viewMetadata.getName(), "weekly", "0.5"));
+            // Record TOC URL
+            urls.add(createUrlElement(pi, 1, dateModified, PageType.viewToc.getName(), "weekly", "0.5"));
+            // Page full-text URLs
+            for (int pageOrder : fulltextPageOrders) {
+                urls.add(createUrlElement(pi, pageOrder, dateModified, PageType.viewFulltext.getName(), "weekly", "0.5"));
+            }
+            if (!fulltextPageOrders.isEmpty()) {
+                logger.debug("Sitemap: found {} pages with full-text for '{}'.", fulltextPageOrders.size(), pi);
+            }
+        }
+
+        // Start a new file rather than splitting the record's URLs, unless the record alone exceeds the limit
+        if (currentShard != null && currentShard.getUrlCount() > 0 && currentShard.getUrlCount() + urls.size() > MAX_URLS_PER_FILE) {
+            closeShard();
+        }
+        long dateCreated = getDateCreated(solrDoc);
+        openShard().addRecord(dateCreated, pi, lastmod, true);
+        for (Element url : urls) {
+            if (currentShard.getUrlCount() >= MAX_URLS_PER_FILE) {
+                closeShard();
+                openShard().addRecord(dateCreated, pi, lastmod, false);
+            }
+            addUrl(url);
+        }
+
+        recordIndex++;
+        if (recordIndex % 50 == 0) {
+            logger.debug("Sitemap: parsed record {}", recordIndex);
+            long end = System.nanoTime();
+            logger.debug("Sitemap: parsing 50 records took {}" + " seconds", ((end - recordBatchStart) / 1e9));
+            recordBatchStart = end;
+        }
+    }
+
+    /**
+     * Adds URLs for all CMS pages.
+     *
+     * @throws IOException
+     */
+    private void addCmsPages() throws IOException {
+        try {
+            for (CMSPage page : DataManager.getInstance().getDao().getAllCMSPages()) {
+                String url = viewerRootUrl + "/" + page.getRelativeUrlPath();
+                String dateUpdated = "";
+                Long timestamp = null;
+                if (page.getDateUpdated() != null) {
+                    dateUpdated = DateTools.format(page.getDateUpdated(), DateTools.FORMATTERISO8601DATE, false);
+                    timestamp = DateTools.getMillisFromLocalDateTime(page.getDateUpdated(), false);
+                } else if (page.getDateCreated() != null) {
+                    dateUpdated = DateTools.format(page.getDateCreated(), DateTools.FORMATTERISO8601DATE, false);
+                    timestamp = DateTools.getMillisFromLocalDateTime(page.getDateCreated(), false);
+                }
+                if (currentShard != null && currentShard.getUrlCount() >= MAX_URLS_PER_FILE) {
+                    closeShard();
+                }
+                openShard();
+                if (timestamp != null && timestamp > currentShard.getLastmod()) {
+                    currentShard.setLastmod(timestamp);
+                }
+                addUrl(createUrlElement(url, dateUpdated, "weekly", "0.5"));
+                logger.debug("Sitemap: added CMS page: {}", page.getTitle());
+            }
+        } catch (DAOException e) {
+            logger.warn("Sitemap: unable to read DAO, cannot include cms pages in sitemap", e);
+        }
+    }
+
+    /**
+     * Starts a new sitemap file, unless one is currently being filled.
+     *
+     * @return Sitemap file that is currently being filled
+     */
+    private SitemapShard openShard() {
+        if (currentShard == null) {
+            currentShard = new SitemapShard(shards.size() + 1);
+            currentDocSitemap = new Document(new Element("urlset", NS_SITEMAP));
+        }
+
+        return currentShard;
+    }
+
+    /**
+     *
+     * @param eleUrl URL element to add to the current sitemap file
+     */
+    private void addUrl(Element eleUrl) {
+        currentDocSitemap.getRootElement().addContent(eleUrl);
+        currentShard.incrementUrlCount();
+    }
+
+    /**
+     * Writes the sitemap file that is currently being filled, if any.
+     *
+     * @throws IOException
+     */
+    private void closeShard() throws IOException {
+        if (currentShard == null) {
+            return;
         }
 
-        logger.info("Sitemap: writing sitemap to '{}'...", outputPath);
-        return writeFiles(outputPath, docIndex, docListSitemap);
+        writtenFiles.add(writeShard(currentShard.getNumber(), currentDocSitemap));
+        shards.add(currentShard);
+        currentShard = null;
+        currentDocSitemap = null;
     }
 
     /**
-     * Index counter for items per XML file.
+     * Writes the given sitemap document as a gzipped file. The file is written to a temporary file first, so that crawlers never see a partially
+     * written file.
      *
-     * @param timestamp
+     * @param number File number
+     * @param docSitemap Sitemap document
+     * @return Written file
+     * @throws IOException
      */
-    private void increment(long timestamp) {
-        index++;
-        if (index == 0 || index == 50000) {
-            // Create new sitemap doc
-            currentDocSitemap = new Document();
-            docListSitemap.add(currentDocSitemap);
-            Element eleUrlset = new Element("urlset", NS_SITEMAP);
-            currentDocSitemap.setRootElement(eleUrlset);
+    private File writeShard(int number, Document docSitemap) throws IOException {
+        Path file = outputDir.resolve(getFileName(number));
+        Path tempFile = outputDir.resolve(getFileName(number) + ".tmp");
+        try (OutputStream os = new GZIPOutputStream(Files.newOutputStream(tempFile))) {
+            new XMLOutputter(Format.getRawFormat().setEncoding(StringTools.DEFAULT_ENCODING)).output(docSitemap, os);
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Sitemap: file {} written to '{}'", number, file.toAbsolutePath());
 
-            // Add new element to the index doc
+        return file.toFile();
+    }
 
-            eleCurrectIndexSitemap = new Element("sitemap", NS_SITEMAP);
-            docIndex.getRootElement().addContent(eleCurrectIndexSitemap);
+    /**
+     * Writes the sitemap index file listing all sitemap files of the current run.
+     *
+     * @return Written index file
+     * @throws IOException
+     */
+    private File writeIndex() throws IOException {
+        Document docIndex = new Document(new Element("sitemapindex", NS_SITEMAP));
+        for (SitemapShard shard : shards) {
+            Element eleSitemap = new Element("sitemap", NS_SITEMAP);
+            docIndex.getRootElement().addContent(eleSitemap);
 
             // loc
             Element eleLoc = new Element("loc", NS_SITEMAP);
-            eleCurrectIndexSitemap.addContent(eleLoc);
-            eleLoc.setText(viewerRootUrl + "sitemap" + docListSitemap.size() + ".xml.gz");
+            eleSitemap.addContent(eleLoc);
+            eleLoc.setText(viewerRootUrl + getFileName(shard.getNumber()));
 
             // lastmod
             Element eleLastmod = new Element("lastmod", NS_SITEMAP);
-            eleCurrectIndexSitemap.addContent(eleLastmod);
-            if (timestamp > 0) {
-                // If switching sitemap files within a record, use the current record's timestamp
-                eleLastmod
-                        .setText(DateTools.format(DateTools.getLocalDateTimeFromMillis(timestamp, false), DateTools.FORMATTERISO8601DATE, false));
+            eleSitemap.addContent(eleLastmod);
+            if (shard.getLastmod() > 0) {
+                eleLastmod.setText(
+                        DateTools.format(DateTools.getLocalDateTimeFromMillis(shard.getLastmod(), false), DateTools.FORMATTERISO8601DATE, false));
             } else {
                 eleLastmod.setText("");
             }
+        }
+
+        return XmlTools.writeXmlFile(docIndex, outputDir.resolve(INDEX_FILE_NAME).toAbsolutePath().toString());
+    }
 
-            index = 0;
+    /**
+     *
+     * @param number File number
+     * @return File name of the sitemap file with the given number
+     */
+    static String getFileName(int number) {
+        return "sitemap" + number + ".xml.gz";
+    }
+
+    /**
+     *
+     * @param solrDoc
+     * @return true if the given document is an anchor; false otherwise
+     */
+    private static boolean isAnchor(SolrDocument solrDoc) {
+        return solrDoc.getFieldValue(SolrConstants.ISANCHOR) != null && (Boolean) solrDoc.getFieldValue(SolrConstants.ISANCHOR);
+    }
+
+    /**
+     *
+     * @param solrDoc
+     * @return Creation timestamp of the given record; 0 if not available
+     */
+    private static long getDateCreated(SolrDocument solrDoc) {
+        Object value = solrDoc.getFirstValue(SolrConstants.DATECREATED);
+        return value instanceof Long ? (long) value : 0;
+    }
+
+    /**
+     *
+     * @param solrDoc
+     * @return Latest DATEUPDATED value of the given record; 0 if not available
+     * @should return latest update timestamp
+     */
+    static long getLastmod(SolrDocument solrDoc) {
+        long ret = 0;
+        Collection<Object> dateUpdatedValues = solrDoc.getFieldValues(SolrConstants.DATEUPDATED);
+        if (dateUpdatedValues != null) {
+            for (Object dateUpdated : dateUpdatedValues) {
+                if (dateUpdated instanceof Long && (long) dateUpdated > ret) {
+                    ret = (long) dateUpdated;
+                }
+            }
         }
+
+        return ret;
     }
 
     /**
@@ -341,49 +708,4 @@ public class Sitemap {
         return eleUrl;
     }
 
-    /**
-     * Writes givent sitemap XML documents into the file system.
-     *
-     * @param outputDirPath a {@link java.lang.String} object.
-     * @param docIndex a {@link org.jdom2.Document} object.
-     * @param docListSitemap a {@link java.util.List} object.
-     * @should write index file correctly
-     * @should write gzip files correctly
-     * @return a {@link java.util.List} object.
-     * @throws java.io.IOException if any.
-     */
-    protected List<File> writeFiles(String outputDirPath, Document docIndex, List<Document> docListSitemap) throws IOException {
-        List<File> ret = null;
-
-        // Write index file
-        File indexFile = new File(outputDirPath, "sitemap_index.xml");
-        XmlTools.writeXmlFile(docIndex, indexFile.getAbsolutePath());
-
-        // Write sitemap files
-        if (docListSitemap != null) {
-            ret = new ArrayList<>(docListSitemap.size());
-            ret.add(indexFile);
-            for (Document docSitemap : docListSitemap) {
-                int i = docListSitemap.indexOf(docSitemap) + 1;
-                File file = new File(outputDirPath, "sitemap" + i + ".xml");
-                file = XmlTools.writeXmlFile(docSitemap, file.getAbsolutePath());
-                if (file.exists()) {
-                    Map<File, String> fileMap = new HashMap<>();
-                    fileMap.put(file, "/");
-                    File gzipFile = new File(outputDirPath, "sitemap" + i + ".xml.gz");
-                    FileTools.compressGzipFile(file, gzipFile);
-                    ret.add(gzipFile);
-                    logger.info("Sitemap: file {} written to '{}'", i, gzipFile.getAbsolutePath());
-                    FileUtils.deleteQuietly(file);
-                }
-
-            }
-        } else {
-            ret = new ArrayList<>(1);
-            ret.add(indexFile);
-        }
-
-        return ret;
-    }
-
 }
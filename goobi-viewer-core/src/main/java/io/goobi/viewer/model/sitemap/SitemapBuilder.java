@@ -36,6 +36,7 @@ import org.json.JSONObject;
 
 import de.unigoettingen.sub.commons.contentlib.exceptions.IllegalRequestException;
 import io.goobi.viewer.api.rest.model.SitemapRequestParameters;
+import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.controller.StringConstants;
 import io.goobi.viewer.exceptions.AccessDeniedException;
 import io.goobi.viewer.exceptions.DAOException;
@@ -70,10 +71,35 @@ public class SitemapBuilder {
             outputPath = servletRequest.getServletContext().getRealPath("/");
         }
         String rootUrl = ServletUtils.getServletPathWithHostAsUrlFromRequest(this.servletRequest);
-        updateSitemap(outputPath, rootUrl);
+        boolean incremental =
+                params.getIncremental() != null ? params.getIncremental() : DataManager.getInstance().getConfiguration().isSitemapIncremental();
+        updateSitemap(outputPath, rootUrl, incremental);
     }
 
+    /**
+     * Updates the sitemap, using the configured mode (full or incremental).
+     *
+     * @param outputPath Destination folder path for the sitemap files
+     * @param viewerRootUrl Root URL of the Goobi viewer instance
+     * @throws AccessDeniedException
+     * @throws JSONException
+     * @throws PresentationException
+     */
     public void updateSitemap(String outputPath, String viewerRootUrl) throws AccessDeniedException, JSONException, PresentationException {
+        updateSitemap(outputPath, viewerRootUrl, DataManager.getInstance().getConfiguration().isSitemapIncremental());
+    }
+
+    /**
+     *
+     * @param outputPath Destination folder path for the sitemap files
+     * @param viewerRootUrl Root URL of the Goobi viewer instance
+     * @param incremental If true, only sitemap files containing changed records will be rewritten
+     * @throws AccessDeniedException
+     * @throws JSONException
+     * @throws PresentationException
+     */
+    public void updateSitemap(String outputPath, String viewerRootUrl, boolean incremental)
+            throws AccessDeniedException, JSONException, PresentationException {
 
         JSONObject ret = new JSONObject();
 
@@ -85,7 +111,7 @@ public class SitemapBuilder {
                 @Override
                 public void run() {
                     try {
-                        List<File> sitemapFiles = sitemap.generate(viewerRootUrl, outputPath);
+                        List<File> sitemapFiles = sitemap.generate(viewerRootUrl, outputPath, incremental);
                         if (sitemapFiles != null) {
                             ret.put("status", HttpServletResponse.SC_OK);
                             ret.put("message", sitemapFiles.size() + " sitemap files created");
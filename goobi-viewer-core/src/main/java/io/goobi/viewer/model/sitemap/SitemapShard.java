@@ -0,0 +1,180 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.sitemap;
+
+import org.json.JSONObject;
+
+/**
+ * Bookkeeping for a single sitemap file. Records are distributed over the sitemap files in the order of their creation date, so each file
+ * covers a range of records that ends with the record identified by {@link #getLastDateCreated()} and {@link #getLastPi()}.
+ */
+class SitemapShard {
+
+    private static final String KEY_NUMBER = "number";
+    private static final String KEY_RECORD_COUNT = "recordCount";
+    private static final String KEY_LASTMOD = "lastmod";
+    private static final String KEY_LAST_DATE_CREATED = "lastDateCreated";
+    private static final String KEY_LAST_PI = "lastPi";
+
+    /** File number (1-based). */
+    private final int number;
+    private int urlCount = 0;
+    private int recordCount = 0;
+    /** Latest modification timestamp of all contained records. */
+    private long lastmod = 0;
+    private long lastDateCreated = 0;
+    private String lastPi = null;
+
+    /**
+     *
+     * @param number File number
+     */
+    SitemapShard(int number) {
+        this.number = number;
+    }
+
+    /**
+     * Registers a record whose URLs are added to this file.
+     *
+     * @param dateCreated Creation timestamp of the record
+     * @param pi Record identifier
+     * @param recordLastmod Latest modification timestamp of the record
+     * @param count If false, the record is not counted because it has already been counted by the previous file
+     */
+    void addRecord(long dateCreated, String pi, long recordLastmod, boolean count) {
+        this.lastDateCreated = dateCreated;
+        this.lastPi = pi;
+        if (recordLastmod > lastmod) {
+            lastmod = recordLastmod;
+        }
+        if (count) {
+            recordCount++;
+        }
+    }
+
+    /**
+     * Checks whether the record with the given sort key comes after the last record of this file.
+     *
+     * @param dateCreated Creation timestamp of the record
+     * @param pi Record identifier
+     * @return true if the record belongs to a later file; false otherwise
+     * @should compare creation date first
+     * @should compare identifier if creation dates equal
+     */
+    boolean isBefore(long dateCreated, String pi) {
+        if (dateCreated != lastDateCreated) {
+            return dateCreated > lastDateCreated;
+        }
+        if (lastPi == null || pi == null) {
+            return pi != null;
+        }
+
+        return pi.compareTo(lastPi) > 0;
+    }
+
+    /**
+     * 
+     * @return JSON representation of this file's bookkeeping data
+     */
+    JSONObject toJson() {
+        JSONObject ret = new JSONObject();
+        ret.put(KEY_NUMBER, number);
+        ret.put(KEY_RECORD_COUNT, recordCount);
+        ret.put(KEY_LASTMOD, lastmod);
+        ret.put(KEY_LAST_DATE_CREATED, lastDateCreated);
+        if (lastPi != null) {
+            ret.put(KEY_LAST_PI, lastPi);
+        }
+
+        return ret;
+    }
+
+    /**
+     * 
+     * @param json
+     * @return {@link SitemapShard} restored from the given JSON object
+     */
+    static SitemapShard fromJson(JSONObject json) {
+        SitemapShard ret = new SitemapShard(json.getInt(KEY_NUMBER));
+        ret.recordCount = json.getInt(KEY_RECORD_COUNT);
+        ret.lastmod = json.getLong(KEY_LASTMOD);
+        ret.lastDateCreated = json.getLong(KEY_LAST_DATE_CREATED);
+        ret.lastPi = json.optString(KEY_LAST_PI, null);
+        return ret;
+    }
+
+    /**
+     * @return the number
+     */
+    int getNumber() {
+        return number;
+    }
+
+    /**
+     * @return the urlCount
+     */
+    int getUrlCount() {
+        return urlCount;
+    }
+
+    /**
+     * Increments the URL count.
+     */
+    void incrementUrlCount() {
+        urlCount++;
+    }
+
+    /**
+     * @return the recordCount
+     */
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return the lastmod
+     */
+    long getLastmod() {
+        return lastmod;
+    }
+
+    /**
+     * @param lastmod the lastmod to set
+     */
+    void setLastmod(long lastmod) {
+        this.lastmod = lastmod;
+    }
+
+    /**
+     * @return the lastDateCreated
+     */
+    long getLastDateCreated() {
+        return lastDateCreated;
+    }
+
+    /**
+     * @return the lastPi
+     */
+    String getLastPi() {
+        return lastPi;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.sitemap;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * State of the last sitemap generation, which allows subsequent runs to only rewrite the sitemap files that contain changed records.
+ */
+class SitemapState {
+
+    private static final Logger logger = LogManager.getLogger(SitemapState.class);
+
+    private static final String KEY_TIMESTAMP = "timestamp";
+    private static final String KEY_SHARDS = "shards";
+
+    /** Start time of the run that produced this state. */
+    private final long timestamp;
+    /** Record sitemap files in file order. */
+    private final List<SitemapShard> shards;
+
+    /**
+     *
+     * @param timestamp Start time of the sitemap generation
+     * @param shards Record sitemap files
+     */
+    SitemapState(long timestamp, List<SitemapShard> shards) {
+        this.timestamp = timestamp;
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+    }
+
+    /**
+     * Loads the state from the given file.
+     *
+     * @param file State file
+     * @return Loaded {@link SitemapState}; null if the file does not exist or cannot be read
+     * @should return null if file does not exist
+     * @should load saved state correctly
+     */
+    static SitemapState load(Path file) {
+        if (file == null || !Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            JSONObject json = new JSONObject(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+            JSONArray jsonShards = json.getJSONArray(KEY_SHARDS);
+            List<SitemapShard> shards = new ArrayList<>(jsonShards.length());
+            for (int i = 0; i < jsonShards.length(); ++i) {
+                SitemapShard shard = SitemapShard.fromJson(jsonShards.getJSONObject(i));
+                // Files must be numbered consecutively, otherwise the state is not usable
+                if (shard.getNumber() != i + 1) {
+                    logger.warn("Sitemap state file '{}' is inconsistent, ignoring.", file.toAbsolutePath());
+                    return null;
+                }
+                shards.add(shard);
+            }
+            return new SitemapState(json.getLong(KEY_TIMESTAMP), shards);
+        } catch (IOException | JSONException e) {
+            logger.warn("Could not read sitemap state file '{}': {}", file.toAbsolutePath(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the state to the given file, replacing any existing state.
+     *
+     * @param file State file
+     * @throws IOException
+     */
+    void save(Path file) throws IOException {
+        JSONArray jsonShards = new JSONArray();
+        for (SitemapShard shard : shards) {
+            jsonShards.put(shard.toJson());
+        }
+        JSONObject json = new JSONObject();
+        json.put(KEY_TIMESTAMP, timestamp);
+        json.put(KEY_SHARDS, jsonShards);
+
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tempFile, json.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return the timestamp
+     */
+    long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return the shards
+     */
+    List<SitemapShard> getShards() {
+        return shards;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.statistics.usage;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import io.goobi.viewer.controller.StringTools;
+import io.goobi.viewer.exceptions.IndexUnreachableException;
+import io.goobi.viewer.exceptions.PresentationException;
+import io.goobi.viewer.solr.IndexVersionedCache;
+
+/**
+ * Monthly rollups of usage statistics summaries. Only months that should no longer receive new daily statistics are stored, so that a summary over
+ * a long date range only needs to query the daily statistics documents of incomplete months once the rollups exist. Since daily statistics may be
+ * indexed later than expected (e.g. after an indexer outage), all rollups are discarded once the Solr index version changes.
+ */
+public class MonthlyStatisticsCache {
+
+    /** Default maximum number of stored rollups */
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    /** Default minimum interval between index version checks in milliseconds */
+    public static final long DEFAULT_VERSION_CHECK_INTERVAL = 60_000L;
+
+    /**
+     * Computes the rollup of a month if it is not stored.
+     */
+    @FunctionalInterface
+    public interface RollupLoader {
+        /**
+         *
+         * @return Summary of the month
+         * @throws PresentationException
+         * @throws IndexUnreachableException
+         */
+        StatisticsSummary load() throws PresentationException, IndexUnreachableException;
+    }
+
+    private final IndexVersionedCache<StatisticsSummary> rollups;
+
+    /**
+     * 
+     * @param maxEntries Maximum number of stored rollups; the least recently used rollup is removed when exceeded
+     * @param versionCheckInterval Minimum interval between index version checks in milliseconds
+     * @param indexVersionSupplier Returns the current index version or a negative value if unknown
+     */
+    public MonthlyStatisticsCache(int maxEntries, long versionCheckInterval, LongSupplier indexVersionSupplier) {
+        this.rollups = new IndexVersionedCache<>("monthly usage statistics", maxEntries, versionCheckInterval, indexVersionSupplier);
+    }
+
+    /**
+     * 
+     * @param month
+     * @param filterQuery Record filter query of the summary; may be null
+     * @param identifiers Record identifiers the summary is limited to; empty if not limited
+     * @return Key for the rollup of the given month and record selection; the identifiers are included as a SHA-256 digest of their sorted list
+     * @should return same key regardless of identifier order
+     * @should return different keys for different months
+     * @should return different keys for different identifiers
+     */
+    public static String buildKey(YearMonth month, String filterQuery, List<String> identifiers) {
+        List<String> sortedIdentifiers = new ArrayList<>(identifiers);
+        Collections.sort(sortedIdentifiers);
+        return month + "|" + (filterQuery != null ? filterQuery : "") + "|" + StringTools.generateHash(String.join("\n", sortedIdentifiers));
+    }
+
+    /**
+     * Statistics of a day are usually indexed on the following day, so a month is complete once the first day after the next month has begun.
+     * 
+     * @param month
+     * @param today
+     * @return true if no more daily statistics will be indexed for the given month; false otherwise
+     * @should return false for current month
+     * @should return false on first day of next month
+     * @should return true on second day of next month
+     */
+    public static boolean isComplete(YearMonth month, LocalDate today) {
+        return month.atEndOfMonth().plusDays(1).isBefore(today);
+    }
+
+    /**
+     * Returns the stored rollup for the given key, computing it via the given loader if it isn't stored yet. A rollup computed from an index that
+     * changed in the meantime is not stored.
+     * 
+     * @param key
+     * @param loader
+     * @return Summary of the month
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     * @should compute rollup only once
+     * @should recompute rollup if index version changed
+     */
+    public StatisticsSummary get(String key, RollupLoader loader) throws PresentationException, IndexUnreachableException {
+        try {
+            return rollups.get(key, loader::load, summary -> true);
+        } catch (PresentationException | IndexUnreachableException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            // RollupLoader doesn't throw any other checked exceptions
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Removes all stored rollups.
+     * 
+     * @return Number of removed rollups
+     */
+    public int clear() {
+        return rollups.clear();
+    }
+
+    /**
+     * 
+     * @return Number of stored rollups
+     */
+    public int getSize() {
+        return rollups.getSize();
+    }
+}
@@ -23,6 +23,7 @@ package io.goobi.viewer.model.statistics.usage;
 
 import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -39,7 +40,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.solr.common.SolrDocument;
-import org.apache.solr.common.SolrDocumentList;
 
 import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.dao.IDAO;
@@ -72,13 +72,19 @@ public class StatisticsSummaryBuilder {
      */
     private final SolrSearchIndex searchIndex;
 
+    /**
+     * Rollups of completed months
+     */
+    private final MonthlyStatisticsCache monthlyCache;
+
     /**
      * Constructor using instances from {@link DataManager}
      * 
      * @throws DAOException
      */
     public StatisticsSummaryBuilder() throws DAOException {
-        this(DataManager.getInstance().getDao(), DataManager.getInstance().getSearchIndex());
+        this(DataManager.getInstance().getDao(), DataManager.getInstance().getSearchIndex(),
+                DataManager.getInstance().getMonthlyStatisticsCache());
     }
 
     /**
@@ -88,8 +94,20 @@ public class StatisticsSummaryBuilder {
      * @param searchIndex the {@link SolrSearchIndex} to set
      */
     public StatisticsSummaryBuilder(IDAO dao, SolrSearchIndex searchIndex) {
+        this(dao, searchIndex, new MonthlyStatisticsCache(MonthlyStatisticsCache.DEFAULT_MAX_ENTRIES,
+                MonthlyStatisticsCache.DEFAULT_VERSION_CHECK_INTERVAL, () -> searchIndex.getIndexVersion()));
+    }
+
+    /**
+     * 
+     * @param dao the {@link IDAO} to set. May be null since it isn't used
+     * @param searchIndex the {@link SolrSearchIndex} to set
+     * @param monthlyCache the {@link MonthlyStatisticsCache} to use for completed months
+     */
+    public StatisticsSummaryBuilder(IDAO dao, SolrSearchIndex searchIndex, MonthlyStatisticsCache monthlyCache) {
         this.dao = dao;
         this.searchIndex = searchIndex;
+        this.monthlyCache = monthlyCache;
     }
 
     /**
@@ -113,6 +131,22 @@ public class StatisticsSummaryBuilder {
      * @throws PresentationException
      */
     private StatisticsSummary loadFromSolr(StatisticsSummaryFilter filter) throws IndexUnreachableException, PresentationException {
+        return loadFromSolr(filter, LocalDate.now());
+    }
+
+    /**
+     * Sums up the daily statistics matching the given filter. Completed months that lie entirely within the filter's date range are taken from
+     * (or added to) the monthly rollups; all other days are aggregated from the daily statistics documents, which are streamed in batches.
+     * 
+     * @param filter
+     * @param today
+     * @return {@link StatisticsSummary}
+     * @throws IndexUnreachableException
+     * @throws PresentationException
+     * @should use monthly rollup for completed months
+     * @should not use monthly rollup for incomplete months
+     */
+    StatisticsSummary loadFromSolr(StatisticsSummaryFilter filter, LocalDate today) throws IndexUnreachableException, PresentationException {
         List<String> identifiersToInclude = getFilteredIdentifierList(filter);
         if (filter.hasFilterQuery() && identifiersToInclude.isEmpty()) {
             throw new WebApplicationException("No records found matching filter " + filter.getFilterQuery());
@@ -121,10 +155,51 @@ public class StatisticsSummaryBuilder {
         if (!fields.isEmpty()) {
             fields.add(StatisticsLuceneFields.DATE);
         }
-        SolrDocumentList docs =
-                // search(getSolrQuery(filter), fields);
-                this.searchIndex.search(getSolrQuery(filter), fields);
-        return docs.stream().reduce(StatisticsSummary.empty(), this::add, StatisticsSummary::add);
+        if (!filter.isDateRange()) {
+            return aggregate(getSolrQuery(filter), fields);
+        }
+
+        StatisticsSummary ret = StatisticsSummary.empty();
+        // Start of a range of days not covered by monthly rollups that still needs to be queried
+        LocalDate pendingStart = null;
+        LocalDate day = filter.getStartDate();
+        while (!day.isAfter(filter.getEndDate())) {
+            YearMonth month = YearMonth.from(day);
+            boolean fullMonth = day.getDayOfMonth() == 1 && !month.atEndOfMonth().isAfter(filter.getEndDate());
+            if (fullMonth && MonthlyStatisticsCache.isComplete(month, today)) {
+                if (pendingStart != null) {
+                    ret = ret.add(aggregate(getSolrQuery(pendingStart, day.minusDays(1)), fields));
+                    pendingStart = null;
+                }
+                String key = MonthlyStatisticsCache.buildKey(month, filter.getFilterQuery(), identifiersToInclude);
+                LocalDate monthStart = day;
+                ret = ret.add(monthlyCache.get(key, () -> aggregate(getSolrQuery(monthStart, month.atEndOfMonth()), fields)));
+            } else if (pendingStart == null) {
+                pendingStart = day;
+            }
+            day = month.plusMonths(1).atDay(1);
+        }
+        if (pendingStart != null) {
+            ret = ret.add(aggregate(getSolrQuery(pendingStart, filter.getEndDate()), fields));
+        }
+
+        return ret;
+    }
+
+    /**
+     * Streams all daily statistics documents matching the given query and sums up their counts, so that only one batch of documents is held in
+     * memory at a time.
+     * 
+     * @param query
+     * @param fields
+     * @return {@link StatisticsSummary}
+     * @throws IndexUnreachableException
+     * @throws PresentationException
+     */
+    private StatisticsSummary aggregate(String query, List<String> fields) throws PresentationException, IndexUnreachableException {
+        StatisticsSummary[] ret = { StatisticsSummary.empty() };
+        this.searchIndex.stream(query, null, fields, doc -> ret[0] = add(ret[0], doc));
+        return ret[0];
     }
 
     /**
@@ -220,19 +295,13 @@ public class StatisticsSummaryBuilder {
     }
 
     private static String getSolrQuery(StatisticsSummaryFilter filter) {
+        if (filter.isDateRange()) {
+            return getSolrQuery(filter.getStartDate(), filter.getEndDate());
+        }
+
         StringBuilder sb = new StringBuilder();
         sb.append("+").append(SolrConstants.DOCTYPE).append(":").append(StatisticsLuceneFields.USAGE_STATISTICS_DOCTYPE);
-
-        if (filter.isDateRange()) {
-            sb.append(" +")
-                    .append(StatisticsLuceneFields.DATE)
-                    .append(":")
-                    .append("[")
-                    .append(StatisticsLuceneFields.SOLR_DATE_FORMATTER.format(filter.getStartDate().atStartOfDay()))
-                    .append(" TO ")
-                    .append(StatisticsLuceneFields.SOLR_DATE_FORMATTER.format(filter.getEndDate().atStartOfDay()))
-                    .append("]");
-        } else if (filter.hasStartDateRestriction()) {
+        if (filter.hasStartDateRestriction()) {
             sb.append(" +")
                     .append(StatisticsLuceneFields.DATE)
                     .append(":")
@@ -243,6 +312,20 @@ public class StatisticsSummaryBuilder {
         return sb.toString();
     }
 
+    private static String getSolrQuery(LocalDate startDate, LocalDate endDate) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("+").append(SolrConstants.DOCTYPE).append(":").append(StatisticsLuceneFields.USAGE_STATISTICS_DOCTYPE);
+        sb.append(" +")
+                .append(StatisticsLuceneFields.DATE)
+                .append(":")
+                .append("[")
+                .append(StatisticsLuceneFields.SOLR_DATE_FORMATTER.format(startDate.atStartOfDay()))
+                .append(" TO ")
+                .append(StatisticsLuceneFields.SOLR_DATE_FORMATTER.format(endDate.atStartOfDay()))
+                .append("]");
+        return sb.toString();
+    }
+
     /**
      * 
      * @param filter
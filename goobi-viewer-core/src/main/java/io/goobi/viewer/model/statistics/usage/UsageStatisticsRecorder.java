@@ -22,7 +22,16 @@
 package io.goobi.viewer.model.statistics.usage;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
@@ -36,7 +45,9 @@ import io.goobi.viewer.dao.IDAO;
 import io.goobi.viewer.exceptions.DAOException;
 
 /**
- * Class to be called on requests to be recorded in usage statistics. Stores and updates usage statistics in database on each request
+ * Class to be called on requests to be recorded in usage statistics. Request counts are aggregated in memory and written to the database
+ * periodically (see {@link Configuration#getStatisticsFlushInterval()}) and on {@link #shutdown()}, so at most one flush interval of data can be
+ * lost if the application terminates unexpectedly.
  * 
  * @author florian
  */
@@ -59,9 +70,17 @@ public class UsageStatisticsRecorder {
      */
     private final String viewerName;
     /**
-     * Locks all calls to {@link #recordRequest(RequestType, String, String, String, String)}
+     * Request counts that have not been written to the database yet, per day
      */
-    private final Object dailyStatisticsLock = new Object();
+    private final ConcurrentMap<LocalDate, PendingDailyCounts> pendingCounts = new ConcurrentHashMap<>();
+    /**
+     * Serializes calls to {@link #flush()}
+     */
+    private final Object flushLock = new Object();
+    /**
+     * Calls {@link #flush()} periodically; started with the first recorded request
+     */
+    private volatile ScheduledExecutorService flushScheduler = null;
 
     /**
      * Default constructor
@@ -101,32 +120,115 @@ public class UsageStatisticsRecorder {
     }
 
     /**
-     * Add a request to the internal request counts
+     * Add a request to the internal request counts. No database access takes place here; the counts are written by {@link #flush()}.
      * 
      * @param type the {@link RequestType} for which to count the request
      * @param recordIdentifier the record identifier requested by the request
      * @param sessionID The session issuing this request
      * @param userAgent the 'User-Agent' header value of the request
      * @param clientIP The IP Address from which the request is issued
+     * @should not write to database before flush
      */
     protected void recordRequest(RequestType type, String recordIdentifier, String sessionID, String userAgent, String clientIP) {
-        if (sessionID != null) {
-            synchronized (dailyStatisticsLock) {
-                try {
-                    LocalDate date = LocalDate.now();
-                    DailySessionUsageStatistics stats = getStatistics(date);
-                    if (stats == null) {
-                        stats = initStatistics(date);
-                    }
-                    SessionUsageStatistics session = stats.getSession(sessionID);
-                    if (session == null) {
-                        session = new SessionUsageStatistics(sessionID, userAgent, clientIP);
-                        stats.addSession(session);
-                    }
-                    session.incrementRequestCount(type, recordIdentifier);
-                    updateStatistics(stats);
-                } catch (DAOException e) {
-                    logger.error("Unable to record update usage statistics: {}", e.toString());
+        if (sessionID != null && recordIdentifier != null) {
+            startFlushScheduler();
+            pendingCounts.computeIfAbsent(LocalDate.now(), date -> new PendingDailyCounts())
+                    .getSession(sessionID, userAgent, clientIP)
+                    .increment(type, recordIdentifier);
+        }
+    }
+
+    /**
+     * Writes all pending request counts to the database. Days other than the current one are removed from memory once written, so that a
+     * request counted just before midnight still ends up in the statistics of the previous day.
+     * 
+     * @should write pending counts to database
+     * @should add counts to existing statistics
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            LocalDate today = LocalDate.now();
+            for (Map.Entry<LocalDate, PendingDailyCounts> entry : new ArrayList<>(pendingCounts.entrySet())) {
+                PendingDailyCounts pending = entry.getValue();
+                // Requests recorded on a day that has already ended may still be in progress. Only drop the day when a flush
+                // after the rollover did not find any new counts.
+                boolean written = flush(entry.getKey(), pending);
+                if (!entry.getKey().equals(today) && !written) {
+                    pendingCounts.remove(entry.getKey(), pending);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the periodic flushing and writes all pending request counts to the database. To be called on application shutdown.
+     */
+    public void shutdown() {
+        ScheduledExecutorService scheduler = flushScheduler;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            flushScheduler = null;
+        }
+        flush();
+    }
+
+    /**
+     * Writes the pending counts for the given date to the database. Counts which could not be written are kept for the next attempt.
+     * 
+     * @param date
+     * @param pending
+     * @return true if any counts were written; false otherwise
+     */
+    private boolean flush(LocalDate date, PendingDailyCounts pending) {
+        List<DrainedCount> drained = pending.drain();
+        if (drained.isEmpty()) {
+            return false;
+        }
+
+        try {
+            DailySessionUsageStatistics stats = getStatistics(date);
+            if (stats == null) {
+                stats = initStatistics(date);
+            }
+            for (DrainedCount count : drained) {
+                SessionUsageStatistics session = stats.getSession(count.session.sessionId);
+                if (session == null) {
+                    session = new SessionUsageStatistics(count.session.sessionId, count.session.userAgent, count.session.clientIP);
+                    stats.addSession(session);
+                }
+                session.setRecordRequectCount(count.type, count.recordIdentifier,
+                        session.getRecordRequestCount(count.type, count.recordIdentifier) + count.count);
+            }
+            if (updateStatistics(stats)) {
+                return true;
+            }
+            logger.error("Unable to update usage statistics for {}", date);
+        } catch (DAOException | IllegalArgumentException e) {
+            logger.error("Unable to update usage statistics: {}", e.toString());
+        }
+
+        // Put the counts back so that they are written with the next flush
+        for (DrainedCount count : drained) {
+            count.session.increment(count.type, count.recordIdentifier, count.count);
+        }
+        return true;
+    }
+
+    /**
+     * Starts {@link #flushScheduler} if not yet running.
+     */
+    private void startFlushScheduler() {
+        if (flushScheduler == null) {
+            synchronized (flushLock) {
+                if (flushScheduler == null) {
+                    long interval = Math.max(1, config.getStatisticsFlushInterval());
+                    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread thread = new Thread(r, "usage-statistics-flush");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    scheduler.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.SECONDS);
+                    flushScheduler = scheduler;
                 }
             }
         }
@@ -171,4 +273,87 @@ public class UsageStatisticsRecorder {
         return stats;
     }
 
+    /**
+     * In-memory request counts for all sessions of a single day.
+     */
+    private static class PendingDailyCounts {
+
+        private final ConcurrentMap<String, PendingSessionCounts> sessions = new ConcurrentHashMap<>();
+
+        PendingSessionCounts getSession(String sessionId, String userAgent, String clientIP) {
+            PendingSessionCounts ret = sessions.get(sessionId);
+            if (ret == null) {
+                ret = sessions.computeIfAbsent(sessionId, id -> new PendingSessionCounts(id, userAgent, clientIP));
+            }
+            return ret;
+        }
+
+        /**
+         * Resets all counts to zero and returns their previous values.
+         * 
+         * @return List of non-zero counts
+         */
+        List<DrainedCount> drain() {
+            List<DrainedCount> ret = new ArrayList<>();
+            for (PendingSessionCounts session : sessions.values()) {
+                for (Map.Entry<String, AtomicLongArray> entry : session.recordCounts.entrySet()) {
+                    AtomicLongArray counts = entry.getValue();
+                    for (RequestType type : RequestType.values()) {
+                        long count = counts.getAndSet(type.ordinal(), 0);
+                        if (count > 0) {
+                            ret.add(new DrainedCount(session, entry.getKey(), type, count));
+                        }
+                    }
+                }
+            }
+            return ret;
+        }
+    }
+
+    /**
+     * In-memory request counts of a single session, per record identifier and {@link RequestType}.
+     */
+    private static class PendingSessionCounts {
+
+        private final String sessionId;
+        private final String userAgent;
+        private final String clientIP;
+        private final ConcurrentMap<String, AtomicLongArray> recordCounts = new ConcurrentHashMap<>();
+
+        PendingSessionCounts(String sessionId, String userAgent, String clientIP) {
+            this.sessionId = sessionId;
+            this.userAgent = userAgent;
+            this.clientIP = clientIP;
+        }
+
+        void increment(RequestType type, String recordIdentifier) {
+            increment(type, recordIdentifier, 1);
+        }
+
+        void increment(RequestType type, String recordIdentifier, long delta) {
+            AtomicLongArray counts = recordCounts.get(recordIdentifier);
+            if (counts == null) {
+                counts = recordCounts.computeIfAbsent(recordIdentifier, id -> new AtomicLongArray(RequestType.values().length));
+            }
+            counts.addAndGet(type.ordinal(), delta);
+        }
+    }
+
+    /**
+     * A count taken from {@link PendingDailyCounts} by {@link PendingDailyCounts#drain()}.
+     */
+    private static class DrainedCount {
+
+        private final PendingSessionCounts session;
+        private final String recordIdentifier;
+        private final RequestType type;
+        private final long count;
+
+        DrainedCount(PendingSessionCounts session, String recordIdentifier, RequestType type, long count) {
+            this.session = session;
+            this.recordIdentifier = recordIdentifier;
+            this.type = type;
+            this.count = count;
+        }
+    }
 }
@@ -0,0 +1,228 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.termbrowsing;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+import de.intranda.metadata.multilanguage.IMetadataValue;
+
+/**
+ * Immutable, sorted dictionary of all browse terms of a browsing menu field (for a given filter query and language). Term names, sort terms,
+ * compare keys, hit counts and translations are kept in parallel arrays; an index maps each filter letter to the ascending positions of its
+ * terms, so that filter letter lists, term counts and individual pages can be determined without querying Solr again.
+ */
+public class BrowseTermDictionary implements Serializable {
+
+    private static final long serialVersionUID = 4316651947386524633L;
+
+    /** Filter value that matches all terms. */
+    private static final String FILTER_ALL = "-";
+    /** Filter value that matches all terms starting with a digit. */
+    private static final String FILTER_NUMERICAL = "0-9";
+
+    private final String[] terms;
+    private final String[] sortTerms;
+    /** Strings used for filtering (sort term or term, with ignored leading characters removed). */
+    private final String[] compareKeys;
+    private final long[] hitCounts;
+    private final IMetadataValue[] translations;
+    /** Filter letters mapped to the ascending positions of the terms starting with that letter. */
+    private final Map<String, int[]> letterIndex;
+
+    /**
+     *
+     * @param sortedTerms Terms in their final display order
+     * @param ignoreLeadingChars Optional leading characters to ignore when determining the filter letter of a term
+     */
+    public BrowseTermDictionary(List<BrowseTerm> sortedTerms, String ignoreLeadingChars) {
+        if (sortedTerms == null) {
+            throw new IllegalArgumentException("sortedTerms may not be null");
+        }
+        int size = sortedTerms.size();
+        this.terms = new String[size];
+        this.sortTerms = new String[size];
+        this.compareKeys = new String[size];
+        this.hitCounts = new long[size];
+        this.translations = new IMetadataValue[size];
+
+        Map<String, List<Integer>> positions = new HashMap<>();
+        for (int i = 0; i < size; ++i) {
+            BrowseTerm term = sortedTerms.get(i);
+            terms[i] = term.getTerm();
+            sortTerms[i] = term.getSortTerm();
+            hitCounts[i] = term.getHitCount();
+            translations[i] = term.getTranslations();
+            compareKeys[i] = getCompareKey(term, ignoreLeadingChars);
+            String letter = getFilterLetter(compareKeys[i]);
+            if (letter != null) {
+                positions.computeIfAbsent(letter, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        Map<String, int[]> index = new HashMap<>(positions.size());
+        for (Map.Entry<String, List<Integer>> entry : positions.entrySet()) {
+            index.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        this.letterIndex = Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * Returns the string used for filtering the given term, i.e. its sort term (or the term itself, if there is none), with configured leading
+     * characters removed.
+     *
+     * @param term
+     * @param ignoreLeadingChars Optional leading characters to ignore
+     * @return Compare key; null if term has no value
+     * @should prefer sort term
+     * @should remove ignored leading chars
+     */
+    static String getCompareKey(BrowseTerm term, String ignoreLeadingChars) {
+        String ret = StringUtils.isNotEmpty(term.getSortTerm()) ? term.getSortTerm() : term.getTerm();
+        if (StringUtils.isEmpty(ret)) {
+            return null;
+        }
+        if (StringUtils.isNotEmpty(ignoreLeadingChars)) {
+            ret = BrowseTermComparator.normalizeString(ret, ignoreLeadingChars).trim();
+        }
+
+        return ret;
+    }
+
+    /**
+     *
+     * @param compareKey
+     * @return Upper case first character of the given compare key; null if the key is empty
+     */
+    static String getFilterLetter(String compareKey) {
+        if (StringUtils.isEmpty(compareKey)) {
+            return null;
+        }
+
+        return compareKey.substring(0, 1).toUpperCase();
+    }
+
+    /**
+     *
+     * @return Unsorted list of all letters that may be used as filters
+     * @should return all distinct first letters
+     */
+    public List<String> getFilterLetters() {
+        List<String> ret = new ArrayList<>(letterIndex.size());
+        for (String letter : letterIndex.keySet()) {
+            if (!FILTER_ALL.equals(letter)) {
+                ret.add(letter);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     *
+     * @param startsWith Optional filter; an empty value or "-" matches all terms, "0-9" matches all terms starting with a digit
+     * @return Number of terms matching the given filter
+     * @should return total size if no filter given
+     * @should return number of terms matching filter
+     */
+    public int getTermCount(String startsWith) {
+        int[] positions = getPositions(startsWith);
+        return positions != null ? positions.length : terms.length;
+    }
+
+    /**
+     * Returns a page of terms matching the given filter.
+     *
+     * @param startsWith Optional filter; an empty value or "-" matches all terms, "0-9" matches all terms starting with a digit
+     * @param start Index of the first matching term to return
+     * @param rows Maximum number of terms to return
+     * @return List of {@link BrowseTerm}s
+     * @should return requested page
+     * @should filter by letter
+     * @should filter by prefix
+     * @should filter numerical terms
+     */
+    public List<BrowseTerm> getTerms(String startsWith, int start, int rows) {
+        int[] positions = getPositions(startsWith);
+        int total = positions != null ? positions.length : terms.length;
+        int end = (int) Math.min(total, (long) Math.max(start, 0) + Math.max(rows, 0));
+        if (start < 0 || start >= end) {
+            return Collections.emptyList();
+        }
+
+        List<BrowseTerm> ret = new ArrayList<>(end - start);
+        for (int i = start; i < end; ++i) {
+            int pos = positions != null ? positions[i] : i;
+            ret.add(new BrowseTerm(terms[pos], sortTerms[pos], translations[pos]).setHitCount(hitCounts[pos]));
+        }
+
+        return ret;
+    }
+
+    /**
+     *
+     * @param startsWith
+     * @return Ascending positions of all terms matching the given filter; null if all terms match
+     */
+    private int[] getPositions(String startsWith) {
+        if (StringUtils.isEmpty(startsWith) || FILTER_ALL.equals(startsWith)) {
+            return null;
+        }
+
+        if (FILTER_NUMERICAL.equals(startsWith)) {
+            // Merge the positions of all digits
+            int[] ret = letterIndex.entrySet()
+                    .stream()
+                    .filter(e -> Character.isDigit(e.getKey().charAt(0)))
+                    .flatMapToInt(e -> Arrays.stream(e.getValue()))
+                    .toArray();
+            Arrays.sort(ret);
+            return ret;
+        }
+
+        int[] letterPositions = letterIndex.get(getFilterLetter(startsWith));
+        if (letterPositions == null) {
+            return new int[0];
+        }
+        if (startsWith.length() == 1) {
+            return letterPositions;
+        }
+
+        // Longer prefixes: only check the terms starting with the same letter
+        return Arrays.stream(letterPositions).filter(pos -> StringUtils.startsWithIgnoreCase(compareKeys[pos], startsWith)).toArray();
+    }
+
+    /**
+     *
+     * @return Total number of terms
+     */
+    public int getSize() {
+        return terms.length;
+    }
+}
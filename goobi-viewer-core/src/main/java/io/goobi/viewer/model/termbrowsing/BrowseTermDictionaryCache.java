@@ -0,0 +1,143 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.termbrowsing;
+
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+
+import io.goobi.viewer.exceptions.IndexUnreachableException;
+import io.goobi.viewer.exceptions.PresentationException;
+import io.goobi.viewer.solr.IndexVersionedCache;
+
+/**
+ * Application-scoped cache for {@link BrowseTermDictionary} instances. The key contains the browsing menu field, language, filter queries and
+ * the access condition suffix of the requesting client, so clients with the same access rights share one dictionary.
+ * <p>
+ * Dictionaries are only rebuilt when they're requested again after the Solr index version has changed. Since neither deleted records nor
+ * aggregated hit counts can be derived from an index delta, a changed dictionary is rebuilt completely, but in the background: until the new
+ * dictionary is available, requests are answered from the previous one.
+ */
+public class BrowseTermDictionaryCache {
+
+    /**
+     * Builds a term dictionary if it is not cached.
+     */
+    @FunctionalInterface
+    public interface DictionaryLoader {
+        /**
+         *
+         * @return Loaded {@link BrowseTermDictionary}
+         * @throws PresentationException
+         * @throws IndexUnreachableException
+         */
+        BrowseTermDictionary load() throws PresentationException, IndexUnreachableException;
+    }
+
+    private final IndexVersionedCache<BrowseTermDictionary> cache;
+
+    /**
+     *
+     * @param maxEntries Maximum number of cached dictionaries; the least recently used one is removed when exceeded
+     * @param versionCheckInterval Minimum interval between index version checks in milliseconds
+     * @param indexVersionSupplier Returns the current index version or a negative value if unknown
+     * @param refreshExecutor Executor for rebuilding outdated dictionaries in the background
+     */
+    public BrowseTermDictionaryCache(int maxEntries, long versionCheckInterval, LongSupplier indexVersionSupplier, Executor refreshExecutor) {
+        if (refreshExecutor == null) {
+            throw new IllegalArgumentException("refreshExecutor may not be null");
+        }
+        this.cache = new IndexVersionedCache<>("term dictionaries", maxEntries, Long.MAX_VALUE, versionCheckInterval, indexVersionSupplier,
+                refreshExecutor);
+    }
+
+    /**
+     *
+     * @param bmfc Browsing menu field configuration
+     * @param filterQuery Additional filter query
+     * @param language Language for language-specific fields and translations
+     * @param querySuffix Access condition and other query suffixes of the requesting client
+     * @return Cache key
+     * @should return different keys for different suffixes
+     */
+    public static String buildKey(BrowsingMenuFieldConfig bmfc, String filterQuery, String language, String querySuffix) {
+        return new StringBuilder().append(bmfc.getFieldForLanguage(language))
+                .append('|')
+                .append(bmfc.getSortField())
+                .append('|')
+                .append(bmfc.isRecordsAndAnchorsOnly())
+                .append('|')
+                .append(bmfc.isTranslate())
+                .append('|')
+                .append(bmfc.getFilterQueries())
+                .append('|')
+                .append(language)
+                .append('|')
+                .append(filterQuery)
+                .append('|')
+                .append(querySuffix)
+                .toString();
+    }
+
+    /**
+     * Returns the cached dictionary for the given key, building it via the given loader if it isn't cached yet. Concurrent requests for the same
+     * key wait for the first one to finish instead of building the dictionary again. Empty dictionaries are not cached. If the index has changed
+     * since the dictionary was built, the previous dictionary is returned and a new one is built in the background. The loader must therefore
+     * not depend on the current request.
+     *
+     * @param key
+     * @param loader
+     * @return {@link BrowseTermDictionary}
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     * @should build dictionary only once
+     * @should not cache empty dictionaries
+     * @should rebuild dictionary if index version changed
+     * @should return previous dictionary while rebuilding
+     */
+    public BrowseTermDictionary get(String key, DictionaryLoader loader) throws PresentationException, IndexUnreachableException {
+        try {
+            return cache.get(key, loader::load, dictionary -> dictionary.getSize() > 0);
+        } catch (PresentationException | IndexUnreachableException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            // DictionaryLoader doesn't throw any other checked exceptions
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Removes all cached dictionaries.
+     *
+     * @return Number of removed dictionaries
+     */
+    public int clear() {
+        return cache.clear();
+    }
+
+    /**
+     *
+     * @return Number of cached dictionaries
+     */
+    public int getSize() {
+        return cache.getSize();
+    }
+}
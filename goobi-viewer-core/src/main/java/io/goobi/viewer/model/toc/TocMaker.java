@@ -654,23 +654,18 @@ public final class TocMaker {
                     .toString();
             // logger.trace("Child doc query: {}", query); //NOSONAR Debug
             // TODO determine child docstruct type before fetching the child docs to determine the required fields
-            SolrDocumentList docs = DataManager.getInstance()
+            long found = DataManager.getInstance()
                     .getSearchIndex()
-                    .search(query, 0, SolrSearchIndex.MAX_HITS, Collections.singletonList(new StringPair(SolrConstants.THUMBPAGENO, "asc")), null,
-                            null)
-                    .getResults();
-            logger.trace("Real children: {} (found: {})", query, docs.size());
-            if (!docs.isEmpty()) {
-                for (SolrDocument childDoc : docs) {
-                    String iddocParent = (String) childDoc.getFieldValue(SolrConstants.IDDOC_PARENT);
-                    if (iddocParent != null) {
-                        List<SolrDocument> children = childrenMap.computeIfAbsent(iddocParent, k -> new ArrayList<>());
-                        children.add(childDoc);
-                    } else {
-                        logger.warn("Document {} has no {}", childDoc.getFieldValue(SolrConstants.IDDOC), SolrConstants.IDDOC_PARENT);
-                    }
-                }
-            }
+                    .stream(query, Collections.singletonList(new StringPair(SolrConstants.THUMBPAGENO, "asc")), null, childDoc -> {
+                        String iddocParent = (String) childDoc.getFieldValue(SolrConstants.IDDOC_PARENT);
+                        if (iddocParent != null) {
+                            List<SolrDocument> children = childrenMap.computeIfAbsent(iddocParent, k -> new ArrayList<>());
+                            children.add(childDoc);
+                        } else {
+                            logger.warn("Document {} has no {}", childDoc.getFieldValue(SolrConstants.IDDOC), SolrConstants.IDDOC_PARENT);
+                        }
+                    });
+            logger.trace("Real children: {} (found: {})", query, found);
         }
 
         // Add current doc and recursively build the tree from the children map
@@ -0,0 +1,113 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.viewer.collections;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+import io.goobi.viewer.exceptions.IndexUnreachableException;
+import io.goobi.viewer.model.search.CollectionResult;
+import io.goobi.viewer.solr.IndexVersionedCache;
+
+/**
+ * Application-scoped cache for collection hierarchies, i.e. the collection names of a field together with their (aggregated) record counts. The
+ * key contains the complete Solr query including the access condition suffix of the requesting client, so all clients with the same access
+ * rights share one immutable snapshot per field and filter combination instead of querying Solr in each session. All snapshots are discarded
+ * once the Solr index version changes.
+ */
+public class CollectionHierarchyCache {
+
+    /**
+     * Computes a collection hierarchy if it is not cached.
+     */
+    @FunctionalInterface
+    public interface CollectionLoader {
+        /**
+         *
+         * @return Collection names mapped to their results
+         * @throws IndexUnreachableException
+         */
+        Map<String, CollectionResult> load() throws IndexUnreachableException;
+    }
+
+    private final IndexVersionedCache<Map<String, CollectionResult>> cache;
+
+    /**
+     *
+     * @param maxEntries Maximum number of cached hierarchies; the least recently used one is removed when exceeded
+     * @param versionCheckInterval Minimum interval between index version checks in milliseconds
+     * @param indexVersionSupplier Returns the current index version or a negative value if unknown
+     */
+    public CollectionHierarchyCache(int maxEntries, long versionCheckInterval, LongSupplier indexVersionSupplier) {
+        this.cache = new IndexVersionedCache<>("collection hierarchies", maxEntries, versionCheckInterval, indexVersionSupplier);
+    }
+
+    /**
+     *
+     * @param field Collection field
+     * @param groupingField Optional grouping field; may be null
+     * @param query Complete Solr query used to determine the collections
+     * @param splittingChar Hierarchy separator
+     * @return Cache key
+     * @should return different keys for different queries
+     */
+    public static String buildKey(String field, String groupingField, String query, String splittingChar) {
+        return field + '|' + (groupingField != null ? groupingField : "") + '|' + splittingChar + '|' + query;
+    }
+
+    /**
+     * Returns the cached hierarchy for the given key, loading it via the given loader if it isn't cached yet. Concurrent requests for the same
+     * key wait for the first one to finish instead of loading the hierarchy again. Empty results are not cached, since they are also returned
+     * if Solr could not be queried.
+     *
+     * @param key
+     * @param loader
+     * @return Unmodifiable map of collection names to results, sorted by name
+     * @throws IndexUnreachableException
+     * @should load hierarchy only once
+     * @should return sorted unmodifiable map
+     * @should not cache empty results
+     * @should reload hierarchy if index version changed
+     */
+    public Map<String, CollectionResult> get(String key, CollectionLoader loader) throws IndexUnreachableException {
+        return cache.get(key, () -> Collections.unmodifiableMap(new TreeMap<>(loader.load())), hierarchy -> !hierarchy.isEmpty());
+    }
+
+    /**
+     * Removes all cached hierarchies.
+     *
+     * @return Number of removed hierarchies
+     */
+    public int clear() {
+        return cache.clear();
+    }
+
+    /**
+     *
+     * @return Number of cached hierarchies
+     */
+    public int getSize() {
+        return cache.getSize();
+    }
+}
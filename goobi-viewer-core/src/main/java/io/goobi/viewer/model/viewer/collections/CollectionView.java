@@ -131,6 +131,8 @@ public class CollectionView implements Serializable {
                 List<String> list = new ArrayList<>(dcStrings.keySet());
                 Map<String, String> sortFields = DataManager.getInstance().getConfiguration().getCollectionDefaultSortFields(field);
                 Collections.sort(list);
+                String applicationUrl =
+                        DataManager.getInstance().getRestApiManager().getContentApiManager().map(urls -> urls.getApplicationUrl()).orElse(null);
                 for (String dcName : list) {
                     String collectionName = dcName.intern();
                     long collectionSize = dcStrings.get(dcName).getCount();
@@ -143,9 +145,6 @@ public class CollectionView implements Serializable {
                         dc.setShowSubElements(true);
                     }
 
-                    String applicationUrl =
-                            DataManager.getInstance().getRestApiManager().getContentApiManager().map(urls -> urls.getApplicationUrl()).orElse(null);
-
                     // Set single record PI if collection has one one record
                     if (collectionSize == 1 && StringUtils.isNotBlank(applicationUrl)) {
                         String recordUrl = UriBuilder.fromPath("/browse/{field}/{collection}/record/").build(field, dcName).toString();
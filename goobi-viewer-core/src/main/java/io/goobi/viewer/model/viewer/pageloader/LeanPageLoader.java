@@ -32,7 +32,6 @@ import javax.faces.model.SelectItem;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 
 import io.goobi.viewer.controller.DataManager;
@@ -45,7 +44,6 @@ import io.goobi.viewer.model.viewer.StringPair;
 import io.goobi.viewer.model.viewer.StructElement;
 import io.goobi.viewer.solr.SolrConstants;
 import io.goobi.viewer.solr.SolrConstants.DocType;
-import io.goobi.viewer.solr.SolrSearchIndex;
 
 /**
  * Memory-saving page loader that only loads one page at a time.
@@ -159,26 +157,25 @@ public class LeanPageLoader extends AbstractPageLoader implements Serializable {
                     .append(SolrConstants.DOCTYPE)
                     .append(':')
                     .append(DocType.PAGE);
-            SolrDocumentList result = DataManager.getInstance()
-                    .getSearchIndex()
-                    .search(sbQuery.toString(), SolrSearchIndex.MAX_HITS, Collections.singletonList(new StringPair(SolrConstants.ORDER, "asc")),
-                            Arrays.asList(SELECT_ITEM_FIELDS));
             String labelTemplate = buildPageLabelTemplate(DataManager.getInstance().getConfiguration().getPageSelectionFormat(), locale);
-            for (SolrDocument doc : result) {
-                int order = (Integer) doc.getFieldValue(SolrConstants.ORDER);
-                String orderLabel = (String) doc.getFieldValue(SolrConstants.ORDERLABEL);
-                boolean fulltextAvailable =
-                        doc.containsKey(SolrConstants.FULLTEXTAVAILABLE) ? (boolean) doc.getFieldValue(SolrConstants.FULLTEXTAVAILABLE) : false;
-                StringBuilder sbPurlPart = new StringBuilder();
-                sbPurlPart.append('/').append(pi).append('/').append(order).append('/');
+            DataManager.getInstance()
+                    .getSearchIndex()
+                    .stream(sbQuery.toString(), Collections.singletonList(new StringPair(SolrConstants.ORDER, "asc")),
+                            Arrays.asList(SELECT_ITEM_FIELDS), doc -> {
+                                int order = (Integer) doc.getFieldValue(SolrConstants.ORDER);
+                                String orderLabel = (String) doc.getFieldValue(SolrConstants.ORDERLABEL);
+                                boolean fulltextAvailable = doc.containsKey(SolrConstants.FULLTEXTAVAILABLE)
+                                        ? (boolean) doc.getFieldValue(SolrConstants.FULLTEXTAVAILABLE) : false;
+                                StringBuilder sbPurlPart = new StringBuilder();
+                                sbPurlPart.append('/').append(pi).append('/').append(order).append('/');
 
-                SelectPageItem siPage = buildPageSelectItem(labelTemplate, order, orderLabel, null, null);
-                dropdownPages.add(siPage);
-                if (dropdownFulltext != null && !(recordBelowFulltextThreshold && !fulltextAvailable)) {
-                    SelectPageItem siFull = buildPageSelectItem(labelTemplate, order, orderLabel, null, null);
-                    dropdownFulltext.add(siFull);
-                }
-            }
+                                SelectPageItem siPage = buildPageSelectItem(labelTemplate, order, orderLabel, null, null);
+                                dropdownPages.add(siPage);
+                                if (dropdownFulltext != null && !(recordBelowFulltextThreshold && !fulltextAvailable)) {
+                                    SelectPageItem siFull = buildPageSelectItem(labelTemplate, order, orderLabel, null, null);
+                                    dropdownFulltext.add(siFull);
+                                }
+                            });
         } catch (PresentationException e) {
             logger.debug(StringConstants.LOG_PRESENTATION_EXCEPTION_THROWN_HERE, e.getMessage());
         }
@@ -0,0 +1,542 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.solr;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONObject;
+
+/**
+ * Application-scoped LRU cache for values derived from the Solr index. The cache is bounded by the number of entries and optionally by an
+ * (estimated) memory budget. All entries are discarded once the Solr index version changes; the index version is only requested once per check
+ * interval. Concurrent requests for a value that is not cached yet wait for a single load instead of loading it again.
+ * <p>
+ * If a refresh executor is configured, entries are not discarded when the index version changes but only marked as outdated. Outdated values
+ * are still returned while they are reloaded in the background, so that expensive values don't have to be rebuilt during a request.
+ *
+ * @param <V> Type of the cached values; values are shared between all callers and should therefore be immutable
+ */
+public class IndexVersionedCache<V> {
+
+    private static final Logger logger = LogManager.getLogger(IndexVersionedCache.class);
+
+    /**
+     * Loads a value if it is not cached.
+     *
+     * @param <V> Type of the loaded value
+     * @param <E> Type of the checked exception thrown by the loader
+     */
+    @FunctionalInterface
+    public interface Loader<V, E extends Exception> {
+        /**
+         *
+         * @return Loaded value
+         * @throws E
+         */
+        V load() throws E;
+    }
+
+    private final String name;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long versionCheckInterval;
+    private final LongSupplier indexVersionSupplier;
+    /** Executor for reloading outdated values in the background; null if outdated values are discarded */
+    private final Executor refreshExecutor;
+
+    /** Access-ordered map; the eldest entry is the least recently used one. */
+    private final LinkedHashMap<String, CacheEntry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /** Loads that are currently running, so that concurrent requests for the same key can wait for their result. */
+    private final Map<String, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    private long currentBytes = 0;
+    private long indexVersion = -1;
+    /** Incremented whenever the index version changes; entries from older generations are outdated */
+    private long generation = 0;
+    private final AtomicLong lastVersionCheck = new AtomicLong(0);
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+    private final AtomicLong invalidations = new AtomicLong(0);
+
+    /**
+     * Creates a cache that is only bounded by the number of entries.
+     *
+     * @param name Name used in log messages
+     * @param maxEntries Maximum number of cached values; the least recently used one is removed when exceeded
+     * @param versionCheckInterval Minimum interval between index version checks in milliseconds
+     * @param indexVersionSupplier Returns the current index version or a negative value if unknown
+     */
+    public IndexVersionedCache(String name, int maxEntries, long versionCheckInterval, LongSupplier indexVersionSupplier) {
+        this(name, maxEntries, Long.MAX_VALUE, versionCheckInterval, indexVersionSupplier);
+    }
+
+    /**
+     *
+     * @param name Name used in log messages
+     * @param maxEntries Maximum number of cached values; the least recently used one is removed when exceeded
+     * @param maxBytes Maximum estimated size of all cached values in bytes
+     * @param versionCheckInterval Minimum interval between index version checks in milliseconds
+     * @param indexVersionSupplier Returns the current index version or a negative value if unknown
+     */
+    public IndexVersionedCache(String name, int maxEntries, long maxBytes, long versionCheckInterval, LongSupplier indexVersionSupplier) {
+        this(name, maxEntries, maxBytes, versionCheckInterval, indexVersionSupplier, null);
+    }
+
+    /**
+     *
+     * @param name Name used in log messages
+     * @param maxEntries Maximum number of cached values; the least recently used one is removed when exceeded
+     * @param maxBytes Maximum estimated size of all cached values in bytes
+     * @param versionCheckInterval Minimum interval between index version checks in milliseconds
+     * @param indexVersionSupplier Returns the current index version or a negative value if unknown
+     * @param refreshExecutor Executor for reloading values in the background after the index version has changed; if null, all values are
+     *            discarded instead
+     */
+    public IndexVersionedCache(String name, int maxEntries, long maxBytes, long versionCheckInterval, LongSupplier indexVersionSupplier,
+            Executor refreshExecutor) {
+        if (indexVersionSupplier == null) {
+            throw new IllegalArgumentException("indexVersionSupplier may not be null");
+        }
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.versionCheckInterval = versionCheckInterval;
+        this.indexVersionSupplier = indexVersionSupplier;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * Returns the cached value for the given key. Outdated values are returned as well.
+     *
+     * @param key
+     * @return Cached value; null if not cached
+     * @should return null if not cached
+     * @should count hits and misses
+     */
+    public V get(String key) {
+        CacheEntry<V> entry = getEntry(key);
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     *
+     * @param key
+     * @return Cached entry; null if not cached
+     */
+    private CacheEntry<V> getEntry(String key) {
+        checkIndexVersion();
+        CacheEntry<V> ret;
+        synchronized (entries) {
+            ret = entries.get(key);
+        }
+        if (ret != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the cached value for the given key, loading it via the given loader if it isn't cached yet. Concurrent requests for the same key
+     * wait for the running load and receive its result (or exception) instead of loading the value again. Loaded values are only cached if they
+     * are accepted by <code>cacheable</code>. If a refresh executor is configured, outdated values are returned immediately while a single
+     * reload runs in the background.
+     *
+     * @param key
+     * @param loader
+     * @param cacheable Decides whether a loaded value may be cached; values that are also returned in case of errors (e.g. empty results)
+     *            should not be cached
+     * @return Cached or loaded value
+     * @throws E
+     * @should load value only once for concurrent requests
+     * @should not cache values rejected by predicate
+     * @should pass loader exception to waiting requests
+     * @should return outdated value while reloading it in background
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Exception> V get(String key, Loader<V, E> loader, Predicate<V> cacheable) throws E {
+        CacheEntry<V> entry = getEntry(key);
+        if (entry != null) {
+            if (refreshExecutor != null && isOutdated(entry)) {
+                refresh(key, loader, cacheable);
+            }
+            return entry.value;
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> running = loading.putIfAbsent(key, future);
+        if (running != null) {
+            return await(running, loader);
+        }
+        try {
+            // A load that finished after the first lookup has already added its value
+            V ret = getCached(key);
+            if (ret == null) {
+                ret = load(key, loader, cacheable);
+            }
+            future.complete(ret);
+            return ret;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+            throw (E) e;
+        } finally {
+            // The value is already cached at this point, so requests arriving after the removal won't start another load
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * Reloads the value for the given key in the background, unless it is already being loaded. The outdated value remains in the cache until
+     * the reload is finished; if the reload fails, it is retried on the next request.
+     *
+     * @param key
+     * @param loader
+     * @param cacheable
+     */
+    private <E extends Exception> void refresh(String key, Loader<V, E> loader, Predicate<V> cacheable) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        if (loading.putIfAbsent(key, future) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    future.complete(load(key, loader, cacheable));
+                } catch (Exception e) {
+                    logger.warn("Could not reload outdated entry of {}: {}", name, e.toString());
+                    future.completeExceptionally(e);
+                } finally {
+                    loading.remove(key, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Could not schedule reload of outdated entry of {}: {}", name, e.toString());
+            loading.remove(key, future);
+            future.complete(null);
+        }
+    }
+
+    /**
+     * Loads the value for the given key and adds it to the cache if it is cacheable. The entry belongs to the generation that was current when
+     * the load started, so a value loaded from an index that changed in the meantime is outdated right away.
+     *
+     * @param key
+     * @param loader
+     * @param cacheable
+     * @return Loaded value
+     * @throws E
+     */
+    private <E extends Exception> V load(String key, Loader<V, E> loader, Predicate<V> cacheable) throws E {
+        long loadGeneration = getGeneration();
+        V ret = loader.load();
+        if (ret != null && cacheable.test(ret)) {
+            put(key, ret, 0, loadGeneration);
+        }
+        return ret;
+    }
+
+    /**
+     *
+     * @param entry
+     * @return true if the given entry has been loaded before the last index version change; false otherwise
+     */
+    private boolean isOutdated(CacheEntry<V> entry) {
+        synchronized (entries) {
+            return entry.generation != generation;
+        }
+    }
+
+    /**
+     * Waits for a load started by another request.
+     *
+     * @param running Running load
+     * @param loader Loader used if waiting is interrupted or the running load could not be scheduled
+     * @return Loaded value
+     * @throws E
+     */
+    @SuppressWarnings("unchecked")
+    private static <V, E extends Exception> V await(CompletableFuture<V> running, Loader<V, E> loader) throws E {
+        try {
+            V ret = running.get();
+            return ret != null ? ret : loader.load();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return loader.load();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            if (cause instanceof Error err) {
+                throw err;
+            }
+            throw (E) cause;
+        }
+    }
+
+    /**
+     * Adds the given value to the cache as a value of the current generation, evicting least recently used entries if the size limits are
+     * exceeded. Values that were loaded before this call should be added via {@link #put(String, Object, long, long)} instead.
+     *
+     * @param key
+     * @param value
+     * @param size Estimated size of the value in bytes
+     * @should evict least recently used entries if max entries exceeded
+     * @should evict entries if max size exceeded
+     */
+    public void put(String key, V value, long size) {
+        put(key, value, size, getGeneration());
+    }
+
+    /**
+     * Adds the given value to the cache, evicting least recently used entries if the size limits are exceeded. If the index version has changed
+     * since the given generation was obtained, the value is outdated: it is discarded or, if a refresh executor is configured, added as an
+     * outdated value.
+     *
+     * @param key
+     * @param value
+     * @param size Estimated size of the value in bytes
+     * @param valueGeneration Generation returned by {@link #getGeneration()} before the value was loaded
+     * @should not add value loaded before index version change
+     * @should add outdated value if refresh executor configured
+     */
+    public void put(String key, V value, long size, long valueGeneration) {
+        if (value == null) {
+            return;
+        }
+        // Detect index changes that happened while the value was being loaded
+        checkIndexVersion();
+        synchronized (entries) {
+            if (valueGeneration != generation && refreshExecutor == null) {
+                logger.trace("Index version changed while loading, not adding value to {}.", name);
+                return;
+            }
+            CacheEntry<V> old = entries.put(key, new CacheEntry<>(value, size, valueGeneration));
+            if (old != null) {
+                currentBytes -= old.size;
+            }
+            currentBytes += size;
+            Iterator<Entry<String, CacheEntry<V>>> iterator = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || currentBytes > maxBytes) && iterator.hasNext()) {
+                Entry<String, CacheEntry<V>> eldest = iterator.next();
+                currentBytes -= eldest.getValue().size;
+                iterator.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     *
+     * @param key
+     * @return Cached value; null if not cached
+     */
+    private V getCached(String key) {
+        synchronized (entries) {
+            CacheEntry<V> entry = entries.get(key);
+            return entry != null ? entry.value : null;
+        }
+    }
+
+    /**
+     * Returns the current generation, i.e. the number of index version changes detected so far. Callers that load values themselves obtain the
+     * generation before loading and pass it to {@link #put(String, Object, long, long)}.
+     *
+     * @return Current generation
+     */
+    public long getGeneration() {
+        checkIndexVersion();
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    /**
+     * Clears the cache (or marks all entries as outdated, if a refresh executor is configured) if the index version has changed since the last
+     * check. The index version is only requested once per check interval.
+     *
+     * @should clear cache if index version changed
+     */
+    public void checkIndexVersion() {
+        long now = System.currentTimeMillis();
+        long lastCheck = lastVersionCheck.get();
+        if (now - lastCheck < versionCheckInterval || !lastVersionCheck.compareAndSet(lastCheck, now)) {
+            return;
+        }
+        long version = indexVersionSupplier.getAsLong();
+        synchronized (entries) {
+            if (version < 0 || version != indexVersion) {
+                if (indexVersion != -1) {
+                    logger.debug("Solr index version changed from {} to {}, clearing {}.", indexVersion, version, name);
+                }
+                indexVersion = version;
+                generation++;
+                if (refreshExecutor == null) {
+                    clear();
+                } else if (!entries.isEmpty()) {
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all entries from the cache.
+     *
+     * @return Number of removed entries
+     */
+    public int clear() {
+        synchronized (entries) {
+            int ret = entries.size();
+            entries.clear();
+            currentBytes = 0;
+            if (ret > 0) {
+                invalidations.incrementAndGet();
+            }
+            return ret;
+        }
+    }
+
+    /**
+     *
+     * @return Number of cached values
+     */
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     *
+     * @return Estimated size of all cached values in bytes
+     */
+    public long getSizeInBytes() {
+        synchronized (entries) {
+            return currentBytes;
+        }
+    }
+
+    /**
+     * @return the maxEntries
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * @return the maxBytes
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return the hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return the misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the evictions
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * @return the invalidations
+     */
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    /**
+     *
+     * @return Cache statistics as JSON
+     */
+    public JSONObject getStatisticsAsJson() {
+        JSONObject ret = new JSONObject();
+        ret.put("objects", getSize());
+        ret.put("bytes", getSizeInBytes());
+        ret.put("maxObjects", maxEntries);
+        ret.put("maxBytes", maxBytes);
+        ret.put("hits", getHits());
+        ret.put("misses", getMisses());
+        ret.put("evictions", getEvictions());
+        ret.put("invalidations", getInvalidations());
+        synchronized (entries) {
+            ret.put("indexVersion", indexVersion);
+        }
+        return ret;
+    }
+
+    /**
+     * Cached value, its estimated size and the generation it has been loaded in.
+     *
+     * @param <V>
+     */
+    private static class CacheEntry<V> {
+
+        private final V value;
+        private final long size;
+        private final long generation;
+
+        /**
+         *
+         * @param value
+         * @param size
+         * @param generation
+         */
+        CacheEntry(V value, long size, long generation) {
+            this.value = value;
+            this.size = size;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.solr;
+
+import org.apache.solr.common.SolrDocument;
+
+import io.goobi.viewer.exceptions.IndexUnreachableException;
+import io.goobi.viewer.exceptions.PresentationException;
+
+/**
+ * Functional interface for processing streamed Solr documents one at a time until the handler decides to stop. Used by
+ * {@link SolrSearchIndex#streamWhile(String, java.util.List, java.util.List, SolrDocumentHandler)}, which requests no further documents once
+ * the handler returns false.
+ */
+@FunctionalInterface
+public interface SolrDocumentHandler {
+
+    /**
+     * 
+     * @param doc Current document
+     * @return true to continue with the next document; false to stop streaming
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    boolean handle(SolrDocument doc) throws PresentationException, IndexUnreachableException;
+}
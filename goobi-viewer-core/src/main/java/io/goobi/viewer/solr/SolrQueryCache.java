@@ -0,0 +1,340 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.solr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map.Entry;
+import java.util.TreeSet;
+import java.util.function.LongSupplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrRequest.METHOD;
+import org.apache.solr.client.solrj.response.FacetField;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.util.NamedList;
+import org.json.JSONObject;
+
+/**
+ * Application-scoped LRU cache for Solr query responses. Entries are keyed on the normalized query parameters and the whole cache is invalidated
+ * when the Solr index version changes. The cache is bounded both by the number of entries and by an (estimated) memory budget.
+ * <p>
+ * Cached responses are immutable snapshots that are never handed out. Since callers modify returned documents (e.g. when merging anchor
+ * fields), each cache hit receives its own copy of the documents.
+ */
+public class SolrQueryCache {
+
+    private static final Logger logger = LogManager.getLogger(SolrQueryCache.class);
+
+    /** Parameters whose value order is irrelevant for the result and which are therefore sorted when building the key. */
+    private static final String[] UNORDERED_PARAMS = { CommonParams.FQ, "facet.field" };
+
+    private static final int ESTIMATED_OBJECT_OVERHEAD = 16;
+    private static final int ESTIMATED_FACET_VALUE_SIZE = 64;
+
+    private final IndexVersionedCache<QueryResponse> cache;
+
+    /**
+     *
+     * @param maxEntries Maximum number of cached responses
+     * @param maxBytes Maximum estimated size of all cached responses in bytes
+     * @param versionCheckInterval Minimum interval between index version checks in milliseconds
+     * @param indexVersionSupplier Returns the current index version or a negative value if unknown
+     */
+    public SolrQueryCache(int maxEntries, long maxBytes, long versionCheckInterval, LongSupplier indexVersionSupplier) {
+        this.cache = new IndexVersionedCache<>("query cache", maxEntries, maxBytes, versionCheckInterval, indexVersionSupplier);
+    }
+
+    /**
+     * Returns a copy of the cached response for the given query, if available.
+     *
+     * @param solrQuery
+     * @param queryMethod
+     * @return Copy of the cached {@link QueryResponse}; null if not cached
+     * @should return null if not cached
+     * @should return copy of cached response
+     * @should count hits and misses
+     */
+    public QueryResponse get(SolrQuery solrQuery, METHOD queryMethod) {
+        if (!isCacheable(solrQuery)) {
+            return null;
+        }
+        QueryResponse snapshot = cache.get(buildKey(solrQuery, queryMethod));
+        return snapshot != null ? copy(snapshot, false) : null;
+    }
+
+    /**
+     * Adds an immutable snapshot of the given response to the cache as a response from the current index version.
+     *
+     * @param solrQuery
+     * @param queryMethod
+     * @param response
+     * @should evict least recently used entries if max entries exceeded
+     * @should evict entries if max size exceeded
+     * @should not add response larger than quarter of budget
+     */
+    public void put(SolrQuery solrQuery, METHOD queryMethod, QueryResponse response) {
+        put(solrQuery, queryMethod, response, cache.getGeneration());
+    }
+
+    /**
+     * Adds an immutable snapshot of the given response to the cache, evicting least recently used entries if the size limits are exceeded. The
+     * size is estimated before copying anything, so that responses that are too large for the cache are skipped without being copied.
+     * Responses from an index version that has changed since the given generation was obtained are not added.
+     *
+     * @param solrQuery
+     * @param queryMethod
+     * @param response
+     * @param generation Generation returned by {@link #getGeneration()} before the query was sent
+     * @should not add response if index version changed during query
+     */
+    public void put(SolrQuery solrQuery, METHOD queryMethod, QueryResponse response, long generation) {
+        if (response == null || !isCacheable(solrQuery)) {
+            return;
+        }
+        long size = estimateSize(response, cache.getMaxBytes() / 4);
+        if (size > cache.getMaxBytes() / 4) {
+            logger.trace("Response too large for query cache: at least {} bytes", size);
+            return;
+        }
+        cache.put(buildKey(solrQuery, queryMethod), copy(response, true), size, generation);
+    }
+
+    /**
+     *
+     * @return Current generation of the cache, to be obtained before sending a query whose response is to be added
+     */
+    public long getGeneration() {
+        return cache.getGeneration();
+    }
+
+    /**
+     * Removes all entries from the cache.
+     *
+     * @return Number of removed entries
+     */
+    public int clear() {
+        return cache.clear();
+    }
+
+    /**
+     * Clears the cache if the index version has changed since the last check. The index version is only requested once per check interval.
+     * 
+     * @should clear cache if index version changed
+     */
+    void checkIndexVersion() {
+        cache.checkIndexVersion();
+    }
+
+    /**
+     * Queries with a random sort order or cursor paging must always be sent to Solr.
+     *
+     * @param solrQuery
+     * @return true if responses for the given query may be cached; false otherwise
+     * @should return false for random sort
+     * @should return false for cursor queries
+     */
+    static boolean isCacheable(SolrQuery solrQuery) {
+        if (solrQuery == null || solrQuery.get(CursorMarkParams.CURSOR_MARK_PARAM) != null) {
+            return false;
+        }
+        String sort = solrQuery.get(CommonParams.SORT);
+        return sort == null || !sort.contains("random_");
+    }
+
+    /**
+     * Builds a cache key from all query parameters. Parameter names are sorted, as are the values of parameters whose order does not affect the
+     * result (e.g. filter queries).
+     *
+     * @param solrQuery
+     * @param queryMethod
+     * @return Normalized key
+     * @should return same key regardless of filter query order
+     * @should return different keys for different rows
+     */
+    static String buildKey(SolrQuery solrQuery, METHOD queryMethod) {
+        StringBuilder sb = new StringBuilder(queryMethod != null ? queryMethod.name() : "");
+        for (String name : new TreeSet<>(solrQuery.getParameterNames())) {
+            String[] values = solrQuery.getParams(name);
+            if (values == null) {
+                continue;
+            }
+            if (Arrays.asList(UNORDERED_PARAMS).contains(name)) {
+                values = values.clone();
+                Arrays.sort(values);
+            }
+            for (String value : values) {
+                sb.append('&').append(name).append('=').append(value);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Roughly estimates the heap size of the given response, based on the returned documents and facets. The estimation stops as soon as the
+     * given limit is exceeded.
+     *
+     * @param response
+     * @param limit Size in bytes after which the estimation may stop
+     * @return Estimated size in bytes; a value larger than <code>limit</code> if the limit is exceeded
+     */
+    static long estimateSize(QueryResponse response, long limit) {
+        long ret = ESTIMATED_OBJECT_OVERHEAD;
+        if (response.getFacetFields() != null) {
+            for (FacetField facetField : response.getFacetFields()) {
+                ret += (long) facetField.getValueCount() * ESTIMATED_FACET_VALUE_SIZE;
+            }
+        }
+        if (response.getResults() != null) {
+            for (SolrDocument doc : response.getResults()) {
+                if (ret > limit) {
+                    return ret;
+                }
+                ret += ESTIMATED_OBJECT_OVERHEAD;
+                for (Entry<String, Object> entry : doc.entrySet()) {
+                    ret += estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     *
+     * @param value
+     * @return Estimated size in bytes
+     */
+    private static long estimateSize(Object value) {
+        if (value instanceof String s) {
+            return ESTIMATED_OBJECT_OVERHEAD + 2L * s.length();
+        }
+        if (value instanceof Collection<?> collection) {
+            long ret = ESTIMATED_OBJECT_OVERHEAD;
+            for (Object o : collection) {
+                ret += estimateSize(o);
+            }
+            return ret;
+        }
+
+        return ESTIMATED_OBJECT_OVERHEAD;
+    }
+
+    /**
+     * Creates a copy of the given response with its own document list and documents. Snapshots for the cache contain unmodifiable multi-value
+     * collections, so the cached instance cannot be changed by accident; copies for callers contain modifiable collections.
+     *
+     * @param response
+     * @param snapshot If true, create an immutable snapshot for the cache; otherwise create a modifiable copy for a caller
+     * @return Copy of response
+     */
+    @SuppressWarnings("unchecked")
+    static QueryResponse copy(QueryResponse response, boolean snapshot) {
+        NamedList<Object> namedList = response.getResponse().clone();
+        int index = namedList.indexOf("response", 0);
+        if (index != -1 && namedList.getVal(index) instanceof SolrDocumentList docs) {
+            SolrDocumentList docsCopy = new SolrDocumentList();
+            docsCopy.setNumFound(docs.getNumFound());
+            docsCopy.setStart(docs.getStart());
+            docsCopy.setMaxScore(docs.getMaxScore());
+            docsCopy.setNumFoundExact(docs.getNumFoundExact());
+            for (SolrDocument doc : docs) {
+                SolrDocument docCopy = new SolrDocument();
+                for (Entry<String, Object> entry : doc.entrySet()) {
+                    Object value = entry.getValue();
+                    if (value instanceof Collection) {
+                        value = snapshot ? Collections.unmodifiableList(new ArrayList<>((Collection<Object>) value))
+                                : new ArrayList<>((Collection<Object>) value);
+                    }
+                    docCopy.setField(entry.getKey(), value);
+                }
+                docsCopy.add(docCopy);
+            }
+            namedList.setVal(index, docsCopy);
+        }
+        QueryResponse ret = new QueryResponse(namedList, null);
+        ret.setElapsedTime(response.getElapsedTime());
+
+        return ret;
+    }
+
+    /**
+     *
+     * @return Number of cached responses
+     */
+    public int getSize() {
+        return cache.getSize();
+    }
+
+    /**
+     *
+     * @return Estimated size of all cached responses in bytes
+     */
+    public long getSizeInBytes() {
+        return cache.getSizeInBytes();
+    }
+
+    /**
+     * @return the hits
+     */
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    /**
+     * @return the misses
+     */
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    /**
+     * @return the evictions
+     */
+    public long getEvictions() {
+        return cache.getEvictions();
+    }
+
+    /**
+     * @return the invalidations
+     */
+    public long getInvalidations() {
+        return cache.getInvalidations();
+    }
+
+    /**
+     *
+     * @return Cache statistics as JSON
+     */
+    public JSONObject getStatisticsAsJson() {
+        return cache.getStatisticsAsJson();
+    }
+}
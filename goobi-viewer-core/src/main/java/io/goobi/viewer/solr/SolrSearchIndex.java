@@ -66,9 +66,11 @@ import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.luke.FieldFlag;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import io.goobi.viewer.controller.Configuration;
 import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.controller.StringTools;
 import io.goobi.viewer.exceptions.DAOException;
@@ -96,6 +98,10 @@ public class SolrSearchIndex {
 
     /** Constant <code>MAX_HITS=1000000</code> */
     public static final int MAX_HITS = 1000000;
+    /** Default number of documents fetched per request when streaming search results via cursor. */
+    public static final int DEFAULT_STREAM_BATCH_SIZE = 1000;
+    /** Maximum number of IDDOC values combined into a single query by {@link #getDocumentsByIddocs(Collection)}. */
+    static final int MAX_IDDOCS_PER_QUERY = 100;
     private static final int TIMEOUT_SO = 30000;
     private static final int TIMEOUT_CONNECTION = 30000;
 
@@ -106,6 +112,9 @@ public class SolrSearchIndex {
 
     private SolrClient client;
 
+    /** Application-scoped query response cache; only created if enabled in the configuration. */
+    private volatile SolrQueryCache queryCache = null;
+
     private List<String> solrFields = null;
     /**
      * Usually boolean fields should not be part of the solr field list. In case one needs them, they are listed here
@@ -226,6 +235,66 @@ public class SolrSearchIndex {
                 .build();
     }
 
+    /**
+     * Returns the query response cache, creating it on first access. If the cache has been disabled in the configuration, null is returned.
+     *
+     * @return {@link SolrQueryCache}; null if disabled
+     */
+    public SolrQueryCache getQueryCache() {
+        if (!DataManager.getInstance().getConfiguration().isSolrQueryCacheEnabled()) {
+            return null;
+        }
+        SolrQueryCache ret = queryCache;
+        if (ret == null) {
+            synchronized (this) {
+                ret = queryCache;
+                if (ret == null) {
+                    Configuration config = DataManager.getInstance().getConfiguration();
+                    ret = new SolrQueryCache(config.getSolrQueryCacheMaxEntries(), config.getSolrQueryCacheMaxSizeMB() * 1024L * 1024L,
+                            config.getSolrQueryCacheVersionCheckInterval() * 1000L, this::getIndexVersion);
+                    queryCache = ret;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Empties the query response cache, if enabled.
+     *
+     * @return Number of removed cache entries
+     */
+    public int clearQueryCache() {
+        SolrQueryCache cache = queryCache;
+        if (cache != null) {
+            return cache.clear();
+        }
+
+        return 0;
+    }
+
+    /**
+     * Retrieves the current version of the Solr index, which changes with every commit.
+     *
+     * @return Index version; -1 if it could not be determined
+     */
+    public long getIndexVersion() {
+        LukeRequest lukeRequest = new LukeRequest();
+        lukeRequest.setNumTerms(0);
+        lukeRequest.setShowSchema(false);
+        try {
+            LukeResponse lukeResponse = lukeRequest.process(client);
+            if (lukeResponse.getIndexInfo() != null && lukeResponse.getIndexInfo().get("version") instanceof Number version) {
+                return version.longValue();
+            }
+        } catch (SolrServerException | IOException | SolrException e) {
+            logger.warn("Could not determine Solr index version: {}", e.getMessage());
+        }
+
+        return -1;
+    }
+
     /**
      *
      * @return true if test query executes without errors; false otherwise
@@ -344,9 +413,21 @@ public class SolrSearchIndex {
             //             logger.debug("range: {} - {}", first, first + rows);
             //             logger.debug("facetFields: {}", facetFields);
             //             logger.debug("fieldList: {}", fieldList);
+            SolrQueryCache cache = getQueryCache();
+            if (cache != null) {
+                QueryResponse cachedResp = cache.get(solrQuery, queryMethod);
+                if (cachedResp != null) {
+                    return cachedResp;
+                }
+            }
+            // Obtained before querying, so that a response from an index that changes in the meantime is not cached
+            long cacheGeneration = cache != null ? cache.getGeneration() : 0;
             QueryResponse resp = client.query(solrQuery, queryMethod);
             //             logger.debug("found: {}", resp.getResults().getNumFound());
             //             logger.debug("fetched: {}", resp.getResults().size());
+            if (cache != null) {
+                cache.put(solrQuery, queryMethod, resp, cacheGeneration);
+            }
 
             return resp;
         } catch (SolrServerException e) {
@@ -462,6 +543,155 @@ public class SolrSearchIndex {
         return search(query, 0, MAX_HITS, null, null, null).getResults();
     }
 
+    /**
+     * Passes all documents matching the given query to the given consumer, one batch at a time, using Solr's cursorMark deep paging. Only one
+     * batch of documents is held in memory at any time, regardless of the total number of hits. The batch size is taken from the configuration.
+     *
+     * @param query Solr query
+     * @param sortFields Optional field/order pairs for sorting; the unique key is added as a tie-breaker, if missing
+     * @param fieldList If not null, only the fields in the list will be returned
+     * @param consumer Consumer receiving each document in sort order
+     * @return Number of documents passed to the consumer
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    public long stream(String query, List<StringPair> sortFields, List<String> fieldList, SolrDocumentConsumer consumer)
+            throws PresentationException, IndexUnreachableException {
+        return stream(query, sortFields, fieldList, null, DataManager.getInstance().getConfiguration().getSolrStreamBatchSize(), consumer);
+    }
+
+    /**
+     * Passes all documents matching the given query to the given consumer, one batch at a time, using Solr's cursorMark deep paging. Only one
+     * batch of documents is held in memory at any time, regardless of the total number of hits.
+     *
+     * @param query Solr query
+     * @param sortFields Optional field/order pairs for sorting; the unique key is added as a tie-breaker, if missing
+     * @param fieldList If not null, only the fields in the list will be returned
+     * @param filterQueries Optional filter queries
+     * @param batchSize Number of documents to fetch per request; values below 1 fall back to {@link #DEFAULT_STREAM_BATCH_SIZE}
+     * @param consumer Consumer receiving each document in sort order
+     * @return Number of documents passed to the consumer
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     * @should pass all matching docs to consumer
+     * @should pass docs in correct order
+     * @should return zero if no docs found
+     */
+    public long stream(String query, List<StringPair> sortFields, List<String> fieldList, List<String> filterQueries, int batchSize,
+            SolrDocumentConsumer consumer) throws PresentationException, IndexUnreachableException {
+        if (consumer == null) {
+            throw new IllegalArgumentException("consumer may not be null");
+        }
+
+        return streamWhile(query, sortFields, fieldList, filterQueries, batchSize, doc -> {
+            consumer.accept(doc);
+            return true;
+        });
+    }
+
+    /**
+     * Passes documents matching the given query to the given handler, one batch at a time, until the handler returns false or all documents have
+     * been passed. No further batches are requested once the handler has returned false. The batch size is taken from the configuration.
+     *
+     * @param query Solr query
+     * @param sortFields Optional field/order pairs for sorting; the unique key is added as a tie-breaker, if missing
+     * @param fieldList If not null, only the fields in the list will be returned
+     * @param handler Handler receiving each document in sort order
+     * @return Number of documents passed to the handler
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    public long streamWhile(String query, List<StringPair> sortFields, List<String> fieldList, SolrDocumentHandler handler)
+            throws PresentationException, IndexUnreachableException {
+        return streamWhile(query, sortFields, fieldList, null, DataManager.getInstance().getConfiguration().getSolrStreamBatchSize(), handler);
+    }
+
+    /**
+     * Passes documents matching the given query to the given handler, one batch at a time, until the handler returns false or all documents have
+     * been passed. No further batches are requested once the handler has returned false.
+     *
+     * @param query Solr query
+     * @param sortFields Optional field/order pairs for sorting; the unique key is added as a tie-breaker, if missing
+     * @param fieldList If not null, only the fields in the list will be returned
+     * @param filterQueries Optional filter queries
+     * @param batchSize Number of documents to fetch per request; values below 1 fall back to {@link #DEFAULT_STREAM_BATCH_SIZE}
+     * @param handler Handler receiving each document in sort order
+     * @return Number of documents passed to the handler
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     * @should stop when handler returns false
+     */
+    public long streamWhile(String query, List<StringPair> sortFields, List<String> fieldList, List<String> filterQueries, int batchSize,
+            SolrDocumentHandler handler) throws PresentationException, IndexUnreachableException {
+        if (handler == null) {
+            throw new IllegalArgumentException("handler may not be null");
+        }
+
+        int rows = batchSize > 0 ? batchSize : DEFAULT_STREAM_BATCH_SIZE;
+        List<StringPair> cursorSortFields = getCursorSortFields(sortFields);
+        Map<String, String> params = new HashMap<>(1);
+        String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+        long count = 0;
+        while (true) {
+            params.put(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+            QueryResponse resp = search(query, 0, rows, cursorSortFields, null, null, fieldList, filterQueries, params);
+            SolrDocumentList docs = resp.getResults();
+            for (SolrDocument doc : docs) {
+                count++;
+                if (!handler.handle(doc)) {
+                    return count;
+                }
+            }
+            String nextCursorMark = resp.getNextCursorMark();
+            if (docs.size() < rows || nextCursorMark == null || nextCursorMark.equals(cursorMark)) {
+                break;
+            }
+            cursorMark = nextCursorMark;
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns a sort field list that is usable with cursorMark paging, i.e. has a fixed (non-random) order and ends with the unique key.
+     *
+     * @param sortFields Requested sort fields
+     * @return Sort field list for cursor paging
+     * @should add iddoc if missing
+     * @should not add iddoc twice
+     * @should replace relevance with score
+     */
+    static List<StringPair> getCursorSortFields(List<StringPair> sortFields) {
+        List<StringPair> ret = new ArrayList<>();
+        boolean uniqueKeyFound = false;
+        if (sortFields != null) {
+            for (StringPair sortField : sortFields) {
+                if (StringUtils.isEmpty(sortField.getOne())) {
+                    continue;
+                }
+                String field = sortField.getOne();
+                String order = sortField.getTwo();
+                if (SolrConstants.SORT_RELEVANCE.equals(field)) {
+                    // Relevance must be explicit, otherwise the unique key sort would replace it
+                    field = "score";
+                    order = "desc";
+                } else if (SolrConstants.SORT_RANDOM.equals(field)) {
+                    // Random sort field must be fixed for all batches
+                    field = SolrTools.generateRandomSortField();
+                }
+                if (SolrConstants.IDDOC.equals(field)) {
+                    uniqueKeyFound = true;
+                }
+                ret.add(new StringPair(field, order));
+            }
+        }
+        if (!uniqueKeyFound) {
+            ret.add(new StringPair(SolrConstants.IDDOC, "asc"));
+        }
+
+        return ret;
+    }
+
     /**
      * Retrieves the first document found by the given query
      *
@@ -542,6 +772,46 @@ public class SolrSearchIndex {
         return ret;
     }
 
+    /**
+     * Retrieves the documents with the given IDDOC values using as few queries as possible. IDDOCs are combined into
+     * <code>IDDOC:(a OR b OR ...)</code> queries of up to {@link #MAX_IDDOCS_PER_QUERY} values each.
+     *
+     * @param iddocs IDDOC values to look up
+     * @return Map with the found documents, keyed by IDDOC; IDDOCs without a matching document are not contained
+     * @throws IndexUnreachableException
+     * @throws PresentationException
+     * @should return all docs for given iddocs
+     * @should return empty map if iddocs empty
+     */
+    public Map<String, SolrDocument> getDocumentsByIddocs(Collection<String> iddocs) throws IndexUnreachableException, PresentationException {
+        if (iddocs == null || iddocs.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<String> uniqueIddocs = new ArrayList<>(new HashSet<>(iddocs));
+        Map<String, SolrDocument> ret = new HashMap<>(uniqueIddocs.size());
+        for (int i = 0; i < uniqueIddocs.size(); i += MAX_IDDOCS_PER_QUERY) {
+            List<String> chunk = uniqueIddocs.subList(i, Math.min(i + MAX_IDDOCS_PER_QUERY, uniqueIddocs.size()));
+            StringBuilder sbQuery = new StringBuilder(SolrConstants.IDDOC).append(":(");
+            for (int j = 0; j < chunk.size(); ++j) {
+                if (j > 0) {
+                    sbQuery.append(" OR ");
+                }
+                sbQuery.append(SolrTools.cleanUpQuery(chunk.get(j)));
+            }
+            sbQuery.append(')');
+            SolrDocumentList hits = search(sbQuery.toString(), 0, chunk.size(), null, null, null).getResults();
+            if (hits != null) {
+                for (SolrDocument doc : hits) {
+                    ret.put((String) doc.getFieldValue(SolrConstants.IDDOC), doc);
+                }
+            }
+        }
+        logger.trace("Retrieved {} of {} requested docs by IDDOC", ret.size(), uniqueIddocs.size());
+
+        return ret;
+    }
+
     /**
      * <p>
      * getDocumentByPI.
@@ -1001,7 +1271,19 @@ public class SolrSearchIndex {
         }
 
         try {
-            return client.query(solrQuery);
+            SolrQueryCache cache = getQueryCache();
+            if (cache != null) {
+                QueryResponse cachedResp = cache.get(solrQuery, METHOD.GET);
+                if (cachedResp != null) {
+                    return cachedResp;
+                }
+            }
+            long cacheGeneration = cache != null ? cache.getGeneration() : 0;
+            QueryResponse resp = client.query(solrQuery);
+            if (cache != null) {
+                cache.put(solrQuery, METHOD.GET, resp, cacheGeneration);
+            }
+            return resp;
         } catch (SolrServerException e) {
             if (e.getMessage().startsWith("Server refused connection")) {
                 logger.warn("Solr offline; Query: {}", solrQuery.getQuery());
@@ -1394,12 +1676,31 @@ public class SolrSearchIndex {
      */
     public String getHeatMap(String solrField, String wktRegion, String query, String filterQuery, Integer gridLevel)
             throws IndexUnreachableException {
+        return getHeatMap(solrField, wktRegion, query, filterQuery, gridLevel, null);
+    }
+
+    /**
+     *
+     *
+     * @param solrField
+     * @param wktRegion
+     * @param query
+     * @param filterQuery
+     * @param gridLevel
+     * @param distErr Maximum cell size in degrees from which Solr derives the grid level; only used if no grid level is given
+     * @return String
+     * @throws IndexUnreachableException
+     */
+    public String getHeatMap(String solrField, String wktRegion, String query, String filterQuery, Integer gridLevel, Double distErr)
+            throws IndexUnreachableException {
 
         HeatmapFacetMap facetMap = new HeatmapFacetMap(solrField)
                 .setHeatmapFormat(HeatmapFacetMap.HeatmapFormat.INTS2D)
                 .setRegionQuery(wktRegion);
         if (gridLevel != null) {
             facetMap.setGridLevel(gridLevel);
+        } else if (distErr != null) {
+            facetMap.setDistErr(distErr);
         }
 
         final JsonQueryRequest request = new JsonQueryRequest()
@@ -0,0 +1,162 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.api.rest.filters;
+
+import java.net.URI;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ConditionalGetRequestFilterTest {
+
+    private static final String REPRESENTATION = "https://example.com/viewer/api/v1/records/PPN123/manifest/|de";
+    private static final Date LAST_MODIFIED = new Date(1_700_000_000_000L);
+    private static final EntityTag ENTITY_TAG = ConditionalGetRequestFilter.buildEntityTag("PPN123", 1000L, 2000L, 3000L, "1|-|-|-", REPRESENTATION);
+
+    /**
+     * @param ifNoneMatch If-None-Match header value; may be null
+     * @param ifModifiedSince If-Modified-Since header value; may be null
+     * @return GET request with the given headers
+     */
+    private static ContainerRequest createRequest(EntityTag ifNoneMatch, Date ifModifiedSince) {
+        ContainerRequest ret = new ContainerRequest(URI.create("https://example.com/viewer/api/v1/"),
+                URI.create("https://example.com/viewer/api/v1/records/PPN123/manifest/"), "GET", null, new MapPropertiesDelegate(), null);
+        if (ifNoneMatch != null) {
+            ret.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch.toString());
+        }
+        if (ifModifiedSince != null) {
+            ret.header(HttpHeaders.IF_MODIFIED_SINCE,
+                    DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.ofInstant(ifModifiedSince.toInstant(), ZoneOffset.UTC)));
+        }
+        return ret;
+    }
+
+    /**
+     * @see ConditionalGetRequestFilter#evaluatePreconditions(javax.ws.rs.core.Request,EntityTag,Date)
+     * @verifies return not modified if entity tag matches
+     */
+    @Test
+    void evaluatePreconditions_shouldReturnNotModifiedIfEntityTagMatches() throws Exception {
+        Response response = ConditionalGetRequestFilter.evaluatePreconditions(createRequest(ENTITY_TAG, LAST_MODIFIED), ENTITY_TAG, LAST_MODIFIED);
+        Assertions.assertNotNull(response);
+        Assertions.assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(), response.getStatus());
+        Assertions.assertEquals(ENTITY_TAG, response.getEntityTag());
+
+        response = ConditionalGetRequestFilter.evaluatePreconditions(createRequest(ENTITY_TAG, null), ENTITY_TAG, LAST_MODIFIED);
+        Assertions.assertNotNull(response);
+        Assertions.assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(), response.getStatus());
+    }
+
+    /**
+     * @see ConditionalGetRequestFilter#evaluatePreconditions(javax.ws.rs.core.Request,EntityTag,Date)
+     * @verifies return null if entity tag does not match
+     */
+    @Test
+    void evaluatePreconditions_shouldReturnNullIfEntityTagDoesNotMatch() throws Exception {
+        EntityTag otherTag = ConditionalGetRequestFilter.buildEntityTag("PPN123", 1000L, 2000L, 3001L, "1|-|-|-", REPRESENTATION);
+        Assertions.assertNull(ConditionalGetRequestFilter.evaluatePreconditions(createRequest(otherTag, null), ENTITY_TAG, LAST_MODIFIED));
+    }
+
+    /**
+     * @see ConditionalGetRequestFilter#evaluatePreconditions(javax.ws.rs.core.Request,EntityTag,Date)
+     * @verifies return null if only modification date matches
+     */
+    @Test
+    void evaluatePreconditions_shouldReturnNullIfOnlyModificationDateMatches() throws Exception {
+        // A client with a different access context may have received a representation with the same modification date
+        Assertions.assertNull(ConditionalGetRequestFilter.evaluatePreconditions(createRequest(null, LAST_MODIFIED), ENTITY_TAG, LAST_MODIFIED));
+        Assertions.assertNull(ConditionalGetRequestFilter.evaluatePreconditions(createRequest(null, new Date(LAST_MODIFIED.getTime() + 60_000)),
+                ENTITY_TAG, LAST_MODIFIED));
+    }
+
+    /**
+     * @see ConditionalGetRequestFilter#evaluatePreconditions(javax.ws.rs.core.Request,EntityTag,Date)
+     * @verifies return null if modification date matches but entity tag does not
+     */
+    @Test
+    void evaluatePreconditions_shouldReturnNullIfModificationDateMatchesButEntityTagDoesNot() throws Exception {
+        EntityTag otherTag = ConditionalGetRequestFilter.buildEntityTag("PPN123", 1000L, 2000L, 3000L, "1|-|u1|-", REPRESENTATION);
+        Assertions.assertNull(
+                ConditionalGetRequestFilter.evaluatePreconditions(createRequest(otherTag, LAST_MODIFIED), ENTITY_TAG, LAST_MODIFIED));
+    }
+
+    /**
+     * @see ConditionalGetRequestFilter#buildEntityTag(String,long,long,long,String,String)
+     * @verifies return same tag for same state
+     */
+    @Test
+    void buildEntityTag_shouldReturnSameTagForSameState() throws Exception {
+        Assertions.assertEquals(ConditionalGetRequestFilter.buildEntityTag("PPN123", 1000L, 2000L, 3000L, "1|-|-|-", REPRESENTATION),
+                ConditionalGetRequestFilter.buildEntityTag("PPN123", 1000L, 2000L, 3000L, "1|-|-|-", REPRESENTATION));
+        Assertions.assertFalse(ConditionalGetRequestFilter.buildEntityTag("PPN123", 1000L, 2000L, 3000L, "1|-|-|-", REPRESENTATION).isWeak());
+    }
+
+    /**
+     * @see ConditionalGetRequestFilter#buildEntityTag(String,long,long,long,String,String)
+     * @verifies return different tag if record updated
+     */
+    @Test
+    void buildEntityTag_shouldReturnDifferentTagIfRecordUpdated() throws Exception {
+        Assertions.assertNotEquals(ConditionalGetRequestFilter.buildEntityTag("PPN123", 1000L, 2000L, 3000L, "1|-|-|-", REPRESENTATION),
+                ConditionalGetRequestFilter.buildEntityTag("PPN123", 1001L, 2000L, 3000L, "1|-|-|-", REPRESENTATION));
+    }
+
+    /**
+     * @see ConditionalGetRequestFilter#buildEntityTag(String,long,long,long,String,String)
+     * @verifies return different tag if configuration changed
+     */
+    @Test
+    void buildEntityTag_shouldReturnDifferentTagIfConfigurationChanged() throws Exception {
+        Assertions.assertNotEquals(ConditionalGetRequestFilter.buildEntityTag("PPN123", 1000L, 2000L, 3000L, "1|-|-|-", REPRESENTATION),
+                ConditionalGetRequestFilter.buildEntityTag("PPN123", 1000L, 2001L, 3000L, "1|-|-|-", REPRESENTATION));
+    }
+
+    /**
+     * @see ConditionalGetRequestFilter#buildEntityTag(String,long,long,long,String,String)
+     * @verifies return different tag if database content changed
+     */
+    @Test
+    void buildEntityTag_shouldReturnDifferentTagIfDatabaseContentChanged() throws Exception {
+        Assertions.assertNotEquals(ConditionalGetRequestFilter.buildEntityTag("PPN123", 1000L, 2000L, 3000L, "1|-|-|-", REPRESENTATION),
+                ConditionalGetRequestFilter.buildEntityTag("PPN123", 1000L, 2000L, 3001L, "1|-|-|-", REPRESENTATION));
+    }
+
+    /**
+     * @see ConditionalGetRequestFilter#buildEntityTag(String,long,long,long,String,String)
+     * @verifies return different tag for different access context
+     */
+    @Test
+    void buildEntityTag_shouldReturnDifferentTagForDifferentAccessContext() throws Exception {
+        Assertions.assertNotEquals(ConditionalGetRequestFilter.buildEntityTag("PPN123", 1000L, 2000L, 3000L, "1|-|-|-", REPRESENTATION),
+                ConditionalGetRequestFilter.buildEntityTag("PPN123", 1000L, 2000L, 3000L, "1|-|u1|-", REPRESENTATION));
+    }
+}
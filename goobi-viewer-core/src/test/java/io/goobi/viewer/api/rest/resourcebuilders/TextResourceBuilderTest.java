@@ -0,0 +1,172 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.api.rest.resourcebuilders;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import javax.ws.rs.core.StreamingOutput;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.unigoettingen.sub.commons.contentlib.exceptions.ContentNotFoundException;
+import io.goobi.viewer.AbstractSolrEnabledTest;
+
+class TextResourceBuilderTest extends AbstractSolrEnabledTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * @see TextResourceBuilder#getFulltextAsZip(String)
+     * @verifies throw ContentNotFoundException if no fulltext files found
+     */
+    @Test
+    void getFulltextAsZip_shouldThrowContentNotFoundExceptionIfNoFulltextFilesFound() throws Exception {
+        TextResourceBuilder builder = new TextResourceBuilder();
+        Assertions.assertThrows(ContentNotFoundException.class, () -> builder.getFulltextAsZip("NOT_A_PI"));
+    }
+
+    /**
+     * @see TextResourceBuilder#getFulltextFiles(List,List)
+     * @verifies prefer plaintext files over alto
+     */
+    @Test
+    void getFulltextFiles_shouldPreferPlaintextFilesOverAlto() throws Exception {
+        Path txt1 = Path.of("fulltext", "00000001.txt");
+        Path alto1 = Path.of("alto", "00000001.xml");
+        Path alto2 = Path.of("alto", "00000002.xml");
+
+        Map<Path, Path> result = TextResourceBuilder.getFulltextFiles(List.of(txt1), List.of(alto1, alto2));
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals(txt1, result.get(txt1));
+        Assertions.assertEquals(alto2, result.get(Path.of("alto", "00000002.txt")));
+        Assertions.assertFalse(result.containsValue(alto1));
+    }
+
+    /**
+     * @see TextResourceBuilder#getFulltextFiles(List,List)
+     * @verifies sort files by file name
+     */
+    @Test
+    void getFulltextFiles_shouldSortFilesByFileName() throws Exception {
+        Path txt2 = Path.of("fulltext", "00000002.txt");
+        Path alto1 = Path.of("alto", "00000001.xml");
+        Path alto3 = Path.of("alto", "00000003.xml");
+
+        Map<Path, Path> result = TextResourceBuilder.getFulltextFiles(List.of(txt2), List.of(alto3, alto1));
+        Assertions.assertEquals(List.of(alto1, txt2, alto3), new ArrayList<>(result.values()));
+    }
+
+    /**
+     * @see TextResourceBuilder#getZipEntries(Map,String)
+     * @verifies name entries after plain text file with given extension
+     */
+    @Test
+    void getZipEntries_shouldNameEntriesAfterPlainTextFileWithGivenExtension() throws Exception {
+        Map<Path, Path> files = new LinkedHashMap<>();
+        files.put(Path.of("alto", "00000001.txt"), Path.of("alto", "00000001.xml"));
+
+        Assertions.assertEquals(Map.of("00000001.xml", Path.of("alto", "00000001.xml")), TextResourceBuilder.getZipEntries(files, "xml"));
+        Assertions.assertEquals(Map.of("00000001.txt", Path.of("alto", "00000001.xml")), TextResourceBuilder.getZipEntries(files, "txt"));
+    }
+
+    /**
+     * @see TextResourceBuilder#getZipEntries(Map,String)
+     * @verifies keep file order
+     */
+    @Test
+    void getZipEntries_shouldKeepFileOrder() throws Exception {
+        Map<Path, Path> files = new LinkedHashMap<>();
+        files.put(Path.of("fulltext", "00000001.txt"), Path.of("fulltext", "00000001.txt"));
+        files.put(Path.of("alto", "00000002.txt"), Path.of("alto", "00000002.xml"));
+        files.put(Path.of("fulltext", "00000003.txt"), Path.of("fulltext", "00000003.txt"));
+
+        Assertions.assertEquals(List.of("00000001.txt", "00000002.txt", "00000003.txt"),
+                new ArrayList<>(TextResourceBuilder.getZipEntries(files, "txt").keySet()));
+    }
+
+    /**
+     * @see TextResourceBuilder#writeZipStream(Map,ZipEntryWriter)
+     * @verifies write entries in given order
+     */
+    @Test
+    void writeZipStream_shouldWriteEntriesInGivenOrder() throws Exception {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("b.txt", "second");
+        entries.put("a.txt", "first");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TextResourceBuilder.writeZipStream(entries, (source, os) -> os.write(source.getBytes(StandardCharsets.UTF_8))).write(out);
+
+        List<String> names = new ArrayList<>();
+        List<String> contents = new ArrayList<>();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                names.add(entry.getName());
+                contents.add(new String(zis.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        Assertions.assertEquals(List.of("b.txt", "a.txt"), names);
+        Assertions.assertEquals(List.of("second", "first"), contents);
+    }
+
+    /**
+     * @see TextResourceBuilder#writeZipStream(Map,ZipEntryWriter)
+     * @verifies not finish archive if entry cannot be written
+     */
+    @Test
+    void writeZipStream_shouldNotFinishArchiveIfEntryCannotBeWritten() throws Exception {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("1.txt", "one");
+        entries.put("2.txt", null);
+        entries.put("3.txt", "three");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamingOutput output = TextResourceBuilder.writeZipStream(entries, (source, os) -> {
+            if (source == null) {
+                throw new IOException("unreadable");
+            }
+            os.write(source.getBytes(StandardCharsets.UTF_8));
+        });
+        Assertions.assertThrows(IOException.class, () -> output.write(out));
+
+        // Without central directory, the partial archive must not be readable as a complete zip file
+        Path zip = Files.write(tempDir.resolve("partial.zip"), out.toByteArray());
+        Assertions.assertThrows(ZipException.class, () -> new ZipFile(zip.toFile()).close());
+    }
+}
@@ -32,6 +32,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 import javax.faces.model.SelectItem;
 
@@ -571,6 +572,24 @@ class ConfigurationTest extends AbstractTest {
         assertEquals("source", DataManager.getInstance().getConfiguration().getOrigContentFolder());
     }
 
+    /**
+     * @see Configuration#getIIIFSearchTimeout()
+     * @verifies return correct value
+     */
+    @Test
+    void getIIIFSearchTimeout_shouldReturnCorrectValue() throws Exception {
+        assertEquals(20000, DataManager.getInstance().getConfiguration().getIIIFSearchTimeout());
+    }
+
+    /**
+     * @see Configuration#getIIIFSearchThreads()
+     * @verifies return correct value
+     */
+    @Test
+    void getIIIFSearchThreads_shouldReturnCorrectValue() throws Exception {
+        assertEquals(6, DataManager.getInstance().getConfiguration().getIIIFSearchThreads());
+    }
+
     /**
      * @see Configuration#getPageLoaderThreshold()
      * @verifies return correct value
@@ -580,6 +599,213 @@ class ConfigurationTest extends AbstractTest {
         assertEquals(1000, DataManager.getInstance().getConfiguration().getPageLoaderThreshold());
     }
 
+    /**
+     * @see Configuration#isSolrQueryCacheEnabled()
+     * @verifies return correct value
+     */
+    @Test
+    void isSolrQueryCacheEnabled_shouldReturnCorrectValue() throws Exception {
+        assertFalse(DataManager.getInstance().getConfiguration().isSolrQueryCacheEnabled());
+    }
+
+    /**
+     * @see Configuration#getSolrQueryCacheMaxEntries()
+     * @verifies return correct value
+     */
+    @Test
+    void getSolrQueryCacheMaxEntries_shouldReturnCorrectValue() throws Exception {
+        assertEquals(500, DataManager.getInstance().getConfiguration().getSolrQueryCacheMaxEntries());
+    }
+
+    /**
+     * @see Configuration#getSolrQueryCacheMaxSizeMB()
+     * @verifies return correct value
+     */
+    @Test
+    void getSolrQueryCacheMaxSizeMB_shouldReturnCorrectValue() throws Exception {
+        assertEquals(32, DataManager.getInstance().getConfiguration().getSolrQueryCacheMaxSizeMB());
+    }
+
+    /**
+     * @see Configuration#getSolrQueryCacheVersionCheckInterval()
+     * @verifies return correct value
+     */
+    @Test
+    void getSolrQueryCacheVersionCheckInterval_shouldReturnCorrectValue() throws Exception {
+        assertEquals(5, DataManager.getInstance().getConfiguration().getSolrQueryCacheVersionCheckInterval());
+    }
+
+    /**
+     * @see Configuration#isIIIFManifestCacheEnabled()
+     * @verifies return correct value
+     */
+    @Test
+    void isIIIFManifestCacheEnabled_shouldReturnCorrectValue() throws Exception {
+        assertFalse(DataManager.getInstance().getConfiguration().isIIIFManifestCacheEnabled());
+    }
+
+    /**
+     * @see Configuration#isIIIFManifestCacheUseDisk()
+     * @verifies return correct value
+     */
+    @Test
+    void isIIIFManifestCacheUseDisk_shouldReturnCorrectValue() throws Exception {
+        assertTrue(DataManager.getInstance().getConfiguration().isIIIFManifestCacheUseDisk());
+    }
+
+    /**
+     * @see Configuration#getIIIFManifestCacheMaxEntries()
+     * @verifies return correct value
+     */
+    @Test
+    void getIIIFManifestCacheMaxEntries_shouldReturnCorrectValue() throws Exception {
+        assertEquals(100, DataManager.getInstance().getConfiguration().getIIIFManifestCacheMaxEntries());
+    }
+
+    /**
+     * @see Configuration#getIIIFManifestCacheMaxSizeMB()
+     * @verifies return correct value
+     */
+    @Test
+    void getIIIFManifestCacheMaxSizeMB_shouldReturnCorrectValue() throws Exception {
+        assertEquals(16, DataManager.getInstance().getConfiguration().getIIIFManifestCacheMaxSizeMB());
+    }
+
+    /**
+     * @see Configuration#isCollectionHierarchyCacheEnabled()
+     * @verifies return correct value
+     */
+    @Test
+    void isCollectionHierarchyCacheEnabled_shouldReturnCorrectValue() throws Exception {
+        assertTrue(DataManager.getInstance().getConfiguration().isCollectionHierarchyCacheEnabled());
+    }
+
+    /**
+     * @see Configuration#getCollectionHierarchyCacheMaxEntries()
+     * @verifies return correct value
+     */
+    @Test
+    void getCollectionHierarchyCacheMaxEntries_shouldReturnCorrectValue() throws Exception {
+        assertEquals(50, DataManager.getInstance().getConfiguration().getCollectionHierarchyCacheMaxEntries());
+    }
+
+    /**
+     * @see Configuration#getCollectionHierarchyCacheVersionCheckInterval()
+     * @verifies return correct value
+     */
+    @Test
+    void getCollectionHierarchyCacheVersionCheckInterval_shouldReturnCorrectValue() throws Exception {
+        assertEquals(5, DataManager.getInstance().getConfiguration().getCollectionHierarchyCacheVersionCheckInterval());
+    }
+
+    /**
+     * @see Configuration#isTermBrowsingDictionaryCacheEnabled()
+     * @verifies return correct value
+     */
+    @Test
+    void isTermBrowsingDictionaryCacheEnabled_shouldReturnCorrectValue() throws Exception {
+        assertTrue(DataManager.getInstance().getConfiguration().isTermBrowsingDictionaryCacheEnabled());
+    }
+
+    /**
+     * @see Configuration#getTermBrowsingDictionaryCacheMaxEntries()
+     * @verifies return correct value
+     */
+    @Test
+    void getTermBrowsingDictionaryCacheMaxEntries_shouldReturnCorrectValue() throws Exception {
+        assertEquals(20, DataManager.getInstance().getConfiguration().getTermBrowsingDictionaryCacheMaxEntries());
+    }
+
+    /**
+     * @see Configuration#getTermBrowsingDictionaryCacheVersionCheckInterval()
+     * @verifies return correct value
+     */
+    @Test
+    void getTermBrowsingDictionaryCacheVersionCheckInterval_shouldReturnCorrectValue() throws Exception {
+        assertEquals(5, DataManager.getInstance().getConfiguration().getTermBrowsingDictionaryCacheVersionCheckInterval());
+    }
+
+    /**
+     * @see Configuration#isSitemapIncremental()
+     * @verifies return correct value
+     */
+    @Test
+    void isSitemapIncremental_shouldReturnCorrectValue() throws Exception {
+        assertTrue(DataManager.getInstance().getConfiguration().isSitemapIncremental());
+    }
+
+    /**
+     * @see Configuration#getSearchHitsNotificationThreads()
+     * @verifies return correct value
+     */
+    @Test
+    void getSearchHitsNotificationThreads_shouldReturnCorrectValue() throws Exception {
+        assertEquals(3, DataManager.getInstance().getConfiguration().getSearchHitsNotificationThreads());
+    }
+
+    /**
+     * @see Configuration#isGeoMapHeatmapCacheEnabled()
+     * @verifies return correct value
+     */
+    @Test
+    void isGeoMapHeatmapCacheEnabled_shouldReturnCorrectValue() throws Exception {
+        assertTrue(DataManager.getInstance().getConfiguration().isGeoMapHeatmapCacheEnabled());
+    }
+
+    /**
+     * @see Configuration#getGeoMapHeatmapCacheMaxEntries()
+     * @verifies return correct value
+     */
+    @Test
+    void getGeoMapHeatmapCacheMaxEntries_shouldReturnCorrectValue() throws Exception {
+        assertEquals(200, DataManager.getInstance().getConfiguration().getGeoMapHeatmapCacheMaxEntries());
+    }
+
+    /**
+     * @see Configuration#getGeoMapHeatmapCacheVersionCheckInterval()
+     * @verifies return correct value
+     */
+    @Test
+    void getGeoMapHeatmapCacheVersionCheckInterval_shouldReturnCorrectValue() throws Exception {
+        assertEquals(5, DataManager.getInstance().getConfiguration().getGeoMapHeatmapCacheVersionCheckInterval());
+    }
+
+    /**
+     * @see Configuration#getGeoMapHeatmapCachePrecomputeLevels()
+     * @verifies return correct value
+     */
+    @Test
+    void getGeoMapHeatmapCachePrecomputeLevels_shouldReturnCorrectValue() throws Exception {
+        assertEquals(2, DataManager.getInstance().getConfiguration().getGeoMapHeatmapCachePrecomputeLevels());
+    }
+
+    /**
+     * @see Configuration#getPrerenderPdfThreads()
+     * @verifies return correct value
+     */
+    @Test
+    void getPrerenderPdfThreads_shouldReturnCorrectValue() throws Exception {
+        assertEquals(4, DataManager.getInstance().getConfiguration().getPrerenderPdfThreads());
+    }
+
+    /**
+     * @see Configuration#getPrerenderPdfMinFreeMemoryMB()
+     * @verifies return correct value
+     */
+    @Test
+    void getPrerenderPdfMinFreeMemoryMB_shouldReturnCorrectValue() throws Exception {
+        assertEquals(128, DataManager.getInstance().getConfiguration().getPrerenderPdfMinFreeMemoryMB());
+    }
+
+    /**
+     * @see Configuration#getSolrStreamBatchSize()
+     * @verifies return correct value
+     */
+    @Test
+    void getSolrStreamBatchSize_shouldReturnCorrectValue() throws Exception {
+        assertEquals(500, DataManager.getInstance().getConfiguration().getSolrStreamBatchSize());
+    }
+
     /**
      * @see Configuration#getPageType(PageType)
      * @verifies return the correct value for the given type
@@ -1779,6 +2005,27 @@ class ConfigurationTest extends AbstractTest {
         assertEquals(2, DataManager.getInstance().getConfiguration().getCalendarDocStructTypes().size());
     }
 
+    /**
+     * @see Configuration#getArchiveSearchFields()
+     * @verifies return all configured elements
+     */
+    @Test
+    void getArchiveSearchFields_shouldReturnAllConfiguredElements() throws Exception {
+        List<String> result = DataManager.getInstance().getConfiguration().getArchiveSearchFields();
+        assertEquals(2, result.size());
+        assertEquals("unitdate", result.get(0));
+        assertEquals("Shelfmark", result.get(1));
+    }
+
+    /**
+     * @see Configuration#getArchiveSnapshotFolder()
+     * @verifies return correct value
+     */
+    @Test
+    void getArchiveSnapshotFolder_shouldReturnCorrectValue() throws Exception {
+        assertEquals("target/archives", DataManager.getInstance().getConfiguration().getArchiveSnapshotFolder());
+    }
+
     /**
      * @see Configuration#getAllFacetFields()
      * @verifies return correct order
@@ -3538,4 +3785,76 @@ class ConfigurationTest extends AbstractTest {
     void testGetDateFormat() {
         assertEquals("dd/MM/yyyy", DataManager.getInstance().getConfiguration().getStringFormat("date", Locale.ENGLISH).orElse("Not configured"));
     }
+
+    /**
+     * @see Configuration#isSearchChildHitsParallelFulltextLoadingEnabled()
+     * @verifies return correct value
+     */
+    @Test
+    void isSearchChildHitsParallelFulltextLoadingEnabled_shouldReturnCorrectValue() throws Exception {
+        Assertions.assertFalse(DataManager.getInstance().getConfiguration().isSearchChildHitsParallelFulltextLoadingEnabled());
+    }
+
+    /**
+     * @see Configuration#getSearchChildHitsParallelFulltextLoadingTimeout()
+     * @verifies return correct value
+     */
+    @Test
+    void getSearchChildHitsParallelFulltextLoadingTimeout_shouldReturnCorrectValue() throws Exception {
+        Assertions.assertEquals(5000, DataManager.getInstance().getConfiguration().getSearchChildHitsParallelFulltextLoadingTimeout());
+    }
+
+    /**
+     * @see Configuration#getSearchChildHitsParallelFulltextLoadingThreads()
+     * @verifies return correct value
+     */
+    @Test
+    void getSearchChildHitsParallelFulltextLoadingThreads_shouldReturnCorrectValue() throws Exception {
+        Assertions.assertEquals(4, DataManager.getInstance().getConfiguration().getSearchChildHitsParallelFulltextLoadingThreads());
+    }
+
+    /**
+     * @see Configuration#getStatisticsFlushInterval()
+     * @verifies return correct value
+     */
+    @Test
+    void getStatisticsFlushInterval_shouldReturnCorrectValue() throws Exception {
+        Assertions.assertEquals(30, DataManager.getInstance().getConfiguration().getStatisticsFlushInterval());
+    }
+
+    /**
+     * @see Configuration#getCrawlerDetectionPattern()
+     * @verifies return correct value
+     */
+    @Test
+    void getCrawlerDetectionPattern_shouldReturnCorrectValue() throws Exception {
+        Pattern pattern = DataManager.getInstance().getConfiguration().getCrawlerDetectionPattern();
+        Assertions.assertNotNull(pattern);
+        Assertions.assertTrue(pattern.matcher("Mozilla/5.0 (compatible; Googlebot/2.1)").matches());
+        Assertions.assertFalse(pattern.matcher("Mozilla/5.0 (X11; Linux x86_64; rv:120.0) Gecko/20100101 Firefox/120.0").matches());
+        // Compiled only once per snapshot
+        Assertions.assertSame(pattern, DataManager.getInstance().getConfiguration().getCrawlerDetectionPattern());
+    }
+
+    /**
+     * @see AbstractConfiguration#overrideValue(String,Object)
+     * @verifies discard resolved values
+     */
+    @Test
+    void overrideValue_shouldDiscardResolvedValues() throws Exception {
+        Assertions.assertEquals(30, DataManager.getInstance().getConfiguration().getStatisticsFlushInterval());
+        DataManager.getInstance().getConfiguration().overrideValue("statistics.flush[@interval]", 10);
+        Assertions.assertEquals(10, DataManager.getInstance().getConfiguration().getStatisticsFlushInterval());
+    }
+
+    /**
+     * @see AbstractConfiguration#getSnapshotTimestamp()
+     * @verifies increase after value override
+     */
+    @Test
+    void getSnapshotTimestamp_shouldIncreaseAfterValueOverride() throws Exception {
+        long timestamp = DataManager.getInstance().getConfiguration().getSnapshotTimestamp();
+        DataManager.getInstance().getConfiguration().overrideValue("statistics.flush[@interval]", 10);
+        Assertions.assertTrue(DataManager.getInstance().getConfiguration().getSnapshotTimestamp() > timestamp);
+    }
 }
@@ -0,0 +1,81 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class RecordContentVersionsTest {
+
+    /**
+     * @see RecordContentVersions#getVersion(String)
+     * @verifies return start version if nothing changed
+     */
+    @Test
+    void getVersion_shouldReturnStartVersionIfNothingChanged() throws Exception {
+        long before = System.currentTimeMillis();
+        RecordContentVersions versions = new RecordContentVersions();
+        Assertions.assertTrue(versions.getVersion("PPN123") >= before);
+        Assertions.assertEquals(versions.getVersion("PPN123"), versions.getVersion("PPN456"));
+    }
+
+    /**
+     * @see RecordContentVersions#getVersion(String)
+     * @verifies return higher version after record changed
+     */
+    @Test
+    void getVersion_shouldReturnHigherVersionAfterRecordChanged() throws Exception {
+        RecordContentVersions versions = new RecordContentVersions();
+        long version = versions.getVersion("PPN123");
+        versions.changed("PPN123");
+        long version2 = versions.getVersion("PPN123");
+        Assertions.assertTrue(version2 > version);
+        // Changes within the same millisecond
+        versions.changed("PPN123");
+        Assertions.assertTrue(versions.getVersion("PPN123") > version2);
+    }
+
+    /**
+     * @see RecordContentVersions#getVersion(String)
+     * @verifies return higher version after all records changed
+     */
+    @Test
+    void getVersion_shouldReturnHigherVersionAfterAllRecordsChanged() throws Exception {
+        RecordContentVersions versions = new RecordContentVersions();
+        versions.changed("PPN123");
+        long version = versions.getVersion("PPN123");
+        versions.changed(null);
+        Assertions.assertTrue(versions.getVersion("PPN123") > version);
+    }
+
+    /**
+     * @see RecordContentVersions#getVersion(String)
+     * @verifies not be affected by changes to other records
+     */
+    @Test
+    void getVersion_shouldNotBeAffectedByChangesToOtherRecords() throws Exception {
+        RecordContentVersions versions = new RecordContentVersions();
+        long version = versions.getVersion("PPN123");
+        versions.changed("PPN456");
+        Assertions.assertEquals(version, versions.getVersion("PPN123"));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.dao.impl;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class AccessControlSnapshotRepositoryTest {
+
+    /**
+     * @see AccessControlSnapshotRepository#getSnapshot()
+     * @verifies load snapshot only once per version
+     */
+    @Test
+    void getSnapshot_shouldLoadSnapshotOnlyOncePerVersion() throws Exception {
+        AtomicInteger loadCount = new AtomicInteger();
+        AccessControlSnapshotRepository repository = new AccessControlSnapshotRepository(version -> {
+            loadCount.incrementAndGet();
+            return new AccessControlSnapshot(version, Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+        });
+
+        AccessControlSnapshot snapshot = repository.getSnapshot();
+        Assertions.assertSame(snapshot, repository.getSnapshot());
+        Assertions.assertEquals(1, loadCount.get());
+        Assertions.assertEquals(repository.getVersion(), snapshot.getVersion());
+    }
+
+    /**
+     * @see AccessControlSnapshotRepository#getSnapshot()
+     * @verifies reload snapshot after invalidation
+     */
+    @Test
+    void getSnapshot_shouldReloadSnapshotAfterInvalidation() throws Exception {
+        AtomicInteger loadCount = new AtomicInteger();
+        AccessControlSnapshotRepository repository = new AccessControlSnapshotRepository(version -> {
+            loadCount.incrementAndGet();
+            return new AccessControlSnapshot(version, Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+        });
+
+        AccessControlSnapshot snapshot = repository.getSnapshot();
+        long newVersion = repository.invalidate();
+        AccessControlSnapshot snapshot2 = repository.getSnapshot();
+        Assertions.assertNotSame(snapshot, snapshot2);
+        Assertions.assertEquals(newVersion, snapshot2.getVersion());
+        Assertions.assertEquals(2, loadCount.get());
+    }
+}
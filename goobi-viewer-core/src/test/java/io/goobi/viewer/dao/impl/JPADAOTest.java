@@ -103,6 +103,7 @@ import io.goobi.viewer.model.security.IPrivilegeHolder;
 import io.goobi.viewer.model.security.License;
 import io.goobi.viewer.model.security.LicenseType;
 import io.goobi.viewer.model.security.Role;
+import io.goobi.viewer.model.security.clients.ClientApplication;
 import io.goobi.viewer.model.security.user.IpRange;
 import io.goobi.viewer.model.security.user.User;
 import io.goobi.viewer.model.security.user.UserGroup;
@@ -991,6 +992,40 @@ class JPADAOTest extends AbstractDatabaseEnabledTest {
         Assertions.assertEquals(Long.valueOf(6), licenseTypes.get(4).getId());
     }
 
+    /**
+     * @see JPADAO#getAccessControlDataVersion()
+     * @verifies increase after license type write
+     */
+    @Test
+    void getAccessControlDataVersion_shouldIncreaseAfterLicenseTypeWrite() throws Exception {
+        IDAO dao = DataManager.getInstance().getDao();
+        List<LicenseType> licenseTypes = dao.getAllLicenseTypes();
+        long version = dao.getAccessControlDataVersion();
+        // Reads are served from the same snapshot
+        Assertions.assertSame(licenseTypes, dao.getAllLicenseTypes());
+        Assertions.assertEquals(version, dao.getAccessControlDataVersion());
+
+        LicenseType licenseType = dao.getLicenseType(1);
+        licenseType.setDescription("new desc");
+        Assertions.assertTrue(dao.updateLicenseType(licenseType));
+        Assertions.assertTrue(dao.getAccessControlDataVersion() > version);
+        Assertions.assertNotSame(licenseTypes, dao.getAllLicenseTypes());
+    }
+
+    /**
+     * @see JPADAO#updateClientApplicationLastAccess(long,LocalDateTime)
+     * @verifies not change access control data version
+     */
+    @Test
+    void updateClientApplicationLastAccess_shouldNotChangeAccessControlDataVersion() throws Exception {
+        IDAO dao = DataManager.getInstance().getDao();
+        ClientApplication client = dao.getClientApplicationByClientId("1234-abcd-4321");
+        Assertions.assertNotNull(client);
+        long version = dao.getAccessControlDataVersion();
+        Assertions.assertTrue(dao.updateClientApplicationLastAccess(client.getId(), LocalDateTime.now()));
+        Assertions.assertEquals(version, dao.getAccessControlDataVersion());
+    }
+
     @Test
     void getLicenseTypeByIdTest() throws DAOException {
         {
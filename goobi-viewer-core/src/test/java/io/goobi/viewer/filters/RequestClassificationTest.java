@@ -0,0 +1,171 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.filters;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import io.goobi.viewer.AbstractTest;
+
+class RequestClassificationTest extends AbstractTest {
+
+    private static HttpServletRequest createRequest(String servletPath, String uri, String userAgent) {
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.getServletPath()).thenReturn(servletPath);
+        Mockito.when(request.getRequestURI()).thenReturn(uri);
+        Mockito.when(request.getHeader("User-Agent")).thenReturn(userAgent);
+        Mockito.when(request.getRemoteAddr()).thenReturn("192.168.0.1");
+        return request;
+    }
+
+    /**
+     * @see RequestClassification#get(HttpServletRequest)
+     * @verifies return stored classification
+     */
+    @Test
+    void get_shouldReturnStoredClassification() throws Exception {
+        RequestClassification stored = new RequestClassification("127.0.0.1", true, false, false, false, false, false, true);
+        HttpServletRequest request = createRequest("/index.xhtml", "/viewer/index.xhtml", "Mozilla/5.0");
+        Mockito.when(request.getAttribute(RequestClassification.REQUEST_ATTRIBUTE)).thenReturn(stored);
+        Assertions.assertSame(stored, RequestClassification.get(request));
+    }
+
+    /**
+     * @see RequestClassification#get(HttpServletRequest)
+     * @verifies classify and store if not yet classified
+     */
+    @Test
+    void get_shouldClassifyAndStoreIfNotYetClassified() throws Exception {
+        HttpServletRequest request = createRequest("/index.xhtml", "/viewer/index.xhtml", "Mozilla/5.0");
+        RequestClassification classification = RequestClassification.get(request);
+        Assertions.assertNotNull(classification);
+        Assertions.assertEquals("192.168.0.1", classification.getIpAddress());
+        Mockito.verify(request).setAttribute(RequestClassification.REQUEST_ATTRIBUTE, classification);
+    }
+
+    /**
+     * @see RequestClassification#classify(HttpServletRequest)
+     * @verifies detect crawler bots
+     */
+    @Test
+    void classify_shouldDetectCrawlerBots() throws Exception {
+        Assertions.assertTrue(RequestClassification
+                .classify(createRequest("/index.xhtml", "/viewer/index.xhtml", "Mozilla/5.0 (compatible; Googlebot/2.1)"))
+                .isBot());
+        Assertions.assertFalse(RequestClassification.classify(createRequest("/index.xhtml", "/viewer/index.xhtml", "Mozilla/5.0")).isBot());
+        Assertions.assertFalse(RequestClassification.classify(createRequest("/index.xhtml", "/viewer/index.xhtml", null)).isBot());
+    }
+
+    /**
+     * @see RequestClassification#classify(HttpServletRequest)
+     * @verifies detect static resources
+     */
+    @Test
+    void classify_shouldDetectStaticResources() throws Exception {
+        RequestClassification classification =
+                RequestClassification.classify(createRequest("/resources/themes/reference/css/dist/viewer.min.css",
+                        "/viewer/resources/themes/reference/css/dist/viewer.min.css", "Mozilla/5.0"));
+        Assertions.assertTrue(classification.isStaticResource());
+        Assertions.assertTrue(classification.isCacheable());
+        Assertions.assertTrue(classification.isUseUtf8Encoding());
+
+        classification = RequestClassification.classify(createRequest("/index.xhtml", "/viewer/index.xhtml", "Mozilla/5.0"));
+        Assertions.assertFalse(classification.isStaticResource());
+        Assertions.assertFalse(classification.isCacheable());
+    }
+
+    /**
+     * @see RequestClassification#classify(HttpServletRequest)
+     * @verifies detect rest and iiif requests
+     */
+    @Test
+    void classify_shouldDetectRestAndIiifRequests() throws Exception {
+        RequestClassification classification =
+                RequestClassification.classify(createRequest("/api/v1", "/viewer/api/v1/records/PPN123/manifest/", "Mozilla/5.0"));
+        Assertions.assertTrue(classification.isRest());
+        Assertions.assertTrue(classification.isIiif());
+        Assertions.assertFalse(classification.isImageTile());
+        Assertions.assertFalse(classification.isUseUtf8Encoding());
+
+        classification = RequestClassification.classify(createRequest("/api/v1", "/viewer/api/v1/records/PPN123/toc/", "Mozilla/5.0"));
+        Assertions.assertTrue(classification.isRest());
+        Assertions.assertFalse(classification.isIiif());
+
+        classification = RequestClassification.classify(createRequest("/search/", "/viewer/search/", "Mozilla/5.0"));
+        Assertions.assertFalse(classification.isRest());
+        Assertions.assertFalse(classification.isIiif());
+    }
+
+    /**
+     * @see RequestClassification#classify(HttpServletRequest)
+     * @verifies detect image tiles
+     */
+    @Test
+    void classify_shouldDetectImageTiles() throws Exception {
+        RequestClassification classification = RequestClassification.classify(
+                createRequest("/api/v1", "/viewer/api/v1/records/PPN123/files/images/00000001.tif/0,0,512,512/256,/0/default.jpg", "Mozilla/5.0"));
+        Assertions.assertTrue(classification.isImageTile());
+        Assertions.assertTrue(classification.isIiif());
+
+        classification = RequestClassification.classify(
+                createRequest("/api/v1", "/viewer/api/v1/records/PPN123/files/images/00000001.tif/info.json", "Mozilla/5.0"));
+        Assertions.assertFalse(classification.isImageTile());
+        Assertions.assertTrue(classification.isIiif());
+    }
+
+    /**
+     * @see RequestClassification#classify(HttpServletRequest)
+     * @verifies not consider rest resources static
+     */
+    @Test
+    void classify_shouldNotConsiderRestResourcesStatic() throws Exception {
+        RequestClassification classification = RequestClassification.classify(
+                createRequest("/api/v1", "/viewer/api/v1/records/PPN123/files/images/00000001.tif/full/max/0/default.jpg", "Mozilla/5.0"));
+        Assertions.assertFalse(classification.isStaticResource());
+
+        classification = RequestClassification.classify(createRequest("/api/v1", "/viewer/api/v1/records/PPN123/manifest.json", "Mozilla/5.0"));
+        Assertions.assertFalse(classification.isStaticResource());
+
+        classification = RequestClassification.classify(createRequest("/javax.faces.resource", "/viewer/javax.faces.resource/jquery.js.xhtml",
+                "Mozilla/5.0"));
+        Assertions.assertTrue(classification.isStaticResource());
+    }
+
+    /**
+     * @see RequestClassification#classify(HttpServletRequest)
+     * @verifies only consider image tiles cacheable if uri matches always cache pattern
+     */
+    @Test
+    void classify_shouldOnlyConsiderImageTilesCacheableIfUriMatchesAlwaysCachePattern() throws Exception {
+        RequestClassification classification = RequestClassification.classify(
+                createRequest("/api/v1", "/viewer/api/v1/records/PPN123/files/images/00000001.tif/0,0,512,512/256,/0/default.webp", "Mozilla/5.0"));
+        Assertions.assertTrue(classification.isImageTile());
+        Assertions.assertFalse(classification.isCacheable());
+
+        classification = RequestClassification.classify(
+                createRequest("/api/v1", "/viewer/api/v1/records/PPN123/files/images/00000001.tif/0,0,512,512/256,/0/default.jpg", "Mozilla/5.0"));
+        Assertions.assertTrue(classification.isCacheable());
+    }
+}
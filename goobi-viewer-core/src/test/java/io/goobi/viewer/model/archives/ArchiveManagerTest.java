@@ -27,17 +27,24 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.jdom2.Document;
 import org.jdom2.JDOMException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
 
 import io.goobi.viewer.AbstractTest;
@@ -143,5 +150,40 @@ class ArchiveManagerTest extends AbstractTest{
 
     }
 
-
+    @Test
+    void testLoadDatabaseFromSnapshot(@TempDir Path snapshotFolder) throws Exception {
+        List<ArchiveResource> databases = new ArrayList<>();
+        databases.add(new ArchiveResource("database 1", "resource 1", "2023-01-01T12:00:00.000Z", "10"));
+        AtomicInteger parseCount = new AtomicInteger();
+        // File based stand-in for the BaseX server
+        BasexEADParser fileParser = new BasexEADParser(null, null) {
+            @Override
+            public List<ArchiveResource> getPossibleDatabases() {
+                return databases;
+            }
+
+            @Override
+            Reader retrieveDatabase(ArchiveResource archive) throws IOException {
+                parseCount.incrementAndGet();
+                return Files.newBufferedReader(Paths.get("src/test/resources/data/EAD_Export_Tektonik.XML"), StandardCharsets.UTF_8);
+            }
+        };
+
+        ArchiveTree tree = new ArchiveManager(fileParser, null, new ArchiveSnapshotStore(snapshotFolder)).getArchiveTree("database 1", "resource 1");
+        assertNotNull(tree);
+        assertEquals(1, parseCount.get());
+
+        // Restart: tree is restored from the snapshot without fetching the document
+        ArchiveTree restoredTree =
+                new ArchiveManager(fileParser, null, new ArchiveSnapshotStore(snapshotFolder)).getArchiveTree("database 1", "resource 1");
+        assertNotNull(restoredTree);
+        assertEquals(1, parseCount.get());
+        assertEquals(tree.getRootElement().getAsFlatList(true).size(), restoredTree.getRootElement().getAsFlatList(true).size());
+        assertNotNull(restoredTree.getEntryById("1_Tektonik"));
+
+        // Newer version in BaseX
+        databases.set(0, new ArchiveResource("database 1", "resource 1", "2023-02-01T12:00:00.000Z", "10"));
+        new ArchiveManager(fileParser, null, new ArchiveSnapshotStore(snapshotFolder)).getArchiveTree("database 1", "resource 1");
+        assertEquals(2, parseCount.get());
+    }
 }
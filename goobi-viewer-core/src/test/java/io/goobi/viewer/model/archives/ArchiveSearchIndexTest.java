@@ -0,0 +1,170 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.archives;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ArchiveSearchIndexTest {
+
+    private ArchiveEntry root;
+    private ArchiveEntry series;
+    private ArchiveEntry file1;
+    private ArchiveEntry file2;
+
+    /**
+     * Creates a tree with a root, one series and two files.
+     */
+    @BeforeEach
+    void setUp() {
+        root = createEntry("root", "Archive", 0, 0);
+        series = createEntry("series", "Correspondence", 0, 1);
+        file1 = createEntry("file1", "Letters to Goethe", 0, 2);
+        file2 = createEntry("file2", "Letters to Schiller", 1, 2);
+        ArchiveMetadataField field = new ArchiveMetadataField("unitdate", 1, "./ead:did/ead:unitdate", "element");
+        FieldValue value = new FieldValue(field);
+        value.setValue("1794-1805");
+        field.addFieldValue(value);
+        file2.getIdentityStatementAreaList().add(field);
+
+        root.addSubEntry(series);
+        series.addSubEntry(file1);
+        series.addSubEntry(file2);
+    }
+
+    static ArchiveEntry createEntry(String id, String label, int order, int hierarchy) {
+        ArchiveEntry ret = new ArchiveEntry(order, hierarchy);
+        ret.setId(id);
+        ret.setLabel(label);
+        return ret;
+    }
+
+    /**
+     * @see ArchiveSearchIndex#getEntry(String)
+     * @verifies return entry with given identifier
+     */
+    @Test
+    void getEntry_shouldReturnEntryWithGivenIdentifier() throws Exception {
+        ArchiveSearchIndex index = new ArchiveSearchIndex(root, Collections.emptyList());
+        Assertions.assertEquals(4, index.getSize());
+        Assertions.assertSame(file2, index.getEntry("file2"));
+        Assertions.assertSame(root, index.getEntry("root"));
+    }
+
+    /**
+     * @see ArchiveSearchIndex#getEntry(String)
+     * @verifies return null if identifier not found
+     */
+    @Test
+    void getEntry_shouldReturnNullIfIdentifierNotFound() throws Exception {
+        ArchiveSearchIndex index = new ArchiveSearchIndex(root, Collections.emptyList());
+        Assertions.assertNull(index.getEntry("notfound"));
+        Assertions.assertNull(index.getEntry(null));
+    }
+
+    /**
+     * @see ArchiveSearchIndex#find(String)
+     * @verifies find entries by label substring
+     */
+    @Test
+    void find_shouldFindEntriesByLabelSubstring() throws Exception {
+        ArchiveSearchIndex index = new ArchiveSearchIndex(root, Collections.emptyList());
+        List<ArchiveEntry> result = index.find("LETTERS TO");
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertSame(file1, result.get(0));
+        Assertions.assertSame(file2, result.get(1));
+
+        result = index.find("schill");
+        Assertions.assertEquals(1, result.size());
+        Assertions.assertSame(file2, result.get(0));
+    }
+
+    /**
+     * @see ArchiveSearchIndex#find(String)
+     * @verifies find entries by identifier
+     */
+    @Test
+    void find_shouldFindEntriesByIdentifier() throws Exception {
+        ArchiveSearchIndex index = new ArchiveSearchIndex(root, Collections.emptyList());
+        List<ArchiveEntry> result = index.find("series");
+        Assertions.assertEquals(1, result.size());
+        Assertions.assertSame(series, result.get(0));
+    }
+
+    /**
+     * @see ArchiveSearchIndex#find(String)
+     * @verifies find entries by configured metadata field
+     */
+    @Test
+    void find_shouldFindEntriesByConfiguredMetadataField() throws Exception {
+        Assertions.assertTrue(new ArchiveSearchIndex(root, Collections.emptyList()).find("1794").isEmpty());
+
+        List<ArchiveEntry> result = new ArchiveSearchIndex(root, Collections.singletonList("unitdate")).find("1794");
+        Assertions.assertEquals(1, result.size());
+        Assertions.assertSame(file2, result.get(0));
+    }
+
+    /**
+     * @see ArchiveSearchIndex#find(String)
+     * @verifies find entries by short search terms
+     */
+    @Test
+    void find_shouldFindEntriesByShortSearchTerms() throws Exception {
+        ArchiveSearchIndex index = new ArchiveSearchIndex(root, Collections.emptyList());
+        List<ArchiveEntry> result = index.find("CH");
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertSame(root, result.get(0));
+        Assertions.assertSame(file2, result.get(1));
+    }
+
+    /**
+     * @see ArchiveSearchIndex#find(String)
+     * @verifies return empty list if nothing found
+     */
+    @Test
+    void find_shouldReturnEmptyListIfNothingFound() throws Exception {
+        ArchiveSearchIndex index = new ArchiveSearchIndex(root, Collections.emptyList());
+        Assertions.assertTrue(index.find("letters to kant").isEmpty());
+        Assertions.assertTrue(index.find("").isEmpty());
+    }
+
+    /**
+     * @see ArchiveSearchIndex#ArchiveSearchIndex(ArchiveSearchIndex,ArchiveEntry)
+     * @verifies map positions to entries of copied tree
+     */
+    @Test
+    void ArchiveSearchIndex_shouldMapPositionsToEntriesOfCopiedTree() throws Exception {
+        ArchiveSearchIndex source = new ArchiveSearchIndex(root, Collections.singletonList("unitdate"));
+        ArchiveEntry copiedRoot = new ArchiveEntry(root, null);
+        ArchiveSearchIndex index = new ArchiveSearchIndex(source, copiedRoot);
+
+        ArchiveEntry copiedFile2 = copiedRoot.getSubEntryList().get(0).getSubEntryList().get(1);
+        Assertions.assertSame(copiedFile2, index.getEntry("file2"));
+        List<ArchiveEntry> result = index.find("1794");
+        Assertions.assertEquals(1, result.size());
+        Assertions.assertSame(copiedFile2, result.get(0));
+    }
+}
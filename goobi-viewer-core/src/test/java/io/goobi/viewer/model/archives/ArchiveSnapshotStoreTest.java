@@ -0,0 +1,138 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.archives;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ArchiveSnapshotStoreTest {
+
+    private static final String DATE = "2023-01-01T12:00:00.000Z";
+    private static final String NEWER_DATE = "2023-02-01T12:00:00.000Z";
+
+    @TempDir
+    Path tempDir;
+
+    private ArchiveEntry root;
+    private List<ArchiveMetadataField> configuredFields;
+
+    @BeforeEach
+    void setUp() {
+        ArchiveMetadataField configuredField = new ArchiveMetadataField("unitdate", 1, "./ead:did/ead:unitdate", "element");
+        configuredFields = Collections.singletonList(configuredField);
+
+        root = ArchiveSearchIndexTest.createEntry("root", "Archive", 1, 0);
+        root.setNodeType("collection");
+        root.setDisplayChildren(true);
+        ArchiveEntry file = ArchiveSearchIndexTest.createEntry("file", "Letters", 0, 1);
+        file.setDescriptionLevel("file");
+        ArchiveMetadataField field = new ArchiveMetadataField("unitdate", 1, "./ead:did/ead:unitdate", "element");
+        field.setEadEntry(file);
+        FieldValue value = new FieldValue(field);
+        value.setValue("1794-1805");
+        field.addFieldValue(value);
+        file.getIdentityStatementAreaList().add(field);
+        root.addSubEntry(file);
+    }
+
+    /**
+     * @see ArchiveSnapshotStore#load(ArchiveResource,List)
+     * @verifies restore saved tree
+     */
+    @Test
+    void load_shouldRestoreSavedTree() throws Exception {
+        ArchiveSnapshotStore store = new ArchiveSnapshotStore(tempDir);
+        ArchiveResource resource = new ArchiveResource("db", "resource.xml", DATE, "10");
+        Assertions.assertTrue(store.save(resource, root, configuredFields));
+
+        ArchiveEntry restored = store.load(resource, configuredFields);
+        Assertions.assertNotNull(restored);
+        Assertions.assertEquals("root", restored.getId());
+        Assertions.assertEquals("Archive", restored.getLabel());
+        Assertions.assertEquals("collection", restored.getNodeType());
+        Assertions.assertTrue(restored.isDisplayChildren());
+        Assertions.assertEquals(1, restored.getSubEntryList().size());
+        ArchiveEntry file = restored.getSubEntryList().get(0);
+        Assertions.assertSame(restored, file.getParentNode());
+        Assertions.assertEquals("file", file.getId());
+        Assertions.assertEquals("Letters", file.getLabel());
+        Assertions.assertEquals("file", file.getDescriptionLevel());
+        Assertions.assertEquals(Integer.valueOf(1), file.getHierarchyLevel());
+        Assertions.assertEquals("1794-1805", file.getFieldValue("unitdate"));
+    }
+
+    /**
+     * @see ArchiveSnapshotStore#load(ArchiveResource,List)
+     * @verifies return null if no snapshot exists
+     */
+    @Test
+    void load_shouldReturnNullIfNoSnapshotExists() throws Exception {
+        ArchiveSnapshotStore store = new ArchiveSnapshotStore(tempDir);
+        Assertions.assertNull(store.load(new ArchiveResource("db", "resource.xml", DATE, "10"), configuredFields));
+    }
+
+    /**
+     * @see ArchiveSnapshotStore#load(ArchiveResource,List)
+     * @verifies return null if modified date differs
+     */
+    @Test
+    void load_shouldReturnNullIfModifiedDateDiffers() throws Exception {
+        ArchiveSnapshotStore store = new ArchiveSnapshotStore(tempDir);
+        Assertions.assertTrue(store.save(new ArchiveResource("db", "resource.xml", DATE, "10"), root, configuredFields));
+        Assertions.assertNull(store.load(new ArchiveResource("db", "resource.xml", NEWER_DATE, "10"), configuredFields));
+    }
+
+    /**
+     * @see ArchiveSnapshotStore#load(ArchiveResource,List)
+     * @verifies return null if configured fields differ
+     */
+    @Test
+    void load_shouldReturnNullIfConfiguredFieldsDiffer() throws Exception {
+        ArchiveSnapshotStore store = new ArchiveSnapshotStore(tempDir);
+        ArchiveResource resource = new ArchiveResource("db", "resource.xml", DATE, "10");
+        Assertions.assertTrue(store.save(resource, root, configuredFields));
+        Assertions.assertNull(store.load(resource, Collections.emptyList()));
+    }
+
+    /**
+     * @see ArchiveSnapshotStore#delete(ArchiveResource)
+     * @verifies delete snapshot
+     */
+    @Test
+    void delete_shouldDeleteSnapshot() throws Exception {
+        ArchiveSnapshotStore store = new ArchiveSnapshotStore(tempDir);
+        ArchiveResource resource = new ArchiveResource("db", "resource.xml", DATE, "10");
+        Assertions.assertTrue(store.save(resource, root, configuredFields));
+        Assertions.assertTrue(Files.exists(store.getSnapshotPath(resource)));
+
+        Assertions.assertTrue(store.delete(resource));
+        Assertions.assertFalse(Files.exists(store.getSnapshotPath(resource)));
+        Assertions.assertNull(store.load(resource, configuredFields));
+    }
+}
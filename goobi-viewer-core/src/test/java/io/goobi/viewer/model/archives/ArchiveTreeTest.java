@@ -0,0 +1,82 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.archives;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ArchiveTreeTest {
+
+    /**
+     * @see ArchiveTree#generate(ArchiveEntry,List)
+     * @verifies build search index on demand
+     */
+    @Test
+    void generate_shouldBuildSearchIndexOnDemand() throws Exception {
+        ArchiveEntry root = ArchiveSearchIndexTest.createEntry("root", "Archive", 0, 0);
+        ArchiveEntry series = ArchiveSearchIndexTest.createEntry("series", "Correspondence", 0, 1);
+        ArchiveEntry file = ArchiveSearchIndexTest.createEntry("file", "Letters to Goethe", 0, 2);
+        ArchiveEntry other = ArchiveSearchIndexTest.createEntry("other", "Photographs", 1, 1);
+        root.addSubEntry(series);
+        root.addSubEntry(other);
+        series.addSubEntry(file);
+
+        ArchiveTree tree = new ArchiveTree();
+        tree.generate(root, Collections.emptyList());
+        Assertions.assertNotNull(tree.getSearchIndex());
+        Assertions.assertEquals(4, tree.getSearchIndex().getSize());
+        Assertions.assertSame(file, tree.getEntryById("file"));
+
+        tree.search("goethe");
+        Assertions.assertTrue(file.isSearchHit());
+        // Ancestors are displayed, unrelated branches are not
+        Assertions.assertTrue(series.isDisplaySearch());
+        Assertions.assertTrue(root.isDisplaySearch());
+        Assertions.assertFalse(other.isDisplaySearch());
+        Assertions.assertEquals(3, tree.getFlatEntryList().size());
+    }
+
+    /**
+     * @see ArchiveTree#ArchiveTree(ArchiveTree)
+     * @verifies reuse search index of original tree
+     */
+    @Test
+    void ArchiveTree_shouldReuseSearchIndexOfOriginalTree() throws Exception {
+        ArchiveEntry root = ArchiveSearchIndexTest.createEntry("root", "Archive", 0, 0);
+        ArchiveEntry file = ArchiveSearchIndexTest.createEntry("file", "Letters to Goethe", 0, 1);
+        root.addSubEntry(file);
+        ArchiveTree orig = new ArchiveTree();
+        orig.generate(root, Collections.emptyList());
+
+        ArchiveTree copy = new ArchiveTree(orig);
+        ArchiveEntry copiedFile = copy.getEntryById("file");
+        Assertions.assertNotNull(copiedFile);
+        Assertions.assertNotSame(file, copiedFile);
+        Assertions.assertNotNull(orig.getSearchIndex());
+
+        copy.search("goethe");
+        Assertions.assertTrue(copiedFile.isSearchHit());
+        Assertions.assertFalse(file.isSearchHit());
+    }
+}
@@ -21,6 +21,16 @@
  */
 package io.goobi.viewer.model.archives;
 
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
 import org.jdom2.Document;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -50,4 +60,88 @@ class BasexEADParserTest extends AbstractDatabaseAndSolrEnabledTest {
         ArchiveEntry topEntry = root.getSubEntryList().get(0);
         Assertions.assertEquals("1_Tektonik", topEntry.getId());
     }
+
+    /**
+     * @see BasexEADParser#parseEadStream(Reader)
+     * @verifies parse document correctly
+     */
+    @Test
+    void parseEadStream_shouldParseDocumentCorrectly() throws Exception {
+        try (Reader reader = Files.newBufferedReader(Paths.get("src/test/resources/data/EAD_Export_Tektonik.XML"), StandardCharsets.UTF_8)) {
+            ArchiveEntry root =
+                    new BasexEADParser(null, null)
+                            .readConfiguration(DataManager.getInstance().getConfiguration().getArchiveMetadataConfig())
+                            .parseEadStream(reader);
+            Assertions.assertNotNull(root);
+            Assertions.assertTrue(root.isDisplayChildren());
+            Assertions.assertEquals(1, root.getSubEntryList().size());
+            ArchiveEntry topEntry = root.getSubEntryList().get(0);
+            Assertions.assertEquals("1_Tektonik", topEntry.getId());
+            Assertions.assertSame(root, topEntry.getParentNode());
+        }
+    }
+
+    /**
+     * @see BasexEADParser#parseEadStream(Reader)
+     * @verifies produce same tree as parseEadFile
+     */
+    @Test
+    void parseEadStream_shouldProduceSameTreeAsParseEadFile() throws Exception {
+        BasexEADParser parser =
+                new BasexEADParser(null, null).readConfiguration(DataManager.getInstance().getConfiguration().getArchiveMetadataConfig());
+        List<ArchiveEntry> expected =
+                parser.parseEadFile(XmlTools.readXmlFile("src/test/resources/data/EAD_Export_Tektonik.XML")).getAsFlatList(true);
+        List<ArchiveEntry> actual;
+        try (Reader reader = Files.newBufferedReader(Paths.get("src/test/resources/data/EAD_Export_Tektonik.XML"), StandardCharsets.UTF_8)) {
+            actual = parser.parseEadStream(reader).getAsFlatList(true);
+        }
+
+        Assertions.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            ArchiveEntry exp = expected.get(i);
+            ArchiveEntry act = actual.get(i);
+            // Entries without an identifier in the document get a random one
+            if (!exp.getId().matches("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}")) {
+                Assertions.assertEquals(exp.getId(), act.getId());
+            }
+            Assertions.assertEquals(exp.getLabel(), act.getLabel());
+            Assertions.assertEquals(exp.getOrderNumber(), act.getOrderNumber());
+            Assertions.assertEquals(exp.getHierarchyLevel(), act.getHierarchyLevel());
+            Assertions.assertEquals(exp.getNodeType(), act.getNodeType());
+            Assertions.assertEquals(exp.getDescriptionLevel(), act.getDescriptionLevel());
+            Assertions.assertEquals(exp.getSubEntryList().size(), act.getSubEntryList().size());
+            List<ArchiveMetadataField> expFields = exp.getAllAreaLists();
+            List<ArchiveMetadataField> actFields = act.getAllAreaLists();
+            Assertions.assertEquals(expFields.size(), actFields.size());
+            for (int j = 0; j < expFields.size(); ++j) {
+                Assertions.assertEquals(expFields.get(j).getLabel(), actFields.get(j).getLabel());
+                Assertions.assertEquals(expFields.get(j).getValue(), actFields.get(j).getValue());
+            }
+        }
+    }
+
+    /**
+     * @see BasexEADParser#applyAssociatedRecords(ArchiveEntry,Map)
+     * @verifies set associated records and propagate image flag to ancestors
+     */
+    @Test
+    void applyAssociatedRecords_shouldSetAssociatedRecordsAndPropagateImageFlagToAncestors() throws Exception {
+        ArchiveEntry root = ArchiveSearchIndexTest.createEntry("root", "Archive", 0, 0);
+        ArchiveEntry series = ArchiveSearchIndexTest.createEntry("series", "Correspondence", 0, 1);
+        ArchiveEntry file = ArchiveSearchIndexTest.createEntry("file", "Letters", 0, 2);
+        ArchiveEntry other = ArchiveSearchIndexTest.createEntry("other", "Photographs", 1, 1);
+        root.addSubEntry(series);
+        root.addSubEntry(other);
+        series.addSubEntry(file);
+        other.setAssociatedRecordPi("PPN_OLD");
+
+        Map<String, Entry<String, Boolean>> associatedRecords = Collections.singletonMap("file", new SimpleEntry<>("PPN123", true));
+        BasexEADParser.applyAssociatedRecords(root, associatedRecords);
+        Assertions.assertEquals("PPN123", file.getAssociatedRecordPi());
+        Assertions.assertTrue(file.isContainsImage());
+        Assertions.assertTrue(series.isContainsImage());
+        Assertions.assertTrue(root.isContainsImage());
+        Assertions.assertNull(other.getAssociatedRecordPi());
+        Assertions.assertFalse(other.isContainsImage());
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.iiif.presentation;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.goobi.viewer.AbstractDatabaseEnabledTest;
+import io.goobi.viewer.model.annotation.comments.Comment;
+
+class AnnotationPrefetchTest extends AbstractDatabaseEnabledTest {
+
+    private static Comment createComment(Integer page) {
+        Comment comment = new Comment();
+        comment.setTargetPageOrder(page);
+        return comment;
+    }
+
+    /**
+     * @see AnnotationPrefetch#groupByPage(List)
+     * @verifies group annotations by page order
+     */
+    @Test
+    void groupByPage_shouldGroupAnnotationsByPageOrder() throws Exception {
+        Map<Integer, List<Comment>> result =
+                AnnotationPrefetch.groupByPage(Arrays.asList(createComment(3), createComment(1), createComment(3)));
+        Assertions.assertEquals(Arrays.asList(1, 3), List.copyOf(result.keySet()));
+        Assertions.assertEquals(1, result.get(1).size());
+        Assertions.assertEquals(2, result.get(3).size());
+    }
+
+    /**
+     * @see AnnotationPrefetch#groupByPage(List)
+     * @verifies skip annotations without page order
+     */
+    @Test
+    void groupByPage_shouldSkipAnnotationsWithoutPageOrder() throws Exception {
+        Map<Integer, List<Comment>> result = AnnotationPrefetch.groupByPage(Arrays.asList(createComment(null), createComment(2), null));
+        Assertions.assertEquals(1, result.size());
+        Assertions.assertEquals(1, result.get(2).size());
+    }
+
+    /**
+     * @see AnnotationPrefetch#groupByPage(List)
+     * @verifies return empty map if annotations null
+     */
+    @Test
+    void groupByPage_shouldReturnEmptyMapIfAnnotationsNull() throws Exception {
+        Assertions.assertTrue(AnnotationPrefetch.groupByPage(null).isEmpty());
+    }
+
+    /**
+     * @see AnnotationPrefetch#load(String)
+     * @verifies load comments of all pages
+     */
+    @Test
+    void load_shouldLoadCommentsOfAllPages() throws Exception {
+        AnnotationPrefetch prefetch = AnnotationPrefetch.load("PI_1");
+        Assertions.assertEquals(Arrays.asList(1, 2), prefetch.getPagesWithComments());
+        Assertions.assertEquals(3, prefetch.getComments(1).size());
+        Assertions.assertEquals(1, prefetch.getComments(2).size());
+        Assertions.assertTrue(prefetch.getComments(3).isEmpty());
+        Assertions.assertFalse(prefetch.hasComments(3));
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.iiif.presentation;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.goobi.viewer.model.iiif.presentation.IIIFManifestCache.CachedManifest;
+
+class IIIFManifestCacheTest {
+
+    private static final String MEDIA_TYPE = "application/json";
+
+    @TempDir
+    Path tempDir;
+
+    private static byte[] createManifest(int length) {
+        return "x".repeat(length).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @see IIIFManifestCache#buildKey(String,String,String,String,long,long)
+     * @verifies return different keys for different api versions
+     */
+    @Test
+    void buildKey_shouldReturnDifferentKeysForDifferentApiVersions() throws Exception {
+        Assertions.assertNotEquals(
+                IIIFManifestCache.buildKey("PPN123", "https://example.com/viewer/api/v1/records/PPN123/manifest/", "de", "1|-|-|-", 1L, 2L),
+                IIIFManifestCache.buildKey("PPN123", "https://example.com/viewer/api/v2/records/PPN123/manifest/", "de", "1|-|-|-", 1L, 2L));
+    }
+
+    /**
+     * @see IIIFManifestCache#buildKey(String,String,String,String,long,long)
+     * @verifies return different keys for different access contexts
+     */
+    @Test
+    void buildKey_shouldReturnDifferentKeysForDifferentAccessContexts() throws Exception {
+        Assertions.assertNotEquals(
+                IIIFManifestCache.buildKey("PPN123", "https://example.com/viewer/api/v1/records/PPN123/manifest/", "de", "1|-|-|-", 1L, 2L),
+                IIIFManifestCache.buildKey("PPN123", "https://example.com/viewer/api/v1/records/PPN123/manifest/", "de", "1|-|u1|-", 1L, 2L));
+    }
+
+    /**
+     * @see IIIFManifestCache#get(String)
+     * @verifies return null if not cached
+     */
+    @Test
+    void get_shouldReturnNullIfNotCached() throws Exception {
+        IIIFManifestCache cache = new IIIFManifestCache(10, 1024 * 1024, null);
+        Assertions.assertNull(cache.get("PPN123|v1"));
+        Assertions.assertEquals(1, cache.getMisses());
+    }
+
+    /**
+     * @see IIIFManifestCache#get(String)
+     * @verifies return cached manifest
+     */
+    @Test
+    void get_shouldReturnCachedManifest() throws Exception {
+        IIIFManifestCache cache = new IIIFManifestCache(10, 1024 * 1024, null);
+        cache.put("PPN123", "PPN123|v1", createManifest(10), MEDIA_TYPE);
+        CachedManifest manifest = cache.get("PPN123|v1");
+        Assertions.assertNotNull(manifest);
+        Assertions.assertEquals("PPN123", manifest.getPi());
+        Assertions.assertEquals(MEDIA_TYPE, manifest.getMediaType());
+        Assertions.assertArrayEquals(createManifest(10), manifest.getData());
+        Assertions.assertEquals(1, cache.getHits());
+    }
+
+    /**
+     * @see IIIFManifestCache#claim(String,String)
+     * @verifies return null for first claimant
+     */
+    @Test
+    void claim_shouldReturnNullForFirstClaimant() throws Exception {
+        IIIFManifestCache cache = new IIIFManifestCache(10, 1024 * 1024, null);
+        Assertions.assertNull(cache.claim("PPN123", "PPN123|v1"));
+        Assertions.assertNull(cache.claim("PPN456", "PPN456|v1"));
+    }
+
+    /**
+     * @see IIIFManifestCache#claim(String,String)
+     * @verifies return future for further claimants
+     */
+    @Test
+    void claim_shouldReturnFutureForFurtherClaimants() throws Exception {
+        IIIFManifestCache cache = new IIIFManifestCache(10, 1024 * 1024, null);
+        Assertions.assertNull(cache.claim("PPN123", "PPN123|v1"));
+        CompletableFuture<CachedManifest> future = cache.claim("PPN123", "PPN123|v1");
+        Assertions.assertNotNull(future);
+        Assertions.assertFalse(future.isDone());
+
+        // Released claims complete with null
+        cache.release("PPN123|v1");
+        Assertions.assertNull(future.get());
+        Assertions.assertNull(cache.claim("PPN123", "PPN123|v1"));
+    }
+
+    /**
+     * @see IIIFManifestCache#put(String,String,byte[],String)
+     * @verifies complete claim
+     */
+    @Test
+    void put_shouldCompleteClaim() throws Exception {
+        IIIFManifestCache cache = new IIIFManifestCache(10, 1024 * 1024, null);
+        Assertions.assertNull(cache.claim("PPN123", "PPN123|v1"));
+        CompletableFuture<CachedManifest> future = cache.claim("PPN123", "PPN123|v1");
+        cache.put("PPN123", "PPN123|v1", createManifest(10), MEDIA_TYPE);
+        Assertions.assertTrue(future.isDone());
+        Assertions.assertNotNull(future.get());
+        Assertions.assertArrayEquals(createManifest(10), future.get().getData());
+    }
+
+    /**
+     * @see IIIFManifestCache#put(String,String,byte[],String)
+     * @verifies evict least recently used entries if max size exceeded
+     */
+    @Test
+    void put_shouldEvictLeastRecentlyUsedEntriesIfMaxSizeExceeded() throws Exception {
+        IIIFManifestCache cache = new IIIFManifestCache(10, 10000, null);
+        cache.put("PPN1", "PPN1|v1", createManifest(2000), MEDIA_TYPE);
+        cache.put("PPN2", "PPN2|v1", createManifest(2000), MEDIA_TYPE);
+        cache.put("PPN3", "PPN3|v1", createManifest(2000), MEDIA_TYPE);
+        cache.put("PPN4", "PPN4|v1", createManifest(2000), MEDIA_TYPE);
+        // Access PPN1 so that PPN2 becomes the least recently used entry
+        Assertions.assertNotNull(cache.get("PPN1|v1"));
+        cache.put("PPN5", "PPN5|v1", createManifest(2500), MEDIA_TYPE);
+
+        Assertions.assertTrue(cache.getSizeInBytes() <= 10000);
+        Assertions.assertEquals(1, cache.getEvictions());
+        Assertions.assertNotNull(cache.get("PPN1|v1"));
+        Assertions.assertNull(cache.get("PPN2|v1"));
+        Assertions.assertNotNull(cache.get("PPN5|v1"));
+    }
+
+    /**
+     * @see IIIFManifestCache#put(String,String,byte[],String)
+     * @verifies not add manifest larger than quarter of budget
+     */
+    @Test
+    void put_shouldNotAddManifestLargerThanQuarterOfBudget() throws Exception {
+        IIIFManifestCache cache = new IIIFManifestCache(10, 10000, null);
+        Assertions.assertNull(cache.claim("PPN123", "PPN123|v1"));
+        CompletableFuture<CachedManifest> future = cache.claim("PPN123", "PPN123|v1");
+        Assertions.assertNull(cache.put("PPN123", "PPN123|v1", createManifest(5000), MEDIA_TYPE));
+        Assertions.assertEquals(0, cache.getSize());
+        // Waiting requests must not block
+        Assertions.assertTrue(future.isDone());
+        Assertions.assertNull(future.get());
+    }
+
+    /**
+     * @see IIIFManifestCache#put(String,String,byte[],String)
+     * @verifies store manifest in disk folder if configured
+     */
+    @Test
+    void put_shouldStoreManifestInDiskFolderIfConfigured() throws Exception {
+        Path folder = tempDir.resolve("manifests");
+        IIIFManifestCache cache = new IIIFManifestCache(10, 1024 * 1024, folder);
+        cache.put("PPN123", "PPN123|v1", createManifest(100), MEDIA_TYPE);
+        try (Stream<Path> files = Files.list(folder)) {
+            Assertions.assertEquals(1, files.count());
+        }
+        Assertions.assertArrayEquals(createManifest(100), cache.get("PPN123|v1").getData());
+        Assertions.assertEquals(100, cache.getSizeInBytes());
+
+        cache.invalidate("PPN123");
+        try (Stream<Path> files = Files.list(folder)) {
+            Assertions.assertEquals(0, files.count());
+        }
+    }
+
+    /**
+     * @see IIIFManifestCache#IIIFManifestCache(int,long,Path)
+     * @verifies delete manifest files left in disk folder
+     */
+    @Test
+    void IIIFManifestCache_shouldDeleteManifestFilesLeftInDiskFolder() throws Exception {
+        Path folder = tempDir.resolve("manifests");
+        IIIFManifestCache cache = new IIIFManifestCache(10, 1024 * 1024, folder);
+        cache.put("PPN123", "PPN123|v1", createManifest(100), MEDIA_TYPE);
+
+        // New instance after a restart
+        new IIIFManifestCache(10, 1024 * 1024, folder);
+        try (Stream<Path> files = Files.list(folder)) {
+            Assertions.assertEquals(0, files.count());
+        }
+    }
+
+    /**
+     * @see IIIFManifestCache#put(String,String,byte[],String)
+     * @verifies not add manifest if record invalidated since claim
+     */
+    @Test
+    void put_shouldNotAddManifestIfRecordInvalidatedSinceClaim() throws Exception {
+        IIIFManifestCache cache = new IIIFManifestCache(10, 1024 * 1024, null);
+        Assertions.assertNull(cache.claim("PPN123", "PPN123|v1"));
+        Assertions.assertNull(cache.claim("PPN456", "PPN456|v1"));
+        CompletableFuture<CachedManifest> future = cache.claim("PPN123", "PPN123|v1");
+
+        // Comment added while the manifests are being built
+        cache.invalidate("PPN123");
+        Assertions.assertNull(cache.put("PPN123", "PPN123|v1", createManifest(10), MEDIA_TYPE));
+        Assertions.assertNotNull(cache.put("PPN456", "PPN456|v1", createManifest(10), MEDIA_TYPE));
+        Assertions.assertNull(cache.get("PPN123|v1"));
+        Assertions.assertEquals(1, cache.getSize());
+        // Waiting requests build the manifest themselves
+        Assertions.assertTrue(future.isDone());
+        Assertions.assertNull(future.get());
+
+        // Builds claimed after the invalidation are added
+        Assertions.assertNull(cache.claim("PPN123", "PPN123|v1"));
+        Assertions.assertNotNull(cache.put("PPN123", "PPN123|v1", createManifest(10), MEDIA_TYPE));
+    }
+
+    /**
+     * @see IIIFManifestCache#invalidate(String)
+     * @verifies remove all manifests for record
+     */
+    @Test
+    void invalidate_shouldRemoveAllManifestsForRecord() throws Exception {
+        IIIFManifestCache cache = new IIIFManifestCache(10, 1024 * 1024, null);
+        cache.put("PPN123", "PPN123|v1", createManifest(10), MEDIA_TYPE);
+        cache.put("PPN123", "PPN123|v2", createManifest(10), MEDIA_TYPE);
+        cache.put("PPN456", "PPN456|v1", createManifest(10), MEDIA_TYPE);
+
+        Assertions.assertEquals(2, cache.invalidate("PPN123"));
+        Assertions.assertEquals(1, cache.getSize());
+        Assertions.assertEquals(10, cache.getSizeInBytes());
+        Assertions.assertNotNull(cache.get("PPN456|v1"));
+    }
+}
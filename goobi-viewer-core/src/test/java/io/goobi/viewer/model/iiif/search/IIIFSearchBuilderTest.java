@@ -0,0 +1,104 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.iiif.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.goobi.viewer.exceptions.PresentationException;
+import io.goobi.viewer.model.iiif.search.IIIFSearchBuilder.SearchBranch;
+
+class IIIFSearchBuilderTest {
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @see IIIFSearchBuilder#executeConcurrently(List,ExecutorService,long)
+     * @verifies return results in order of given searches
+     */
+    @Test
+    void executeConcurrently_shouldReturnResultsInOrderOfGivenSearches() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        List<SearchBranch<String>> searches = Arrays.asList(
+                new SearchBranch<>(() -> {
+                    // Finishes last
+                    latch.await(5, TimeUnit.SECONDS);
+                    return "first";
+                }, false),
+                new SearchBranch<>(() -> "second", true),
+                new SearchBranch<>(() -> {
+                    latch.countDown();
+                    return "third";
+                }, false));
+
+        Assertions.assertEquals(Arrays.asList("first", "second", "third"), IIIFSearchBuilder.executeConcurrently(searches, executor, 10000));
+    }
+
+    /**
+     * @see IIIFSearchBuilder#executeConcurrently(List,ExecutorService,long)
+     * @verifies execute searches bound to calling thread on calling thread
+     */
+    @Test
+    void executeConcurrently_shouldExecuteSearchesBoundToCallingThreadOnCallingThread() throws Exception {
+        Thread caller = Thread.currentThread();
+        List<SearchBranch<Boolean>> searches = Arrays.asList(
+                new SearchBranch<>(() -> Thread.currentThread() == caller, true),
+                new SearchBranch<>(() -> Thread.currentThread() == caller, false));
+
+        Assertions.assertEquals(Arrays.asList(true, false), IIIFSearchBuilder.executeConcurrently(searches, executor, 10000));
+    }
+
+    /**
+     * @see IIIFSearchBuilder#executeConcurrently(List,ExecutorService,long)
+     * @verifies throw PresentationException if search times out
+     */
+    @Test
+    void executeConcurrently_shouldThrowPresentationExceptionIfSearchTimesOut() throws Exception {
+        List<SearchBranch<String>> searches = Arrays.asList(
+                new SearchBranch<>(() -> "fast", false),
+                new SearchBranch<>(() -> {
+                    Thread.sleep(10000);
+                    return "slow";
+                }, false));
+
+        Assertions.assertThrows(PresentationException.class, () -> IIIFSearchBuilder.executeConcurrently(searches, executor, 100));
+    }
+}
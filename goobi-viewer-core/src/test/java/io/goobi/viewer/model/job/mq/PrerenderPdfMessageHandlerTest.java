@@ -22,17 +22,21 @@
 package io.goobi.viewer.model.job.mq;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
 
 import de.unigoettingen.sub.commons.contentlib.servlet.model.ContentServerConfiguration;
@@ -78,6 +82,86 @@ class PrerenderPdfMessageHandlerTest {
 
     }
 
+    @Test
+    void test_parallelAndIncremental() throws PresentationException, IndexUnreachableException, IOException {
+        List<Path> imageFiles = FileTools.listFiles(imageFolder, FileTools.IMAGE_NAME_FILTER);
+
+        ContentServerConfiguration contentServerConfig = ContentServerConfiguration.getInstance(contentServerConfigPath.toString());
+        ProcessDataResolver processDataResolver = Mockito.mock(ProcessDataResolver.class);
+        Mockito.when(processDataResolver.getDataFolders(pi, "media", "pdf", "alto")).thenReturn(Map.of("media", imageFolder, "pdf", pdfFolder));
+
+        PrerenderPdfMessageHandler handler = new PrerenderPdfMessageHandler(processDataResolver, contentServerConfig, 4, 0);
+
+        ViewerMessage ticket = new ViewerMessage(TaskType.PRERENDER_PDF.name());
+        ticket.getProperties().put("pi", pi);
+        ticket.getProperties().put("variant", "small");
+        ticket.getProperties().put("force", "false");
+        assertEquals(MessageStatus.FINISH, handler.call(ticket, null));
+        assertEquals(imageFiles.size() + "/" + imageFiles.size(), ticket.getProperties().get(PrerenderPdfMessageHandler.MESSAGE_PROPERTY_PROGRESS));
+        assertEquals(imageFiles.size(), FileTools.listFiles(pdfFolder, FileTools.PDF_NAME_FILTER).size());
+
+        // Second run has nothing left to render
+        ViewerMessage ticket2 = new ViewerMessage(TaskType.PRERENDER_PDF.name());
+        ticket2.getProperties().putAll(ticket.getProperties());
+        ticket2.getProperties().remove(PrerenderPdfMessageHandler.MESSAGE_PROPERTY_PROGRESS);
+        assertEquals(MessageStatus.FINISH, handler.call(ticket2, null));
+        assertNull(ticket2.getProperties().get(PrerenderPdfMessageHandler.MESSAGE_PROPERTY_PROGRESS));
+    }
+
+    /**
+     * @see PrerenderPdfMessageHandler#getOutdatedImageFiles(List,Path,Path)
+     * @verifies return images without pdf
+     */
+    @Test
+    void getOutdatedImageFiles_shouldReturnImagesWithoutPdf(@TempDir Path tempDir) throws Exception {
+        Path image = createFile(tempDir.resolve("media/00000001.tif"), 1000);
+        createFile(tempDir.resolve("pdf/00000002.pdf"), 2000);
+        assertEquals(List.of(image), PrerenderPdfMessageHandler.getOutdatedImageFiles(List.of(image), tempDir.resolve("pdf"), null));
+    }
+
+    /**
+     * @see PrerenderPdfMessageHandler#getOutdatedImageFiles(List,Path,Path)
+     * @verifies return images newer than pdf
+     */
+    @Test
+    void getOutdatedImageFiles_shouldReturnImagesNewerThanPdf(@TempDir Path tempDir) throws Exception {
+        Path image = createFile(tempDir.resolve("media/00000001.tif"), 2000);
+        createFile(tempDir.resolve("pdf/00000001.pdf"), 1000);
+        assertEquals(List.of(image), PrerenderPdfMessageHandler.getOutdatedImageFiles(List.of(image), tempDir.resolve("pdf"), null));
+    }
+
+    /**
+     * @see PrerenderPdfMessageHandler#getOutdatedImageFiles(List,Path,Path)
+     * @verifies return images with alto newer than pdf
+     */
+    @Test
+    void getOutdatedImageFiles_shouldReturnImagesWithAltoNewerThanPdf(@TempDir Path tempDir) throws Exception {
+        Path image = createFile(tempDir.resolve("media/00000001.tif"), 1000);
+        createFile(tempDir.resolve("pdf/00000001.pdf"), 2000);
+        createFile(tempDir.resolve("alto/00000001.xml"), 3000);
+        assertEquals(List.of(image),
+                PrerenderPdfMessageHandler.getOutdatedImageFiles(List.of(image), tempDir.resolve("pdf"), tempDir.resolve("alto")));
+    }
+
+    /**
+     * @see PrerenderPdfMessageHandler#getOutdatedImageFiles(List,Path,Path)
+     * @verifies not return images with up to date pdf
+     */
+    @Test
+    void getOutdatedImageFiles_shouldNotReturnImagesWithUpToDatePdf(@TempDir Path tempDir) throws Exception {
+        Path image = createFile(tempDir.resolve("media/00000001.tif"), 1000);
+        createFile(tempDir.resolve("pdf/00000001.pdf"), 3000);
+        createFile(tempDir.resolve("alto/00000001.xml"), 2000);
+        assertTrue(PrerenderPdfMessageHandler.getOutdatedImageFiles(List.of(image), tempDir.resolve("pdf"), tempDir.resolve("alto")).isEmpty());
+    }
+
+    private static Path createFile(Path path, long lastModified) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.createFile(path);
+        Files.setLastModifiedTime(path, FileTime.fromMillis(lastModified));
+        return path;
+    }
+
     @AfterEach
     void cleanup() throws IOException {
         FileUtils.deleteDirectory(pdfFolder.toFile());
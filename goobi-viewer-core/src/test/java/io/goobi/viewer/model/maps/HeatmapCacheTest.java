@@ -0,0 +1,272 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class HeatmapCacheTest {
+
+    private static final String HEATMAP = "{\"gridLevel\":2,\"count\":1}";
+
+    /**
+     * @see HeatmapCache#quantizeRegion(String)
+     * @verifies snap region to tile grid
+     */
+    @Test
+    void quantizeRegion_shouldSnapRegionToTileGrid() throws Exception {
+        Assertions.assertEquals("[\"0 0\" TO \"90 90\"]", HeatmapCache.quantizeRegion("[\"10.5 20.3\" TO \"50.2 60.1\"]"));
+    }
+
+    /**
+     * @see HeatmapCache#quantizeRegion(String)
+     * @verifies return same region for slightly moved regions
+     */
+    @Test
+    void quantizeRegion_shouldReturnSameRegionForSlightlyMovedRegions() throws Exception {
+        Assertions.assertEquals(HeatmapCache.quantizeRegion("[\"10.5 20.3\" TO \"50.2 60.1\"]"),
+                HeatmapCache.quantizeRegion("[\"11 21\" TO \"51 61\"]"));
+    }
+
+    /**
+     * @see HeatmapCache#quantizeRegion(String)
+     * @verifies return tile aligned regions unchanged
+     */
+    @Test
+    void quantizeRegion_shouldReturnTileAlignedRegionsUnchanged() throws Exception {
+        Assertions.assertEquals("[\"0 0\" TO \"90 45\"]", HeatmapCache.quantizeRegion("[\"0 0\" TO \"90 45\"]"));
+        Assertions.assertEquals(HeatmapCache.WORLD_REGION, HeatmapCache.quantizeRegion(HeatmapCache.WORLD_REGION));
+    }
+
+    /**
+     * @see HeatmapCache#quantizeRegion(String)
+     * @verifies grow regions with tile aspect ratio by less than factor four per dimension
+     */
+    @Test
+    void quantizeRegion_shouldGrowRegionsWithTileAspectRatioByLessThanFactorFourPerDimension() throws Exception {
+        Pattern pattern = Pattern.compile("\\[\"(\\S+) (\\S+)\" TO \"(\\S+) (\\S+)\"\\]");
+        for (double width : new double[] { 0.01, 0.7, 3, 23.3, 45.1, 100, 200 }) {
+            for (double offset : new double[] { 0, 0.37, 1.9, 13.5, 44.9 }) {
+                double minX = -170 + offset;
+                double minY = -80 + offset / 2;
+                String region =
+                        HeatmapCache.quantizeRegion("[\"" + minX + " " + minY + "\" TO \"" + (minX + width) + " " + (minY + width / 2) + "\"]");
+                Matcher m = pattern.matcher(region);
+                Assertions.assertTrue(m.matches(), region);
+                Assertions.assertTrue(Double.parseDouble(m.group(3)) - Double.parseDouble(m.group(1)) < 4 * width, region);
+                Assertions.assertTrue(Double.parseDouble(m.group(4)) - Double.parseDouble(m.group(2)) < 2 * width, region);
+            }
+        }
+    }
+
+    /**
+     * @see HeatmapCache#quantizeRegion(String)
+     * @verifies return null for regions crossing the antimeridian
+     */
+    @Test
+    void quantizeRegion_shouldReturnNullForRegionsCrossingTheAntimeridian() throws Exception {
+        Assertions.assertNull(HeatmapCache.quantizeRegion("[\"170 0\" TO \"-170 10\"]"));
+    }
+
+    /**
+     * @see HeatmapCache#getDistErr(String)
+     * @verifies round down maximum cell size of requested region
+     */
+    @Test
+    void getDistErr_shouldRoundDownMaximumCellSizeOfRequestedRegion() throws Exception {
+        // Center and corner of the whole world are 90 degrees apart
+        double distErr = HeatmapCache.getDistErr(HeatmapCache.WORLD_REGION);
+        Assertions.assertTrue(distErr <= 90 * HeatmapCache.DIST_ERR_PCT);
+        Assertions.assertTrue(distErr > 90 * HeatmapCache.DIST_ERR_PCT / Math.pow(2, 0.25));
+        Assertions.assertNull(HeatmapCache.getDistErr("[\"170 0\" TO \"-170 10\"]"));
+    }
+
+    /**
+     * @see HeatmapCache#getDistErr(String)
+     * @verifies return same value for slightly moved regions
+     */
+    @Test
+    void getDistErr_shouldReturnSameValueForSlightlyMovedRegions() throws Exception {
+        Assertions.assertEquals(HeatmapCache.getDistErr("[\"10.5 20.3\" TO \"50.2 60.1\"]"),
+                HeatmapCache.getDistErr("[\"11 21\" TO \"51 61\"]"));
+    }
+
+    /**
+     * @see HeatmapCache#getDistErr(String)
+     * @verifies return smaller value for smaller regions
+     */
+    @Test
+    void getDistErr_shouldReturnSmallerValueForSmallerRegions() throws Exception {
+        Assertions.assertTrue(HeatmapCache.getDistErr("[\"0 0\" TO \"12 6\"]") < HeatmapCache.getDistErr("[\"0 0\" TO \"22 11\"]"));
+    }
+
+    /**
+     * @see HeatmapCache#getPrecomputableRegions(int)
+     * @verifies return world region for level 0
+     */
+    @Test
+    void getPrecomputableRegions_shouldReturnWorldRegionForLevel0() throws Exception {
+        List<String> regions = HeatmapCache.getPrecomputableRegions(1);
+        Assertions.assertEquals(1, regions.size());
+        Assertions.assertEquals(HeatmapCache.WORLD_REGION, regions.get(0));
+    }
+
+    /**
+     * @see HeatmapCache#getPrecomputableRegions(int)
+     * @verifies return each block of up to 2x2 tiles once
+     */
+    @Test
+    void getPrecomputableRegions_shouldReturnEachBlockOfUpTo2x2TilesOnce() throws Exception {
+        // Level 1 has 4 single tiles, 4 blocks of two tiles and the whole world, which is also the only level 0 tile
+        Assertions.assertEquals(9, HeatmapCache.getPrecomputableRegions(2).size());
+    }
+
+    /**
+     * @see HeatmapCache#getPrecomputableRegionCount(int)
+     * @verifies return number of precomputable regions
+     */
+    @Test
+    void getPrecomputableRegionCount_shouldReturnNumberOfPrecomputableRegions() throws Exception {
+        for (int levels = 0; levels <= 4; ++levels) {
+            Assertions.assertEquals(HeatmapCache.getPrecomputableRegions(levels).size(), HeatmapCache.getPrecomputableRegionCount(levels));
+        }
+    }
+
+    /**
+     * @see HeatmapCache#getPrecomputeLevels(int,int,int)
+     * @verifies return configured levels if all regions fit
+     */
+    @Test
+    void getPrecomputeLevels_shouldReturnConfiguredLevelsIfAllRegionsFit() throws Exception {
+        // 9 regions for 2 levels, times 3 feature sets
+        Assertions.assertEquals(2, HeatmapCache.getPrecomputeLevels(2, 3, 54));
+    }
+
+    /**
+     * @see HeatmapCache#getPrecomputeLevels(int,int,int)
+     * @verifies reduce levels if regions exceed half of cache
+     */
+    @Test
+    void getPrecomputeLevels_shouldReduceLevelsIfRegionsExceedHalfOfCache() throws Exception {
+        // 54 regions for 3 levels exceed half of 100 entries
+        Assertions.assertEquals(2, HeatmapCache.getPrecomputeLevels(3, 1, 100));
+        Assertions.assertEquals(3, HeatmapCache.getPrecomputeLevels(3, 1, 108));
+    }
+
+    /**
+     * @see HeatmapCache#getPrecomputeLevels(int,int,int)
+     * @verifies return zero if world regions do not fit
+     */
+    @Test
+    void getPrecomputeLevels_shouldReturnZeroIfWorldRegionsDoNotFit() throws Exception {
+        Assertions.assertEquals(0, HeatmapCache.getPrecomputeLevels(2, 10, 10));
+    }
+
+    /**
+     * @see HeatmapCache#get(String,String,String,String,Integer,HeatmapLoader)
+     * @verifies load heatmap only once for slightly moved regions
+     */
+    @Test
+    void get_shouldLoadHeatmapOnlyOnceForSlightlyMovedRegions() throws Exception {
+        HeatmapCache cache = new HeatmapCache(10, 60000, () -> 1);
+        AtomicInteger loadCount = new AtomicInteger();
+        cache.get("WKT_COORDS", "[\"10.5 20.3\" TO \"50.2 60.1\"]", "*:*", "", null, (region, distErr) -> {
+            loadCount.incrementAndGet();
+            return HEATMAP;
+        });
+        String heatmap = cache.get("WKT_COORDS", "[\"11 21\" TO \"51 61\"]", "*:*", "", null, (region, distErr) -> {
+            loadCount.incrementAndGet();
+            return HEATMAP;
+        });
+        Assertions.assertEquals(HEATMAP, heatmap);
+        Assertions.assertEquals(1, loadCount.get());
+        Assertions.assertEquals(1, cache.getSize());
+    }
+
+    /**
+     * @see HeatmapCache#get(String,String,String,String,Integer,HeatmapLoader)
+     * @verifies not cache empty heatmaps
+     */
+    @Test
+    void get_shouldNotCacheEmptyHeatmaps() throws Exception {
+        HeatmapCache cache = new HeatmapCache(10, 60000, () -> 1);
+        cache.get("WKT_COORDS", HeatmapCache.WORLD_REGION, "*:*", "", null, (region, distErr) -> "{}");
+        Assertions.assertEquals(0, cache.getSize());
+    }
+
+    /**
+     * @see HeatmapCache#get(String,String,String,String,Integer,HeatmapLoader)
+     * @verifies reload heatmap if index version changed
+     */
+    @Test
+    void get_shouldReloadHeatmapIfIndexVersionChanged() throws Exception {
+        long[] version = { 1 };
+        HeatmapCache cache = new HeatmapCache(10, 0, () -> version[0]);
+        AtomicInteger loadCount = new AtomicInteger();
+        cache.get("WKT_COORDS", HeatmapCache.WORLD_REGION, "*:*", "", null, (region, distErr) -> {
+            loadCount.incrementAndGet();
+            return HEATMAP;
+        });
+        version[0] = 2;
+        Thread.sleep(2);
+        cache.get("WKT_COORDS", HeatmapCache.WORLD_REGION, "*:*", "", null, (region, distErr) -> {
+            loadCount.incrementAndGet();
+            return HEATMAP;
+        });
+        Assertions.assertEquals(2, loadCount.get());
+    }
+
+    /**
+     * @see HeatmapCache#get(String,String,String,String,Integer,HeatmapLoader)
+     * @verifies load heatmap with grid resolution of requested region
+     */
+    @Test
+    void get_shouldLoadHeatmapWithGridResolutionOfRequestedRegion() throws Exception {
+        HeatmapCache cache = new HeatmapCache(10, 60000, () -> 1);
+        // Both regions are snapped to the same tile
+        Assertions.assertEquals(HeatmapCache.quantizeRegion("[\"0 0\" TO \"22 11\"]"), HeatmapCache.quantizeRegion("[\"0 0\" TO \"12 6\"]"));
+        List<Double> distErrs = new ArrayList<>();
+        cache.get("WKT_COORDS", "[\"0 0\" TO \"22 11\"]", "*:*", "", null, (region, distErr) -> {
+            distErrs.add(distErr);
+            return HEATMAP;
+        });
+        cache.get("WKT_COORDS", "[\"0 0\" TO \"12 6\"]", "*:*", "", null, (region, distErr) -> {
+            distErrs.add(distErr);
+            return HEATMAP;
+        });
+        Assertions.assertEquals(List.of(HeatmapCache.getDistErr("[\"0 0\" TO \"22 11\"]"), HeatmapCache.getDistErr("[\"0 0\" TO \"12 6\"]")),
+                distErrs);
+
+        // A requested grid level is used as is
+        cache.get("WKT_COORDS", "[\"0 0\" TO \"12 6\"]", "*:*", "", 3, (region, distErr) -> {
+            distErrs.add(distErr);
+            return HEATMAP;
+        });
+        Assertions.assertNull(distErrs.get(2));
+    }
+}
@@ -44,6 +44,7 @@ import org.apache.poi.xssf.streaming.SXSSFSheet;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocumentList;
+import org.jsoup.Jsoup;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -142,6 +143,55 @@ class SearchHelperTest extends AbstractDatabaseAndSolrEnabledTest {
 
     }
 
+    /**
+     * @see SearchHelper#getCachedPersonalFilterQuerySuffix(User,String,Optional,String)
+     * @verifies return cached suffix for same access context
+     */
+    @Test
+    void getCachedPersonalFilterQuerySuffix_shouldReturnCachedSuffixForSameAccessContext() throws Exception {
+        SearchHelper.clearPersonalFilterQuerySuffixCache();
+        String suffix1 = SearchHelper.getCachedPersonalFilterQuerySuffix(null, "1.2.3.4", Optional.empty(), IPrivilegeHolder.PRIV_LIST);
+        Assertions.assertEquals(SearchHelper.getPersonalFilterQuerySuffix(DataManager.getInstance().getDao().getRecordLicenseTypes(), null,
+                "1.2.3.4", Optional.empty(), IPrivilegeHolder.PRIV_LIST), suffix1);
+        // Address from the same IP range
+        String suffix2 = SearchHelper.getCachedPersonalFilterQuerySuffix(null, "1.2.3.5", Optional.empty(), IPrivilegeHolder.PRIV_LIST);
+        Assertions.assertSame(suffix1, suffix2);
+        SearchHelper.clearPersonalFilterQuerySuffixCache();
+    }
+
+    /**
+     * @see SearchHelper#buildAccessContextKey(User,String,Optional,String)
+     * @verifies return same key for addresses in same ip ranges
+     */
+    @Test
+    void buildAccessContextKey_shouldReturnSameKeyForAddressesInSameIpRanges() throws Exception {
+        String key = SearchHelper.buildAccessContextKey(null, "1.2.3.10", Optional.empty(), IPrivilegeHolder.PRIV_LIST);
+        Assertions.assertEquals(key, SearchHelper.buildAccessContextKey(null, "1.2.3.20", Optional.empty(), IPrivilegeHolder.PRIV_LIST));
+        Assertions.assertNotEquals(key, SearchHelper.buildAccessContextKey(null, "5.6.7.8", Optional.empty(), IPrivilegeHolder.PRIV_LIST));
+        Assertions.assertNotEquals(key, SearchHelper.buildAccessContextKey(null, "1.2.3.10", Optional.empty(), IPrivilegeHolder.PRIV_DOWNLOAD_PDF));
+    }
+
+    /**
+     * @see SearchHelper#buildAccessContextKey(User,String,Optional,String)
+     * @verifies return different keys for different users
+     */
+    @Test
+    void buildAccessContextKey_shouldReturnDifferentKeysForDifferentUsers() throws Exception {
+        User user1 = DataManager.getInstance().getDao().getUser(1);
+        User user2 = DataManager.getInstance().getDao().getUser(2);
+        Assertions.assertNotEquals(SearchHelper.buildAccessContextKey(user1, null, Optional.empty(), IPrivilegeHolder.PRIV_LIST),
+                SearchHelper.buildAccessContextKey(user2, null, Optional.empty(), IPrivilegeHolder.PRIV_LIST));
+    }
+
+    /**
+     * @see SearchHelper#buildAccessContextKey(User,String,Optional,String)
+     * @verifies return null if user not persisted
+     */
+    @Test
+    void buildAccessContextKey_shouldReturnNullIfUserNotPersisted() throws Exception {
+        Assertions.assertNull(SearchHelper.buildAccessContextKey(new User(), null, Optional.empty(), IPrivilegeHolder.PRIV_LIST));
+    }
+
     /**
      * @see SearchHelper#getPersonalFilterQuerySuffix(User,String)
      * @verifies construct suffix correctly
@@ -429,6 +479,18 @@ class SearchHelperTest extends AbstractDatabaseAndSolrEnabledTest {
         Assertions.assertEquals(2, truncated.stream().filter(t -> t.contains("<mark class=\"search-list--highlight\">dolore</mark>")).count());
     }
 
+    /**
+     * @see SearchHelper#toPlainText(String)
+     * @verifies return same result as jsoup
+     */
+    @Test
+    void toPlainText_shouldReturnSameResultAsJsoup() throws Exception {
+        String[] values = { "one<br>two", "  one \n\t two  ", "one\u00a0\u00a0two", "one\u200btwo", "one &amp; two", "\r\none\r\n\r\ntwo\r\n" };
+        for (String value : values) {
+            Assertions.assertEquals(Jsoup.parse(value).text(), SearchHelper.toPlainText(value));
+        }
+    }
+
     /**
      * @see SearchHelper#extractSearchTermsFromQuery(String)
      * @verifies extract all values from query except from NOT blocks
@@ -1924,4 +1986,24 @@ class SearchHelperTest extends AbstractDatabaseAndSolrEnabledTest {
     void prepareQuery_shouldWrapQueryCorrectly() throws Exception {
         assertEquals("+(foo:bar)", SearchHelper.prepareQuery("foo:bar"));
     }
+
+    /**
+     * @see SearchHelper#buildHeatmapQuery(String,String)
+     * @verifies add suffixes and exclude polygons
+     */
+    @Test
+    void buildHeatmapQuery_shouldAddSuffixesAndExcludePolygons() throws Exception {
+        assertEquals("+(BOOL_WKT_COORDS:*) +(-MD_GEOJSON_POLYGON:* -MD_GPS_POLYGON:* *:*) -DC:blacklisted",
+                SearchHelper.buildHeatmapQuery("BOOL_WKT_COORDS:*", " -DC:blacklisted"));
+    }
+
+    /**
+     * @see SearchHelper#buildHeatmapQuery(String,String)
+     * @verifies exclude polygons in join queries
+     */
+    @Test
+    void buildHeatmapQuery_shouldExcludePolygonsInJoinQueries() throws Exception {
+        assertEquals("{!join from=PI_TOPSTRUCT to=PI}(+DC:foo -MD_GEOJSON_POLYGON:* -MD_GPS_POLYGON:*)",
+                SearchHelper.buildHeatmapQuery("{!join from=PI_TOPSTRUCT to=PI}(+DC:foo )", ""));
+    }
 }
@@ -25,14 +25,18 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
 import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
 
 import de.intranda.digiverso.normdataimporter.NormDataImporter;
 import io.goobi.viewer.AbstractDatabaseAndSolrEnabledTest;
@@ -43,6 +47,7 @@ import io.goobi.viewer.controller.StringConstants;
 import io.goobi.viewer.controller.imaging.IIIFUrlHandler;
 import io.goobi.viewer.controller.imaging.ThumbnailHandler;
 import io.goobi.viewer.solr.SolrConstants;
+import io.goobi.viewer.solr.SolrSearchIndex;
 import io.goobi.viewer.solr.SolrConstants.DocType;
 import io.goobi.viewer.solr.SolrTools;
 
@@ -561,4 +566,140 @@ class SearchHitTest extends AbstractDatabaseAndSolrEnabledTest {
                 + "\" /></td><td>" + title
                 + "</td></tr>", fragment);
     }
+
+    /**
+     * @see SearchHit#populateChildren(int,int,Locale,javax.servlet.http.HttpServletRequest)
+     * @verifies retrieve owner docs with a single batched query
+     */
+    @Test
+    void populateChildren_shouldRetrieveOwnerDocsWithASingleBatchedQuery() throws Exception {
+        SolrSearchIndex originalSearchIndex = DataManager.getInstance().getSearchIndex();
+        SolrDocument topDoc = originalSearchIndex.getDocumentByIddoc(String.valueOf(iddocKleiuniv));
+        Assertions.assertNotNull(topDoc);
+        List<SolrDocument> ownerDocs = originalSearchIndex.search(SolrConstants.PI_TOPSTRUCT + ":" + PI_KLEIUNIV + " AND " + SolrConstants.DOCTYPE
+                + ":" + DocType.DOCSTRCT.name() + " -" + SolrConstants.IDDOC + ":" + iddocKleiuniv, 0, 3, null, null, null).getResults();
+        Assertions.assertEquals(3, ownerDocs.size());
+
+        // Two metadata child docs per owner
+        SolrDocumentList childDocs = new SolrDocumentList();
+        int iddoc = 1;
+        for (SolrDocument ownerDoc : ownerDocs) {
+            for (int i = 0; i < 2; ++i) {
+                SolrDocument childDoc = new SolrDocument();
+                childDoc.addField(SolrConstants.IDDOC, String.valueOf(iddoc++));
+                childDoc.addField(SolrConstants.DOCTYPE, DocType.METADATA.name());
+                childDoc.addField(SolrConstants.PI_TOPSTRUCT, PI_KLEIUNIV);
+                childDoc.addField(SolrConstants.IDDOC_OWNER, ownerDoc.getFieldValue(SolrConstants.IDDOC));
+                childDocs.add(childDoc);
+            }
+        }
+
+        SearchHit hit = new SearchHitFactory(null, null, null, 0, null, Locale.ENGLISH).createSearchHit(topDoc, null, null, null);
+        hit.setChildDocs(childDocs);
+        hit.getHitTypeCounts().put(HitType.METADATA, childDocs.size());
+
+        SolrSearchIndex searchIndex = Mockito.spy(originalSearchIndex);
+        DataManager.getInstance().injectSearchIndex(searchIndex);
+        try {
+            hit.populateChildren(childDocs.size(), 0, Locale.ENGLISH, null);
+        } finally {
+            DataManager.getInstance().injectSearchIndex(originalSearchIndex);
+        }
+
+        // Previously, each owner was resolved with its own request; now all three are resolved with one
+        Mockito.verify(searchIndex, Mockito.never()).getDocumentByIddoc(ArgumentMatchers.anyString());
+        Mockito.verify(searchIndex, Mockito.times(1)).getDocumentsByIddocs(ArgumentMatchers.anyCollection());
+        Assertions.assertEquals(3, hit.getChildren().size());
+    }
+
+    /**
+     * @see SearchHit#populateChildren(int,int,Locale,javax.servlet.http.HttpServletRequest)
+     * @verifies continue with next unprocessed child doc
+     */
+    @Test
+    void populateChildren_shouldContinueWithNextUnprocessedChildDoc() throws Exception {
+        SolrDocument topDoc = DataManager.getInstance().getSearchIndex().getDocumentByIddoc(String.valueOf(iddocKleiuniv));
+        Assertions.assertNotNull(topDoc);
+        SolrDocument ownerDoc = DataManager.getInstance()
+                .getSearchIndex()
+                .getFirstDoc(SolrConstants.PI_TOPSTRUCT + ":" + PI_KLEIUNIV + " AND " + SolrConstants.DOCTYPE + ":" + DocType.DOCSTRCT.name() + " -"
+                        + SolrConstants.IDDOC + ":" + iddocKleiuniv, null);
+        Assertions.assertNotNull(ownerDoc);
+
+        // Two page docs without full-text (will be skipped), followed by two event docs
+        SolrDocumentList childDocs = new SolrDocumentList();
+        for (int i = 1; i <= 4; ++i) {
+            SolrDocument childDoc = new SolrDocument();
+            childDoc.addField(SolrConstants.IDDOC, String.valueOf(i));
+            childDoc.addField(SolrConstants.DOCTYPE, i <= 2 ? DocType.PAGE.name() : DocType.EVENT.name());
+            childDoc.addField(SolrConstants.PI_TOPSTRUCT, PI_KLEIUNIV);
+            childDoc.addField(SolrConstants.IDDOC_OWNER, ownerDoc.getFieldValue(SolrConstants.IDDOC));
+            childDocs.add(childDoc);
+        }
+
+        SearchHit hit = new SearchHitFactory(null, null, null, 0, null, Locale.ENGLISH).createSearchHit(topDoc, null, null, null);
+        hit.setChildDocs(childDocs);
+        hit.getHitTypeCounts().put(HitType.EVENT, 2);
+
+        hit.populateChildren(1, 0, Locale.ENGLISH, null);
+        Assertions.assertEquals(1, hit.getHitsPopulated());
+        hit.populateChildren(1, hit.getHitsPopulated(), Locale.ENGLISH, null);
+        Assertions.assertEquals(2, hit.getHitsPopulated());
+
+        Assertions.assertEquals(1, hit.getChildren().size());
+        List<SearchHit> eventHits = hit.getChildren().get(0).getChildren();
+        Assertions.assertEquals(2, eventHits.size());
+        Assertions.assertEquals(3, eventHits.get(0).getBrowseElement().getIddoc());
+        Assertions.assertEquals(4, eventHits.get(1).getBrowseElement().getIddoc());
+    }
+
+    /**
+     * @see SearchHit#setChildDocs(SolrDocumentList)
+     * @verifies reset child doc cursor
+     */
+    @Test
+    void setChildDocs_shouldResetChildDocCursor() throws Exception {
+        SolrDocument topDoc = DataManager.getInstance().getSearchIndex().getDocumentByIddoc(String.valueOf(iddocKleiuniv));
+        Assertions.assertNotNull(topDoc);
+        SolrDocument ownerDoc = DataManager.getInstance()
+                .getSearchIndex()
+                .getFirstDoc(SolrConstants.PI_TOPSTRUCT + ":" + PI_KLEIUNIV + " AND " + SolrConstants.DOCTYPE + ":" + DocType.DOCSTRCT.name() + " -"
+                        + SolrConstants.IDDOC + ":" + iddocKleiuniv, null);
+        Assertions.assertNotNull(ownerDoc);
+
+        // Two page docs without full-text (will be skipped), followed by an event doc
+        SolrDocumentList childDocs = new SolrDocumentList();
+        for (int i = 1; i <= 3; ++i) {
+            SolrDocument childDoc = new SolrDocument();
+            childDoc.addField(SolrConstants.IDDOC, String.valueOf(i));
+            childDoc.addField(SolrConstants.DOCTYPE, i <= 2 ? DocType.PAGE.name() : DocType.EVENT.name());
+            childDoc.addField(SolrConstants.PI_TOPSTRUCT, PI_KLEIUNIV);
+            childDoc.addField(SolrConstants.IDDOC_OWNER, ownerDoc.getFieldValue(SolrConstants.IDDOC));
+            childDocs.add(childDoc);
+        }
+
+        SearchHit hit = new SearchHitFactory(null, null, null, 0, null, Locale.ENGLISH).createSearchHit(topDoc, null, null, null);
+        hit.setChildDocs(childDocs);
+        hit.getHitTypeCounts().put(HitType.EVENT, 2);
+        hit.populateChildren(1, 0, Locale.ENGLISH, null);
+        Assertions.assertEquals(1, hit.getHitsPopulated());
+
+        // Replacement list is shorter than the position reached in the previous list
+        SolrDocumentList newChildDocs = new SolrDocumentList();
+        for (int i = 4; i <= 5; ++i) {
+            SolrDocument childDoc = new SolrDocument();
+            childDoc.addField(SolrConstants.IDDOC, String.valueOf(i));
+            childDoc.addField(SolrConstants.DOCTYPE, DocType.EVENT.name());
+            childDoc.addField(SolrConstants.PI_TOPSTRUCT, PI_KLEIUNIV);
+            childDoc.addField(SolrConstants.IDDOC_OWNER, ownerDoc.getFieldValue(SolrConstants.IDDOC));
+            newChildDocs.add(childDoc);
+        }
+        hit.setChildDocs(newChildDocs);
+        hit.populateChildren(1, 1, Locale.ENGLISH, null);
+        Assertions.assertEquals(2, hit.getHitsPopulated());
+
+        List<SearchHit> eventHits = hit.getChildren().get(0).getChildren();
+        Assertions.assertEquals(2, eventHits.size());
+        Assertions.assertEquals(5, eventHits.get(1).getBrowseElement().getIddoc());
+    }
 }
@@ -23,7 +23,9 @@ package io.goobi.viewer.model.search;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.junit.jupiter.api.AfterEach;
@@ -32,6 +34,7 @@ import org.junit.jupiter.api.Test;
 
 import io.goobi.viewer.AbstractDatabaseAndSolrEnabledTest;
 import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.controller.DateTools;
 import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.exceptions.IndexUnreachableException;
 import io.goobi.viewer.exceptions.PresentationException;
@@ -79,4 +82,47 @@ class SearchHitsNotifierTest extends AbstractDatabaseAndSolrEnabledTest {
         assertEquals(newHits.size(), Math.min(search.getLastHitsCount() - 200, 100));
     }
 
+    /**
+     * @see SearchHitsNotifier#buildKey(Search)
+     * @verifies return same key for queries differing only in whitespace
+     */
+    @Test
+    void buildKey_shouldReturnSameKeyForQueriesDifferingOnlyInWhitespace() throws Exception {
+        LocalDateTime lastCheck = LocalDateTime.of(2024, 1, 1, 12, 0);
+        Search search1 = new Search();
+        search1.setQuery("+(MD_TITLE:foo)  +ISWORK:true");
+        search1.setLastNotificationCheck(lastCheck);
+        Search search2 = new Search();
+        search2.setQuery(" +(MD_TITLE:foo) +ISWORK:true ");
+        search2.setLastNotificationCheck(lastCheck);
+        assertEquals(SearchHitsNotifier.buildKey(search1), SearchHitsNotifier.buildKey(search2));
+    }
+
+    /**
+     * @see SearchHitsNotifier#buildKey(Search)
+     * @verifies return different keys for different time frames
+     */
+    @Test
+    void buildKey_shouldReturnDifferentKeysForDifferentTimeFrames() throws Exception {
+        Search search1 = new Search();
+        search1.setQuery("+ISWORK:true");
+        search1.setLastNotificationCheck(LocalDateTime.of(2024, 1, 1, 12, 0));
+        Search search2 = new Search();
+        search2.setQuery("+ISWORK:true");
+        search2.setLastNotificationCheck(LocalDateTime.of(2024, 1, 2, 12, 0));
+        assertNotEquals(SearchHitsNotifier.buildKey(search1), SearchHitsNotifier.buildKey(search2));
+    }
+
+    /**
+     * @see SearchHitsNotifier#buildTimeFrameFilterQuery(String,LocalDateTime,LocalDateTime)
+     * @verifies add time frame to existing filter query
+     */
+    @Test
+    void buildTimeFrameFilterQuery_shouldAddTimeFrameToExistingFilterQuery() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 12, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 2, 12, 0);
+        String fq = SearchHitsNotifier.buildTimeFrameFilterQuery("DC:foo", from, to);
+        assertEquals("+(DC:foo) +DATECREATED:{" + DateTools.getMillisFromLocalDateTime(from, false) + " TO "
+                + DateTools.getMillisFromLocalDateTime(to, false) + "]", fq);
+    }
 }
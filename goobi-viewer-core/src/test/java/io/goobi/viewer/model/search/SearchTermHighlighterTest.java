@@ -0,0 +1,120 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.search;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.goobi.viewer.AbstractTest;
+
+class SearchTermHighlighterTest extends AbstractTest {
+
+    /**
+     * @see SearchTermHighlighter#getInstance(Set)
+     * @verifies return same instance for equal term sets
+     */
+    @Test
+    void getInstance_shouldReturnSameInstanceForEqualTermSets() throws Exception {
+        SearchTermHighlighter highlighter1 = SearchTermHighlighter.getInstance(new HashSet<>(Arrays.asList("foo", "bar")));
+        SearchTermHighlighter highlighter2 = SearchTermHighlighter.getInstance(new HashSet<>(Arrays.asList("bar", "foo")));
+        Assertions.assertSame(highlighter1, highlighter2);
+    }
+
+    /**
+     * @see SearchTermHighlighter#getInstance(Set)
+     * @verifies preserve term order
+     */
+    @Test
+    void getInstance_shouldPreserveTermOrder() throws Exception {
+        // Fragment terms are only collected up to the first term containing a wildcard
+        SearchTermHighlighter highlighter1 = SearchTermHighlighter.getInstance(new LinkedHashSet<>(Arrays.asList("two", "f?ve")));
+        SearchTermHighlighter highlighter2 = SearchTermHighlighter.getInstance(new LinkedHashSet<>(Arrays.asList("f?ve", "two")));
+        Assertions.assertNotSame(highlighter1, highlighter2);
+        Assertions.assertEquals(1, highlighter1.createFragments("one two three four five", 50, false, 0).size());
+        Assertions.assertTrue(highlighter2.createFragments("one two three four five", 50, false, 0).isEmpty());
+    }
+
+    /**
+     * @see SearchTermHighlighter#applyHighlighting(String)
+     * @verifies apply highlighting for all terms
+     */
+    @Test
+    void applyHighlighting_shouldApplyHighlightingForAllTerms() throws Exception {
+        SearchTermHighlighter highlighter = SearchTermHighlighter.getInstance(new HashSet<>(Arrays.asList("foo", "bar")));
+        Assertions.assertEquals(SearchHelper.PLACEHOLDER_HIGHLIGHTING_START + "FOO" + SearchHelper.PLACEHOLDER_HIGHLIGHTING_END + " "
+                + SearchHelper.PLACEHOLDER_HIGHLIGHTING_START + "Bar" + SearchHelper.PLACEHOLDER_HIGHLIGHTING_END + " baz",
+                highlighter.applyHighlighting("FOO Bar baz"));
+    }
+
+    /**
+     * @see SearchTermHighlighter#applyHighlighting(String)
+     * @verifies prefer longest of overlapping terms
+     */
+    @Test
+    void applyHighlighting_shouldPreferLongestOfOverlappingTerms() throws Exception {
+        SearchTermHighlighter highlighter = SearchTermHighlighter.getInstance(new HashSet<>(Arrays.asList("berlin", "berliner mauer")));
+        Assertions.assertEquals("Die " + SearchHelper.PLACEHOLDER_HIGHLIGHTING_START + "Berliner Mauer" + SearchHelper.PLACEHOLDER_HIGHLIGHTING_END,
+                highlighter.applyHighlighting("Die Berliner Mauer"));
+    }
+
+    /**
+     * @see SearchTermHighlighter#applyHighlighting(String)
+     * @verifies only highlight fuzzy terms if phrase contains similar word
+     */
+    @Test
+    void applyHighlighting_shouldOnlyHighlightFuzzyTermsIfPhraseContainsSimilarWord() throws Exception {
+        SearchTermHighlighter highlighter = SearchTermHighlighter.getInstance(new HashSet<>(Arrays.asList("dolor~1")));
+        Assertions.assertEquals(SearchHelper.PLACEHOLDER_HIGHLIGHTING_START + "dolor" + SearchHelper.PLACEHOLDER_HIGHLIGHTING_END + " sit",
+                highlighter.applyHighlighting("dolor sit"));
+        Assertions.assertEquals("xxdolorxx sit", highlighter.applyHighlighting("xxdolorxx sit"));
+    }
+
+    /**
+     * @see SearchTermHighlighter#createFragments(String,int,boolean,int)
+     * @verifies create fragments for all terms
+     */
+    @Test
+    void createFragments_shouldCreateFragmentsForAllTerms() throws Exception {
+        SearchTermHighlighter highlighter = SearchTermHighlighter.getInstance(new HashSet<>(Arrays.asList("two", "four")));
+        List<String> fragments = highlighter.createFragments("one two three four five", 50, false, 0);
+        Assertions.assertEquals(2, fragments.size());
+        Assertions.assertTrue(fragments.stream().anyMatch(f -> f.contains("<mark class=\"search-list--highlight\">two</mark>")));
+        Assertions.assertTrue(fragments.stream().anyMatch(f -> f.contains("<mark class=\"search-list--highlight\">four</mark>")));
+    }
+
+    /**
+     * @see SearchTermHighlighter#createFragments(String,int,boolean,int)
+     * @verifies return first match only if so requested
+     */
+    @Test
+    void createFragments_shouldReturnFirstMatchOnlyIfSoRequested() throws Exception {
+        SearchTermHighlighter highlighter = SearchTermHighlighter.getInstance(new HashSet<>(Arrays.asList("two")));
+        Assertions.assertEquals(1, highlighter.createFragments("two one two one two", 50, true, 0).size());
+        Assertions.assertEquals(3, highlighter.createFragments("two one two one two", 50, false, 0).size());
+    }
+}
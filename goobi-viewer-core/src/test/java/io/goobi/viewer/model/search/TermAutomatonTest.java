@@ -0,0 +1,59 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TermAutomatonTest {
+
+    /**
+     * @see TermAutomaton#TermAutomaton(List)
+     * @verifies find all occurrences of all patterns
+     */
+    @Test
+    void TermAutomaton_shouldFindAllOccurrencesOfAllPatterns() throws Exception {
+        TermAutomaton automaton = new TermAutomaton(Arrays.asList("he", "she", "his", "hers"));
+        List<String> matches = new ArrayList<>();
+        automaton.findAll("ushers", (patternIndex, start, end) -> matches.add(patternIndex + "@" + start + "-" + end));
+        Assertions.assertEquals(3, matches.size());
+        Assertions.assertTrue(matches.contains("1@1-4"));
+        Assertions.assertTrue(matches.contains("0@2-4"));
+        Assertions.assertTrue(matches.contains("3@2-6"));
+    }
+
+    /**
+     * @see TermAutomaton#TermAutomaton(List)
+     * @verifies find overlapping occurrences
+     */
+    @Test
+    void TermAutomaton_shouldFindOverlappingOccurrences() throws Exception {
+        TermAutomaton automaton = new TermAutomaton(Arrays.asList("aa", null, ""));
+        List<Integer> starts = new ArrayList<>();
+        automaton.findAll("aaaa", (patternIndex, start, end) -> starts.add(start));
+        Assertions.assertEquals(Arrays.asList(0, 1, 2), starts);
+    }
+}
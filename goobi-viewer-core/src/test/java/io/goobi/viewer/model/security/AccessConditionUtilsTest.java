@@ -28,15 +28,22 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 
 import io.goobi.viewer.AbstractDatabaseAndSolrEnabledTest;
@@ -48,6 +55,7 @@ import io.goobi.viewer.model.search.SearchHelper;
 import io.goobi.viewer.model.security.user.IpRange;
 import io.goobi.viewer.model.security.user.User;
 import io.goobi.viewer.solr.SolrConstants;
+import io.goobi.viewer.solr.SolrSearchIndex;
 
 class AccessConditionUtilsTest extends AbstractDatabaseAndSolrEnabledTest {
 
@@ -474,4 +482,93 @@ class AccessConditionUtilsTest extends AbstractDatabaseAndSolrEnabledTest {
         licenses = AccessConditionUtils.getApplyingLicenses(Optional.empty(), "192.168.0.10", licenseType, dao);
         assertTrue(licenses.isEmpty());
     }
+
+    /**
+     * @see AccessConditionUtils#checkAccessPermissionByIdentifierAndPageOrders(String,Map,String,HttpServletRequest)
+     * @verifies deny pages without access conditions
+     */
+    @Test
+    void checkAccessPermissionByIdentifierAndPageOrders_shouldDenyPagesWithoutAccessConditions() throws Exception {
+        SolrDocumentList docs = new SolrDocumentList();
+        SolrDocument doc = new SolrDocument();
+        doc.addField(SolrConstants.ORDER, 1);
+        docs.add(doc);
+
+        Map<Integer, AccessPermission> result = checkAccessPermissionByIdentifierAndPageOrders(docs, Map.of(1, "00000001.txt"), null);
+        Assertions.assertFalse(result.get(1).isGranted());
+    }
+
+    /**
+     * @see AccessConditionUtils#checkAccessPermissionByIdentifierAndPageOrders(String,Map,String,HttpServletRequest)
+     * @verifies grant open access pages
+     */
+    @Test
+    void checkAccessPermissionByIdentifierAndPageOrders_shouldGrantOpenAccessPages() throws Exception {
+        SolrDocumentList docs = new SolrDocumentList();
+        SolrDocument doc = new SolrDocument();
+        doc.addField(SolrConstants.ORDER, 1);
+        doc.addField(SolrConstants.ACCESSCONDITION, SolrConstants.OPEN_ACCESS_VALUE);
+        docs.add(doc);
+        doc = new SolrDocument();
+        doc.addField(SolrConstants.ORDER, 2);
+        docs.add(doc);
+
+        Map<Integer, AccessPermission> result =
+                checkAccessPermissionByIdentifierAndPageOrders(docs, Map.of(1, "00000001.txt", 2, "00000002.txt", 3, "00000003.txt"), null);
+        Assertions.assertTrue(result.get(1).isGranted());
+        Assertions.assertFalse(result.get(2).isGranted());
+        // Not in index
+        Assertions.assertFalse(result.containsKey(3));
+    }
+
+    /**
+     * @see AccessConditionUtils#checkAccessPermissionByIdentifierAndPageOrders(String,Map,String,HttpServletRequest)
+     * @verifies use permissions from session
+     */
+    @Test
+    void checkAccessPermissionByIdentifierAndPageOrders_shouldUsePermissionsFromSession() throws Exception {
+        HttpSession session = Mockito.mock(HttpSession.class);
+        Mockito.when(session.getAttribute("currentPi")).thenReturn("PPN123");
+        Mockito.when(session.getAttribute(IPrivilegeHolder.PREFIX_PRIV + IPrivilegeHolder.PRIV_VIEW_FULLTEXT + "_PPN123_00000001.txt"))
+                .thenReturn(new HashMap<>(Map.of("PPN123_00000001.txt", AccessPermission.granted())));
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.getSession()).thenReturn(session);
+
+        SolrSearchIndex originalSearchIndex = DataManager.getInstance().getSearchIndex();
+        SolrSearchIndex searchIndex = Mockito.mock(SolrSearchIndex.class);
+        DataManager.getInstance().injectSearchIndex(searchIndex);
+        try {
+            Map<Integer, AccessPermission> result = AccessConditionUtils.checkAccessPermissionByIdentifierAndPageOrders("PPN123",
+                    Map.of(1, "00000001.txt"), IPrivilegeHolder.PRIV_VIEW_FULLTEXT, request);
+            Assertions.assertTrue(result.get(1).isGranted());
+        } finally {
+            DataManager.getInstance().injectSearchIndex(originalSearchIndex);
+        }
+        Mockito.verifyNoInteractions(searchIndex);
+    }
+
+    /**
+     * Runs {@link AccessConditionUtils#checkAccessPermissionByIdentifierAndPageOrders(String, Map, String, HttpServletRequest)} against the given
+     * page docs instead of the index.
+     * 
+     * @param docs Page docs returned by the index query
+     * @param pageFileNames
+     * @param request
+     * @return Result of the access check
+     * @throws Exception
+     */
+    private static Map<Integer, AccessPermission> checkAccessPermissionByIdentifierAndPageOrders(SolrDocumentList docs,
+            Map<Integer, String> pageFileNames, HttpServletRequest request) throws Exception {
+        SolrSearchIndex originalSearchIndex = DataManager.getInstance().getSearchIndex();
+        SolrSearchIndex searchIndex = Mockito.mock(SolrSearchIndex.class);
+        Mockito.when(searchIndex.search(ArgumentMatchers.anyString(), ArgumentMatchers.anyInt(), ArgumentMatchers.any(),
+                ArgumentMatchers.anyList())).thenReturn(docs);
+        DataManager.getInstance().injectSearchIndex(searchIndex);
+        try {
+            return AccessConditionUtils.checkAccessPermissionByIdentifierAndPageOrders("PPN123", pageFileNames, IPrivilegeHolder.PRIV_VIEW_FULLTEXT,
+                    request);
+        } finally {
+            DataManager.getInstance().injectSearchIndex(originalSearchIndex);
+        }
+    }
 }
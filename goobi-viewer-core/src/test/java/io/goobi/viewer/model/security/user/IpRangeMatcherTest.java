@@ -0,0 +1,184 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.security.user;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import io.goobi.viewer.controller.NetTools;
+import io.goobi.viewer.dao.IDAO;
+
+class IpRangeMatcherTest {
+
+    private static IpRange createIpRange(long id, String subnetMask) {
+        IpRange ret = new IpRange();
+        ret.setId(id);
+        ret.setName("range " + id);
+        ret.setSubnetMask(subnetMask);
+        return ret;
+    }
+
+    /**
+     * @see IpRangeMatcher#getMatchingIpRanges(String)
+     * @verifies return all ranges containing address
+     */
+    @Test
+    void getMatchingIpRanges_shouldReturnAllRangesContainingAddress() throws Exception {
+        IpRange range1 = createIpRange(1, "10.0.0.0/8");
+        IpRange range2 = createIpRange(2, "10.1.2.0/24");
+        IpRange range3 = createIpRange(3, "10.1.2.128/25");
+        IpRange range4 = createIpRange(4, "192.168.0.0/16");
+        IpRangeMatcher matcher = new IpRangeMatcher(Arrays.asList(range1, range2, range3, range4));
+
+        Assertions.assertEquals(Arrays.asList(range1, range2, range3), matcher.getMatchingIpRanges("10.1.2.200"));
+        Assertions.assertEquals(Arrays.asList(range1, range2), matcher.getMatchingIpRanges("10.1.2.3"));
+        Assertions.assertEquals(List.of(range1), matcher.getMatchingIpRanges("10.200.0.1"));
+        Assertions.assertEquals(List.of(range4), matcher.getMatchingIpRanges("192.168.5.5"));
+    }
+
+    /**
+     * @see IpRangeMatcher#getMatchingIpRanges(String)
+     * @verifies return empty list if no range matches
+     */
+    @Test
+    void getMatchingIpRanges_shouldReturnEmptyListIfNoRangeMatches() throws Exception {
+        IpRangeMatcher matcher = new IpRangeMatcher(Arrays.asList(createIpRange(1, "10.1.2.0/24"), createIpRange(2, "10.1.4.0/24")));
+        Assertions.assertTrue(matcher.getMatchingIpRanges("9.255.255.255").isEmpty());
+        Assertions.assertTrue(matcher.getMatchingIpRanges("10.1.3.1").isEmpty());
+        Assertions.assertTrue(matcher.getMatchingIpRanges("255.255.255.255").isEmpty());
+        Assertions.assertFalse(matcher.matches("10.1.3.1"));
+    }
+
+    /**
+     * @see IpRangeMatcher#getMatchingIpRanges(String)
+     * @verifies match edge addresses
+     */
+    @Test
+    void getMatchingIpRanges_shouldMatchEdgeAddresses() throws Exception {
+        IpRangeMatcher matcher = new IpRangeMatcher(Arrays.asList(createIpRange(1, "192.168.1.10/31"), createIpRange(2, "1.2.3.4/32")));
+        Assertions.assertFalse(matcher.matches("192.168.1.9"));
+        Assertions.assertTrue(matcher.matches("192.168.1.10"));
+        Assertions.assertTrue(matcher.matches("192.168.1.11"));
+        Assertions.assertFalse(matcher.matches("192.168.1.12"));
+        Assertions.assertTrue(matcher.matches("1.2.3.4"));
+        Assertions.assertFalse(matcher.matches("1.2.3.5"));
+    }
+
+    /**
+     * @see IpRangeMatcher#getMatchingIpRanges(String)
+     * @verifies match IPv6 localhost to IPv4 mask
+     */
+    @Test
+    void getMatchingIpRanges_shouldMatchIPv6LocalhostToIPv4Mask() throws Exception {
+        IpRangeMatcher matcher = new IpRangeMatcher(List.of(createIpRange(1, "127.0.0.1/32")));
+        Assertions.assertTrue(matcher.matches(NetTools.ADDRESS_LOCALHOST_IPV6));
+    }
+
+    /**
+     * @see IpRangeMatcher#getMatchingIpRanges(String)
+     * @verifies return empty list for invalid address
+     */
+    @Test
+    void getMatchingIpRanges_shouldReturnEmptyListForInvalidAddress() throws Exception {
+        IpRangeMatcher matcher = new IpRangeMatcher(List.of(createIpRange(1, "0.0.0.0/0")));
+        Assertions.assertTrue(matcher.matches("8.8.8.8"));
+        Assertions.assertFalse(matcher.matches(null));
+        Assertions.assertFalse(matcher.matches(""));
+        Assertions.assertFalse(matcher.matches("1.2.3"));
+        Assertions.assertFalse(matcher.matches("1.2.3.4.5"));
+        Assertions.assertFalse(matcher.matches("1.2.3.256"));
+        Assertions.assertFalse(matcher.matches("2001:db8::1"));
+    }
+
+    /**
+     * @see IpRangeMatcher#IpRangeMatcher(List)
+     * @verifies skip ranges with invalid subnet masks
+     */
+    @Test
+    void IpRangeMatcher_shouldSkipRangesWithInvalidSubnetMasks() throws Exception {
+        IpRangeMatcher matcher =
+                new IpRangeMatcher(Arrays.asList(createIpRange(1, "255.255.255.0"), createIpRange(2, "1.2.3.0/33"), createIpRange(3, "1.2.3.0/24")));
+        Assertions.assertEquals(1, matcher.getSize());
+        Assertions.assertTrue(matcher.matches("1.2.3.4"));
+    }
+
+    /**
+     * @see IpRangeMatcher#parseSubnetMask(String)
+     * @verifies parse cidr notation correctly
+     */
+    @Test
+    void parseSubnetMask_shouldParseCidrNotationCorrectly() throws Exception {
+        Assertions.assertArrayEquals(new long[] { 0x0A010200L, 0x0A0102FFL }, IpRangeMatcher.parseSubnetMask("10.1.2.3/24"));
+        Assertions.assertArrayEquals(new long[] { 0L, 0xFFFFFFFFL }, IpRangeMatcher.parseSubnetMask("0.0.0.0/0"));
+        Assertions.assertArrayEquals(new long[] { 0xFFFFFFFFL, 0xFFFFFFFFL }, IpRangeMatcher.parseSubnetMask("255.255.255.255/32"));
+    }
+
+    /**
+     * @see IpRangeMatcher#parseSubnetMask(String)
+     * @verifies return null for invalid mask
+     */
+    @Test
+    void parseSubnetMask_shouldReturnNullForInvalidMask() throws Exception {
+        Assertions.assertNull(IpRangeMatcher.parseSubnetMask(null));
+        Assertions.assertNull(IpRangeMatcher.parseSubnetMask("10.1.2.3"));
+        Assertions.assertNull(IpRangeMatcher.parseSubnetMask("10.1.2.3/"));
+        Assertions.assertNull(IpRangeMatcher.parseSubnetMask("10.1.2/24"));
+        Assertions.assertNull(IpRangeMatcher.parseSubnetMask("2001:db8::/32"));
+    }
+
+    /**
+     * @see IpRangeMatcher#getInstance(IDAO)
+     * @verifies reuse matcher while data version unchanged
+     */
+    @Test
+    void getInstance_shouldReuseMatcherWhileDataVersionUnchanged() throws Exception {
+        IDAO dao = Mockito.mock(IDAO.class);
+        Mockito.when(dao.getAccessControlDataVersion()).thenReturn(1L);
+        Mockito.when(dao.getAllIpRanges()).thenReturn(List.of(createIpRange(1, "10.1.2.0/24")));
+        IpRangeMatcher matcher = IpRangeMatcher.getInstance(dao);
+        Assertions.assertSame(matcher, IpRangeMatcher.getInstance(dao));
+        Mockito.verify(dao, Mockito.times(1)).getAllIpRanges();
+
+        Mockito.when(dao.getAccessControlDataVersion()).thenReturn(2L);
+        Assertions.assertNotSame(matcher, IpRangeMatcher.getInstance(dao));
+    }
+
+    /**
+     * @see IpRangeMatcher#getInstance(IDAO)
+     * @verifies rebuild matcher for different dao
+     */
+    @Test
+    void getInstance_shouldRebuildMatcherForDifferentDao() throws Exception {
+        IDAO dao1 = Mockito.mock(IDAO.class);
+        Mockito.when(dao1.getAllIpRanges()).thenReturn(List.of(createIpRange(1, "10.1.2.0/24")));
+        IDAO dao2 = Mockito.mock(IDAO.class);
+        Mockito.when(dao2.getAllIpRanges()).thenReturn(List.of(createIpRange(2, "10.1.4.0/24")));
+
+        Assertions.assertEquals(1, IpRangeMatcher.getInstance(dao1).getMatchingIpRanges("10.1.2.3").size());
+        // Same data version, but different ranges
+        Assertions.assertTrue(IpRangeMatcher.getInstance(dao2).getMatchingIpRanges("10.1.2.3").isEmpty());
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.sitemap;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SitemapShardTest {
+
+    /**
+     * @see SitemapShard#isBefore(long,String)
+     * @verifies compare creation date first
+     */
+    @Test
+    void isBefore_shouldCompareCreationDateFirst() throws Exception {
+        SitemapShard shard = new SitemapShard(1);
+        shard.addRecord(1000, "PPN500", 0, true);
+        Assertions.assertTrue(shard.isBefore(1001, "PPN100"));
+        Assertions.assertFalse(shard.isBefore(999, "PPN900"));
+    }
+
+    /**
+     * @see SitemapShard#isBefore(long,String)
+     * @verifies compare identifier if creation dates equal
+     */
+    @Test
+    void isBefore_shouldCompareIdentifierIfCreationDatesEqual() throws Exception {
+        SitemapShard shard = new SitemapShard(1);
+        shard.addRecord(1000, "PPN500", 0, true);
+        Assertions.assertTrue(shard.isBefore(1000, "PPN600"));
+        Assertions.assertFalse(shard.isBefore(1000, "PPN500"));
+        Assertions.assertFalse(shard.isBefore(1000, "PPN400"));
+    }
+}
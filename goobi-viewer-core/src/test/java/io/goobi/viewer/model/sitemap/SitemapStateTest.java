@@ -0,0 +1,71 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.sitemap;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SitemapStateTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * @see SitemapState#load(Path)
+     * @verifies return null if file does not exist
+     */
+    @Test
+    void load_shouldReturnNullIfFileDoesNotExist() throws Exception {
+        Assertions.assertNull(SitemapState.load(tempDir.resolve(Sitemap.STATE_FILE_NAME)));
+    }
+
+    /**
+     * @see SitemapState#load(Path)
+     * @verifies load saved state correctly
+     */
+    @Test
+    void load_shouldLoadSavedStateCorrectly() throws Exception {
+        SitemapShard shard1 = new SitemapShard(1);
+        shard1.addRecord(1000, "PPN1", 2000, true);
+        shard1.addRecord(1001, "PPN2", 1500, true);
+        SitemapShard shard2 = new SitemapShard(2);
+        shard2.addRecord(1002, "PPN3", 3000, true);
+        Path file = tempDir.resolve(Sitemap.STATE_FILE_NAME);
+        new SitemapState(123456, Arrays.asList(shard1, shard2)).save(file);
+
+        SitemapState state = SitemapState.load(file);
+        Assertions.assertNotNull(state);
+        Assertions.assertEquals(123456, state.getTimestamp());
+        Assertions.assertEquals(2, state.getShards().size());
+        SitemapShard loaded = state.getShards().get(0);
+        Assertions.assertEquals(1, loaded.getNumber());
+        Assertions.assertEquals(2, loaded.getRecordCount());
+        Assertions.assertEquals(2000, loaded.getLastmod());
+        Assertions.assertEquals(1001, loaded.getLastDateCreated());
+        Assertions.assertEquals("PPN2", loaded.getLastPi());
+        Assertions.assertEquals("PPN3", state.getShards().get(1).getLastPi());
+    }
+}
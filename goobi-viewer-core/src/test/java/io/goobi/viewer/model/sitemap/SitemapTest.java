@@ -32,6 +32,7 @@ import java.util.concurrent.TimeUnit;
 import org.apache.commons.io.FileUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.solr.common.SolrDocument;
 import org.jdom2.Element;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -40,6 +41,7 @@ import io.goobi.viewer.AbstractDatabaseAndSolrEnabledTest;
 import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.exceptions.IndexUnreachableException;
 import io.goobi.viewer.exceptions.PresentationException;
+import io.goobi.viewer.solr.SolrConstants;
 
 class SitemapTest extends AbstractDatabaseAndSolrEnabledTest {
 
@@ -69,6 +71,20 @@ class SitemapTest extends AbstractDatabaseAndSolrEnabledTest {
         Assertions.assertEquals("2018-08-21", eleUrl.getChildText("lastmod", Sitemap.NS_SITEMAP));
     }
 
+    /**
+     * @see Sitemap#getLastmod(SolrDocument)
+     * @verifies return latest update timestamp
+     */
+    @Test
+    void getLastmod_shouldReturnLatestUpdateTimestamp() throws Exception {
+        SolrDocument doc = new SolrDocument();
+        Assertions.assertEquals(0, Sitemap.getLastmod(doc));
+        doc.addField(SolrConstants.DATEUPDATED, 2000L);
+        doc.addField(SolrConstants.DATEUPDATED, 3000L);
+        doc.addField(SolrConstants.DATEUPDATED, 1000L);
+        Assertions.assertEquals(3000, Sitemap.getLastmod(doc));
+    }
+
     @Test
     void testSitemap() throws IOException, InterruptedException {
 
@@ -0,0 +1,136 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.statistics.usage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class MonthlyStatisticsCacheTest {
+
+    /**
+     * @see MonthlyStatisticsCache#buildKey(YearMonth,String,List)
+     * @verifies return same key regardless of identifier order
+     */
+    @Test
+    void buildKey_shouldReturnSameKeyRegardlessOfIdentifierOrder() throws Exception {
+        assertEquals(MonthlyStatisticsCache.buildKey(YearMonth.of(2022, 7), "DC:test", List.of("PI_01", "PI_02")),
+                MonthlyStatisticsCache.buildKey(YearMonth.of(2022, 7), "DC:test", List.of("PI_02", "PI_01")));
+    }
+
+    /**
+     * @see MonthlyStatisticsCache#buildKey(YearMonth,String,List)
+     * @verifies return different keys for different months
+     */
+    @Test
+    void buildKey_shouldReturnDifferentKeysForDifferentMonths() throws Exception {
+        assertNotEquals(MonthlyStatisticsCache.buildKey(YearMonth.of(2022, 7), null, List.of()),
+                MonthlyStatisticsCache.buildKey(YearMonth.of(2022, 8), null, List.of()));
+    }
+
+    /**
+     * @see MonthlyStatisticsCache#buildKey(YearMonth,String,List)
+     * @verifies return different keys for different identifiers
+     */
+    @Test
+    void buildKey_shouldReturnDifferentKeysForDifferentIdentifiers() throws Exception {
+        // Equal list sizes and hash codes
+        assertEquals(List.of("Aa").hashCode(), List.of("BB").hashCode());
+        assertNotEquals(MonthlyStatisticsCache.buildKey(YearMonth.of(2022, 7), "DC:test", List.of("Aa")),
+                MonthlyStatisticsCache.buildKey(YearMonth.of(2022, 7), "DC:test", List.of("BB")));
+    }
+
+    /**
+     * @see MonthlyStatisticsCache#isComplete(YearMonth,LocalDate)
+     * @verifies return false for current month
+     */
+    @Test
+    void isComplete_shouldReturnFalseForCurrentMonth() throws Exception {
+        assertFalse(MonthlyStatisticsCache.isComplete(YearMonth.of(2022, 7), LocalDate.of(2022, 7, 31)));
+    }
+
+    /**
+     * @see MonthlyStatisticsCache#isComplete(YearMonth,LocalDate)
+     * @verifies return false on first day of next month
+     */
+    @Test
+    void isComplete_shouldReturnFalseOnFirstDayOfNextMonth() throws Exception {
+        assertFalse(MonthlyStatisticsCache.isComplete(YearMonth.of(2022, 7), LocalDate.of(2022, 8, 1)));
+    }
+
+    /**
+     * @see MonthlyStatisticsCache#isComplete(YearMonth,LocalDate)
+     * @verifies return true on second day of next month
+     */
+    @Test
+    void isComplete_shouldReturnTrueOnSecondDayOfNextMonth() throws Exception {
+        assertTrue(MonthlyStatisticsCache.isComplete(YearMonth.of(2022, 7), LocalDate.of(2022, 8, 2)));
+    }
+
+    /**
+     * @see MonthlyStatisticsCache#get(String,MonthlyStatisticsCache.RollupLoader)
+     * @verifies compute rollup only once
+     */
+    @Test
+    void get_shouldComputeRollupOnlyOnce() throws Exception {
+        MonthlyStatisticsCache cache = new MonthlyStatisticsCache(10, 0, () -> 1L);
+        AtomicInteger loads = new AtomicInteger();
+        StatisticsSummary summary = StatisticsSummary.empty();
+        assertSame(summary, cache.get("2022-07", () -> {
+            loads.incrementAndGet();
+            return summary;
+        }));
+        assertSame(summary, cache.get("2022-07", () -> {
+            loads.incrementAndGet();
+            return StatisticsSummary.empty();
+        }));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getSize());
+    }
+
+    /**
+     * @see MonthlyStatisticsCache#get(String,MonthlyStatisticsCache.RollupLoader)
+     * @verifies recompute rollup if index version changed
+     */
+    @Test
+    void get_shouldRecomputeRollupIfIndexVersionChanged() throws Exception {
+        AtomicLong indexVersion = new AtomicLong(1);
+        MonthlyStatisticsCache cache = new MonthlyStatisticsCache(10, 0, indexVersion::get);
+        StatisticsSummary summary = StatisticsSummary.empty();
+        cache.get("2022-07", () -> summary);
+
+        // Daily statistics of July indexed late
+        indexVersion.set(2);
+        StatisticsSummary updatedSummary = StatisticsSummary.empty();
+        assertSame(updatedSummary, cache.get("2022-07", () -> updatedSummary));
+    }
+}
@@ -45,6 +45,7 @@ import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.exceptions.IndexUnreachableException;
 import io.goobi.viewer.exceptions.PresentationException;
 import io.goobi.viewer.solr.SolrConstants;
+import io.goobi.viewer.solr.SolrDocumentConsumer;
 import io.goobi.viewer.solr.SolrSearchIndex;
 
 class StatisticsSummaryBuilderTest extends AbstractSolrEnabledTest {
@@ -78,12 +79,72 @@ class StatisticsSummaryBuilderTest extends AbstractSolrEnabledTest {
                 StatisticsLuceneFields.DATE, Date.from(LocalDate.of(2022, 8, 1).atStartOfDay(ZoneId.systemDefault()).toInstant()),
                 StatisticsLuceneFields.getFieldName("PI_01"), Arrays.asList(new Long[] { 6l, 1l, 0l, 0l, 0l, 0l }),
                 StatisticsLuceneFields.getFieldName("PI_04"), Arrays.asList(new Long[] { 0l, 0l, 0l, 0l, 0l, 0l }))));
-        QueryResponse resp = Mockito.mock(QueryResponse.class);
-        Mockito.when(resp.getResults()).thenReturn(docs);
-        Mockito.when(searchIndex.search(
+        mockStream(searchIndex, docs);
+    }
+
+    private static void mockStream(SolrSearchIndex searchIndex, SolrDocumentList docs) throws PresentationException, IndexUnreachableException {
+        Mockito.when(searchIndex.stream(
                 Mockito.contains("DOCTYPE:" + StatisticsLuceneFields.USAGE_STATISTICS_DOCTYPE),
-                Mockito.anyList()))
-                .thenReturn(docs);
+                Mockito.any(),
+                Mockito.anyList(),
+                Mockito.any(SolrDocumentConsumer.class)))
+                .thenAnswer(invocation -> {
+                    SolrDocumentConsumer consumer = invocation.getArgument(3);
+                    for (SolrDocument doc : docs) {
+                        consumer.accept(doc);
+                    }
+                    return (long) docs.size();
+                });
+    }
+
+    private static SolrDocumentList createDailyStatistics(LocalDate date, long recordViews) {
+        SolrDocumentList docs = new SolrDocumentList();
+        docs.add(new SolrDocument(Map.of(
+                StatisticsLuceneFields.DATE, Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant()),
+                StatisticsLuceneFields.getFieldName("PI_01"), Arrays.asList(new Long[] { recordViews, 1l, 0l, 0l, 0l, 0l }))));
+        return docs;
+    }
+
+    /**
+     * @see StatisticsSummaryBuilder#loadFromSolr(StatisticsSummaryFilter,LocalDate)
+     * @verifies use monthly rollup for completed months
+     */
+    @Test
+    void loadFromSolr_shouldUseMonthlyRollupForCompletedMonths() throws Exception {
+        SolrSearchIndex searchIndex = Mockito.mock(SolrSearchIndex.class);
+        mockStream(searchIndex, createDailyStatistics(LocalDate.of(2022, 1, 10), 5));
+        MonthlyStatisticsCache cache = new MonthlyStatisticsCache(10, 0, () -> 1L);
+        StatisticsSummaryBuilder builder = new StatisticsSummaryBuilder(null, searchIndex, cache);
+        StatisticsSummaryFilter filter = StatisticsSummaryFilter.ofDateRange(LocalDate.of(2022, 1, 1), LocalDate.of(2022, 3, 31));
+
+        StatisticsSummary summary = builder.loadFromSolr(filter, LocalDate.of(2022, 6, 1));
+        assertEquals(15, summary.getTypes().get(RequestType.RECORD_VIEW).getTotalRequests());
+        assertEquals(3, cache.getSize());
+        Mockito.verify(searchIndex, Mockito.times(3)).stream(Mockito.anyString(), Mockito.any(), Mockito.anyList(), Mockito.any());
+
+        // Second summary is built from the rollups alone
+        summary = builder.loadFromSolr(filter, LocalDate.of(2022, 6, 1));
+        assertEquals(15, summary.getTypes().get(RequestType.RECORD_VIEW).getTotalRequests());
+        Mockito.verify(searchIndex, Mockito.times(3)).stream(Mockito.anyString(), Mockito.any(), Mockito.anyList(), Mockito.any());
+    }
+
+    /**
+     * @see StatisticsSummaryBuilder#loadFromSolr(StatisticsSummaryFilter,LocalDate)
+     * @verifies not use monthly rollup for incomplete months
+     */
+    @Test
+    void loadFromSolr_shouldNotUseMonthlyRollupForIncompleteMonths() throws Exception {
+        SolrSearchIndex searchIndex = Mockito.mock(SolrSearchIndex.class);
+        mockStream(searchIndex, createDailyStatistics(LocalDate.of(2022, 5, 20), 5));
+        MonthlyStatisticsCache cache = new MonthlyStatisticsCache(10, 0, () -> 1L);
+        StatisticsSummaryBuilder builder = new StatisticsSummaryBuilder(null, searchIndex, cache);
+        StatisticsSummaryFilter filter = StatisticsSummaryFilter.ofDateRange(LocalDate.of(2022, 5, 15), LocalDate.of(2022, 6, 30));
+
+        StatisticsSummary summary = builder.loadFromSolr(filter, LocalDate.of(2022, 6, 1));
+        assertEquals(5, summary.getTypes().get(RequestType.RECORD_VIEW).getTotalRequests());
+        assertEquals(0, cache.getSize());
+        // Partial May and incomplete June are queried together
+        Mockito.verify(searchIndex, Mockito.times(1)).stream(Mockito.anyString(), Mockito.any(), Mockito.anyList(), Mockito.any());
     }
 
     private static SolrSearchIndex createSolrRecords() throws PresentationException, IndexUnreachableException {
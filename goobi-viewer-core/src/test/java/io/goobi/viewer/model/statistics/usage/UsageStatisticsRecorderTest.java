@@ -27,6 +27,7 @@ import java.time.LocalDate;
 import java.util.Random;
 
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -106,11 +107,65 @@ class UsageStatisticsRecorderTest extends AbstractDatabaseEnabledTest {
         
         thread1.join();
         thread2.join();
+        recorder.flush();
         DailySessionUsageStatistics stats = dao.getUsageStatistics(date);
         
         assertEquals(55l, stats.getTotalRequestCount(RequestType.RECORD_VIEW, pi1));
     }
 
+    /**
+     * @see UsageStatisticsRecorder#recordRequest(RequestType,String,String,String,String)
+     * @verifies not write to database before flush
+     */
+    @Test
+    void recordRequest_shouldNotWriteToDatabaseBeforeFlush() throws Exception {
+        UsageStatisticsRecorder recorder = new UsageStatisticsRecorder(dao, DataManager.getInstance().getConfiguration(), "viewer.goobi.io");
+        recorder.recordRequest(RequestType.RECORD_VIEW, "PI_1", "12345", "", "");
+        Assertions.assertNull(dao.getUsageStatistics(LocalDate.now()));
+    }
+
+    /**
+     * @see UsageStatisticsRecorder#flush()
+     * @verifies write pending counts to database
+     */
+    @Test
+    void flush_shouldWritePendingCountsToDatabase() throws Exception {
+        UsageStatisticsRecorder recorder = new UsageStatisticsRecorder(dao, DataManager.getInstance().getConfiguration(), "viewer.goobi.io");
+        recorder.recordRequest(RequestType.RECORD_VIEW, "PI_1", "12345", "agent", "1.2.3.4");
+        recorder.recordRequest(RequestType.RECORD_VIEW, "PI_1", "12345", "agent", "1.2.3.4");
+        recorder.recordRequest(RequestType.FILE_DOWNLOAD, "PI_2", "12345", "agent", "1.2.3.4");
+        recorder.flush();
+
+        DailySessionUsageStatistics stats = dao.getUsageStatistics(LocalDate.now());
+        Assertions.assertNotNull(stats);
+        SessionUsageStatistics session = stats.getSession("12345");
+        Assertions.assertNotNull(session);
+        Assertions.assertEquals("agent", session.getUserAgent());
+        Assertions.assertEquals("1.2.3.4", session.getClientIP());
+        Assertions.assertEquals(2, session.getRecordRequestCount(RequestType.RECORD_VIEW, "PI_1"));
+        Assertions.assertEquals(1, session.getRecordRequestCount(RequestType.FILE_DOWNLOAD, "PI_2"));
+    }
+
+    /**
+     * @see UsageStatisticsRecorder#flush()
+     * @verifies add counts to existing statistics
+     */
+    @Test
+    void flush_shouldAddCountsToExistingStatistics() throws Exception {
+        UsageStatisticsRecorder recorder = new UsageStatisticsRecorder(dao, DataManager.getInstance().getConfiguration(), "viewer.goobi.io");
+        recorder.recordRequest(RequestType.RECORD_VIEW, "PI_1", "12345", "", "");
+        recorder.flush();
+        recorder.recordRequest(RequestType.RECORD_VIEW, "PI_1", "12345", "", "");
+        recorder.recordRequest(RequestType.RECORD_VIEW, "PI_1", "67890", "", "");
+        recorder.flush();
+        // Nothing pending, must not change anything
+        recorder.flush();
+
+        DailySessionUsageStatistics stats = dao.getUsageStatistics(LocalDate.now());
+        Assertions.assertEquals(2, stats.getSession("12345").getRecordRequestCount(RequestType.RECORD_VIEW, "PI_1"));
+        Assertions.assertEquals(3, stats.getTotalRequestCount(RequestType.RECORD_VIEW, "PI_1"));
+    }
+
     private void wait(Random random) throws InterruptedException {
         Thread.sleep(random.nextInt(100));
     }
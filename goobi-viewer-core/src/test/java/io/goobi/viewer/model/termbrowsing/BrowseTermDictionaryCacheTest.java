@@ -0,0 +1,122 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.termbrowsing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class BrowseTermDictionaryCacheTest {
+
+    private static BrowseTermDictionary createDictionary(AtomicInteger loadCount) {
+        loadCount.incrementAndGet();
+        return new BrowseTermDictionary(Collections.singletonList(new BrowseTerm("foo", null, null).setHitCount(1)), null);
+    }
+
+    /**
+     * @see BrowseTermDictionaryCache#buildKey(BrowsingMenuFieldConfig,String,String,String)
+     * @verifies return different keys for different suffixes
+     */
+    @Test
+    void buildKey_shouldReturnDifferentKeysForDifferentSuffixes() throws Exception {
+        BrowsingMenuFieldConfig bmfc = new BrowsingMenuFieldConfig("MD_AUTHOR_UNTOKENIZED", null, null);
+        Assertions.assertNotEquals(BrowseTermDictionaryCache.buildKey(bmfc, null, "en", ""),
+                BrowseTermDictionaryCache.buildKey(bmfc, null, "en", " -ACCESSCONDITION:restricted"));
+        Assertions.assertEquals(BrowseTermDictionaryCache.buildKey(bmfc, null, "en", ""), BrowseTermDictionaryCache.buildKey(bmfc, null, "en", ""));
+    }
+
+    /**
+     * @see BrowseTermDictionaryCache#get(String,DictionaryLoader)
+     * @verifies build dictionary only once
+     */
+    @Test
+    void get_shouldBuildDictionaryOnlyOnce() throws Exception {
+        BrowseTermDictionaryCache cache = new BrowseTermDictionaryCache(10, 60000, () -> 1, Runnable::run);
+        AtomicInteger loadCount = new AtomicInteger();
+        cache.get("key", () -> createDictionary(loadCount));
+        BrowseTermDictionary dictionary = cache.get("key", () -> createDictionary(loadCount));
+        Assertions.assertEquals(1, dictionary.getSize());
+        Assertions.assertEquals(1, loadCount.get());
+        Assertions.assertEquals(1, cache.getSize());
+    }
+
+    /**
+     * @see BrowseTermDictionaryCache#get(String,DictionaryLoader)
+     * @verifies not cache empty dictionaries
+     */
+    @Test
+    void get_shouldNotCacheEmptyDictionaries() throws Exception {
+        BrowseTermDictionaryCache cache = new BrowseTermDictionaryCache(10, 60000, () -> 1, Runnable::run);
+        Assertions.assertEquals(0, cache.get("key", () -> new BrowseTermDictionary(Collections.emptyList(), null)).getSize());
+        Assertions.assertEquals(0, cache.getSize());
+    }
+
+    /**
+     * @see BrowseTermDictionaryCache#get(String,DictionaryLoader)
+     * @verifies rebuild dictionary if index version changed
+     */
+    @Test
+    void get_shouldRebuildDictionaryIfIndexVersionChanged() throws Exception {
+        long[] version = { 1 };
+        BrowseTermDictionaryCache cache = new BrowseTermDictionaryCache(10, 0, () -> version[0], Runnable::run);
+        AtomicInteger loadCount = new AtomicInteger();
+        cache.get("key", () -> createDictionary(loadCount));
+        cache.get("key", () -> createDictionary(loadCount));
+        Assertions.assertEquals(1, loadCount.get());
+
+        version[0] = 2;
+        Thread.sleep(2);
+        cache.get("key", () -> createDictionary(loadCount));
+        Assertions.assertEquals(2, loadCount.get());
+    }
+
+    /**
+     * @see BrowseTermDictionaryCache#get(String,DictionaryLoader)
+     * @verifies return previous dictionary while rebuilding
+     */
+    @Test
+    void get_shouldReturnPreviousDictionaryWhileRebuilding() throws Exception {
+        long[] version = { 1 };
+        List<Runnable> tasks = new ArrayList<>();
+        BrowseTermDictionaryCache cache = new BrowseTermDictionaryCache(10, 0, () -> version[0], tasks::add);
+        AtomicInteger loadCount = new AtomicInteger();
+        BrowseTermDictionary dictionary = cache.get("key", () -> createDictionary(loadCount));
+
+        version[0] = 2;
+        Thread.sleep(2);
+        Assertions.assertSame(dictionary, cache.get("key", () -> createDictionary(loadCount)));
+        // Only one rebuild is scheduled
+        Assertions.assertSame(dictionary, cache.get("key", () -> createDictionary(loadCount)));
+        Assertions.assertEquals(1, tasks.size());
+        Assertions.assertEquals(1, loadCount.get());
+
+        tasks.get(0).run();
+        Assertions.assertEquals(2, loadCount.get());
+        BrowseTermDictionary rebuilt = cache.get("key", () -> createDictionary(loadCount));
+        Assertions.assertNotSame(dictionary, rebuilt);
+        Assertions.assertEquals(2, loadCount.get());
+    }
+}
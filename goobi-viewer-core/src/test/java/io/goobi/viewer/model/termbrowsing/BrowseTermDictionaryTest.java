@@ -0,0 +1,148 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.termbrowsing;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class BrowseTermDictionaryTest {
+
+    private static BrowseTermDictionary createDictionary() {
+        List<BrowseTerm> terms = Arrays.asList(new BrowseTerm("1848", null, null).setHitCount(1),
+                new BrowseTerm("Aachen", null, null).setHitCount(2),
+                new BrowseTerm("Abbe, Ernst", null, null).setHitCount(3),
+                new BrowseTerm("Zweig, Stefan", "Adams", null).setHitCount(4),
+                new BrowseTerm("Berlin", null, null).setHitCount(5),
+                new BrowseTerm("Bremen", null, null).setHitCount(6),
+                new BrowseTerm("'Zeitung'", null, null).setHitCount(7));
+        return new BrowseTermDictionary(terms, "'");
+    }
+
+    private static List<String> getTermNames(List<BrowseTerm> terms) {
+        return terms.stream().map(BrowseTerm::getTerm).collect(Collectors.toList());
+    }
+
+    /**
+     * @see BrowseTermDictionary#getCompareKey(BrowseTerm,String)
+     * @verifies prefer sort term
+     */
+    @Test
+    void getCompareKey_shouldPreferSortTerm() throws Exception {
+        Assertions.assertEquals("Adams", BrowseTermDictionary.getCompareKey(new BrowseTerm("Zweig, Stefan", "Adams", null), null));
+        Assertions.assertEquals("Zweig, Stefan", BrowseTermDictionary.getCompareKey(new BrowseTerm("Zweig, Stefan", null, null), null));
+    }
+
+    /**
+     * @see BrowseTermDictionary#getCompareKey(BrowseTerm,String)
+     * @verifies remove ignored leading chars
+     */
+    @Test
+    void getCompareKey_shouldRemoveIgnoredLeadingChars() throws Exception {
+        Assertions.assertEquals("Zeitung'", BrowseTermDictionary.getCompareKey(new BrowseTerm("'Zeitung'", null, null), "'"));
+    }
+
+    /**
+     * @see BrowseTermDictionary#getFilterLetters()
+     * @verifies return all distinct first letters
+     */
+    @Test
+    void getFilterLetters_shouldReturnAllDistinctFirstLetters() throws Exception {
+        List<String> letters = createDictionary().getFilterLetters();
+        Assertions.assertEquals(4, letters.size());
+        Assertions.assertTrue(letters.containsAll(Arrays.asList("1", "A", "B", "Z")));
+    }
+
+    /**
+     * @see BrowseTermDictionary#getTermCount(String)
+     * @verifies return total size if no filter given
+     */
+    @Test
+    void getTermCount_shouldReturnTotalSizeIfNoFilterGiven() throws Exception {
+        BrowseTermDictionary dictionary = createDictionary();
+        Assertions.assertEquals(7, dictionary.getTermCount(null));
+        Assertions.assertEquals(7, dictionary.getTermCount("-"));
+    }
+
+    /**
+     * @see BrowseTermDictionary#getTermCount(String)
+     * @verifies return number of terms matching filter
+     */
+    @Test
+    void getTermCount_shouldReturnNumberOfTermsMatchingFilter() throws Exception {
+        BrowseTermDictionary dictionary = createDictionary();
+        Assertions.assertEquals(3, dictionary.getTermCount("a"));
+        Assertions.assertEquals(1, dictionary.getTermCount("Z"));
+        Assertions.assertEquals(0, dictionary.getTermCount("X"));
+    }
+
+    /**
+     * @see BrowseTermDictionary#getTerms(String,int,int)
+     * @verifies return requested page
+     */
+    @Test
+    void getTerms_shouldReturnRequestedPage() throws Exception {
+        BrowseTermDictionary dictionary = createDictionary();
+        List<BrowseTerm> page = dictionary.getTerms("", 2, 2);
+        Assertions.assertEquals(Arrays.asList("Abbe, Ernst", "Zweig, Stefan"), getTermNames(page));
+        Assertions.assertEquals(3, page.get(0).getHitCount());
+        Assertions.assertEquals("Adams", page.get(1).getSortTerm());
+
+        Assertions.assertEquals(1, dictionary.getTerms("", 6, 10).size());
+        Assertions.assertTrue(dictionary.getTerms("", 7, 10).isEmpty());
+    }
+
+    /**
+     * @see BrowseTermDictionary#getTerms(String,int,int)
+     * @verifies filter by letter
+     */
+    @Test
+    void getTerms_shouldFilterByLetter() throws Exception {
+        BrowseTermDictionary dictionary = createDictionary();
+        Assertions.assertEquals(Arrays.asList("Aachen", "Abbe, Ernst", "Zweig, Stefan"), getTermNames(dictionary.getTerms("A", 0, 10)));
+        Assertions.assertEquals(Arrays.asList("Abbe, Ernst", "Zweig, Stefan"), getTermNames(dictionary.getTerms("A", 1, 10)));
+        Assertions.assertEquals(Arrays.asList("'Zeitung'"), getTermNames(dictionary.getTerms("Z", 0, 10)));
+    }
+
+    /**
+     * @see BrowseTermDictionary#getTerms(String,int,int)
+     * @verifies filter by prefix
+     */
+    @Test
+    void getTerms_shouldFilterByPrefix() throws Exception {
+        BrowseTermDictionary dictionary = createDictionary();
+        Assertions.assertEquals(Arrays.asList("Abbe, Ernst"), getTermNames(dictionary.getTerms("abb", 0, 10)));
+        Assertions.assertEquals(Arrays.asList("Berlin"), getTermNames(dictionary.getTerms("Ber", 0, 10)));
+    }
+
+    /**
+     * @see BrowseTermDictionary#getTerms(String,int,int)
+     * @verifies filter numerical terms
+     */
+    @Test
+    void getTerms_shouldFilterNumericalTerms() throws Exception {
+        Assertions.assertEquals(Arrays.asList("1848"), getTermNames(createDictionary().getTerms("0-9", 0, 10)));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.viewer.collections;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.goobi.viewer.model.search.CollectionResult;
+
+class CollectionHierarchyCacheTest {
+
+    private static Map<String, CollectionResult> createHierarchy(AtomicInteger loadCount) {
+        loadCount.incrementAndGet();
+        Map<String, CollectionResult> ret = new HashMap<>();
+        ret.put("b", new CollectionResult("b", 2));
+        ret.put("a.b", new CollectionResult("a.b", 3));
+        ret.put("a", new CollectionResult("a", 5));
+        return ret;
+    }
+
+    /**
+     * @see CollectionHierarchyCache#buildKey(String,String,String,String)
+     * @verifies return different keys for different queries
+     */
+    @Test
+    void buildKey_shouldReturnDifferentKeysForDifferentQueries() throws Exception {
+        Assertions.assertNotEquals(CollectionHierarchyCache.buildKey("DC", null, "+ISWORK:true", "."),
+                CollectionHierarchyCache.buildKey("DC", null, "+ISWORK:true -ACCESSCONDITION:restricted", "."));
+        Assertions.assertEquals(CollectionHierarchyCache.buildKey("DC", null, "+ISWORK:true", "."),
+                CollectionHierarchyCache.buildKey("DC", null, "+ISWORK:true", "."));
+    }
+
+    /**
+     * @see CollectionHierarchyCache#get(String,CollectionLoader)
+     * @verifies load hierarchy only once
+     */
+    @Test
+    void get_shouldLoadHierarchyOnlyOnce() throws Exception {
+        CollectionHierarchyCache cache = new CollectionHierarchyCache(10, 60000, () -> 1);
+        AtomicInteger loadCount = new AtomicInteger();
+        cache.get("key", () -> createHierarchy(loadCount));
+        Map<String, CollectionResult> result = cache.get("key", () -> createHierarchy(loadCount));
+        Assertions.assertEquals(3, result.size());
+        Assertions.assertEquals(1, loadCount.get());
+        Assertions.assertEquals(1, cache.getSize());
+    }
+
+    /**
+     * @see CollectionHierarchyCache#get(String,CollectionLoader)
+     * @verifies return sorted unmodifiable map
+     */
+    @Test
+    void get_shouldReturnSortedUnmodifiableMap() throws Exception {
+        CollectionHierarchyCache cache = new CollectionHierarchyCache(10, 60000, () -> 1);
+        Map<String, CollectionResult> result = cache.get("key", () -> createHierarchy(new AtomicInteger()));
+        Assertions.assertEquals("[a, a.b, b]", result.keySet().toString());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> result.remove("a"));
+    }
+
+    /**
+     * @see CollectionHierarchyCache#get(String,CollectionLoader)
+     * @verifies not cache empty results
+     */
+    @Test
+    void get_shouldNotCacheEmptyResults() throws Exception {
+        CollectionHierarchyCache cache = new CollectionHierarchyCache(10, 60000, () -> 1);
+        Assertions.assertTrue(cache.get("key", Collections::emptyMap).isEmpty());
+        Assertions.assertEquals(0, cache.getSize());
+    }
+
+    /**
+     * @see CollectionHierarchyCache#get(String,CollectionLoader)
+     * @verifies reload hierarchy if index version changed
+     */
+    @Test
+    void get_shouldReloadHierarchyIfIndexVersionChanged() throws Exception {
+        long[] version = { 1 };
+        CollectionHierarchyCache cache = new CollectionHierarchyCache(10, 0, () -> version[0]);
+        AtomicInteger loadCount = new AtomicInteger();
+        cache.get("key", () -> createHierarchy(loadCount));
+        cache.get("key", () -> createHierarchy(loadCount));
+        Assertions.assertEquals(1, loadCount.get());
+
+        version[0] = 2;
+        Thread.sleep(2);
+        cache.get("key", () -> createHierarchy(loadCount));
+        Assertions.assertEquals(2, loadCount.get());
+    }
+}
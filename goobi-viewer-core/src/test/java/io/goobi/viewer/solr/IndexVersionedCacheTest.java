@@ -0,0 +1,269 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.solr;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.goobi.viewer.exceptions.IndexUnreachableException;
+
+class IndexVersionedCacheTest {
+
+    /**
+     * @see IndexVersionedCache#get(String)
+     * @verifies return null if not cached
+     */
+    @Test
+    void get_shouldReturnNullIfNotCached() throws Exception {
+        IndexVersionedCache<String> cache = new IndexVersionedCache<>("test", 10, 60000, () -> 1);
+        Assertions.assertNull(cache.get("key"));
+    }
+
+    /**
+     * @see IndexVersionedCache#get(String)
+     * @verifies count hits and misses
+     */
+    @Test
+    void get_shouldCountHitsAndMisses() throws Exception {
+        IndexVersionedCache<String> cache = new IndexVersionedCache<>("test", 10, 60000, () -> 1);
+        cache.get("key");
+        cache.put("key", "value", 0);
+        cache.get("key");
+        cache.get("key");
+        Assertions.assertEquals(2, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+    }
+
+    /**
+     * @see IndexVersionedCache#get(String,Loader,Predicate)
+     * @verifies load value only once for concurrent requests
+     */
+    @Test
+    void get_shouldLoadValueOnlyOnceForConcurrentRequests() throws Exception {
+        IndexVersionedCache<String> cache = new IndexVersionedCache<>("test", 10, 60000, () -> 1);
+        AtomicInteger loadCount = new AtomicInteger();
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IndexVersionedCache.Loader<String, IndexUnreachableException> loader = () -> {
+            loadCount.incrementAndGet();
+            loadStarted.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "value";
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> first = executor.submit(() -> cache.get("key", loader, v -> true));
+            Assertions.assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+            Future<String> second = executor.submit(() -> cache.get("key", loader, v -> true));
+            Future<String> third = executor.submit(() -> cache.get("key", loader, v -> true));
+            release.countDown();
+            Assertions.assertEquals("value", first.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals("value", second.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals("value", third.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(1, loadCount.get());
+        Assertions.assertEquals(1, cache.getSize());
+    }
+
+    /**
+     * @see IndexVersionedCache#get(String,Loader,Predicate)
+     * @verifies not cache values rejected by predicate
+     */
+    @Test
+    void get_shouldNotCacheValuesRejectedByPredicate() throws Exception {
+        IndexVersionedCache<String> cache = new IndexVersionedCache<>("test", 10, 60000, () -> 1);
+        Assertions.assertEquals("", cache.get("key", () -> "", v -> !v.isEmpty()));
+        Assertions.assertEquals(0, cache.getSize());
+        Assertions.assertEquals("value", cache.get("key", () -> "value", v -> !v.isEmpty()));
+        Assertions.assertEquals(1, cache.getSize());
+    }
+
+    /**
+     * @see IndexVersionedCache#get(String,Loader,Predicate)
+     * @verifies pass loader exception to waiting requests
+     */
+    @Test
+    void get_shouldPassLoaderExceptionToWaitingRequests() throws Exception {
+        IndexVersionedCache<String> cache = new IndexVersionedCache<>("test", 10, 60000, () -> 1);
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IndexVersionedCache.Loader<String, IndexUnreachableException> loader = () -> {
+            loadStarted.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IndexUnreachableException("offline");
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> cache.get("key", loader, v -> true));
+            Assertions.assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+            Future<String> second = executor.submit(() -> cache.get("key", loader, v -> true));
+            release.countDown();
+            for (Future<String> future : List.of(first, second)) {
+                Throwable t = Assertions.assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+                Assertions.assertInstanceOf(IndexUnreachableException.class, t.getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(0, cache.getSize());
+    }
+
+    /**
+     * @see IndexVersionedCache#get(String,Loader,Predicate)
+     * @verifies return outdated value while reloading it in background
+     */
+    @Test
+    void get_shouldReturnOutdatedValueWhileReloadingItInBackground() throws Exception {
+        long[] version = { 1 };
+        List<Runnable> tasks = new ArrayList<>();
+        IndexVersionedCache<String> cache = new IndexVersionedCache<>("test", 10, Long.MAX_VALUE, 0, () -> version[0], tasks::add);
+        Assertions.assertEquals("old", cache.get("key", () -> "old", v -> true));
+
+        version[0] = 2;
+        Thread.sleep(2);
+        Assertions.assertEquals("old", cache.get("key", () -> "new", v -> true));
+        Assertions.assertEquals("old", cache.get("key", () -> "new", v -> true));
+        Assertions.assertEquals(1, tasks.size());
+
+        tasks.get(0).run();
+        Assertions.assertEquals("new", cache.get("key", () -> "newer", v -> true));
+        Assertions.assertEquals(1, tasks.size());
+    }
+
+    /**
+     * @see IndexVersionedCache#put(String,Object,long)
+     * @verifies evict least recently used entries if max entries exceeded
+     */
+    @Test
+    void put_shouldEvictLeastRecentlyUsedEntriesIfMaxEntriesExceeded() throws Exception {
+        IndexVersionedCache<String> cache = new IndexVersionedCache<>("test", 2, 60000, () -> 1);
+        cache.put("key1", "value1", 0);
+        cache.put("key2", "value2", 0);
+        // Access key1 so that key2 becomes the least recently used entry
+        Assertions.assertNotNull(cache.get("key1"));
+        cache.put("key3", "value3", 0);
+
+        Assertions.assertEquals(2, cache.getSize());
+        Assertions.assertEquals(1, cache.getEvictions());
+        Assertions.assertNull(cache.get("key2"));
+    }
+
+    /**
+     * @see IndexVersionedCache#put(String,Object,long)
+     * @verifies evict entries if max size exceeded
+     */
+    @Test
+    void put_shouldEvictEntriesIfMaxSizeExceeded() throws Exception {
+        IndexVersionedCache<String> cache = new IndexVersionedCache<>("test", 100, 1000, 60000, () -> 1);
+        for (int i = 0; i < 5; ++i) {
+            cache.put("key" + i, "value" + i, 300);
+        }
+        Assertions.assertEquals(3, cache.getSize());
+        Assertions.assertEquals(900, cache.getSizeInBytes());
+        Assertions.assertNotNull(cache.get("key4"));
+    }
+
+    /**
+     * @see IndexVersionedCache#checkIndexVersion()
+     * @verifies clear cache if index version changed
+     */
+    @Test
+    void checkIndexVersion_shouldClearCacheIfIndexVersionChanged() throws Exception {
+        long[] version = { 1 };
+        IndexVersionedCache<String> cache = new IndexVersionedCache<>("test", 10, 0, () -> version[0]);
+        cache.checkIndexVersion();
+        cache.put("key", "value", 0);
+        Assertions.assertNotNull(cache.get("key"));
+
+        version[0] = 2;
+        Thread.sleep(2);
+        Assertions.assertNull(cache.get("key"));
+        Assertions.assertEquals(0, cache.getSize());
+        Assertions.assertEquals(1, cache.getInvalidations());
+    }
+
+    /**
+     * @see IndexVersionedCache#put(String,Object,long,long)
+     * @verifies not add value loaded before index version change
+     */
+    @Test
+    void put_shouldNotAddValueLoadedBeforeIndexVersionChange() throws Exception {
+        long[] version = { 1 };
+        IndexVersionedCache<String> cache = new IndexVersionedCache<>("test", 10, 0, () -> version[0]);
+        long generation = cache.getGeneration();
+
+        // Index changes while the value is being loaded
+        version[0] = 2;
+        Thread.sleep(2);
+        cache.put("key", "value", 0, generation);
+        Assertions.assertNull(cache.get("key"));
+
+        // Same for values loaded via the cache
+        Assertions.assertEquals("value", cache.get("key", () -> {
+            version[0] = 3;
+            Thread.sleep(2);
+            return "value";
+        }, v -> true));
+        Assertions.assertEquals(0, cache.getSize());
+    }
+
+    /**
+     * @see IndexVersionedCache#put(String,Object,long,long)
+     * @verifies add outdated value if refresh executor configured
+     */
+    @Test
+    void put_shouldAddOutdatedValueIfRefreshExecutorConfigured() throws Exception {
+        long[] version = { 1 };
+        List<Runnable> tasks = new ArrayList<>();
+        IndexVersionedCache<String> cache = new IndexVersionedCache<>("test", 10, Long.MAX_VALUE, 0, () -> version[0], tasks::add);
+        long generation = cache.getGeneration();
+
+        version[0] = 2;
+        Thread.sleep(2);
+        cache.put("key", "old", 0, generation);
+        // Outdated value is returned while a reload is scheduled
+        Assertions.assertEquals("old", cache.get("key", () -> "new", v -> true));
+        Assertions.assertEquals(1, tasks.size());
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.solr;
+
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrQuery.ORDER;
+import org.apache.solr.client.solrj.SolrRequest.METHOD;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.util.NamedList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SolrQueryCacheTest {
+
+    private static QueryResponse createResponse(String pi, int fieldLength) {
+        SolrDocument doc = new SolrDocument();
+        doc.setField(SolrConstants.PI, pi);
+        doc.setField("MD_TITLE", "x".repeat(fieldLength));
+        SolrDocumentList docs = new SolrDocumentList();
+        docs.add(doc);
+        docs.setNumFound(1);
+        NamedList<Object> namedList = new NamedList<>();
+        namedList.add("response", docs);
+        return new QueryResponse(namedList, null);
+    }
+
+    private static SolrQuery createQuery(String pi) {
+        return new SolrQuery(SolrConstants.PI + ":" + pi).setRows(10);
+    }
+
+    /**
+     * @see SolrQueryCache#get(SolrQuery,METHOD)
+     * @verifies return null if not cached
+     */
+    @Test
+    void get_shouldReturnNullIfNotCached() throws Exception {
+        SolrQueryCache cache = new SolrQueryCache(10, 1024 * 1024, 60000, () -> 1);
+        Assertions.assertNull(cache.get(createQuery("PPN123"), METHOD.POST));
+    }
+
+    /**
+     * @see SolrQueryCache#get(SolrQuery,METHOD)
+     * @verifies return copy of cached response
+     */
+    @Test
+    void get_shouldReturnCopyOfCachedResponse() throws Exception {
+        SolrQueryCache cache = new SolrQueryCache(10, 1024 * 1024, 60000, () -> 1);
+        cache.put(createQuery("PPN123"), METHOD.POST, createResponse("PPN123", 10));
+
+        QueryResponse resp = cache.get(createQuery("PPN123"), METHOD.POST);
+        Assertions.assertNotNull(resp);
+        Assertions.assertEquals(1, resp.getResults().size());
+        Assertions.assertEquals("PPN123", resp.getResults().get(0).getFieldValue(SolrConstants.PI));
+
+        // Modifying the returned doc may not affect the cached doc
+        resp.getResults().get(0).setField(SolrConstants.PI, "changed");
+        resp.getResults().clear();
+        QueryResponse resp2 = cache.get(createQuery("PPN123"), METHOD.POST);
+        Assertions.assertEquals(1, resp2.getResults().size());
+        Assertions.assertEquals("PPN123", resp2.getResults().get(0).getFieldValue(SolrConstants.PI));
+    }
+
+    /**
+     * @see SolrQueryCache#get(SolrQuery,METHOD)
+     * @verifies count hits and misses
+     */
+    @Test
+    void get_shouldCountHitsAndMisses() throws Exception {
+        SolrQueryCache cache = new SolrQueryCache(10, 1024 * 1024, 60000, () -> 1);
+        cache.get(createQuery("PPN123"), METHOD.POST);
+        cache.put(createQuery("PPN123"), METHOD.POST, createResponse("PPN123", 10));
+        cache.get(createQuery("PPN123"), METHOD.POST);
+        cache.get(createQuery("PPN123"), METHOD.POST);
+        Assertions.assertEquals(2, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+    }
+
+    /**
+     * @see SolrQueryCache#put(SolrQuery,METHOD,QueryResponse)
+     * @verifies evict least recently used entries if max entries exceeded
+     */
+    @Test
+    void put_shouldEvictLeastRecentlyUsedEntriesIfMaxEntriesExceeded() throws Exception {
+        SolrQueryCache cache = new SolrQueryCache(2, 1024 * 1024, 60000, () -> 1);
+        cache.put(createQuery("PPN1"), METHOD.POST, createResponse("PPN1", 10));
+        cache.put(createQuery("PPN2"), METHOD.POST, createResponse("PPN2", 10));
+        // Access PPN1 so that PPN2 becomes the least recently used entry
+        Assertions.assertNotNull(cache.get(createQuery("PPN1"), METHOD.POST));
+        cache.put(createQuery("PPN3"), METHOD.POST, createResponse("PPN3", 10));
+
+        Assertions.assertEquals(2, cache.getSize());
+        Assertions.assertEquals(1, cache.getEvictions());
+        Assertions.assertNotNull(cache.get(createQuery("PPN1"), METHOD.POST));
+        Assertions.assertNull(cache.get(createQuery("PPN2"), METHOD.POST));
+        Assertions.assertNotNull(cache.get(createQuery("PPN3"), METHOD.POST));
+    }
+
+    /**
+     * @see SolrQueryCache#put(SolrQuery,METHOD,QueryResponse)
+     * @verifies evict entries if max size exceeded
+     */
+    @Test
+    void put_shouldEvictEntriesIfMaxSizeExceeded() throws Exception {
+        SolrQueryCache cache = new SolrQueryCache(100, 10000, 60000, () -> 1);
+        for (int i = 0; i < 10; ++i) {
+            cache.put(createQuery("PPN" + i), METHOD.POST, createResponse("PPN" + i, 1000));
+        }
+        Assertions.assertTrue(cache.getSizeInBytes() <= 10000);
+        Assertions.assertTrue(cache.getEvictions() > 0);
+        Assertions.assertNotNull(cache.get(createQuery("PPN9"), METHOD.POST));
+    }
+
+    /**
+     * @see SolrQueryCache#put(SolrQuery,METHOD,QueryResponse)
+     * @verifies not add response larger than quarter of budget
+     */
+    @Test
+    void put_shouldNotAddResponseLargerThanQuarterOfBudget() throws Exception {
+        SolrQueryCache cache = new SolrQueryCache(100, 10000, 60000, () -> 1);
+        cache.put(createQuery("PPN123"), METHOD.POST, createResponse("PPN123", 5000));
+        Assertions.assertEquals(0, cache.getSize());
+    }
+
+    /**
+     * @see SolrQueryCache#checkIndexVersion()
+     * @verifies clear cache if index version changed
+     */
+    @Test
+    void checkIndexVersion_shouldClearCacheIfIndexVersionChanged() throws Exception {
+        long[] version = { 1 };
+        SolrQueryCache cache = new SolrQueryCache(10, 1024 * 1024, 0, () -> version[0]);
+        cache.checkIndexVersion();
+        cache.put(createQuery("PPN123"), METHOD.POST, createResponse("PPN123", 10));
+        Assertions.assertNotNull(cache.get(createQuery("PPN123"), METHOD.POST));
+
+        version[0] = 2;
+        Thread.sleep(2);
+        Assertions.assertNull(cache.get(createQuery("PPN123"), METHOD.POST));
+        Assertions.assertEquals(0, cache.getSize());
+    }
+
+    /**
+     * @see SolrQueryCache#put(SolrQuery,METHOD,QueryResponse,long)
+     * @verifies not add response if index version changed during query
+     */
+    @Test
+    void put_shouldNotAddResponseIfIndexVersionChangedDuringQuery() throws Exception {
+        long[] version = { 1 };
+        SolrQueryCache cache = new SolrQueryCache(10, 1024 * 1024, 0, () -> version[0]);
+        long generation = cache.getGeneration();
+
+        version[0] = 2;
+        Thread.sleep(2);
+        cache.put(createQuery("PPN123"), METHOD.POST, createResponse("PPN123", 10), generation);
+        Assertions.assertNull(cache.get(createQuery("PPN123"), METHOD.POST));
+        Assertions.assertEquals(0, cache.getSize());
+    }
+
+    /**
+     * @see SolrQueryCache#isCacheable(SolrQuery)
+     * @verifies return false for random sort
+     */
+    @Test
+    void isCacheable_shouldReturnFalseForRandomSort() throws Exception {
+        SolrQuery query = createQuery("PPN123");
+        query.addSort("random_12345", ORDER.asc);
+        Assertions.assertFalse(SolrQueryCache.isCacheable(query));
+    }
+
+    /**
+     * @see SolrQueryCache#isCacheable(SolrQuery)
+     * @verifies return false for cursor queries
+     */
+    @Test
+    void isCacheable_shouldReturnFalseForCursorQueries() throws Exception {
+        SolrQuery query = createQuery("PPN123");
+        query.set(CursorMarkParams.CURSOR_MARK_PARAM, CursorMarkParams.CURSOR_MARK_START);
+        Assertions.assertFalse(SolrQueryCache.isCacheable(query));
+    }
+
+    /**
+     * @see SolrQueryCache#buildKey(SolrQuery,METHOD)
+     * @verifies return same key regardless of filter query order
+     */
+    @Test
+    void buildKey_shouldReturnSameKeyRegardlessOfFilterQueryOrder() throws Exception {
+        SolrQuery query1 = createQuery("PPN123");
+        query1.addFilterQuery("DC:a", "DC:b");
+        SolrQuery query2 = createQuery("PPN123");
+        query2.addFilterQuery("DC:b", "DC:a");
+        Assertions.assertEquals(SolrQueryCache.buildKey(query1, METHOD.POST), SolrQueryCache.buildKey(query2, METHOD.POST));
+    }
+
+    /**
+     * @see SolrQueryCache#buildKey(SolrQuery,METHOD)
+     * @verifies return different keys for different rows
+     */
+    @Test
+    void buildKey_shouldReturnDifferentKeysForDifferentRows() throws Exception {
+        SolrQuery query1 = createQuery("PPN123");
+        SolrQuery query2 = createQuery("PPN123").setRows(20);
+        Assertions.assertNotEquals(SolrQueryCache.buildKey(query1, METHOD.POST), SolrQueryCache.buildKey(query2, METHOD.POST));
+    }
+}
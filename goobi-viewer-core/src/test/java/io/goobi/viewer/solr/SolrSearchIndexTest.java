@@ -26,6 +26,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -151,6 +152,109 @@ class SolrSearchIndexTest extends AbstractSolrEnabledTest {
         }
     }
 
+    /**
+     * @see SolrSearchIndex#stream(String,List,List,List,int,SolrDocumentConsumer)
+     * @verifies pass all matching docs to consumer
+     */
+    @Test
+    void stream_shouldPassAllMatchingDocsToConsumer() throws Exception {
+        String query = SolrConstants.PI_TOPSTRUCT + ":" + PI_KLEIUNIV + " AND " + SolrConstants.DOCTYPE + ":PAGE";
+        long expected = DataManager.getInstance().getSearchIndex().getHitCount(query);
+        Assertions.assertTrue(expected > 10);
+        Set<String> iddocs = new HashSet<>();
+        long count = DataManager.getInstance()
+                .getSearchIndex()
+                .stream(query, null, Collections.singletonList(SolrConstants.IDDOC), null, 10,
+                        doc -> iddocs.add((String) doc.getFieldValue(SolrConstants.IDDOC)));
+        Assertions.assertEquals(expected, count);
+        Assertions.assertEquals(expected, iddocs.size());
+    }
+
+    /**
+     * @see SolrSearchIndex#stream(String,List,List,List,int,SolrDocumentConsumer)
+     * @verifies pass docs in correct order
+     */
+    @Test
+    void stream_shouldPassDocsInCorrectOrder() throws Exception {
+        String query = SolrConstants.PI_TOPSTRUCT + ":" + PI_KLEIUNIV + " AND " + SolrConstants.DOCTYPE + ":PAGE";
+        List<Integer> orders = new ArrayList<>();
+        DataManager.getInstance()
+                .getSearchIndex()
+                .stream(query, Collections.singletonList(new StringPair(SolrConstants.ORDER, "asc")),
+                        Collections.singletonList(SolrConstants.ORDER), null, 7, doc -> orders.add((Integer) doc.getFieldValue(SolrConstants.ORDER)));
+        Assertions.assertFalse(orders.isEmpty());
+        for (int i = 1; i < orders.size(); ++i) {
+            Assertions.assertTrue(orders.get(i - 1) <= orders.get(i));
+        }
+    }
+
+    /**
+     * @see SolrSearchIndex#stream(String,List,List,List,int,SolrDocumentConsumer)
+     * @verifies return zero if no docs found
+     */
+    @Test
+    void stream_shouldReturnZeroIfNoDocsFound() throws Exception {
+        long count = DataManager.getInstance().getSearchIndex().stream(SolrConstants.PI + ":NOTFOUND", null, null, null, 10, doc -> {
+            Assertions.fail("No docs expected");
+        });
+        Assertions.assertEquals(0, count);
+    }
+
+    /**
+     * @see SolrSearchIndex#streamWhile(String,List,List,List,int,SolrDocumentHandler)
+     * @verifies stop when handler returns false
+     */
+    @Test
+    void streamWhile_shouldStopWhenHandlerReturnsFalse() throws Exception {
+        String query = SolrConstants.PI_TOPSTRUCT + ":" + PI_KLEIUNIV + " AND " + SolrConstants.DOCTYPE + ":PAGE";
+        Assertions.assertTrue(DataManager.getInstance().getSearchIndex().getHitCount(query) > 10);
+        List<SolrDocument> docs = new ArrayList<>();
+        long count = DataManager.getInstance()
+                .getSearchIndex()
+                .streamWhile(query, null, Collections.singletonList(SolrConstants.IDDOC), null, 3, doc -> {
+                    docs.add(doc);
+                    return docs.size() < 5;
+                });
+        Assertions.assertEquals(5, count);
+        Assertions.assertEquals(5, docs.size());
+    }
+
+    /**
+     * @see SolrSearchIndex#getCursorSortFields(List)
+     * @verifies add iddoc if missing
+     */
+    @Test
+    void getCursorSortFields_shouldAddIddocIfMissing() throws Exception {
+        List<StringPair> result = SolrSearchIndex.getCursorSortFields(Collections.singletonList(new StringPair(SolrConstants.ORDER, "asc")));
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals(SolrConstants.ORDER, result.get(0).getOne());
+        Assertions.assertEquals(SolrConstants.IDDOC, result.get(1).getOne());
+    }
+
+    /**
+     * @see SolrSearchIndex#getCursorSortFields(List)
+     * @verifies not add iddoc twice
+     */
+    @Test
+    void getCursorSortFields_shouldNotAddIddocTwice() throws Exception {
+        List<StringPair> result = SolrSearchIndex.getCursorSortFields(Collections.singletonList(new StringPair(SolrConstants.IDDOC, "desc")));
+        Assertions.assertEquals(1, result.size());
+        Assertions.assertEquals("desc", result.get(0).getTwo());
+    }
+
+    /**
+     * @see SolrSearchIndex#getCursorSortFields(List)
+     * @verifies replace relevance with score
+     */
+    @Test
+    void getCursorSortFields_shouldReplaceRelevanceWithScore() throws Exception {
+        List<StringPair> result =
+                SolrSearchIndex.getCursorSortFields(Collections.singletonList(new StringPair(SolrConstants.SORT_RELEVANCE, null)));
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals("score", result.get(0).getOne());
+        Assertions.assertEquals("desc", result.get(0).getTwo());
+    }
+
     /**
      * @see SolrSearchIndex#searchFacetsAndStatistics(String,List,boolean)
      * @verifies generate facets correctly
@@ -232,6 +336,39 @@ class SolrSearchIndexTest extends AbstractSolrEnabledTest {
         Assertions.assertEquals(String.valueOf(iddocKleiuniv), doc.getFieldValue(SolrConstants.IDDOC));
     }
 
+    /**
+     * @see SolrSearchIndex#getDocumentsByIddocs(Collection)
+     * @verifies return all docs for given iddocs
+     */
+    @Test
+    void getDocumentsByIddocs_shouldReturnAllDocsForGivenIddocs() throws Exception {
+        String query = SolrConstants.PI_TOPSTRUCT + ":" + PI_KLEIUNIV + " AND " + SolrConstants.DOCTYPE + ":" + SolrConstants.DocType.DOCSTRCT.name();
+        List<String> iddocs = new ArrayList<>();
+        for (SolrDocument doc : DataManager.getInstance()
+                .getSearchIndex()
+                .search(query, 0, 5, null, null, Collections.singletonList(SolrConstants.IDDOC))
+                .getResults()) {
+            iddocs.add((String) doc.getFieldValue(SolrConstants.IDDOC));
+        }
+        Assertions.assertEquals(5, iddocs.size());
+        iddocs.add("-1");
+
+        Map<String, SolrDocument> result = DataManager.getInstance().getSearchIndex().getDocumentsByIddocs(iddocs);
+        Assertions.assertEquals(5, result.size());
+        for (int i = 0; i < 5; ++i) {
+            Assertions.assertEquals(iddocs.get(i), result.get(iddocs.get(i)).getFieldValue(SolrConstants.IDDOC));
+        }
+    }
+
+    /**
+     * @see SolrSearchIndex#getDocumentsByIddocs(Collection)
+     * @verifies return empty map if iddocs empty
+     */
+    @Test
+    void getDocumentsByIddocs_shouldReturnEmptyMapIfIddocsEmpty() throws Exception {
+        Assertions.assertTrue(DataManager.getInstance().getSearchIndex().getDocumentsByIddocs(Collections.emptyList()).isEmpty());
+    }
+
     /**
      * @see SolrSearchIndex#getIddocFromIdentifier(String)
      * @verifies retrieve correct IDDOC